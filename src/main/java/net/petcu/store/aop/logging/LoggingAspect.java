@@ -110,6 +110,20 @@ public class LoggingAspect {
                 ex.getOrderStatus()
             );
             case DiscountCodeNotFoundException ignored -> logger(joinPoint).error("Failed to add item to order: discount code not found");
+            case MalformedImportException ex -> logger(joinPoint).error(
+                "Failed to import products: malformed record={} after imported={}",
+                ex.getRecord(),
+                ex.getImported()
+            );
+            case InvalidImageException ex -> logger(joinPoint).error("Failed to store product image: {}", ex.getReason());
+            case PriceLockTimeoutException ex -> logger(joinPoint).error(
+                "Failed to change price: timed out waiting for the lock of productId={}",
+                ex.getProductId()
+            );
+            case PriceStreamFullException ex -> logger(joinPoint).error(
+                "Failed to subscribe to the price stream: maxSubscribers={} reached",
+                ex.getMaxSubscribers()
+            );
         }
     }
 
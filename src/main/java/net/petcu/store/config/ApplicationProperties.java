@@ -1,6 +1,9 @@
 package net.petcu.store.config;
 
+import java.time.Duration;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Hipster Store.
@@ -13,12 +16,42 @@ public class ApplicationProperties {
 
     private final Liquibase liquibase = new Liquibase();
 
+    private final Search search = new Search();
+
+    private final Catalog catalog = new Catalog();
+
+    private final Images images = new Images();
+
+    private final Sales sales = new Sales();
+
+    private final PriceStream priceStream = new PriceStream();
+
     // jhipster-needle-application-properties-property
 
     public Liquibase getLiquibase() {
         return liquibase;
     }
 
+    public Search getSearch() {
+        return search;
+    }
+
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public Images getImages() {
+        return images;
+    }
+
+    public Sales getSales() {
+        return sales;
+    }
+
+    public PriceStream getPriceStream() {
+        return priceStream;
+    }
+
     // jhipster-needle-application-properties-property-getter
 
     public static class Liquibase {
@@ -33,5 +66,334 @@ public class ApplicationProperties {
             this.asyncStart = asyncStart;
         }
     }
+
+    public static class Search {
+
+        /**
+         * How {@code /api/products/search} matches products.
+         */
+        public enum Mode {
+            /** Case-insensitive substring match on the name, ordered by id. */
+            CONTAINS,
+            /** PostgreSQL full-text search on name and description combined with trigram similarity, ordered by relevance. */
+            FULL_TEXT,
+        }
+
+        private Mode mode = Mode.CONTAINS;
+
+        private int indexBatchSize = 1000;
+
+        private Duration consistencyCheckDelay = Duration.ofHours(1);
+
+        private int suggestTopK = 10;
+
+        private Duration suggestRankingRefreshDelay = Duration.ofMinutes(10);
+
+        private int resultCacheSize = 1000;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getIndexBatchSize() {
+            return indexBatchSize;
+        }
+
+        public void setIndexBatchSize(int indexBatchSize) {
+            this.indexBatchSize = indexBatchSize;
+        }
+
+        public Duration getConsistencyCheckDelay() {
+            return consistencyCheckDelay;
+        }
+
+        public void setConsistencyCheckDelay(Duration consistencyCheckDelay) {
+            this.consistencyCheckDelay = consistencyCheckDelay;
+        }
+
+        public int getSuggestTopK() {
+            return suggestTopK;
+        }
+
+        public void setSuggestTopK(int suggestTopK) {
+            this.suggestTopK = suggestTopK;
+        }
+
+        public Duration getSuggestRankingRefreshDelay() {
+            return suggestRankingRefreshDelay;
+        }
+
+        public void setSuggestRankingRefreshDelay(Duration suggestRankingRefreshDelay) {
+            this.suggestRankingRefreshDelay = suggestRankingRefreshDelay;
+        }
+
+        public int getResultCacheSize() {
+            return resultCacheSize;
+        }
+
+        public void setResultCacheSize(int resultCacheSize) {
+            this.resultCacheSize = resultCacheSize;
+        }
+    }
+
+    public static class Catalog {
+
+        private int defaultPageSize = 20;
+
+        private int maxPageSize = 100;
+
+        private boolean snapshotEnabled = true;
+
+        private int importChunkSize = 1000;
+
+        private int maxLookupIds = 500;
+
+        private List<Double> priceFacetBounds = List.of(10.0, 25.0, 50.0, 100.0, 250.0);
+
+        private int relatedTopK = 10;
+
+        private String relatedRebuildCron = "0 30 3 * * ?";
+
+        private PriceLock priceLock = PriceLock.ADVISORY;
+
+        private Duration priceLockTimeout = Duration.ofSeconds(5);
+
+        private int scheduledPriceEventLimit = 100;
+
+        public int getDefaultPageSize() {
+            return defaultPageSize;
+        }
+
+        public void setDefaultPageSize(int defaultPageSize) {
+            this.defaultPageSize = defaultPageSize;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+
+        public boolean isSnapshotEnabled() {
+            return snapshotEnabled;
+        }
+
+        public void setSnapshotEnabled(boolean snapshotEnabled) {
+            this.snapshotEnabled = snapshotEnabled;
+        }
+
+        public int getImportChunkSize() {
+            return importChunkSize;
+        }
+
+        public void setImportChunkSize(int importChunkSize) {
+            this.importChunkSize = importChunkSize;
+        }
+
+        public int getMaxLookupIds() {
+            return maxLookupIds;
+        }
+
+        public void setMaxLookupIds(int maxLookupIds) {
+            this.maxLookupIds = maxLookupIds;
+        }
+
+        public List<Double> getPriceFacetBounds() {
+            return priceFacetBounds;
+        }
+
+        public void setPriceFacetBounds(List<Double> priceFacetBounds) {
+            this.priceFacetBounds = priceFacetBounds;
+        }
+
+        public int getRelatedTopK() {
+            return relatedTopK;
+        }
+
+        public void setRelatedTopK(int relatedTopK) {
+            this.relatedTopK = relatedTopK;
+        }
+
+        public String getRelatedRebuildCron() {
+            return relatedRebuildCron;
+        }
+
+        public void setRelatedRebuildCron(String relatedRebuildCron) {
+            this.relatedRebuildCron = relatedRebuildCron;
+        }
+
+        public PriceLock getPriceLock() {
+            return priceLock;
+        }
+
+        public void setPriceLock(PriceLock priceLock) {
+            this.priceLock = priceLock;
+        }
+
+        public Duration getPriceLockTimeout() {
+            return priceLockTimeout;
+        }
+
+        public void setPriceLockTimeout(Duration priceLockTimeout) {
+            this.priceLockTimeout = priceLockTimeout;
+        }
+
+        public int getScheduledPriceEventLimit() {
+            return scheduledPriceEventLimit;
+        }
+
+        public void setScheduledPriceEventLimit(int scheduledPriceEventLimit) {
+            this.scheduledPriceEventLimit = scheduledPriceEventLimit;
+        }
+
+        /**
+         * How price changes of the same product are serialized.
+         */
+        public enum PriceLock {
+            /**
+             * PostgreSQL transaction-level advisory locks, shared by every instance of the application.
+             */
+            ADVISORY,
+            /**
+             * In-memory locks, for a single instance of the application.
+             */
+            LOCAL,
+        }
+    }
+
+    public static class Images {
+
+        private String directory = "data/images";
+
+        private DataSize maxSize = DataSize.ofMegabytes(5);
+
+        private int maxPixels = 40_000_000;
+
+        private int thumbnailSize = 256;
+
+        private int thumbnailThreads = 2;
+
+        private int thumbnailQueueCapacity = 100;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getMaxPixels() {
+            return maxPixels;
+        }
+
+        public void setMaxPixels(int maxPixels) {
+            this.maxPixels = maxPixels;
+        }
+
+        public int getThumbnailSize() {
+            return thumbnailSize;
+        }
+
+        public void setThumbnailSize(int thumbnailSize) {
+            this.thumbnailSize = thumbnailSize;
+        }
+
+        public int getThumbnailThreads() {
+            return thumbnailThreads;
+        }
+
+        public void setThumbnailThreads(int thumbnailThreads) {
+            this.thumbnailThreads = thumbnailThreads;
+        }
+
+        public int getThumbnailQueueCapacity() {
+            return thumbnailQueueCapacity;
+        }
+
+        public void setThumbnailQueueCapacity(int thumbnailQueueCapacity) {
+            this.thumbnailQueueCapacity = thumbnailQueueCapacity;
+        }
+    }
+
+    public static class Sales {
+
+        private int topSellers = 100;
+
+        private int topSellersCapacity = 1000;
+
+        public int getTopSellers() {
+            return topSellers;
+        }
+
+        public void setTopSellers(int topSellers) {
+            this.topSellers = topSellers;
+        }
+
+        public int getTopSellersCapacity() {
+            return topSellersCapacity;
+        }
+
+        public void setTopSellersCapacity(int topSellersCapacity) {
+            this.topSellersCapacity = topSellersCapacity;
+        }
+    }
+
+    public static class PriceStream {
+
+        private int bufferSize = 256;
+
+        private int replaySize = 1024;
+
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        private int maxSubscribers = 100;
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
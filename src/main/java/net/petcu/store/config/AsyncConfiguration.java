@@ -25,8 +25,11 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties, ApplicationProperties applicationProperties) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
@@ -41,6 +44,39 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * Fixed pool with a bounded queue for product thumbnails: when it is full, submissions are rejected instead of
+     * piling up behind a burst of uploads.
+     */
+    @Bean(name = "thumbnailExecutor")
+    public ThreadPoolTaskExecutor thumbnailExecutor() {
+        LOG.debug("Creating Thumbnail Task Executor");
+        ApplicationProperties.Images images = applicationProperties.getImages();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(images.getThumbnailThreads());
+        executor.setMaxPoolSize(images.getThumbnailThreads());
+        executor.setQueueCapacity(images.getThumbnailQueueCapacity());
+        executor.setThreadNamePrefix("thumbnail-");
+        return executor;
+    }
+
+    /**
+     * Pool writing price stream events to the subscribers, with a thread for each of the subscribers the stream admits:
+     * a subscriber has at most one task submitted or running, so a client slow to read only blocks its own writer and
+     * tasks never wait in the queue. Idle threads are let go.
+     */
+    @Bean(name = "priceStreamExecutor")
+    public ThreadPoolTaskExecutor priceStreamExecutor() {
+        LOG.debug("Creating Price Stream Task Executor");
+        ApplicationProperties.PriceStream priceStream = applicationProperties.getPriceStream();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(priceStream.getMaxSubscribers());
+        executor.setMaxPoolSize(priceStream.getMaxSubscribers());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("price-stream-");
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -22,8 +22,9 @@ public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final javax.cache.configuration.Configuration<Object, Object> searchResultsConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
         jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
@@ -35,6 +36,16 @@ public class CacheConfiguration {
                 .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
                 .build()
         );
+        // sized separately, as entries are small id arrays and stale generations are only removed by eviction or expiry
+        searchResultsConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class,
+                Object.class,
+                ResourcePoolsBuilder.heap(applicationProperties.getSearch().getResultCacheSize())
+            )
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
+                .build()
+        );
     }
 
     @Bean
@@ -51,22 +62,33 @@ public class CacheConfiguration {
             createCache(cm, net.petcu.store.domain.Authority.class.getName());
             createCache(cm, net.petcu.store.domain.User.class.getName() + ".authorities");
             createCache(cm, net.petcu.store.domain.Product.class.getName());
+            createCache(cm, net.petcu.store.domain.Product.class.getName() + ".tags");
+            createCache(cm, net.petcu.store.domain.Tag.class.getName());
             createCache(cm, net.petcu.store.domain.Price.class.getName());
             createCache(cm, net.petcu.store.domain.PricedProduct.class.getName());
             createCache(cm, net.petcu.store.domain.OrderItem.class.getName());
             createCache(cm, net.petcu.store.domain.Discount.class.getName());
             createCache(cm, net.petcu.store.domain.Order.class.getName());
             createCache(cm, net.petcu.store.domain.Order.class.getName() + ".orderItems");
+            createCache(cm, net.petcu.store.service.catalog.ProductSearchCache.SEARCH_RESULTS_CACHE, searchResultsConfiguration);
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, jcacheConfiguration);
+    }
+
+    private void createCache(
+        javax.cache.CacheManager cm,
+        String cacheName,
+        javax.cache.configuration.Configuration<Object, Object> configuration
+    ) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, configuration);
         }
     }
 
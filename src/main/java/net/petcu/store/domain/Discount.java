@@ -3,6 +3,7 @@ package net.petcu.store.domain;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.UUID;
 import net.petcu.store.domain.enumeration.DiscountType;
 import org.hibernate.annotations.Cache;
@@ -35,8 +36,13 @@ public class Discount implements Serializable {
     @Column(name = "used")
     private Boolean used;
 
+    // for a FIXED discount, the amount taken off
     @Column(name = "amount")
-    private Double amount;
+    private Money amount;
+
+    // for a PERCENTAGE discount, the percentage taken off: 12.50 takes 12.5% off
+    @Column(name = "percentage", precision = 21, scale = 2)
+    private BigDecimal percentage;
 
     @JsonIgnoreProperties(value = { "user", "orderItems", "discount" }, allowSetters = true)
     @OneToOne(fetch = FetchType.LAZY, mappedBy = "discount")
@@ -96,19 +102,32 @@ public class Discount implements Serializable {
         this.used = used;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
         return this.amount;
     }
 
-    public Discount amount(Double amount) {
+    public Discount amount(Money amount) {
         this.setAmount(amount);
         return this;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
+    public BigDecimal getPercentage() {
+        return this.percentage;
+    }
+
+    public Discount percentage(BigDecimal percentage) {
+        this.setPercentage(percentage);
+        return this;
+    }
+
+    public void setPercentage(BigDecimal percentage) {
+        this.percentage = percentage;
+    }
+
     public Order getOrder() {
         return this.order;
     }
@@ -156,6 +175,7 @@ public class Discount implements Serializable {
             ", discountType='" + getDiscountType() + "'" +
             ", used='" + getUsed() + "'" +
             ", amount=" + getAmount() +
+            ", percentage=" + getPercentage() +
             "}";
     }
 }
@@ -0,0 +1,152 @@
+package net.petcu.store.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An amount of money in whole minor units of its currency, cents for the {@link #CURRENCY} of the store, so that
+ * adding and multiplying amounts is exact integer arithmetic.
+ * <p>
+ * Stored as a {@code bigint} of minor units by the {@link MoneyConverter}, and written in JSON as a decimal number with
+ * the scale of the currency ({@code 12.50}); read from JSON numbers and decimal strings.
+ * <p>
+ * Amounts given by clients, in JSON, request parameters or imported files, are {@link #ofExact exact}: one with more
+ * decimals than the currency is rejected, never rounded. Amounts the store computes, such as the percentage of a
+ * discount, are rounded half-even to the scale of the currency by {@link #of(BigDecimal)}, the only rounding of money.
+ *
+ * @param minorUnits the amount, in minor units of the currency.
+ * @param currency the currency.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public record Money(long minorUnits, Currency currency) implements Serializable, Comparable<Money> {
+    /**
+     * The currency of every price and order of the store.
+     */
+    public static final Currency CURRENCY = Currency.getInstance("EUR");
+
+    public static final int SCALE = CURRENCY.getDefaultFractionDigits();
+
+    public static final Money ZERO = new Money(0, CURRENCY);
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, CURRENCY);
+    }
+
+    /**
+     * Money of a decimal amount, rounded half-even to the scale of the currency.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long} of minor units.
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Money of a decimal amount given by a client, which must not have more decimals than the currency.
+     *
+     * @throws ArithmeticException if the amount has more decimals than the currency, or does not fit in a {@code long}
+     * of minor units.
+     */
+    public static Money ofExact(BigDecimal amount) {
+        return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Money of a decimal amount written as a {@code double}. Its shortest decimal representation is rounded, so
+     * {@code 0.1} is exactly ten cents.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long} of minor units.
+     * @throws NumberFormatException if the amount is not finite.
+     */
+    public static Money of(double amount) {
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Money of a decimal amount given by a client as text, see {@link #ofExact}.
+     *
+     * @throws NumberFormatException if the text is not a decimal number.
+     * @throws ArithmeticException if the amount has more decimals than the currency, or does not fit in a {@code long}
+     * of minor units.
+     */
+    public static Money parse(String amount) {
+        return ofExact(new BigDecimal(amount.strip()));
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    /**
+     * The amount as a {@code double}, for the catalog indexes sorting and bucketing prices.
+     */
+    public double toDouble() {
+        return toBigDecimal().doubleValue();
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot compare " + currency + " with " + other.currency);
+        }
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+
+    static final class Serializer extends StdSerializer<Money> {
+
+        Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toBigDecimal().toPlainString());
+        }
+    }
+
+    static final class Deserializer extends StdDeserializer<Money> {
+
+        Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (!p.currentToken().isNumeric() && p.currentToken() != JsonToken.VALUE_STRING) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                return p.currentToken().isNumeric() ? ofExact(p.getDecimalValue()) : parse(p.getText());
+            } catch (NumberFormatException | ArithmeticException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), "not an amount of money");
+            }
+        }
+    }
+}
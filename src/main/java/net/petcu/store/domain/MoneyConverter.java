@@ -0,0 +1,27 @@
+package net.petcu.store.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores every {@link Money} attribute as a {@code bigint} of minor units of {@link Money#CURRENCY}.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        if (!Money.CURRENCY.equals(attribute.currency())) {
+            throw new IllegalArgumentException("Only " + Money.CURRENCY + " amounts can be stored, not " + attribute);
+        }
+        return attribute.minorUnits();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long dbData) {
+        return dbData == null ? null : Money.ofMinor(dbData);
+    }
+}
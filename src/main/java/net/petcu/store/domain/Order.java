@@ -31,10 +31,10 @@ public class Order implements Serializable {
     private Instant date;
 
     @Column(name = "subtotal")
-    private Double subtotal = 0.0d;
+    private Money subtotal = Money.ZERO;
 
     @Column(name = "final_price")
-    private Double finalPrice = 0.0d;
+    private Money finalPrice = Money.ZERO;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
@@ -81,29 +81,29 @@ public class Order implements Serializable {
         this.date = date;
     }
 
-    public Double getSubtotal() {
+    public Money getSubtotal() {
         return this.subtotal;
     }
 
-    public Order subtotal(Double subtotal) {
+    public Order subtotal(Money subtotal) {
         this.setSubtotal(subtotal);
         return this;
     }
 
-    public void setSubtotal(Double subtotal) {
+    public void setSubtotal(Money subtotal) {
         this.subtotal = subtotal;
     }
 
-    public Double getFinalPrice() {
+    public Money getFinalPrice() {
         return this.finalPrice;
     }
 
-    public Order finalPrice(Double finalPrice) {
+    public Order finalPrice(Money finalPrice) {
         this.setFinalPrice(finalPrice);
         return this;
     }
 
-    public void setFinalPrice(Double finalPrice) {
+    public void setFinalPrice(Money finalPrice) {
         this.finalPrice = finalPrice;
     }
 
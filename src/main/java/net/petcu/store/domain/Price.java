@@ -23,7 +23,11 @@ public class Price implements Serializable {
     private Long id;
 
     @Column(name = "value")
-    private Double value;
+    private Money value;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
@@ -40,19 +44,27 @@ public class Price implements Serializable {
         this.id = id;
     }
 
-    public Double getValue() {
+    public Money getValue() {
         return this.value;
     }
 
-    public Price value(Double value) {
+    public Price value(Money value) {
         this.setValue(value);
         return this;
     }
 
-    public void setValue(Double value) {
+    public void setValue(Money value) {
         this.value = value;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
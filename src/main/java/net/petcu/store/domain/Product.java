@@ -2,6 +2,8 @@ package net.petcu.store.domain;
 
 import jakarta.persistence.*;
 import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 
@@ -10,7 +12,8 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
  */
 @Entity
 @Table(name = "product")
-@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// lazy attributes are loaded on access and kept out of the second-level cache entries
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, includeLazy = false)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Product implements Serializable {
 
@@ -25,9 +28,29 @@ public class Product implements Serializable {
     @Column(name = "name")
     private String name;
 
+    /**
+     * Lazy once the entity classes are enhanced at build time (see the {@code hibernate-enhance} Maven profile), so that
+     * loading a product, directly or through an association, does not read its possibly large description.
+     */
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "description")
     private String description;
 
+    /**
+     * File name of the image in the content-addressed image store, the image bytes themselves are kept on disk.
+     */
+    @Column(name = "image", length = 80)
+    private String image;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "rel_product__tag", joinColumns = @JoinColumn(name = "product_id"), inverseJoinColumns = @JoinColumn(name = "tag_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Tag> tags = new HashSet<>();
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -69,6 +92,50 @@ public class Product implements Serializable {
         this.description = description;
     }
 
+    public String getImage() {
+        return this.image;
+    }
+
+    public Product image(String image) {
+        this.setImage(image);
+        return this;
+    }
+
+    public void setImage(String image) {
+        this.image = image;
+    }
+
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Set<Tag> getTags() {
+        return this.tags;
+    }
+
+    public void setTags(Set<Tag> tags) {
+        this.tags = tags;
+    }
+
+    public Product tags(Set<Tag> tags) {
+        this.setTags(tags);
+        return this;
+    }
+
+    public Product addTag(Tag tag) {
+        this.tags.add(tag);
+        return this;
+    }
+
+    public Product removeTag(Tag tag) {
+        this.tags.remove(tag);
+        return this;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -94,7 +161,7 @@ public class Product implements Serializable {
         return "Product{" +
             "id=" + getId() +
             ", name='" + getName() + "'" +
-            ", description='" + getDescription() + "'" +
+            ", image='" + getImage() + "'" +
             "}";
     }
 }
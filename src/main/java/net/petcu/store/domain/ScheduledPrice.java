@@ -0,0 +1,133 @@
+package net.petcu.store.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A ScheduledPrice, which becomes the active {@link Price} of its {@link Product} at its effective date.
+ * <p>
+ * Not cached: prices are activated in bulk with JDBC, which sets the applied date.
+ */
+@Entity
+@Table(name = "scheduled_price")
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class ScheduledPrice implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "value", nullable = false)
+    private Money value;
+
+    @Column(name = "effective_date", nullable = false)
+    private Instant effectiveDate;
+
+    @Column(name = "applied_date")
+    private Instant appliedDate;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Product product;
+
+    // jhipster-needle-entity-add-field - JHipster will add fields here
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public ScheduledPrice id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Money getValue() {
+        return this.value;
+    }
+
+    public ScheduledPrice value(Money value) {
+        this.setValue(value);
+        return this;
+    }
+
+    public void setValue(Money value) {
+        this.value = value;
+    }
+
+    public Instant getEffectiveDate() {
+        return this.effectiveDate;
+    }
+
+    public ScheduledPrice effectiveDate(Instant effectiveDate) {
+        this.setEffectiveDate(effectiveDate);
+        return this;
+    }
+
+    public void setEffectiveDate(Instant effectiveDate) {
+        this.effectiveDate = effectiveDate;
+    }
+
+    public Instant getAppliedDate() {
+        return this.appliedDate;
+    }
+
+    public ScheduledPrice appliedDate(Instant appliedDate) {
+        this.setAppliedDate(appliedDate);
+        return this;
+    }
+
+    public void setAppliedDate(Instant appliedDate) {
+        this.appliedDate = appliedDate;
+    }
+
+    public Product getProduct() {
+        return this.product;
+    }
+
+    public ScheduledPrice product(Product product) {
+        this.setProduct(product);
+        return this;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ScheduledPrice)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((ScheduledPrice) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ScheduledPrice{" +
+            "id=" + getId() +
+            ", value=" + getValue() +
+            ", effectiveDate='" + getEffectiveDate() + "'" +
+            ", appliedDate='" + getAppliedDate() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,20 @@
+package net.petcu.store.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an uploaded product image is not a supported image, or is too large.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+@Getter
+public final class InvalidImageException extends StoreException {
+
+    private final String reason;
+
+    public InvalidImageException(String reason) {
+        super("Invalid image: " + reason);
+        this.reason = reason;
+    }
+}
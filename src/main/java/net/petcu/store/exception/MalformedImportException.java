@@ -0,0 +1,22 @@
+package net.petcu.store.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a bulk import cannot be parsed. Chunks read before the malformed record stay committed.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+@Getter
+public final class MalformedImportException extends StoreException {
+
+    private final long record;
+    private final long imported;
+
+    public MalformedImportException(String reason, long record, long imported) {
+        super("Malformed record " + record + " (" + reason + "), " + imported + " records were imported before it");
+        this.record = record;
+        this.imported = imported;
+    }
+}
@@ -1,5 +1,6 @@
 package net.petcu.store.exception;
 
+import java.math.BigDecimal;
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -8,9 +9,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @Getter
 public final class PaymentFailedException extends StoreException {
 
-    private final Double finalPrice;
+    private final BigDecimal finalPrice;
 
-    public PaymentFailedException(String message, Double finalPrice) {
+    public PaymentFailedException(String message, BigDecimal finalPrice) {
         super(message);
         this.finalPrice = finalPrice;
     }
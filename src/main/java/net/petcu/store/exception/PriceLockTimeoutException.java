@@ -0,0 +1,22 @@
+package net.petcu.store.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the price of a product cannot be changed because other price changes of the same product held
+ * its lock for longer than {@code application.catalog.price-lock-timeout}.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+@Getter
+public final class PriceLockTimeoutException extends StoreException {
+
+    // null when the product is one of several locked at once
+    private final Long productId;
+
+    public PriceLockTimeoutException(Long productId) {
+        super("Timed out waiting for the price lock of " + (productId == null ? "several products" : "product " + productId));
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,21 @@
+package net.petcu.store.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a client subscribes to the price stream while {@code application.price-stream.max-subscribers}
+ * are already subscribed, each of them holding a writer thread.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+@Getter
+public final class PriceStreamFullException extends StoreException {
+
+    private final int maxSubscribers;
+
+    public PriceStreamFullException(int maxSubscribers) {
+        super("The price stream already has its maximum of " + maxSubscribers + " subscribers");
+        this.maxSubscribers = maxSubscribers;
+    }
+}
@@ -9,7 +9,11 @@ public abstract sealed class StoreException
         ProductNotFoundException,
         PaymentFailedException,
         InvalidOrderStatusException,
-        DiscountCodeNotFoundException {
+        DiscountCodeNotFoundException,
+        MalformedImportException,
+        InvalidImageException,
+        PriceLockTimeoutException,
+        PriceStreamFullException {
 
     protected StoreException(String message) {
         super(message);
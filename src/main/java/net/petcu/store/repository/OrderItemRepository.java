@@ -2,7 +2,9 @@ package net.petcu.store.repository;
 
 import java.util.List;
 import java.util.Optional;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.OrderItem;
+import net.petcu.store.domain.enumeration.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -39,4 +41,77 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
         "select orderItem from OrderItem orderItem left join fetch orderItem.product left join fetch orderItem.price where orderItem.id =:id"
     )
     Optional<OrderItem> findOneWithToOneRelationships(@Param("id") Long id);
+
+    /**
+     * Number of orders in the given status containing each product.
+     */
+    @Query(
+        "select orderItem.product.id as productId, count(distinct orderItem.order.id) as orders from OrderItem orderItem" +
+        " where orderItem.order.status = :status group by orderItem.product.id"
+    )
+    List<ProductOrderCount> countOrdersByProduct(@Param("status") OrderStatus status);
+
+    /**
+     * Number of orders in the given status containing each other product together with the given one, most first.
+     */
+    @Query(
+        "select other.product.id as productId, count(distinct other.order.id) as orders from OrderItem orderItem" +
+        " join OrderItem other on other.order = orderItem.order and other.product <> orderItem.product" +
+        " where orderItem.product.id = :productId and orderItem.order.status = :status" +
+        " group by other.product.id order by count(distinct other.order.id) desc, other.product.id"
+    )
+    List<ProductOrderCount> countOrdersWithProduct(
+        @Param("productId") Long productId,
+        @Param("status") OrderStatus status,
+        Pageable pageable
+    );
+
+    /**
+     * The lines of an order with the name of their product, reading neither the description nor whole entities.
+     */
+    @Query(
+        "select orderItem.id as id, product.id as productId, product.name as name, price.value as price," +
+        " orderItem.quantity as quantity from OrderItem orderItem join orderItem.product product left join orderItem.price price" +
+        " where orderItem.order.id = :orderId order by orderItem.id"
+    )
+    List<OrderItemSummary> findSummariesByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Keyset scan over the products of the orders in the given status, used to rebuild the products bought together.
+     */
+    @Query(
+        "select orderItem.id as id, orderItem.order.id as orderId, orderItem.product.id as productId from OrderItem orderItem" +
+        " where orderItem.order.status = :status and orderItem.id > :afterId order by orderItem.id"
+    )
+    List<OrderProduct> findOrderProductsByStatusAndIdGreaterThan(
+        @Param("status") OrderStatus status,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    interface ProductOrderCount {
+        Long getProductId();
+
+        Long getOrders();
+    }
+
+    interface OrderItemSummary {
+        Long getId();
+
+        Long getProductId();
+
+        String getName();
+
+        Money getPrice();
+
+        Long getQuantity();
+    }
+
+    interface OrderProduct {
+        Long getId();
+
+        Long getOrderId();
+
+        Long getProductId();
+    }
 }
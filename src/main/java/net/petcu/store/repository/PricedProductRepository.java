@@ -1,10 +1,14 @@
 package net.petcu.store.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.PricedProduct;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -37,4 +41,98 @@ public interface PricedProductRepository extends JpaRepository<PricedProduct, Lo
     Optional<PricedProduct> findLatestActiveByProductId(@Param("productId") Long productId);
 
     List<PricedProduct> findByProductIdAndActiveTrue(Long productId);
+
+    @Query(
+        "select pricedProduct.id as pricedProductId, pricedProduct.product.id as productId, price.id as priceId, price.value as value" +
+        " from PricedProduct pricedProduct join pricedProduct.price price" +
+        " where pricedProduct.product.id in :productIds and pricedProduct.active = true order by pricedProduct.id"
+    )
+    List<ActivePrice> findActivePricesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query(
+        "select pricedProduct.id as pricedProductId, pricedProduct.product.id as productId, price.id as priceId, price.value as value" +
+        " from PricedProduct pricedProduct join pricedProduct.price price" +
+        " where price.id = :priceId and pricedProduct.active = true order by pricedProduct.id"
+    )
+    List<ActivePrice> findActivePricesByPriceId(@Param("priceId") Long priceId);
+
+    /**
+     * Keyset scan over active prices, used to (re)build in-memory indexes without loading entities.
+     */
+    @Query(
+        "select pricedProduct.id as pricedProductId, pricedProduct.product.id as productId, price.id as priceId, price.value as value" +
+        " from PricedProduct pricedProduct join pricedProduct.price price" +
+        " where pricedProduct.id > :afterId and pricedProduct.active = true order by pricedProduct.id"
+    )
+    List<ActivePrice> findActivePricesByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Keyset scan over the prices of a product that became active from {@code (afterDate, afterId)} until {@code to},
+     * a range scan of the {@code (product_id, updated_date)} index.
+     */
+    @Query(
+        "select pricedProduct.id as pricedProductId, price.id as priceId, price.value as value," +
+        " pricedProduct.updatedDate as effectiveDate, pricedProduct.active as active" +
+        " from PricedProduct pricedProduct join pricedProduct.price price" +
+        " where pricedProduct.product.id = :productId and pricedProduct.updatedDate < :to" +
+        " and (pricedProduct.updatedDate > :afterDate or (pricedProduct.updatedDate = :afterDate and pricedProduct.id > :afterId))" +
+        " order by pricedProduct.updatedDate, pricedProduct.id"
+    )
+    Slice<PricePoint> findPriceHistory(
+        @Param("productId") Long productId,
+        @Param("afterDate") Instant afterDate,
+        @Param("afterId") Long afterId,
+        @Param("to") Instant to,
+        Pageable pageable
+    );
+
+    /**
+     * The prices of a product that became active at or before {@code at}, latest first, a backward range scan of the
+     * {@code (product_id, updated_date)} index. The first one was the active price at that time.
+     */
+    @Query(
+        "select pricedProduct.id as pricedProductId, price.id as priceId, price.value as value," +
+        " pricedProduct.updatedDate as effectiveDate, pricedProduct.active as active" +
+        " from PricedProduct pricedProduct join pricedProduct.price price" +
+        " where pricedProduct.product.id = :productId and pricedProduct.updatedDate <= :at" +
+        " order by pricedProduct.updatedDate desc, pricedProduct.id desc"
+    )
+    List<PricePoint> findPricesActiveAt(@Param("productId") Long productId, @Param("at") Instant at, Pageable pageable);
+
+    @Query(
+        "select pricedProduct.version as version, product.version as productVersion, price.version as priceVersion" +
+        " from PricedProduct pricedProduct left join pricedProduct.product product left join pricedProduct.price price" +
+        " where pricedProduct.id = :id"
+    )
+    Optional<Versions> findVersionsById(@Param("id") Long id);
+
+    interface ActivePrice {
+        Long getPricedProductId();
+
+        Long getProductId();
+
+        Long getPriceId();
+
+        Money getValue();
+    }
+
+    interface PricePoint {
+        Long getPricedProductId();
+
+        Long getPriceId();
+
+        Money getValue();
+
+        Instant getEffectiveDate();
+
+        Boolean getActive();
+    }
+
+    interface Versions {
+        Long getVersion();
+
+        Long getProductVersion();
+
+        Long getPriceVersion();
+    }
 }
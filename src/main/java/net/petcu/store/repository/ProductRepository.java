@@ -1,8 +1,21 @@
 package net.petcu.store.repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,5 +24,129 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    Optional<ProductView> findViewById(Long id);
+
+    Slice<ProductView> findViewsByIdGreaterThan(Long id, Pageable pageable);
+
+    Page<ProductView> findViewsByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    List<ProductView> findViewsByIdIn(Collection<Long> ids);
+
+    /**
+     * Ranked search over the {@code search_vector} full-text column and the trigram index on the name, see the
+     * {@code added_product_search} changelog. Products are ordered by relevance, so the pageable must not be sorted.
+     */
+    @Query(
+        value = "select product.id as id, product.name as name, product.description as description from product product" +
+        " where product.search_vector @@ websearch_to_tsquery('english', :query) or product.name % :query" +
+        " order by ts_rank(product.search_vector, websearch_to_tsquery('english', :query)) + similarity(product.name, :query) desc," +
+        " product.id",
+        countQuery = "select count(*) from product product" +
+        " where product.search_vector @@ websearch_to_tsquery('english', :query) or product.name % :query",
+        nativeQuery = true
+    )
+    Page<ProductView> searchFullText(@Param("query") String query, Pageable pageable);
+
+    Slice<Product> findByIdGreaterThan(Long id, Pageable pageable);
+
+    List<IdAndName> findByNameStartingWithIgnoreCaseOrderByName(String prefix, Pageable pageable);
+
+    Optional<VersionedProductView> findVersionedViewById(Long id);
+
+    @Query("select product.image from Product product where product.id = :id")
+    Optional<String> findImageById(@Param("id") Long id);
+
+    /**
+     * Keyset scan over product names, used to (re)build in-memory indexes without loading entities.
+     */
+    @Query("select product.id as id, product.name as name from Product product where product.id > :afterId order by product.id")
+    List<IdAndName> findIdAndNameByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select product.id from Product product where product.id > :afterId order by product.id")
+    List<Long> findIdsByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Keyset page of product summaries with their active price, reading neither the description nor whole entities.
+     */
+    @Query(
+        "select product.id as id, product.name as name, price.value as price from Product product" +
+        " left join PricedProduct pricedProduct on pricedProduct.product = product and pricedProduct.active = true" +
+        " left join pricedProduct.price price where product.id > :afterId order by product.id"
+    )
+    Slice<ProductSummary> findSummariesByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Summaries of the given products with their active price, in no particular order.
+     */
+    @Query(
+        "select product.id as id, product.name as name, price.value as price from Product product" +
+        " left join PricedProduct pricedProduct on pricedProduct.product = product and pricedProduct.active = true" +
+        " left join pricedProduct.price price where product.id in :ids"
+    )
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Forward-only scan of every product with its active price, fetched from the database {@link #EXPORT_FETCH_SIZE} rows
+     * at a time. The returned stream must be consumed inside a transaction and closed.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false"),
+        }
+    )
+    @Query(
+        "select product.id as id, product.name as name, product.description as description," +
+        " price.id as priceId, price.value as price from Product product" +
+        " left join PricedProduct pricedProduct on pricedProduct.product = product and pricedProduct.active = true" +
+        " left join pricedProduct.price price order by product.id"
+    )
+    Stream<CatalogEntry> streamCatalog();
+
+    /**
+     * Read-only projection of the product columns. Queries returning it select only those columns and skip building,
+     * dirty-check snapshotting and second-level caching of managed entities. It is a class rather than an interface
+     * projection, so rows are passed to its constructor instead of being wrapped in one proxy per row.
+     */
+    record ProductView(Long id, String name, String description) {}
+
+    /**
+     * {@link ProductView} together with the version of the same row.
+     */
+    record VersionedProductView(Long id, String name, String description, Long version) {
+        public ProductView product() {
+            return new ProductView(id, name, description);
+        }
+    }
+
+    interface ProductSummary {
+        Long getId();
+
+        String getName();
+
+        Money getPrice();
+    }
+
+    interface IdAndName {
+        Long getId();
+
+        String getName();
+    }
+
+    interface CatalogEntry {
+        Long getId();
+
+        String getName();
+
+        String getDescription();
+
+        Long getPriceId();
+
+        Money getPrice();
+    }
 }
@@ -0,0 +1,52 @@
+package net.petcu.store.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import net.petcu.store.domain.ScheduledPrice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the ScheduledPrice entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface ScheduledPriceRepository extends JpaRepository<ScheduledPrice, Long> {
+    /**
+     * Keyset scan over the prices not applied yet, used to recover the scheduler without loading entities.
+     */
+    @Query(
+        "select scheduledPrice.id as id, scheduledPrice.effectiveDate as effectiveDate from ScheduledPrice scheduledPrice" +
+        " where scheduledPrice.id > :afterId and scheduledPrice.appliedDate is null order by scheduledPrice.id"
+    )
+    List<Pending> findPendingByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Mark the prices of the batch not applied yet as applied and return them, the latest effective one of a product
+     * last. A price another transaction is claiming is waited for and, once that one commits, no longer returned, so
+     * each price is claimed by a single transaction.
+     */
+    @Query(
+        value = "with claimed as (update scheduled_price set applied_date = :appliedDate" +
+        " where id in (:ids) and applied_date is null returning id, product_id, value, effective_date)" +
+        " select claimed.product_id as \"productId\", claimed.value as \"valueMinor\" from claimed" +
+        " order by claimed.effective_date, claimed.id",
+        nativeQuery = true
+    )
+    List<Claimed> claimDue(@Param("ids") Collection<Long> ids, @Param("appliedDate") Instant appliedDate);
+
+    interface Pending {
+        Long getId();
+
+        Instant getEffectiveDate();
+    }
+
+    interface Claimed {
+        Long getProductId();
+
+        Long getValueMinor();
+    }
+}
@@ -0,0 +1,26 @@
+package net.petcu.store.repository;
+
+import java.util.Collection;
+import java.util.List;
+import net.petcu.store.domain.Tag;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the Tag entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+    List<Tag> findByNameIn(Collection<String> names);
+
+    @Query("select tag.name from Product product join product.tags tag where product.id = :productId order by tag.name")
+    List<String> findNamesByProductId(@Param("productId") Long productId);
+
+    /**
+     * Ids of the products carrying the tag, used to build the in-memory tag index without loading entities.
+     */
+    @Query("select product.id from Product product join product.tags tag where tag.id = :tagId")
+    List<Long> findProductIdsByTagId(@Param("tagId") Long tagId);
+}
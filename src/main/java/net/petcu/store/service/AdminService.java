@@ -1,7 +1,16 @@
 package net.petcu.store.service;
 
+import java.time.Instant;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.service.dto.ScheduledPriceDTO;
 
 public interface AdminService {
-    PricedProduct changePrice(Long productId, Double newPrice);
+    PricedProduct changePrice(Long productId, Money newPrice);
+
+    /**
+     * Schedule a price to become the active price of a product at {@code effectiveDate}, or as soon as possible if that
+     * date has passed.
+     */
+    ScheduledPriceDTO schedulePrice(Long productId, Money newPrice, Instant effectiveDate);
 }
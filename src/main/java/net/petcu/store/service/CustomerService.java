@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.UUID;
 import net.petcu.store.domain.Product;
 import net.petcu.store.service.dto.OrderDTO;
+import net.petcu.store.service.dto.OrderItemSummaryDTO;
 
 public interface CustomerService {
     OrderDTO createOrder();
@@ -14,5 +15,7 @@ public interface CustomerService {
 
     OrderDTO finalizeOrder(Long orderId);
 
+    List<OrderItemSummaryDTO> findOrderItems(Long orderId);
+
     List<Product> findProductsByName(String name);
 }
@@ -0,0 +1,148 @@
+package net.petcu.store.service;
+
+import java.util.List;
+import java.util.Optional;
+import net.petcu.store.domain.Price;
+import net.petcu.store.repository.PriceRepository;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.catalog.ProductPriceLock;
+import net.petcu.store.service.event.PriceChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation for managing {@link net.petcu.store.domain.Price}.
+ * <p>
+ * Editing the value of a price reprices every product it is the active price of: those products are locked with the
+ * {@link ProductPriceLock} like any other price change, and a {@link PriceChangedEvent} is published for each of them.
+ */
+@Service
+@Transactional
+public class PriceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceService.class);
+
+    private final PriceRepository priceRepository;
+
+    private final PricedProductRepository pricedProductRepository;
+
+    private final ProductPriceLock productPriceLock;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public PriceService(
+        PriceRepository priceRepository,
+        PricedProductRepository pricedProductRepository,
+        ProductPriceLock productPriceLock,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
+        this.priceRepository = priceRepository;
+        this.pricedProductRepository = pricedProductRepository;
+        this.productPriceLock = productPriceLock;
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    /**
+     * Save a price.
+     *
+     * @param price the entity to save.
+     * @return the persisted entity.
+     */
+    public Price save(Price price) {
+        LOG.debug("Request to save Price : {}", price);
+        return priceRepository.save(price);
+    }
+
+    /**
+     * Update a price.
+     *
+     * @param price the entity to save.
+     * @return the persisted entity.
+     */
+    public Price update(Price price) {
+        LOG.debug("Request to update Price : {}", price);
+        List<PricedProductRepository.ActivePrice> repriced = lockRepricedProducts(price.getId());
+        // clients may omit the version, so update the managed entity instead of merging a detached one
+        Price existingPrice = priceRepository.findById(price.getId()).orElseThrow();
+        existingPrice.setValue(price.getValue());
+        return published(priceRepository.save(existingPrice), repriced);
+    }
+
+    /**
+     * Partially update a price.
+     *
+     * @param price the entity to update partially.
+     * @return the persisted entity.
+     */
+    public Optional<Price> partialUpdate(Price price) {
+        LOG.debug("Request to partially update Price : {}", price);
+        List<PricedProductRepository.ActivePrice> repriced = lockRepricedProducts(price.getId());
+
+        return priceRepository
+            .findById(price.getId())
+            .map(existingPrice -> {
+                if (price.getValue() != null) {
+                    existingPrice.setValue(price.getValue());
+                }
+
+                return existingPrice;
+            })
+            .map(priceRepository::save)
+            .map(saved -> published(saved, repriced));
+    }
+
+    /**
+     * Get all the prices.
+     *
+     * @return the list of entities.
+     */
+    @Transactional(readOnly = true)
+    public List<Price> findAll() {
+        LOG.debug("Request to get all Prices");
+        return priceRepository.findAll();
+    }
+
+    /**
+     * Get one price by id.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Price> findOne(Long id) {
+        LOG.debug("Request to get Price : {}", id);
+        return priceRepository.findById(id);
+    }
+
+    /**
+     * Delete the price by id. A price still referenced by a priced product cannot be deleted.
+     *
+     * @param id the id of the entity.
+     */
+    public void delete(Long id) {
+        LOG.debug("Request to delete Price : {}", id);
+        priceRepository.deleteById(id);
+    }
+
+    /**
+     * @return the active prices using the price, whose products are now locked until the transaction completes.
+     */
+    private List<PricedProductRepository.ActivePrice> lockRepricedProducts(Long priceId) {
+        List<PricedProductRepository.ActivePrice> repriced = pricedProductRepository.findActivePricesByPriceId(priceId);
+        productPriceLock.lockAll(repriced.stream().map(PricedProductRepository.ActivePrice::getProductId).toList());
+        // read again under the locks, the active prices of these products may have changed while waiting for them
+        return repriced.isEmpty() ? repriced : pricedProductRepository.findActivePricesByPriceId(priceId);
+    }
+
+    private Price published(Price price, List<PricedProductRepository.ActivePrice> repriced) {
+        for (PricedProductRepository.ActivePrice active : repriced) {
+            applicationEventPublisher.publishEvent(
+                new PriceChangedEvent(active.getProductId(), active.getPricedProductId(), price.getId(), price.getValue())
+            );
+        }
+        return price;
+    }
+}
@@ -4,8 +4,11 @@ import java.util.List;
 import java.util.Optional;
 import net.petcu.store.domain.PricedProduct;
 import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.catalog.ProductPriceLock;
+import net.petcu.store.service.event.PricedProductChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -13,6 +16,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service Implementation for managing {@link net.petcu.store.domain.PricedProduct}.
+ * <p>
+ * A product has at most one active priced product: activating one takes the {@link ProductPriceLock} of its product
+ * and deactivates the one active before.
  */
 @Service
 @Transactional
@@ -22,8 +28,18 @@ public class PricedProductService {
 
     private final PricedProductRepository pricedProductRepository;
 
-    public PricedProductService(PricedProductRepository pricedProductRepository) {
+    private final ProductPriceLock productPriceLock;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public PricedProductService(
+        PricedProductRepository pricedProductRepository,
+        ProductPriceLock productPriceLock,
+        ApplicationEventPublisher applicationEventPublisher
+    ) {
         this.pricedProductRepository = pricedProductRepository;
+        this.productPriceLock = productPriceLock;
+        this.applicationEventPublisher = applicationEventPublisher;
     }
 
     /**
@@ -34,7 +50,10 @@ public class PricedProductService {
      */
     public PricedProduct save(PricedProduct pricedProduct) {
         LOG.debug("Request to save PricedProduct : {}", pricedProduct);
-        return pricedProductRepository.save(pricedProduct);
+        if (Boolean.TRUE.equals(pricedProduct.getActive())) {
+            deactivateActive(productId(pricedProduct), pricedProduct.getId());
+        }
+        return published(pricedProductRepository.save(pricedProduct));
     }
 
     /**
@@ -45,7 +64,21 @@ public class PricedProductService {
      */
     public PricedProduct update(PricedProduct pricedProduct) {
         LOG.debug("Request to update PricedProduct : {}", pricedProduct);
-        return pricedProductRepository.save(pricedProduct);
+        // clients may omit the version, so update the managed entity instead of merging a detached one
+        PricedProduct existingPricedProduct = pricedProductRepository.findById(pricedProduct.getId()).orElseThrow();
+        Long previousProductId = productId(existingPricedProduct);
+        if (Boolean.TRUE.equals(pricedProduct.getActive())) {
+            deactivateActive(productId(pricedProduct), pricedProduct.getId());
+        }
+        existingPricedProduct.setActive(pricedProduct.getActive());
+        existingPricedProduct.setUpdatedDate(pricedProduct.getUpdatedDate());
+        existingPricedProduct.setProduct(pricedProduct.getProduct());
+        existingPricedProduct.setPrice(pricedProduct.getPrice());
+        PricedProduct result = published(pricedProductRepository.save(existingPricedProduct));
+        if (previousProductId != null && !previousProductId.equals(productId(result))) {
+            applicationEventPublisher.publishEvent(new PricedProductChangedEvent(result.getId(), previousProductId));
+        }
+        return result;
     }
 
     /**
@@ -61,6 +94,9 @@ public class PricedProductService {
             .findById(pricedProduct.getId())
             .map(existingPricedProduct -> {
                 if (pricedProduct.getActive() != null) {
+                    if (pricedProduct.getActive()) {
+                        deactivateActive(productId(existingPricedProduct), existingPricedProduct.getId());
+                    }
                     existingPricedProduct.setActive(pricedProduct.getActive());
                 }
                 if (pricedProduct.getUpdatedDate() != null) {
@@ -69,7 +105,8 @@ public class PricedProductService {
 
                 return existingPricedProduct;
             })
-            .map(pricedProductRepository::save);
+            .map(pricedProductRepository::save)
+            .map(this::published);
     }
 
     /**
@@ -92,6 +129,18 @@ public class PricedProductService {
         return pricedProductRepository.findAllWithEagerRelationships(pageable);
     }
 
+    /**
+     * Get the versions of the "id" pricedProduct and of its product, without loading them.
+     *
+     * @param id the id of the entity.
+     * @return the versions.
+     */
+    @Transactional(readOnly = true)
+    public Optional<PricedProductRepository.Versions> findVersions(Long id) {
+        LOG.debug("Request to get the versions of PricedProduct : {}", id);
+        return pricedProductRepository.findVersionsById(id);
+    }
+
     /**
      * Get one pricedProduct by id.
      *
@@ -111,6 +160,36 @@ public class PricedProductService {
      */
     public void delete(Long id) {
         LOG.debug("Request to delete PricedProduct : {}", id);
+        Long productId = pricedProductRepository.findById(id).map(PricedProductService::productId).orElse(null);
         pricedProductRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new PricedProductChangedEvent(id, productId));
+    }
+
+    /**
+     * Deactivate the active priced product of a product, other than {@code keptId}, before another one is activated.
+     * Concurrent activations of the product wait for this transaction to complete.
+     */
+    private void deactivateActive(Long productId, Long keptId) {
+        if (productId == null) {
+            return;
+        }
+        productPriceLock.lock(productId);
+        List<PricedProduct> active = pricedProductRepository
+            .findByProductIdAndActiveTrue(productId)
+            .stream()
+            .filter(pricedProduct -> !pricedProduct.getId().equals(keptId))
+            .toList();
+        active.forEach(pricedProduct -> pricedProduct.setActive(false));
+        // Hibernate inserts before it updates, the unique active price index needs the old price deactivated first
+        pricedProductRepository.saveAllAndFlush(active);
+    }
+
+    private PricedProduct published(PricedProduct pricedProduct) {
+        applicationEventPublisher.publishEvent(new PricedProductChangedEvent(pricedProduct.getId(), productId(pricedProduct)));
+        return pricedProduct;
+    }
+
+    private static Long productId(PricedProduct pricedProduct) {
+        return pricedProduct.getProduct() == null ? null : pricedProduct.getProduct().getId();
     }
 }
@@ -0,0 +1,72 @@
+package net.petcu.store.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.dto.CatalogEntryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service streaming the whole {@link net.petcu.store.domain.Product} catalog as newline-delimited JSON.
+ * <p>
+ * Rows are read through a forward-only cursor and written as they arrive, so memory use does not depend on the size of
+ * the catalog.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductExportService.class);
+
+    private final ProductRepository productRepository;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public ProductExportService(ProductRepository productRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every product with its active price to the output, one JSON object per line.
+     * The output is flushed and the persistence context cleared after every fetched batch.
+     *
+     * @param out the output to write to, left open.
+     * @return the number of exported products.
+     * @throws IOException if the output cannot be written.
+     */
+    @Transactional(readOnly = true)
+    public long exportCatalog(OutputStream out) throws IOException {
+        LOG.debug("Request to export the Product catalog");
+        long count = 0;
+        try (
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Stream<ProductRepository.CatalogEntry> entries = productRepository.streamCatalog()
+        ) {
+            generator.setRootValueSeparator(null);
+            Iterator<ProductRepository.CatalogEntry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                ProductRepository.CatalogEntry entry = iterator.next();
+                Double price = entry.getPrice() == null ? null : entry.getPrice().toDouble();
+                generator.writeObject(new CatalogEntryDTO(entry.getId(), entry.getName(), entry.getDescription(), price));
+                generator.writeRaw('\n');
+                if (++count % ProductRepository.EXPORT_FETCH_SIZE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        LOG.debug("Exported {} Products", count);
+        return count;
+    }
+}
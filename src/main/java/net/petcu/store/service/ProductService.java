@@ -1,8 +1,22 @@
 package net.petcu.store.service;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import net.petcu.store.service.catalog.PriceRange;
+import net.petcu.store.service.catalog.ProductPriceIndex;
+import net.petcu.store.service.catalog.TagFilter;
+import net.petcu.store.service.dto.CatalogEntryDTO;
+import net.petcu.store.service.dto.PricePointDTO;
 import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductSearchResultDTO;
+import net.petcu.store.service.dto.ProductSuggestionDTO;
+import net.petcu.store.service.dto.ProductSummaryDTO;
+import net.petcu.store.service.dto.TagCountDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 /**
  * Service Interface for managing {@link net.petcu.store.domain.Product}.
@@ -33,11 +47,162 @@ public interface ProductService {
     Optional<ProductDTO> partialUpdate(ProductDTO productDTO);
 
     /**
-     * Get all the products.
+     * Get a page of products, ordered by id, starting after the given id.
+     * The page is a {@link Slice}, so no {@code count(*)} query is issued.
      *
-     * @return the list of entities.
+     * @param afterId the id of the last product of the previous page, or {@code null} for the first page.
+     * @param size the requested page size, capped to the configured maximum.
+     * @return the slice of entities.
      */
-    List<ProductDTO> findAll();
+    Slice<ProductDTO> findAllAfter(Long afterId, Integer size);
+
+    /**
+     * Get a page of product summaries, ordered by id, starting after the given id.
+     *
+     * @param afterId the id of the last product of the previous page, or {@code null} for the first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @return the slice of summaries, with the value of the active price of each product.
+     */
+    Slice<ProductSummaryDTO> findSummariesAfter(Long afterId, Integer size);
+
+    /**
+     * Get a page of the products matching a tag filter, ordered by id.
+     *
+     * @param filter the tag filter.
+     * @param afterId the id of the last product of the previous page, or {@code null} for the first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @return the slice of entities.
+     */
+    Slice<ProductDTO> findAllByTags(TagFilter filter, Long afterId, Integer size);
+
+    /**
+     * Get a page of the products whose active price is within a range, ordered by price then id. Products without an
+     * active price are left out.
+     *
+     * @param range the price range.
+     * @param filter the tag filter, possibly empty.
+     * @param descending whether the most expensive products come first.
+     * @param after the price and id of the last product of the previous page, or {@code null} for the first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @return the slice of entities, with the price they were ordered by.
+     */
+    Slice<CatalogEntryDTO> findAllByPrice(
+        PriceRange range,
+        TagFilter filter,
+        boolean descending,
+        ProductPriceIndex.Entry after,
+        Integer size
+    );
+
+    /**
+     * Get every tag with the number of products carrying it.
+     *
+     * @return the tags, ordered by name.
+     */
+    List<TagCountDTO> findAllTags();
+
+    /**
+     * Get the tags of the "id" product.
+     *
+     * @param id the id of the entity.
+     * @return the normalized tag names, ordered.
+     */
+    List<String> findTags(Long id);
+
+    /**
+     * Replace the tags of the "id" product, creating the tags that do not exist yet.
+     *
+     * @param id the id of the entity.
+     * @param tags the tag names, normalized before use.
+     * @return the normalized tag names, ordered.
+     */
+    List<String> updateTags(Long id, Collection<String> tags);
+
+    /**
+     * Search products, matching them as configured by {@code application.search.mode}.
+     * Full-text results are ordered by relevance, substring matches by id; the sort of the pageable is ignored.
+     *
+     * @param query the search terms.
+     * @param pageable the pagination information.
+     * @return the page of matching entities.
+     */
+    Page<ProductDTO> search(String query, Pageable pageable);
+
+    /**
+     * Search products whose name contains the query, ignoring case, ordered by id, and count the facets of every match.
+     *
+     * @param query the substring to look for.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the page of matching products, the number of matches and their facet counts.
+     */
+    ProductSearchResultDTO searchWithFacets(String query, Pageable pageable);
+
+    /**
+     * Suggest products whose name starts with the prefix, ignoring case, most ordered first.
+     *
+     * @param prefix the beginning of the name.
+     * @param limit the maximum number of suggestions, capped to {@code application.search.suggest-top-k}.
+     * @return the suggestions.
+     */
+    List<ProductSuggestionDTO> suggest(String prefix, Integer limit);
+
+    /**
+     * Get the products most often bought together with a product, from the paid orders.
+     *
+     * @param id the id of the product.
+     * @param limit the maximum number of products, capped to {@code application.catalog.related-top-k}.
+     * @return the summaries of the related products, most often bought together first.
+     */
+    List<ProductSummaryDTO> findRelated(Long id, Integer limit);
+
+    /**
+     * Get a page of the prices of a product that became active over a period, in the order they did.
+     *
+     * @param id the id of the product.
+     * @param from the beginning of the period, inclusive, or none for the first price.
+     * @param to the end of the period, exclusive, or none for now.
+     * @param after the effective date and priced product id of the last price of the previous page, or none for the
+     * first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @return the slice of prices.
+     */
+    Slice<PricePointDTO> findPriceHistory(Long id, Instant from, Instant to, PricePointCursor after, Integer size);
+
+    /**
+     * Get the price that was active for a product at a given time.
+     *
+     * @param id the id of the product.
+     * @param at the time.
+     * @return the price, or empty if the product had no price yet.
+     */
+    Optional<PricePointDTO> findPriceAt(Long id, Instant at);
+
+    /**
+     * Position of a price in the history of a product, to resume its pagination.
+     */
+    record PricePointCursor(Instant effectiveDate, Long pricedProductId) {}
+
+    /**
+     * Get the "id" product from the database together with its version, both read from the same row.
+     *
+     * @param id the id of the entity.
+     * @return the entity and its version.
+     */
+    Optional<VersionedProduct> findOneWithVersion(Long id);
+
+    /**
+     * A product and the version it was read at.
+     */
+    record VersionedProduct(ProductDTO product, Long version) {}
+
+    /**
+     * Get the products with the given ids together with their active price, in the order of the ids.
+     * Unknown ids are skipped and repeated ids are returned once.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities with their active price.
+     */
+    List<CatalogEntryDTO> findAllWithActivePrice(List<Long> ids);
 
     /**
      * Get the "id" product.
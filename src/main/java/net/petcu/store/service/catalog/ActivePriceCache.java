@@ -0,0 +1,214 @@
+package net.petcu.store.service.catalog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Active price of every product, by product id, in an {@link ActivePriceTable}, so that pricing an order line does
+ * not query {@code priced_product} and {@code price}.
+ * <p>
+ * Like the second-level cache and the {@link CatalogSnapshot}, the cache is local to the instance and only changed
+ * once changes commit: by the {@link PriceChangedEvent}s, and by re-reading the active price of the product of a
+ * {@link PricedProductChangedEvent}, so it never holds a price from a transaction that rolls back. It is warmed when
+ * the application is ready and reloaded on the {@code taskExecutor} after bulk imports, serving the previous table
+ * meanwhile. A miss is not loaded into the cache: callers fall back to the database.
+ */
+@Service
+public class ActivePriceCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ActivePriceCache.class);
+
+    public static final String PRODUCTS_METER_NAME = "catalog.prices.cache.products";
+    public static final String REQUESTS_METER_NAME = "catalog.prices.cache.requests";
+
+    private final PricedProductRepository pricedProductRepository;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    // mutated in place under the write lock
+    private final RebuildableModel<ActivePriceTable> table = new RebuildableModel<>(new ActivePriceTable(0), this::load);
+
+    public ActivePriceCache(
+        PricedProductRepository pricedProductRepository,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.pricedProductRepository = pricedProductRepository;
+        this.executor = executor;
+        this.batchSize = applicationProperties.getSearch().getIndexBatchSize();
+        Gauge.builder(PRODUCTS_METER_NAME, this, ActivePriceCache::size)
+            .description("Number of products in the active price cache.")
+            .register(registry);
+        this.hits = requestCounter(registry, "hit");
+        this.misses = requestCounter(registry, "miss");
+    }
+
+    private static Counter requestCounter(MeterRegistry registry, String result) {
+        return Counter.builder(REQUESTS_METER_NAME)
+            .description("Active price cache lookups by outcome.")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * Find the active price of a product.
+     *
+     * @param productId the id of the product.
+     * @return the active price, or empty if it is not cached.
+     */
+    public Optional<ActivePrice> find(long productId) {
+        ActivePrice price = table.read(current -> {
+            int slot = current.find(productId);
+            return slot < 0 ? null : new ActivePrice(current.priceId(slot), current.value(slot));
+        });
+        (price == null ? misses : hits).increment();
+        return Optional.ofNullable(price);
+    }
+
+    public int size() {
+        return table.read(ActivePriceTable::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not warm the active price cache, prices will be read from the database", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPriceChanged(PriceChangedEvent event) {
+        long productId = event.productId();
+        if (event.value() == null) {
+            table.apply(current -> removed(current, productId));
+        } else {
+            long priceId = event.priceId();
+            long value = event.value().minorUnits();
+            table.apply(current -> put(current, productId, priceId, value));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            long productId = event.productId();
+            table.apply(current -> removed(current, productId));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPricedProductChanged(PricedProductChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        long productId = event.productId();
+        table.apply(
+            () -> activePrice(productId),
+            (current, active) ->
+                active == null ? removed(current, productId) : put(current, productId, active.priceId(), active.value())
+        );
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        table.requestRebuild(executor, this::reloadInBackground);
+    }
+
+    @EventListener
+    public void onPricesImported(PricesImportedEvent event) {
+        table.requestRebuild(executor, this::reloadInBackground);
+    }
+
+    /**
+     * Reload every active price. Lookups keep being served from the previous table until the new one is swapped in;
+     * changes committed meanwhile are replayed on top of it.
+     */
+    public void reload() {
+        table.rebuild();
+        LOG.info("Active price cache loaded with {} products", size());
+    }
+
+    private void reloadInBackground() {
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not reload the active price cache, it keeps serving the previous table", e);
+        }
+    }
+
+    private static ActivePriceTable put(ActivePriceTable current, long productId, long priceId, long value) {
+        current.put(productId, priceId, value);
+        return current;
+    }
+
+    private static ActivePriceTable removed(ActivePriceTable current, long productId) {
+        current.remove(productId);
+        return current;
+    }
+
+    private ActivePrice activePrice(long productId) {
+        ActivePrice active = null;
+        // ordered by priced product id, a product with several active prices keeps the last one, as when loading
+        for (PricedProductRepository.ActivePrice price : pricedProductRepository.findActivePricesByProductIdIn(List.of(productId))) {
+            if (price.getValue() != null) {
+                active = new ActivePrice(price.getPriceId(), price.getValue().minorUnits());
+            }
+        }
+        return active;
+    }
+
+    private ActivePriceTable load() {
+        LOG.debug("Loading active price cache");
+        ActivePriceTable loaded = new ActivePriceTable(size());
+        Long afterId = Long.MIN_VALUE;
+        List<PricedProductRepository.ActivePrice> batch;
+        do {
+            batch = pricedProductRepository.findActivePricesByIdGreaterThan(afterId, PageRequest.ofSize(batchSize));
+            for (PricedProductRepository.ActivePrice price : batch) {
+                // ordered by priced product id, a product with several active prices keeps the last one
+                if (price.getValue() != null) {
+                    loaded.put(price.getProductId(), price.getPriceId(), price.getValue().minorUnits());
+                }
+                afterId = price.getPricedProductId();
+            }
+        } while (batch.size() == batchSize);
+        return loaded;
+    }
+
+    /**
+     * The active price of a product.
+     *
+     * @param priceId the id of the {@link net.petcu.store.domain.Price}.
+     * @param value its value, in minor units of {@link net.petcu.store.domain.Money#CURRENCY}.
+     */
+    public record ActivePrice(long priceId, long value) {}
+}
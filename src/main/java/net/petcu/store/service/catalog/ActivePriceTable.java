@@ -0,0 +1,128 @@
+package net.petcu.store.service.catalog;
+
+/**
+ * Open-addressing hash table from a product id to the id and value of its active price, in minor units of
+ * {@link net.petcu.store.domain.Money#CURRENCY}, in three parallel {@code long} arrays probed linearly, so that a lookup
+ * reads both the value and the price id without boxing. Removals shift the following entries of the probe sequence
+ * back instead of leaving tombstones.
+ * <p>
+ * Product ids are database ids and never {@code 0}, which marks a free slot. Not thread-safe.
+ */
+class ActivePriceTable {
+
+    private static final long FREE = 0L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final double LOAD_FACTOR = 0.75;
+
+    private long[] productIds;
+
+    private long[] priceIds;
+
+    private long[] values;
+
+    private int mask;
+
+    private int size;
+
+    ActivePriceTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the slot holding the product, or {@code -1}.
+     */
+    int find(long productId) {
+        for (int slot = slot(productId); productIds[slot] != FREE; slot = (slot + 1) & mask) {
+            if (productIds[slot] == productId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    long priceId(int slot) {
+        return priceIds[slot];
+    }
+
+    long value(int slot) {
+        return values[slot];
+    }
+
+    void put(long productId, long priceId, long value) {
+        if (productId == FREE) {
+            throw new IllegalArgumentException("Product id 0 is reserved");
+        }
+        int slot = slot(productId);
+        while (productIds[slot] != FREE && productIds[slot] != productId) {
+            slot = (slot + 1) & mask;
+        }
+        if (productIds[slot] == FREE) {
+            if (size + 1 > (mask + 1) * LOAD_FACTOR) {
+                grow();
+                put(productId, priceId, value);
+                return;
+            }
+            size++;
+        }
+        productIds[slot] = productId;
+        priceIds[slot] = priceId;
+        values[slot] = value;
+    }
+
+    void remove(long productId) {
+        int slot = find(productId);
+        if (slot < 0) {
+            return;
+        }
+        size--;
+        // move back every following entry whose home slot does not lie in the gap's cyclic range
+        int gap = slot;
+        for (int next = (gap + 1) & mask; productIds[next] != FREE; next = (next + 1) & mask) {
+            int home = slot(productIds[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                productIds[gap] = productIds[next];
+                priceIds[gap] = priceIds[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        productIds[gap] = FREE;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long productId) {
+        // the multiplicative mix spreads sequential ids over the whole table
+        long hash = productId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldProductIds = productIds;
+        long[] oldPriceIds = priceIds;
+        long[] oldValues = values;
+        allocate(oldProductIds.length * 2);
+        size = 0;
+        for (int i = 0; i < oldProductIds.length; i++) {
+            if (oldProductIds[i] != FREE) {
+                put(oldProductIds[i], oldPriceIds[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        productIds = new long[capacity];
+        priceIds = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+}
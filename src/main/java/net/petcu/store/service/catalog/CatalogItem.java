@@ -0,0 +1,46 @@
+package net.petcu.store.service.catalog;
+
+import net.petcu.store.service.dto.CatalogEntryDTO;
+import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductSummaryDTO;
+
+/**
+ * Immutable catalog entry: a product and its current active price.
+ *
+ * @param productId the id of the product.
+ * @param name the name of the product.
+ * @param description the description of the product.
+ * @param priceId the id of the active price, or {@link #NO_PRICE} if the product has none.
+ * @param price the value of the active price, meaningless if the product has none.
+ */
+public record CatalogItem(long productId, String name, String description, long priceId, double price) {
+    public static final long NO_PRICE = -1L;
+
+    public boolean hasPrice() {
+        return priceId != NO_PRICE;
+    }
+
+    public CatalogItem withProduct(String name, String description) {
+        return new CatalogItem(productId, name, description, priceId, price);
+    }
+
+    public CatalogItem withPrice(long priceId, double price) {
+        return new CatalogItem(productId, name, description, priceId, price);
+    }
+
+    public CatalogItem withoutPrice() {
+        return new CatalogItem(productId, name, description, NO_PRICE, 0);
+    }
+
+    public ProductDTO toProductDTO() {
+        return new ProductDTO(productId, name, description);
+    }
+
+    public ProductSummaryDTO toProductSummaryDTO() {
+        return new ProductSummaryDTO(productId, name, hasPrice() ? price : null);
+    }
+
+    public CatalogEntryDTO toCatalogEntryDTO() {
+        return new CatalogEntryDTO(productId, name, description, hasPrice() ? price : null);
+    }
+}
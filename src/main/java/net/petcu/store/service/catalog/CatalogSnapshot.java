@@ -0,0 +1,442 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Immutable, array-backed read model of the whole catalog: every product together with its active price.
+ * <p>
+ * Readers dereference a single volatile {@link View} and never lock. Committed product and price changes are applied
+ * copy-on-write: a new view sharing everything that did not change, down to the chunks of products it did not touch,
+ * is built and published with one volatile write. Priced products edited directly are applied by re-reading the
+ * active price of their product, outside the lock that serializes the changes.
+ * After bulk imports the snapshot is reloaded on the {@code taskExecutor}, serving the previous view meanwhile.
+ * <p>
+ * Until the snapshot has been loaded (or when it is disabled with {@code application.catalog.snapshot-enabled}) every
+ * lookup misses, and callers are expected to fall back to the database.
+ */
+@Service
+public class CatalogSnapshot {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    public static final String PRODUCTS_METER_NAME = "catalog.snapshot.products";
+
+    private final ProductRepository productRepository;
+
+    private final PricedProductRepository pricedProductRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final CatalogVersion catalogVersion;
+
+    private final Executor executor;
+
+    private final boolean enabled;
+
+    private final RebuildableModel<View> view = new RebuildableModel<>(View.EMPTY, this::load);
+
+    public CatalogSnapshot(
+        ProductRepository productRepository,
+        PricedProductRepository pricedProductRepository,
+        PlatformTransactionManager transactionManager,
+        CatalogVersion catalogVersion,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.productRepository = productRepository;
+        this.pricedProductRepository = pricedProductRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.catalogVersion = catalogVersion;
+        this.executor = executor;
+        this.enabled = applicationProperties.getCatalog().isSnapshotEnabled();
+        Gauge.builder(PRODUCTS_METER_NAME, this, CatalogSnapshot::size)
+            .description("Number of products in the catalog snapshot.")
+            .register(registry);
+    }
+
+    /**
+     * Whether the snapshot has been loaded and can serve reads.
+     */
+    public boolean isReady() {
+        return view.isReady();
+    }
+
+    /**
+     * Get the product with its active price.
+     *
+     * @param productId the id of the product.
+     * @return the catalog item, or empty if the product is unknown or the snapshot is not ready.
+     */
+    public Optional<CatalogItem> find(long productId) {
+        return Optional.ofNullable(view.current().get(productId));
+    }
+
+    /**
+     * Get a page of catalog items ordered by product id, starting after the given id.
+     *
+     * @param afterId the id of the last product of the previous page.
+     * @param size the page size.
+     * @return the slice of catalog items.
+     */
+    public Slice<CatalogItem> findAllAfter(long afterId, int size) {
+        View current = view.current();
+        int slot = current.slotAfter(afterId);
+        List<CatalogItem> content = new ArrayList<>(size);
+        for (; slot < current.length && content.size() < size; slot++) {
+            if (current.item(slot) != null) {
+                content.add(current.item(slot));
+            }
+        }
+        boolean hasNext = false;
+        for (; slot < current.length && !hasNext; slot++) {
+            hasNext = current.item(slot) != null;
+        }
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
+    }
+
+    public int size() {
+        return view.current().size;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            LOG.debug("Catalog snapshot is disabled");
+            return;
+        }
+        try {
+            reload();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not load the catalog snapshot, reads will go to the database", e);
+        }
+    }
+
+    // changes are applied before the CatalogVersion is incremented
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        publish(current -> {
+            if (event.isDeleted()) {
+                return current.without(event.productId());
+            }
+            CatalogItem existing = current.get(event.productId());
+            CatalogItem item = existing != null
+                ? existing.withProduct(event.product().name(), event.product().description())
+                : new CatalogItem(event.productId(), event.product().name(), event.product().description(), CatalogItem.NO_PRICE, 0);
+            return current.with(item);
+        });
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPriceChanged(PriceChangedEvent event) {
+        publish(current -> {
+            CatalogItem existing = current.get(event.productId());
+            if (existing == null) {
+                LOG.debug("Ignoring price change of productId={} missing from the catalog snapshot", event.productId());
+                return current;
+            }
+            return current.with(existing.withPrice(event.priceId(), event.value().toDouble()));
+        });
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPricedProductChanged(PricedProductChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        if (!enabled) {
+            return;
+        }
+        long productId = event.productId();
+        // read outside the write lock, and again under it if the snapshot changed meanwhile, so that concurrent changes
+        // of the product apply the latest committed price last
+        view.apply(
+            () -> activePrice(productId),
+            (current, active) -> {
+                CatalogItem existing = current.get(productId);
+                if (existing == null) {
+                    LOG.debug("Ignoring priced product change of productId={} missing from the catalog snapshot", productId);
+                    return current;
+                }
+                if (active == null) {
+                    return current.with(existing.withoutPrice());
+                }
+                return current.with(existing.withPrice(active.getPriceId(), active.getValue() == null ? 0 : active.getValue().toDouble()));
+            }
+        );
+    }
+
+    private PricedProductRepository.ActivePrice activePrice(long productId) {
+        List<PricedProductRepository.ActivePrice> prices = pricedProductRepository.findActivePricesByProductIdIn(List.of(productId));
+        // ordered by priced product id, a product with several active prices keeps the last one, as when loading
+        return prices.isEmpty() ? null : prices.getLast();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (enabled) {
+            view.requestRebuild(executor, this::reloadInBackground);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onPricesImported(PricesImportedEvent event) {
+        if (enabled) {
+            view.requestRebuild(executor, this::reloadInBackground);
+        }
+    }
+
+    /**
+     * Reload the whole snapshot from the database. Reads keep being served from the previous view until the new one is
+     * published; changes committed meanwhile are replayed on top of it.
+     */
+    public void reload() {
+        view.rebuild();
+        LOG.info("Catalog snapshot loaded with {} products", size());
+    }
+
+    private void reloadInBackground() {
+        try {
+            reload();
+            catalogVersion.caughtUp();
+        } catch (DataAccessException | TransactionException e) {
+            LOG.warn("Could not reload the catalog snapshot, it keeps serving the previous view", e);
+        }
+    }
+
+    private void publish(UnaryOperator<View> change) {
+        if (enabled) {
+            view.apply(change);
+        }
+    }
+
+    private View load() {
+        LOG.debug("Loading catalog snapshot");
+        return readOnlyTransaction.execute(status -> loadItems());
+    }
+
+    private View loadItems() {
+        List<CatalogItem> items = new ArrayList<>();
+        try (Stream<ProductRepository.CatalogEntry> entries = productRepository.streamCatalog()) {
+            Iterator<ProductRepository.CatalogEntry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                ProductRepository.CatalogEntry entry = iterator.next();
+                CatalogItem item = new CatalogItem(
+                    entry.getId(),
+                    entry.getName(),
+                    entry.getDescription(),
+                    entry.getPriceId() == null ? CatalogItem.NO_PRICE : entry.getPriceId(),
+                    entry.getPrice() == null ? 0 : entry.getPrice().toDouble()
+                );
+                // rows are ordered by product id, a product with several active prices keeps the last one
+                if (!items.isEmpty() && items.getLast().productId() == item.productId()) {
+                    items.set(items.size() - 1, item);
+                } else {
+                    items.add(item);
+                }
+            }
+        }
+        return View.of(items);
+    }
+
+    /**
+     * Immutable view of the catalog. Slots are ordered by product id and stored in chunks of {@link #CHUNK_SIZE}, all
+     * full but the last, so that a change copies the array of chunks and the chunk it touches rather than the whole
+     * catalog. A {@code null} item is a deleted product waiting for compaction. {@code slots} maps a product id to its
+     * slot, except for the products appended since it was built: {@code appended} maps those, until there are
+     * {@link #CHUNK_SIZE} of them and both are merged.
+     */
+    static final class View {
+
+        static final int CHUNK_BITS = 10;
+
+        static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        static final View EMPTY = new View(new long[0][], new CatalogItem[0][], 0, new LongIntHashMap(), new LongIntHashMap(), 0);
+
+        final long[][] ids;
+
+        final CatalogItem[][] items;
+
+        final int length;
+
+        private final LongIntHashMap slots;
+
+        private final LongIntHashMap appended;
+
+        final int size;
+
+        private View(long[][] ids, CatalogItem[][] items, int length, LongIntHashMap slots, LongIntHashMap appended, int size) {
+            this.ids = ids;
+            this.items = items;
+            this.length = length;
+            this.slots = slots;
+            this.appended = appended;
+            this.size = size;
+        }
+
+        static View of(List<CatalogItem> sortedItems) {
+            int length = sortedItems.size();
+            long[][] ids = new long[(length + CHUNK_MASK) >>> CHUNK_BITS][];
+            CatalogItem[][] items = new CatalogItem[ids.length][];
+            LongIntHashMap slots = new LongIntHashMap(length);
+            for (int chunk = 0; chunk < ids.length; chunk++) {
+                int from = chunk << CHUNK_BITS;
+                ids[chunk] = new long[Math.min(CHUNK_SIZE, length - from)];
+                items[chunk] = new CatalogItem[ids[chunk].length];
+                for (int i = 0; i < ids[chunk].length; i++) {
+                    CatalogItem item = sortedItems.get(from + i);
+                    ids[chunk][i] = item.productId();
+                    items[chunk][i] = item;
+                    slots.put(item.productId(), from + i);
+                }
+            }
+            return new View(ids, items, length, slots, new LongIntHashMap(), length);
+        }
+
+        CatalogItem get(long productId) {
+            int slot = slot(productId);
+            return slot < 0 ? null : item(slot);
+        }
+
+        CatalogItem item(int slot) {
+            return items[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+        }
+
+        /**
+         * The first slot of a product id greater than {@code productId}, or {@link #length} if there is none.
+         */
+        int slotAfter(long productId) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (id(middle) <= productId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        View with(CatalogItem item) {
+            long productId = item.productId();
+            int slot = slot(productId);
+            if (slot >= 0) {
+                return new View(ids, itemsWith(slot, item), length, slots, appended, item(slot) == null ? size + 1 : size);
+            }
+            if (length == 0 || productId > id(length - 1)) {
+                return appendedWith(item);
+            }
+            // product ids come from a sequence, a product created out of order is rare enough to rebuild the view
+            List<CatalogItem> inserted = live();
+            int insertion = 0;
+            while (insertion < inserted.size() && inserted.get(insertion).productId() < productId) {
+                insertion++;
+            }
+            inserted.add(insertion, item);
+            return of(inserted);
+        }
+
+        View without(long productId) {
+            int slot = slot(productId);
+            if (slot < 0 || item(slot) == null) {
+                return this;
+            }
+            View removed = new View(ids, itemsWith(slot, null), length, slots, appended, size - 1);
+            return removed.length - removed.size > removed.size ? of(removed.live()) : removed;
+        }
+
+        private int slot(long productId) {
+            int slot = appended.isEmpty() ? -1 : appended.getOrDefault(productId, -1);
+            return slot >= 0 ? slot : slots.getOrDefault(productId, -1);
+        }
+
+        private long id(int slot) {
+            return ids[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+        }
+
+        private CatalogItem[][] itemsWith(int slot, CatalogItem item) {
+            CatalogItem[][] updated = items.clone();
+            int chunk = slot >>> CHUNK_BITS;
+            updated[chunk] = items[chunk].clone();
+            updated[chunk][slot & CHUNK_MASK] = item;
+            return updated;
+        }
+
+        private View appendedWith(CatalogItem item) {
+            int chunk = length >>> CHUNK_BITS;
+            long[][] appendedIds = Arrays.copyOf(ids, chunk + 1);
+            CatalogItem[][] appendedItems = Arrays.copyOf(items, chunk + 1);
+            int offset = length & CHUNK_MASK;
+            appendedIds[chunk] = offset == 0 ? new long[1] : Arrays.copyOf(ids[chunk], offset + 1);
+            appendedItems[chunk] = offset == 0 ? new CatalogItem[1] : Arrays.copyOf(items[chunk], offset + 1);
+            appendedIds[chunk][offset] = item.productId();
+            appendedItems[chunk][offset] = item;
+            LongIntHashMap appendedSlots = slots;
+            LongIntHashMap appendedSince = appended.clone();
+            appendedSince.put(item.productId(), length);
+            if (appendedSince.size() >= CHUNK_SIZE) {
+                appendedSlots = slots.clone();
+                appendedSlots.putAll(appendedSince);
+                appendedSince = new LongIntHashMap();
+            }
+            return new View(appendedIds, appendedItems, length + 1, appendedSlots, appendedSince, size + 1);
+        }
+
+        private List<CatalogItem> live() {
+            List<CatalogItem> live = new ArrayList<>(size + 1);
+            for (CatalogItem[] chunk : items) {
+                for (CatalogItem item : chunk) {
+                    if (item != null) {
+                        live.add(item);
+                    }
+                }
+            }
+            return live;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.petcu.store.service.catalog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductTagsChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Catalog-wide version, incremented after every committed change to products, their prices or their tags. It is used as the ETag
+ * of catalog collections, so that unchanged listings can be answered with {@code 304 Not Modified} without being read.
+ * <p>
+ * The counter lives in memory and is prefixed with the start time of this instance, so that versions are never reused
+ * across restarts. Listeners run last, after the in-memory read models have applied the same change: a version read
+ * before the catalog is therefore never newer than the catalog itself.
+ */
+@Service
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * The current version, to be read before the catalog data it describes.
+     */
+    public String current() {
+        return epoch + "-" + counter.get();
+    }
+
+    /**
+     * Increment the version once a read model has caught up with changes whose events already incremented it, such as
+     * after a rebuild in the background, so that listings served meanwhile are not kept as current.
+     */
+    public void caughtUp() {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPriceChanged(PriceChangedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPricedProductChanged(PricedProductChangedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductTagsChanged(ProductTagsChangedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onPricesImported(PricesImportedEvent event) {
+        counter.incrementAndGet();
+    }
+}
@@ -0,0 +1,209 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import com.carrotsearch.hppc.cursors.LongIntCursor;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sparse symmetric matrix counting, for each pair of products, the orders containing both, with the {@code topK}
+ * products most often bought with each product precomputed.
+ * <p>
+ * Rows are primitive {@code long -> int} maps holding only the non-zero counts. Neighbors are ordered by count, then by
+ * id. Not thread-safe.
+ */
+class CoOccurrenceMatrix {
+
+    private static final long[] NONE = new long[0];
+
+    private final int topK;
+
+    private final LongObjectHashMap<LongIntHashMap> rows;
+
+    private final LongObjectHashMap<long[]> neighbors;
+
+    CoOccurrenceMatrix(int topK) {
+        this(topK, new LongObjectHashMap<>(), new LongObjectHashMap<>());
+    }
+
+    private CoOccurrenceMatrix(int topK, LongObjectHashMap<LongIntHashMap> rows, LongObjectHashMap<long[]> neighbors) {
+        this.topK = topK;
+        this.rows = rows;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Count the pairs of all the orders, one row per product in parallel.
+     *
+     * @param orders the distinct product ids of each order, by order id. Only read.
+     */
+    static CoOccurrenceMatrix build(LongObjectHashMap<long[]> orders, int topK) {
+        LongObjectHashMap<LongArrayList> ordersByProduct = new LongObjectHashMap<>();
+        for (LongObjectCursor<long[]> order : orders) {
+            if (order.value.length < 2) {
+                continue;
+            }
+            for (long productId : order.value) {
+                LongArrayList productOrders = ordersByProduct.get(productId);
+                if (productOrders == null) {
+                    productOrders = new LongArrayList();
+                    ordersByProduct.put(productId, productOrders);
+                }
+                productOrders.add(order.key);
+            }
+        }
+
+        // each row is only written by the thread computing it, the shared maps are only read
+        List<Row> rows = Arrays.stream(ordersByProduct.keys().toArray())
+            .parallel()
+            .mapToObj(productId -> {
+                LongIntHashMap row = new LongIntHashMap();
+                for (LongCursor orderId : ordersByProduct.get(productId)) {
+                    for (long other : orders.get(orderId.value)) {
+                        if (other != productId) {
+                            row.addTo(other, 1);
+                        }
+                    }
+                }
+                return new Row(productId, row, select(row, row.keys().toArray(), topK));
+            })
+            .toList();
+
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(
+            topK,
+            new LongObjectHashMap<>(rows.size()),
+            new LongObjectHashMap<>(rows.size())
+        );
+        for (Row row : rows) {
+            matrix.rows.put(row.productId(), row.counts());
+            matrix.neighbors.put(row.productId(), row.neighbors());
+        }
+        return matrix;
+    }
+
+    /**
+     * Count the pairs of one more order.
+     *
+     * @param productIds the distinct product ids of the order.
+     */
+    void addOrder(long[] productIds) {
+        if (productIds.length < 2) {
+            return;
+        }
+        for (long productId : productIds) {
+            LongIntHashMap row = rows.get(productId);
+            if (row == null) {
+                row = new LongIntHashMap();
+                rows.put(productId, row);
+            }
+            for (long other : productIds) {
+                if (other != productId) {
+                    row.addTo(other, 1);
+                }
+            }
+        }
+        for (long productId : productIds) {
+            // only the counts of the products of the order grew, so the new top is among them and the previous top
+            long[] previous = neighbors.getOrDefault(productId, NONE);
+            long[] candidates = Arrays.copyOf(previous, previous.length + productIds.length);
+            System.arraycopy(productIds, 0, candidates, previous.length, productIds.length);
+            neighbors.put(productId, select(rows.get(productId), candidates, topK));
+        }
+    }
+
+    /**
+     * Forget a product, from its own row and from the rows of the products it was bought with.
+     */
+    void remove(long productId) {
+        LongIntHashMap row = rows.remove(productId);
+        neighbors.remove(productId);
+        if (row == null) {
+            return;
+        }
+        for (LongIntCursor other : row) {
+            LongIntHashMap otherRow = rows.get(other.key);
+            otherRow.remove(productId);
+            if (otherRow.isEmpty()) {
+                rows.remove(other.key);
+                neighbors.remove(other.key);
+            } else if (contains(neighbors.get(other.key), productId)) {
+                neighbors.put(other.key, select(otherRow, otherRow.keys().toArray(), topK));
+            }
+        }
+    }
+
+    /**
+     * @return the ids of the products most often bought with the product, most often first.
+     */
+    long[] neighbors(long productId, int limit) {
+        long[] top = neighbors.getOrDefault(productId, NONE);
+        return top.length > limit ? Arrays.copyOf(top, limit) : top.clone();
+    }
+
+    /**
+     * @return the number of orders containing both products.
+     */
+    int count(long productId, long otherId) {
+        LongIntHashMap row = rows.get(productId);
+        return row == null ? 0 : row.getOrDefault(otherId, 0);
+    }
+
+    /**
+     * @return the number of products bought with at least one other product.
+     */
+    int size() {
+        return rows.size();
+    }
+
+    /**
+     * Keep the {@code limit} candidates with the highest count in the row, by insertion into a short sorted array.
+     */
+    private static long[] select(LongIntHashMap row, long[] candidates, int limit) {
+        long[] ids = new long[Math.min(limit, row.size())];
+        int[] counts = new int[ids.length];
+        int size = 0;
+        for (long candidate : candidates) {
+            int count = row.getOrDefault(candidate, 0);
+            if (count == 0 || contains(ids, size, candidate)) {
+                continue;
+            }
+            int position = size;
+            while (position > 0 && ranksBefore(count, candidate, counts[position - 1], ids[position - 1])) {
+                position--;
+            }
+            if (position == ids.length) {
+                continue;
+            }
+            int moved = Math.min(size, ids.length - 1) - position;
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(counts, position, counts, position + 1, moved);
+            ids[position] = candidate;
+            counts[position] = count;
+            size = Math.min(size + 1, ids.length);
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    private static boolean ranksBefore(int count, long id, int otherCount, long otherId) {
+        return count > otherCount || (count == otherCount && id < otherId);
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        return contains(ids, ids.length, id);
+    }
+
+    private static boolean contains(long[] ids, int size, long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Row(long productId, LongIntHashMap counts, long[] neighbors) {}
+}
@@ -0,0 +1,486 @@
+package net.petcu.store.service.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of {@code long} ids, split like a Roaring bitmap: the high 48 bits of an id select a container and
+ * the low 16 bits a position inside it. A container holding few ids is a sorted {@code char[]}, one holding more than
+ * {@value #ARRAY_MAX} is a 65536-bit {@code long[]}, so both sparse and dense id ranges stay compact and set
+ * operations work a whole word or a merged run at a time.
+ * <p>
+ * {@link #and}, {@link #or} and {@link #andNot} return new bitmaps and leave their operands untouched. Not thread-safe.
+ */
+final class IdBitmap {
+
+    static final int ARRAY_MAX = 4096;
+
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // sorted high bits, parallel to containers
+    private long[] keys;
+
+    private Container[] containers;
+
+    private int size;
+
+    IdBitmap() {
+        this(4);
+    }
+
+    private IdBitmap(int capacity) {
+        this(new long[Math.max(1, capacity)], new Container[Math.max(1, capacity)], 0);
+    }
+
+    private IdBitmap(long[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    static IdBitmap of(long... ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id : ids) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return whether the id was not already present.
+     */
+    boolean add(long id) {
+        long key = id >> 16;
+        char low = (char) id;
+        int slot = Arrays.binarySearch(keys, 0, size, key);
+        if (slot < 0) {
+            slot = -slot - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, slot, keys, slot + 1, size - slot);
+            System.arraycopy(containers, slot, containers, slot + 1, size - slot);
+            keys[slot] = key;
+            containers[slot] = new ArrayContainer(new char[] { low }, 1);
+            size++;
+            return true;
+        }
+        int before = containers[slot].cardinality();
+        containers[slot] = containers[slot].add(low);
+        return containers[slot].cardinality() != before;
+    }
+
+    /**
+     * @return whether the id was present.
+     */
+    boolean remove(long id) {
+        int slot = Arrays.binarySearch(keys, 0, size, id >> 16);
+        if (slot < 0) {
+            return false;
+        }
+        int before = containers[slot].cardinality();
+        containers[slot] = containers[slot].remove((char) id);
+        int after = containers[slot].cardinality();
+        if (after == 0) {
+            System.arraycopy(keys, slot + 1, keys, slot, size - slot - 1);
+            System.arraycopy(containers, slot + 1, containers, slot, size - slot - 1);
+            containers[--size] = null;
+        }
+        return after != before;
+    }
+
+    boolean contains(long id) {
+        int slot = Arrays.binarySearch(keys, 0, size, id >> 16);
+        return slot >= 0 && containers[slot].contains((char) id);
+    }
+
+    long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the ids greater than {@code afterId}, in ascending order.
+     *
+     * @param afterId the exclusive lower bound.
+     * @param limit the maximum number of ids.
+     * @return the ids.
+     */
+    long[] after(long afterId, int limit) {
+        long[] ids = new long[Math.min(limit, 64)];
+        int count = 0;
+        long afterKey = afterId >> 16;
+        int slot = Arrays.binarySearch(keys, 0, size, afterKey);
+        slot = slot < 0 ? -slot - 1 : slot;
+        for (; slot < size && count < limit; slot++) {
+            // positions after afterId's low bits in its own container, every position in the following ones
+            int from = keys[slot] == afterKey ? ((char) afterId) + 1 : 0;
+            Container container = containers[slot];
+            long high = keys[slot] << 16;
+            for (int low = container.next(from); low >= 0 && count < limit; low = container.next(low + 1)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, Math.min(limit, ids.length * 2));
+                }
+                ids[count++] = high | low;
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    long[] toArray() {
+        return after(Long.MIN_VALUE, Math.toIntExact(cardinality()));
+    }
+
+    IdBitmap copy() {
+        Container[] copied = new Container[keys.length];
+        for (int i = 0; i < size; i++) {
+            copied[i] = containers[i].copy();
+        }
+        return new IdBitmap(keys.clone(), copied, size);
+    }
+
+    static IdBitmap and(IdBitmap a, IdBitmap b) {
+        IdBitmap result = new IdBitmap(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i++].and(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    static IdBitmap or(IdBitmap a, IdBitmap b) {
+        IdBitmap result = new IdBitmap(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i++].copy());
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j++].copy());
+            } else {
+                result.append(a.keys[i], a.containers[i++].or(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    static IdBitmap andNot(IdBitmap a, IdBitmap b) {
+        IdBitmap result = new IdBitmap(a.size);
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            boolean shared = j < b.size && b.keys[j] == a.keys[i];
+            result.append(a.keys[i], shared ? a.containers[i].andNot(b.containers[j]) : a.containers[i].copy());
+        }
+        return result;
+    }
+
+    private void append(long key, Container container) {
+        if (container.cardinality() > 0) {
+            keys[size] = key;
+            containers[size++] = container;
+        }
+    }
+
+    private sealed interface Container permits ArrayContainer, BitmapContainer {
+        int cardinality();
+
+        boolean contains(char low);
+
+        Container add(char low);
+
+        Container remove(char low);
+
+        /**
+         * @return the smallest position at or after {@code from}, or -1.
+         */
+        int next(int from);
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container andNot(Container other);
+
+        Container copy();
+    }
+
+    private static final class ArrayContainer implements Container {
+
+        private char[] values;
+
+        private int cardinality;
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            int slot = Arrays.binarySearch(values, 0, cardinality, low);
+            if (slot >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            slot = -slot - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality * 2)));
+            }
+            System.arraycopy(values, slot, values, slot + 1, cardinality - slot);
+            values[slot] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            int slot = Arrays.binarySearch(values, 0, cardinality, low);
+            if (slot >= 0) {
+                System.arraycopy(values, slot + 1, values, slot, cardinality - slot - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public int next(int from) {
+            if (from > Character.MAX_VALUE) {
+                return -1;
+            }
+            int slot = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            slot = slot < 0 ? -slot - 1 : slot;
+            return slot < cardinality ? values[slot] : -1;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(result, count);
+            return count > ARRAY_MAX ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+
+        private final long[] words;
+
+        private int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        private static Container of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            BitmapContainer bitmap = new BitmapContainer(words, cardinality);
+            return cardinality > ARRAY_MAX ? bitmap : bitmap.toArray();
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public Container add(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | (1L << low);
+            if (words[low >>> 6] != before) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (words[low >>> 6] != before) {
+                cardinality--;
+            }
+            return cardinality > ARRAY_MAX ? this : toArray();
+        }
+
+        @Override
+        public int next(int from) {
+            int word = from >>> 6;
+            if (word >= BITMAP_WORDS) {
+                return -1;
+            }
+            long bits = words[word] & (-1L << from);
+            while (bits == 0) {
+                if (++word == BITMAP_WORDS) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+            }
+            return of(result);
+        }
+
+        @Override
+        public Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    result[array.values[i] >>> 6] |= 1L << array.values[i];
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] |= otherWords[i];
+                }
+            }
+            return of(result);
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.cardinality; i++) {
+                    result[array.values[i] >>> 6] &= ~(1L << array.values[i]);
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                }
+            }
+            return of(result);
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int low = next(0); low >= 0; low = next(low + 1)) {
+                values[count++] = (char) low;
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.petcu.store.service.catalog;
+
+import net.petcu.store.domain.Money;
+
+/**
+ * Inclusive range of active price values, in minor units of the currency. Unbounded sides are the extreme longs.
+ *
+ * @param min the lowest price, or {@link Long#MIN_VALUE}.
+ * @param max the highest price, or {@link Long#MAX_VALUE}.
+ */
+public record PriceRange(long min, long max) {
+    public static final PriceRange ALL = new PriceRange(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    public PriceRange {
+        if (min > max) {
+            throw new IllegalArgumentException("Invalid price range [" + min + ", " + max + "]");
+        }
+    }
+
+    public static PriceRange of(Money min, Money max) {
+        return new PriceRange(min == null ? Long.MIN_VALUE : min.minorUnits(), max == null ? Long.MAX_VALUE : max.minorUnits());
+    }
+}
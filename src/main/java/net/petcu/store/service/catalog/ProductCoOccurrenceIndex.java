@@ -0,0 +1,178 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.enumeration.OrderStatus;
+import net.petcu.store.repository.OrderItemRepository;
+import net.petcu.store.service.event.OrderPaidEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * "Frequently bought together": for each {@link net.petcu.store.domain.Product}, the products found most often in the
+ * same paid orders. Related products are answered from the precomputed neighbors of a {@link CoOccurrenceMatrix}
+ * without querying the database.
+ * <p>
+ * The matrix is built when the application is ready and counts each committed {@link OrderPaidEvent}. It is recounted
+ * from all the paid orders on {@code application.catalog.related-rebuild-cron}, which also drops the counts of orders
+ * that are no longer paid.
+ */
+@Service
+public class ProductCoOccurrenceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductCoOccurrenceIndex.class);
+
+    public static final String PRODUCTS_METER_NAME = "catalog.related.products";
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final int batchSize;
+
+    private final int topK;
+
+    private final RebuildableModel<Counts> counts;
+
+    public ProductCoOccurrenceIndex(
+        OrderItemRepository orderItemRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.orderItemRepository = orderItemRepository;
+        this.batchSize = applicationProperties.getSearch().getIndexBatchSize();
+        this.topK = applicationProperties.getCatalog().getRelatedTopK();
+        this.counts = new RebuildableModel<>(new Counts(new CoOccurrenceMatrix(topK), null), this::load, Counts::counted);
+        Gauge.builder(PRODUCTS_METER_NAME, this, ProductCoOccurrenceIndex::size)
+            .description("Number of products bought together with another product.")
+            .register(registry);
+    }
+
+    /**
+     * Whether the matrix has been built and can answer related products.
+     */
+    public boolean isReady() {
+        return counts.isReady();
+    }
+
+    /**
+     * The largest number of related products kept per product.
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * The products most often bought together with a product.
+     *
+     * @param productId the id of the product.
+     * @param limit the maximum number of products, capped to {@link #getTopK()}.
+     * @return the ids of the related products, most often bought together first.
+     */
+    public long[] related(long productId, int limit) {
+        return counts.read(current -> current.matrix().neighbors(productId, Math.min(limit, topK)));
+    }
+
+    public int size() {
+        return counts.read(current -> current.matrix().size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not build the products bought together, it will be retried with the next rebuild", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderPaid(OrderPaidEvent event) {
+        counts.apply(current -> {
+            if (current.orders() == null || !current.orders().containsKey(event.orderId())) {
+                current.matrix().addOrder(event.productIds());
+            }
+            return current;
+        });
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            long productId = event.productId();
+            counts.apply(current -> {
+                current.matrix().remove(productId);
+                return current;
+            });
+        }
+    }
+
+    /**
+     * Recount the whole matrix from the paid orders. Related products keep being served from the previous matrix until
+     * the new one is swapped in; orders paid meanwhile and not read by the rebuild are counted on top of it.
+     */
+    @Scheduled(cron = "${application.catalog.related-rebuild-cron:0 30 3 * * ?}")
+    public void rebuild() {
+        counts.rebuild();
+        LOG.info("Products bought together built for {} products", size());
+    }
+
+    private Counts load() {
+        LOG.debug("Rebuilding products bought together");
+        LongObjectHashMap<long[]> orders = loadPaidOrders();
+        LOG.debug("Counting products bought together in {} paid orders", orders.size());
+        return new Counts(CoOccurrenceMatrix.build(orders, topK), orders);
+    }
+
+    /**
+     * @return the distinct product ids of each paid order, by order id.
+     */
+    private LongObjectHashMap<long[]> loadPaidOrders() {
+        LongObjectHashMap<LongArrayList> products = new LongObjectHashMap<>();
+        Long afterId = Long.MIN_VALUE;
+        List<OrderItemRepository.OrderProduct> batch;
+        do {
+            batch = orderItemRepository.findOrderProductsByStatusAndIdGreaterThan(OrderStatus.PAID, afterId, PageRequest.ofSize(batchSize));
+            for (OrderItemRepository.OrderProduct item : batch) {
+                LongArrayList orderProducts = products.get(item.getOrderId());
+                if (orderProducts == null) {
+                    orderProducts = new LongArrayList(2);
+                    products.put(item.getOrderId(), orderProducts);
+                }
+                orderProducts.add(item.getProductId());
+                afterId = item.getId();
+            }
+        } while (batch.size() == batchSize);
+
+        LongObjectHashMap<long[]> orders = new LongObjectHashMap<>(products.size());
+        for (LongObjectCursor<LongArrayList> order : products) {
+            orders.put(order.key, Arrays.stream(order.value.toArray()).distinct().toArray());
+        }
+        return orders;
+    }
+
+    /**
+     * The matrix, and while it is being rebuilt, the orders it was counted from: an order paid meanwhile and already
+     * read by the rebuild must not be counted twice when its payment is replayed.
+     *
+     * @param matrix the co-occurrence counts.
+     * @param orders the distinct product ids of each counted order, by order id, or {@code null} once swapped in.
+     */
+    private record Counts(CoOccurrenceMatrix matrix, LongObjectHashMap<long[]> orders) {
+        Counts counted() {
+            return new Counts(matrix, null);
+        }
+    }
+}
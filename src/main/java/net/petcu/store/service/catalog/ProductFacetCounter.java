@@ -0,0 +1,133 @@
+package net.petcu.store.service.catalog;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.service.dto.PriceBucketDTO;
+import net.petcu.store.service.dto.ProductFacetsDTO;
+import net.petcu.store.service.dto.TagCountDTO;
+import org.springframework.stereotype.Service;
+
+/**
+ * Counts the price bucket, availability and tag facets of a set of products in a single pass over their ids, using
+ * {@code long[]} and {@code int[]} counters fed from the {@link ProductPriceIndex} and the {@link ProductTagIndex}
+ * instead of one {@code GROUP BY} query per facet.
+ * <p>
+ * Price buckets are delimited by {@code application.catalog.price-facet-bounds}.
+ */
+@Service
+public class ProductFacetCounter {
+
+    public static final String COUNT_METER_NAME = "catalog.facets.count";
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final ProductTagIndex productTagIndex;
+
+    private final List<Double> priceBounds;
+
+    // the price bounds in minor units of the currency, as the prices of the index
+    private final long[] minorBounds;
+
+    private final Timer countTimer;
+
+    public ProductFacetCounter(
+        ProductPriceIndex productPriceIndex,
+        ProductTagIndex productTagIndex,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.productPriceIndex = productPriceIndex;
+        this.productTagIndex = productTagIndex;
+        this.priceBounds = List.copyOf(applicationProperties.getCatalog().getPriceFacetBounds());
+        this.minorBounds = priceBounds.stream().mapToLong(bound -> Money.ofExact(BigDecimal.valueOf(bound)).minorUnits()).toArray();
+        for (int i = 1; i < minorBounds.length; i++) {
+            if (!(minorBounds[i - 1] < minorBounds[i])) {
+                throw new IllegalArgumentException("application.catalog.price-facet-bounds must be strictly ascending");
+            }
+        }
+        this.countTimer = Timer.builder(COUNT_METER_NAME).description("Latency of facet counts over a set of products.").register(registry);
+    }
+
+    /**
+     * Count the facets of a set of products.
+     *
+     * @param productIds the ids of the products, in ascending order and without duplicates.
+     * @return the facet counts.
+     */
+    public ProductFacetsDTO count(long[] productIds) {
+        long start = System.nanoTime();
+        try {
+            ProductPriceIndex.Entries prices = productPriceIndex.current();
+            return productTagIndex.read(tags -> count(productIds, prices, tags));
+        } finally {
+            countTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ProductFacetsDTO count(long[] productIds, ProductPriceIndex.Entries prices, ProductTagIndex.Postings tags) {
+        ProductTagIndex.TagRows rows = tags.rows();
+        long[] bucketCounts = new long[minorBounds.length + 1];
+        int[] tagCounts = new int[tags.ordinalNames.size()];
+        long available = 0;
+        // merge the ids with the prices and the tag rows, all sorted by product id
+        int priceSlot = 0;
+        int rowSlot = 0;
+        for (long productId : productIds) {
+            priceSlot = advance(prices.productIds, priceSlot, productId);
+            if (priceSlot < prices.productIds.length && prices.productIds[priceSlot] == productId) {
+                available++;
+                bucketCounts[bucket(prices.productPrices[priceSlot])]++;
+            }
+            rowSlot = advance(rows.productIds(), rowSlot, productId);
+            if (rowSlot < rows.productIds().length && rows.productIds()[rowSlot] == productId) {
+                for (int i = rows.offsets()[rowSlot]; i < rows.offsets()[rowSlot + 1]; i++) {
+                    tagCounts[rows.ordinals()[i]]++;
+                }
+            }
+        }
+
+        List<PriceBucketDTO> buckets = new ArrayList<>(bucketCounts.length);
+        for (int i = 0; i < bucketCounts.length; i++) {
+            Double from = i == 0 ? null : priceBounds.get(i - 1);
+            Double to = i == priceBounds.size() ? null : priceBounds.get(i);
+            buckets.add(new PriceBucketDTO(from, to, bucketCounts[i]));
+        }
+        List<TagCountDTO> tagFacets = new ArrayList<>();
+        for (int ordinal = 0; ordinal < tagCounts.length; ordinal++) {
+            if (tagCounts[ordinal] > 0) {
+                tagFacets.add(new TagCountDTO(tags.ordinalNames.get(ordinal), tagCounts[ordinal]));
+            }
+        }
+        tagFacets.sort(Comparator.comparingLong(TagCountDTO::products).reversed().thenComparing(TagCountDTO::name));
+        return new ProductFacetsDTO(available, productIds.length - available, buckets, tagFacets);
+    }
+
+    /**
+     * Find the first slot from {@code from} whose id is not below {@code productId}, galloping so that sparse ids skip
+     * over long runs of the sorted array.
+     */
+    private static int advance(long[] sortedIds, int from, long productId) {
+        if (from >= sortedIds.length || sortedIds[from] >= productId) {
+            return from;
+        }
+        int step = 1;
+        while (from + step < sortedIds.length && sortedIds[from + step] < productId) {
+            step <<= 1;
+        }
+        int slot = Arrays.binarySearch(sortedIds, from + (step >> 1) + 1, Math.min(from + step, sortedIds.length), productId);
+        return slot >= 0 ? slot : -slot - 1;
+    }
+
+    private int bucket(long price) {
+        int slot = Arrays.binarySearch(minorBounds, price);
+        return slot >= 0 ? slot + 1 : -slot - 1;
+    }
+}
@@ -0,0 +1,345 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongPredicate;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index of active prices: parallel arrays of product ids and price values in minor units of the currency,
+ * sorted by price then product id.
+ * Price ranges are located with binary searches and read in either direction, so that listings filtered or sorted by
+ * price never join {@code product}, {@code priced_product} and {@code price}.
+ * <p>
+ * Readers dereference a single volatile {@link Entries} and never lock; committed price changes are applied
+ * copy-on-write, and priced products edited directly by re-reading the active price of their product. The index is
+ * built when the application is ready and rebuilt on the {@code taskExecutor} after bulk imports, serving the previous
+ * entries meanwhile. Until it is built, {@link #range} builds it on the calling thread.
+ */
+@Service
+public class ProductPriceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    public static final String PRODUCTS_METER_NAME = "catalog.prices.index.products";
+    public static final String QUERY_METER_NAME = "catalog.prices.index.query";
+
+    private final PricedProductRepository pricedProductRepository;
+
+    private final CatalogVersion catalogVersion;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final Timer queryTimer;
+
+    private final RebuildableModel<Entries> entries = new RebuildableModel<>(Entries.EMPTY, this::load);
+
+    public ProductPriceIndex(
+        PricedProductRepository pricedProductRepository,
+        CatalogVersion catalogVersion,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.pricedProductRepository = pricedProductRepository;
+        this.catalogVersion = catalogVersion;
+        this.executor = executor;
+        this.batchSize = applicationProperties.getSearch().getIndexBatchSize();
+        Gauge.builder(PRODUCTS_METER_NAME, this, ProductPriceIndex::size)
+            .description("Number of products with an active price in the price index.")
+            .register(registry);
+        this.queryTimer = Timer.builder(QUERY_METER_NAME).description("Latency of price index range reads.").register(registry);
+    }
+
+    public boolean isReady() {
+        return entries.isReady();
+    }
+
+    public int size() {
+        return entries.current().ids.length;
+    }
+
+    /**
+     * Find the products whose active price is within the range, ordered by price then product id.
+     *
+     * @param range the price range.
+     * @param descending whether the most expensive products come first.
+     * @param after the last entry of the previous page, or {@code null} for the first page.
+     * @param limit the maximum number of entries.
+     * @param filter only products accepted by the filter are returned.
+     * @return the matching entries.
+     */
+    public List<Entry> range(PriceRange range, boolean descending, Entry after, int limit, LongPredicate filter) {
+        Entries current = current();
+        long start = System.nanoTime();
+        try {
+            int from = current.search(range.min(), Long.MIN_VALUE, true);
+            int to = current.search(range.max(), Long.MAX_VALUE, false);
+            if (after != null && descending) {
+                to = Math.min(to, current.search(after.price(), after.productId(), true));
+            } else if (after != null) {
+                from = Math.max(from, current.search(after.price(), after.productId(), false));
+            }
+            List<Entry> result = new ArrayList<>(Math.min(limit, Math.max(to - from, 0)));
+            for (int i = 0; i < to - from && result.size() < limit; i++) {
+                int slot = descending ? to - 1 - i : from + i;
+                if (filter.test(current.ids[slot])) {
+                    result.add(new Entry(current.ids[slot], current.prices[slot]));
+                }
+            }
+            return result;
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The current generation of the index, building it first if needed.
+     */
+    Entries current() {
+        entries.ensureReady();
+        return entries.current();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not build the price index, it will be built by the first price query", e);
+        }
+    }
+
+    // changes are applied before the CatalogVersion is incremented
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPriceChanged(PriceChangedEvent event) {
+        long productId = event.productId();
+        Money value = event.value();
+        entries.apply(current -> value == null ? current.without(productId) : current.with(productId, value.minorUnits()));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            long productId = event.productId();
+            entries.apply(current -> current.without(productId));
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onPricedProductChanged(PricedProductChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        long productId = event.productId();
+        // read outside the write lock, and again under it if the entries changed meanwhile, so that concurrent changes
+        // of the product apply the latest committed price last
+        entries.apply(
+            () -> activePrice(productId),
+            (current, value) -> value == null ? current.without(productId) : current.with(productId, value.minorUnits())
+        );
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        entries.requestRebuild(executor, this::rebuildInBackground);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onPricesImported(PricesImportedEvent event) {
+        entries.requestRebuild(executor, this::rebuildInBackground);
+    }
+
+    /**
+     * Rebuild the whole index from the active prices. Reads keep being served from the previous entries until the new
+     * ones are published; changes committed meanwhile are replayed on top of them.
+     */
+    public void rebuild() {
+        entries.rebuild();
+        LOG.info("Price index built with {} products", size());
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+            catalogVersion.caughtUp();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not rebuild the price index, it keeps serving the previous entries", e);
+        }
+    }
+
+    private Money activePrice(long productId) {
+        Money value = null;
+        // ordered by priced product id, a product with several active prices keeps the last one, as when loading
+        for (PricedProductRepository.ActivePrice price : pricedProductRepository.findActivePricesByProductIdIn(List.of(productId))) {
+            value = price.getValue();
+        }
+        return value;
+    }
+
+    private Entries load() {
+        LOG.debug("Rebuilding price index");
+        LongLongHashMap prices = new LongLongHashMap();
+        Long afterId = Long.MIN_VALUE;
+        List<PricedProductRepository.ActivePrice> batch;
+        do {
+            batch = pricedProductRepository.findActivePricesByIdGreaterThan(afterId, PageRequest.ofSize(batchSize));
+            for (PricedProductRepository.ActivePrice price : batch) {
+                // ordered by priced product id, a product with several active prices keeps the last one
+                if (price.getValue() != null) {
+                    prices.put(price.getProductId(), price.getValue().minorUnits());
+                }
+                afterId = price.getPricedProductId();
+            }
+        } while (batch.size() == batchSize);
+        return Entries.of(prices);
+    }
+
+    /**
+     * The active price of a product, also used as a keyset pagination position.
+     *
+     * @param productId the id of the product.
+     * @param price the value of its active price, in minor units of the currency.
+     */
+    public record Entry(long productId, long price) {}
+
+    /**
+     * Immutable generation of the index, holding the same active prices in two orders. {@code ids} and {@code prices} are
+     * parallel and sorted by price then id, for range reads; {@code productIds} and {@code productPrices} are parallel and
+     * sorted by id, to find the price of a product and to merge with other sorted id sets.
+     */
+    static final class Entries {
+
+        static final Entries EMPTY = new Entries(new long[0], new long[0], new long[0], new long[0]);
+
+        final long[] ids;
+
+        final long[] prices;
+
+        final long[] productIds;
+
+        final long[] productPrices;
+
+        private Entries(long[] ids, long[] prices, long[] productIds, long[] productPrices) {
+            this.ids = ids;
+            this.prices = prices;
+            this.productIds = productIds;
+            this.productPrices = productPrices;
+        }
+
+        static Entries of(LongLongHashMap byProduct) {
+            long[] productIds = byProduct.keys().toArray();
+            Arrays.sort(productIds);
+            long[] productPrices = new long[productIds.length];
+            Entry[] sorted = new Entry[productIds.length];
+            for (int i = 0; i < productIds.length; i++) {
+                productPrices[i] = byProduct.get(productIds[i]);
+                sorted[i] = new Entry(productIds[i], productPrices[i]);
+            }
+            Arrays.sort(sorted, (a, b) -> compare(a.price(), a.productId(), b.price(), b.productId()));
+            long[] ids = new long[sorted.length];
+            long[] prices = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = sorted[i].productId();
+                prices[i] = sorted[i].price();
+            }
+            return new Entries(ids, prices, productIds, productPrices);
+        }
+
+        /**
+         * Binary search for the first slot whose (price, id) is after the given key, or not before it when inclusive.
+         */
+        int search(long price, long productId, boolean inclusive) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(prices[mid], ids[mid], price, productId);
+                if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Entries with(long productId, long price) {
+            Entries base = without(productId);
+            int slot = base.search(price, productId, true);
+            int productSlot = -Arrays.binarySearch(base.productIds, productId) - 1;
+            return new Entries(
+                inserted(base.ids, slot, productId),
+                inserted(base.prices, slot, price),
+                inserted(base.productIds, productSlot, productId),
+                inserted(base.productPrices, productSlot, price)
+            );
+        }
+
+        Entries without(long productId) {
+            int productSlot = Arrays.binarySearch(productIds, productId);
+            if (productSlot < 0) {
+                return this;
+            }
+            int slot = search(productPrices[productSlot], productId, true);
+            return new Entries(
+                removed(ids, slot),
+                removed(prices, slot),
+                removed(productIds, productSlot),
+                removed(productPrices, productSlot)
+            );
+        }
+
+        private static int compare(long price, long productId, long otherPrice, long otherProductId) {
+            int cmp = Long.compare(price, otherPrice);
+            return cmp != 0 ? cmp : Long.compare(productId, otherProductId);
+        }
+
+        private static long[] inserted(long[] values, int slot, long value) {
+            long[] result = new long[values.length + 1];
+            System.arraycopy(values, 0, result, 0, slot);
+            result[slot] = value;
+            System.arraycopy(values, slot, result, slot + 1, values.length - slot);
+            return result;
+        }
+
+        private static long[] removed(long[] values, int slot) {
+            long[] result = new long[values.length - 1];
+            System.arraycopy(values, 0, result, 0, slot);
+            System.arraycopy(values, slot + 1, result, slot, values.length - slot - 1);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package net.petcu.store.service.catalog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.exception.PriceLockTimeoutException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serializes the price changes of each product, so that a product never has two active
+ * {@link net.petcu.store.domain.PricedProduct}s. Changes of different products never wait for each other.
+ * <p>
+ * A lock is held until the current transaction completes, so the next change of the product sees the committed active
+ * price. With {@code application.catalog.price-lock} {@code advisory} it is a PostgreSQL transaction-level advisory
+ * lock keyed by the product id, shared by every instance; with {@code local} it is a fair in-memory lock of this
+ * instance. Both grant the lock to waiters in arrival order, and give up after
+ * {@code application.catalog.price-lock-timeout}. Several products are locked in ascending id order, so concurrent
+ * bulk changes cannot deadlock.
+ */
+@Service
+public class ProductPriceLock {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationProperties.Catalog.PriceLock mode;
+
+    private final Duration timeout;
+
+    private final ConcurrentHashMap<Long, LocalLock> localLocks = new ConcurrentHashMap<>();
+
+    public ProductPriceLock(JdbcTemplate jdbcTemplate, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = applicationProperties.getCatalog().getPriceLock();
+        this.timeout = applicationProperties.getCatalog().getPriceLockTimeout();
+    }
+
+    /**
+     * Lock the price of a product until the current transaction completes.
+     *
+     * @throws PriceLockTimeoutException if the lock is not granted within the timeout.
+     */
+    public void lock(long productId) {
+        lockAll(List.of(productId));
+    }
+
+    /**
+     * Lock the prices of products until the current transaction completes.
+     *
+     * @throws PriceLockTimeoutException if a lock is not granted within the timeout; the locks already granted are
+     * released with the transaction.
+     */
+    public void lockAll(Collection<Long> productIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Product price locks are held until the transaction completes, none is active");
+        }
+        long[] sorted = productIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        if (sorted.length == 0) {
+            return;
+        }
+        switch (mode) {
+            case ADVISORY -> lockAdvisory(sorted);
+            case LOCAL -> lockLocal(sorted);
+        }
+    }
+
+    private void lockAdvisory(long[] productIds) {
+        String previousTimeout = jdbcTemplate.queryForObject("select current_setting('lock_timeout')", String.class);
+        jdbcTemplate.queryForObject("select set_config('lock_timeout', ?, true)", String.class, timeout.toMillis() + "ms");
+        try {
+            // unnest keeps the ascending order of the array
+            jdbcTemplate.query(
+                "select pg_advisory_xact_lock(id) from unnest(?) as id",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", box(productIds))),
+                rs -> {}
+            );
+        } catch (PessimisticLockingFailureException e) {
+            // the transaction is aborted, and the locks already granted with it
+            throw new PriceLockTimeoutException(productIds.length == 1 ? productIds[0] : null);
+        }
+        jdbcTemplate.queryForObject("select set_config('lock_timeout', ?, true)", String.class, previousTimeout);
+    }
+
+    private void lockLocal(long[] productIds) {
+        List<LocalLock> held = new ArrayList<>(productIds.length);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    held.forEach(LocalLock::unlock);
+                }
+            }
+        );
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (long productId : productIds) {
+            LocalLock lock = acquire(productId);
+            boolean locked = false;
+            try {
+                locked = lock.lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!locked) {
+                release(lock);
+                throw new PriceLockTimeoutException(productId);
+            }
+            held.add(lock);
+        }
+    }
+
+    private LocalLock acquire(long productId) {
+        return localLocks.compute(productId, (id, lock) -> {
+            LocalLock acquired = lock == null ? new LocalLock(id) : lock;
+            acquired.users++;
+            return acquired;
+        });
+    }
+
+    // drops the lock of a product once no transaction holds or waits for it
+    private void release(LocalLock lock) {
+        localLocks.computeIfPresent(lock.productId, (id, current) -> --current.users == 0 ? null : current);
+    }
+
+    int localLockCount() {
+        return localLocks.size();
+    }
+
+    private static Long[] box(long[] values) {
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    private final class LocalLock {
+
+        private final long productId;
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+
+        // transactions holding or waiting for the lock, guarded by the map entry
+        private int users;
+
+        private LocalLock(long productId) {
+            this.productId = productId;
+        }
+
+        private void unlock() {
+            lock.unlock();
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.petcu.store.service.catalog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caches the product ids matched by {@link ProductSearchIndex} queries in the {@value #SEARCH_RESULTS_CACHE} JCache
+ * region, as compact {@code long[]} values.
+ * <p>
+ * Keys are the normalized query (Unicode NFC, surrounding whitespace removed, lower case) prefixed with the generation of
+ * the index. Every change applied to the index moves it to a new generation, so entries of older generations are never
+ * read again and are left to expire instead of being evicted one by one.
+ */
+@Service
+public class ProductSearchCache {
+
+    public static final String SEARCH_RESULTS_CACHE = "productSearchResults";
+
+    public static final String REQUESTS_METER_NAME = "catalog.search.cache.requests";
+    public static final String HIT_RATIO_METER_NAME = "catalog.search.cache.hit.ratio";
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final Cache<Object, Object> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public ProductSearchCache(ProductSearchIndex productSearchIndex, CacheManager cacheManager, MeterRegistry registry) {
+        this.productSearchIndex = productSearchIndex;
+        this.cache = cacheManager.getCache(SEARCH_RESULTS_CACHE);
+        FunctionCounter.builder(REQUESTS_METER_NAME, hits, LongAdder::sum)
+            .description("Product search queries answered from the result cache.")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder(REQUESTS_METER_NAME, misses, LongAdder::sum)
+            .description("Product search queries answered from the result cache.")
+            .tag("result", "miss")
+            .register(registry);
+        Gauge.builder(HIT_RATIO_METER_NAME, this, ProductSearchCache::hitRatio)
+            .description("Share of product search queries answered from the result cache.")
+            .register(registry);
+    }
+
+    /**
+     * Find the ids of the products whose name contains the query, ignoring case, from the cache or from the index.
+     *
+     * @param query the substring to look for.
+     * @return the matching product ids in ascending order, shared with the cache and not to be modified.
+     */
+    public long[] search(String query) {
+        String normalized = normalize(query);
+        // read before searching, so that a result is never cached under a newer generation than the one it was read from
+        String key = productSearchIndex.generation() + ":" + normalized;
+        if (cache.get(key) instanceof long[] productIds) {
+            hits.increment();
+            return productIds;
+        }
+        misses.increment();
+        long[] productIds = productSearchIndex.search(normalized);
+        cache.put(key, productIds);
+        return productIds;
+    }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    static String normalize(String query) {
+        return Normalizer.normalize(query == null ? "" : query, Normalizer.Form.NFC).strip().toLowerCase(Locale.ROOT);
+    }
+}
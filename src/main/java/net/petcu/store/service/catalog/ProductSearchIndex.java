@@ -0,0 +1,226 @@
+package net.petcu.store.service.catalog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory trigram index over {@link net.petcu.store.domain.Product} names, answering substring searches without a
+ * {@code LIKE '%x%'} scan of the {@code product} table.
+ * <p>
+ * The index is built when the application is ready, kept up to date from committed {@link ProductChangedEvent}s, rebuilt
+ * on the {@code taskExecutor} after bulk imports and periodically checked against the table.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public static final String DOCUMENTS_METER_NAME = "catalog.search.index.documents";
+    public static final String TRIGRAMS_METER_NAME = "catalog.search.index.trigrams";
+    public static final String QUERY_METER_NAME = "catalog.search.index.query";
+
+    private final ProductRepository productRepository;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final Timer queryTimer;
+
+    private final RebuildableModel<TrigramIndex> index = new RebuildableModel<>(new TrigramIndex(), this::load);
+
+    public ProductSearchIndex(
+        ProductRepository productRepository,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.productRepository = productRepository;
+        this.executor = executor;
+        this.batchSize = applicationProperties.getSearch().getIndexBatchSize();
+        Gauge.builder(DOCUMENTS_METER_NAME, this, ProductSearchIndex::size)
+            .description("Number of products in the name search index.")
+            .register(registry);
+        Gauge.builder(TRIGRAMS_METER_NAME, this, ProductSearchIndex::trigramCount)
+            .description("Number of distinct trigrams in the name search index.")
+            .register(registry);
+        this.queryTimer = Timer.builder(QUERY_METER_NAME).description("Latency of name search index queries.").register(registry);
+    }
+
+    /**
+     * Whether the index has been built and can answer queries.
+     */
+    public boolean isReady() {
+        return index.isReady();
+    }
+
+    /**
+     * Find the ids of the products whose name contains the query, ignoring case.
+     *
+     * @param query the substring to look for.
+     * @return the matching product ids in ascending order.
+     */
+    public long[] search(String query) {
+        long start = System.nanoTime();
+        try {
+            return index.read(current -> current.search(query));
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * The generation of the index, incremented after every applied change and rebuild: results of the same query at the
+     * same generation are equal.
+     */
+    public long generation() {
+        return index.generation();
+    }
+
+    public int size() {
+        return index.read(TrigramIndex::size);
+    }
+
+    public int trigramCount() {
+        return index.read(TrigramIndex::trigramCount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not build the product search index, it will be retried by the consistency check", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        index.apply(current -> apply(current, event));
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        index.requestRebuild(executor, this::rebuildInBackground);
+    }
+
+    /**
+     * Rebuild the whole index from the {@code product} table. Queries keep being served from the previous index until the
+     * new one is swapped in; changes committed meanwhile are replayed on top of it.
+     */
+    public void rebuild() {
+        index.rebuild();
+        LOG.info("Product search index built with {} products and {} trigrams", size(), trigramCount());
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not rebuild the product search index, it will be retried by the consistency check", e);
+        }
+    }
+
+    private TrigramIndex load() {
+        LOG.debug("Rebuilding product search index");
+        TrigramIndex rebuilt = new TrigramIndex();
+        Long afterId = Long.MIN_VALUE;
+        List<ProductRepository.IdAndName> batch;
+        do {
+            batch = productRepository.findIdAndNameByIdGreaterThan(afterId, PageRequest.ofSize(batchSize));
+            for (ProductRepository.IdAndName product : batch) {
+                rebuilt.put(product.getId(), product.getName());
+                afterId = product.getId();
+            }
+        } while (batch.size() == batchSize);
+        return rebuilt;
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.search.consistency-check-delay:PT1H}",
+        fixedDelayString = "${application.search.consistency-check-delay:PT1H}"
+    )
+    public void checkConsistency() {
+        ConsistencyReport report = verify();
+        if (report.isConsistent()) {
+            LOG.debug("Product search index is consistent: {}", report);
+            return;
+        }
+        LOG.warn("Product search index drifted from the product table, rebuilding: {}", report);
+        rebuild();
+    }
+
+    /**
+     * Compare the index with the {@code product} table.
+     *
+     * @return the differences found.
+     */
+    public ConsistencyReport verify() {
+        long rows = 0;
+        long missing = 0;
+        long stale = 0;
+        long matched = 0;
+        Long afterId = Long.MIN_VALUE;
+        List<ProductRepository.IdAndName> batch;
+        do {
+            batch = productRepository.findIdAndNameByIdGreaterThan(afterId, PageRequest.ofSize(batchSize));
+            List<ProductRepository.IdAndName> products = batch;
+            String[] indexed = index.read(current -> products.stream().map(product -> current.get(product.getId())).toArray(String[]::new));
+            for (int i = 0; i < batch.size(); i++) {
+                rows++;
+                afterId = batch.get(i).getId();
+                String expected = TrigramIndex.normalize(batch.get(i).getName());
+                if (indexed[i] == null) {
+                    missing += expected == null ? 0 : 1;
+                } else {
+                    matched++;
+                    stale += indexed[i].equals(expected) ? 0 : 1;
+                }
+            }
+        } while (batch.size() == batchSize);
+        int size = size();
+        return new ConsistencyReport(rows, size, missing, stale, size - matched);
+    }
+
+    private static TrigramIndex apply(TrigramIndex target, ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.productId());
+        } else {
+            target.put(event.productId(), event.product().name());
+        }
+        return target;
+    }
+
+    /**
+     * Result of comparing the index with the {@code product} table.
+     *
+     * @param rows the number of rows in the table.
+     * @param indexed the number of products in the index.
+     * @param missing the rows with a name that are not indexed.
+     * @param stale the rows indexed with an outdated name.
+     * @param orphaned the indexed products that no longer exist.
+     */
+    public record ConsistencyReport(long rows, long indexed, long missing, long stale, long orphaned) {
+        public boolean isConsistent() {
+            return missing == 0 && stale == 0 && orphaned == 0;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.enumeration.OrderStatus;
+import net.petcu.store.repository.OrderItemRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.dto.ProductSuggestionDTO;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Autocomplete over {@link net.petcu.store.domain.Product} names, ranked by the number of paid orders containing each
+ * product. Suggestions are answered from an in-memory {@link SuggestionTrie} without querying the database.
+ * <p>
+ * The trie is built when the application is ready, kept up to date from committed {@link ProductChangedEvent}s and
+ * rebuilt on the {@code taskExecutor} after bulk imports. Rankings are refreshed in the background every
+ * {@code application.search.suggest-ranking-refresh-delay}.
+ */
+@Service
+public class ProductSuggester {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductSuggester.class);
+
+    public static final String PRODUCTS_METER_NAME = "catalog.suggest.products";
+
+    private final ProductRepository productRepository;
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final int topK;
+
+    private final RebuildableModel<SuggestionTrie> trie;
+
+    public ProductSuggester(
+        ProductRepository productRepository,
+        OrderItemRepository orderItemRepository,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.productRepository = productRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.executor = executor;
+        this.batchSize = applicationProperties.getSearch().getIndexBatchSize();
+        this.topK = applicationProperties.getSearch().getSuggestTopK();
+        this.trie = new RebuildableModel<>(new SuggestionTrie(topK), this::load);
+        Gauge.builder(PRODUCTS_METER_NAME, this, ProductSuggester::size)
+            .description("Number of products in the autocomplete trie.")
+            .register(registry);
+    }
+
+    /**
+     * Whether the trie has been built and can answer suggestions.
+     */
+    public boolean isReady() {
+        return trie.isReady();
+    }
+
+    /**
+     * The largest number of suggestions returned for a prefix.
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Suggest the most ordered products whose name starts with the prefix, ignoring case.
+     *
+     * @param prefix the beginning of the name.
+     * @param limit the maximum number of suggestions, capped to {@link #getTopK()}.
+     * @return the suggestions, most ordered first.
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        return trie.read(current -> {
+            long[] ids = current.suggest(prefix, Math.min(limit, topK));
+            List<ProductSuggestionDTO> suggestions = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                suggestions.add(new ProductSuggestionDTO(id, current.name(id)));
+            }
+            return suggestions;
+        });
+    }
+
+    public int size() {
+        return trie.read(SuggestionTrie::size);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not build the autocomplete trie, it will be retried with the next ranking refresh", e);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        trie.apply(current -> apply(current, event));
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        trie.requestRebuild(executor, this::rebuildInBackground);
+    }
+
+    /**
+     * Rebuild the whole trie from the {@code product} table and the paid orders. Suggestions keep being served from the
+     * previous trie until the new one is swapped in; changes committed meanwhile are replayed on top of it.
+     */
+    public void rebuild() {
+        trie.rebuild();
+        LOG.info("Autocomplete trie built with {} products", size());
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not rebuild the autocomplete trie, it will be retried with the next ranking refresh", e);
+        }
+    }
+
+    private SuggestionTrie load() {
+        LOG.debug("Rebuilding autocomplete trie");
+        SuggestionTrie rebuilt = new SuggestionTrie(topK);
+        rebuilt.rank(loadPopularity());
+        Long afterId = Long.MIN_VALUE;
+        List<ProductRepository.IdAndName> batch;
+        do {
+            batch = productRepository.findIdAndNameByIdGreaterThan(afterId, PageRequest.ofSize(batchSize));
+            for (ProductRepository.IdAndName product : batch) {
+                rebuilt.put(product.getId(), product.getName());
+                afterId = product.getId();
+            }
+        } while (batch.size() == batchSize);
+        return rebuilt;
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.search.suggest-ranking-refresh-delay:PT10M}",
+        fixedDelayString = "${application.search.suggest-ranking-refresh-delay:PT10M}"
+    )
+    public void refreshRankings() {
+        if (!trie.isReady()) {
+            // the build loads the rankings too, and joins the one in flight, if any
+            trie.ensureReady();
+            LOG.info("Autocomplete trie built with {} products", size());
+            return;
+        }
+        LongIntHashMap popularity = loadPopularity();
+        trie.apply(current -> {
+            current.rank(popularity);
+            return current;
+        });
+        LOG.debug("Autocomplete rankings refreshed for {} ordered products", popularity.size());
+    }
+
+    private LongIntHashMap loadPopularity() {
+        List<OrderItemRepository.ProductOrderCount> counts = orderItemRepository.countOrdersByProduct(OrderStatus.PAID);
+        LongIntHashMap popularity = new LongIntHashMap(counts.size());
+        for (OrderItemRepository.ProductOrderCount count : counts) {
+            popularity.put(count.getProductId(), Math.toIntExact(count.getOrders()));
+        }
+        return popularity;
+    }
+
+    private static SuggestionTrie apply(SuggestionTrie target, ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.productId());
+        } else {
+            target.put(event.productId(), event.product().name());
+        }
+        return target;
+    }
+}
@@ -0,0 +1,357 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Tag;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.TagRepository;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductTagsChangedEvent;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index of {@link net.petcu.store.domain.Product} tags, keeping one compressed {@link IdBitmap} of product ids
+ * per tag plus one of every product. {@link TagFilter}s are answered with bitmap intersections, unions and differences
+ * instead of SQL joins on {@code rel_product__tag}.
+ * <p>
+ * The index is built when the application is ready, kept up to date from committed product and tag changes and rebuilt
+ * on the {@code taskExecutor} after bulk imports, answering from the previous index meanwhile. Until it is built,
+ * {@link #filter} builds it on the calling thread.
+ */
+@Service
+public class ProductTagIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductTagIndex.class);
+
+    public static final String TAGS_METER_NAME = "catalog.tags.index.tags";
+    public static final String QUERY_METER_NAME = "catalog.tags.index.query";
+
+    private final ProductRepository productRepository;
+
+    private final TagRepository tagRepository;
+
+    private final CatalogVersion catalogVersion;
+
+    private final Executor executor;
+
+    private final int batchSize;
+
+    private final Timer queryTimer;
+
+    private final RebuildableModel<Postings> postings = new RebuildableModel<>(new Postings(), this::load);
+
+    public ProductTagIndex(
+        ProductRepository productRepository,
+        TagRepository tagRepository,
+        CatalogVersion catalogVersion,
+        @Qualifier("taskExecutor") Executor executor,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.productRepository = productRepository;
+        this.tagRepository = tagRepository;
+        this.catalogVersion = catalogVersion;
+        this.executor = executor;
+        this.batchSize = applicationProperties.getSearch().getIndexBatchSize();
+        Gauge.builder(TAGS_METER_NAME, this, ProductTagIndex::tagCount)
+            .description("Number of tags in the product tag index.")
+            .register(registry);
+        this.queryTimer = Timer.builder(QUERY_METER_NAME).description("Latency of product tag index filters.").register(registry);
+    }
+
+    public boolean isReady() {
+        return postings.isReady();
+    }
+
+    /**
+     * Find the ids of the products matching the filter, in ascending order.
+     *
+     * @param filter the tag filter.
+     * @param afterId only ids greater than this one are returned.
+     * @param limit the maximum number of ids.
+     * @return the matching product ids.
+     */
+    public long[] filter(TagFilter filter, long afterId, int limit) {
+        postings.ensureReady();
+        long start = System.nanoTime();
+        try {
+            return postings.read(current -> current.filter(filter).after(afterId, limit));
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Get a predicate accepting the ids of the products matching the filter, to combine tags with other indexes. The
+     * predicate is backed by a copy of the matching ids and does not see later changes.
+     *
+     * @param filter the tag filter.
+     * @return the predicate.
+     */
+    public LongPredicate matcher(TagFilter filter) {
+        return postings.readReady(current -> current.filter(filter).copy()::contains);
+    }
+
+    /**
+     * Count the products carrying each tag.
+     *
+     * @return the number of products per tag name, ordered by name.
+     */
+    public Map<String, Long> counts() {
+        return postings.readReady(current -> {
+            Map<String, Long> counts = new TreeMap<>();
+            current.tags.forEach((name, products) -> counts.put(name, products.cardinality()));
+            return counts;
+        });
+    }
+
+    /**
+     * Read the current postings under the read lock, building them first if needed.
+     */
+    <T> T read(Function<Postings, T> reader) {
+        return postings.readReady(reader);
+    }
+
+    public int tagCount() {
+        return postings.read(current -> current.tags.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not build the product tag index, it will be built by the first tag filter", e);
+        }
+    }
+
+    // changes are applied before the CatalogVersion is incremented
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        long productId = event.productId();
+        boolean deleted = event.isDeleted();
+        postings.apply(current -> {
+            if (deleted) {
+                current.deleted(productId);
+            } else {
+                current.products.add(productId);
+            }
+            return current;
+        });
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onProductTagsChanged(ProductTagsChangedEvent event) {
+        long productId = event.productId();
+        Set<String> tags = event.tags();
+        postings.apply(current -> {
+            current.tagged(productId, tags);
+            return current;
+        });
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        postings.requestRebuild(executor, this::rebuildInBackground);
+    }
+
+    /**
+     * Rebuild the whole index from the {@code product}, {@code tag} and {@code rel_product__tag} tables. Filters keep
+     * being answered from the previous index until the new one is swapped in; changes committed meanwhile are replayed
+     * on top of it.
+     */
+    public void rebuild() {
+        postings.rebuild();
+        long products = postings.read(current -> current.products.cardinality());
+        LOG.info("Product tag index built with {} products and {} tags", products, tagCount());
+    }
+
+    private void rebuildInBackground() {
+        try {
+            rebuild();
+            catalogVersion.caughtUp();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not rebuild the product tag index, it keeps answering from the previous one", e);
+        }
+    }
+
+    private Postings load() {
+        LOG.debug("Rebuilding product tag index");
+        Postings rebuilt = new Postings();
+        Long afterId = Long.MIN_VALUE;
+        List<Long> batch;
+        do {
+            batch = productRepository.findIdsByIdGreaterThan(afterId, PageRequest.ofSize(batchSize));
+            for (Long productId : batch) {
+                rebuilt.products.add(productId);
+                afterId = productId;
+            }
+        } while (batch.size() == batchSize);
+        for (Tag tag : tagRepository.findAll()) {
+            IdBitmap products = new IdBitmap();
+            tagRepository.findProductIdsByTagId(tag.getId()).forEach(products::add);
+            if (!products.isEmpty()) {
+                rebuilt.indexed(tag.getName(), products);
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * The bitmaps of one index generation, and the reverse mapping of each product to the ordinals of its tags, so that
+     * tags can be counted over a set of products with an {@code int[]} of counters.
+     */
+    static final class Postings {
+
+        final IdBitmap products = new IdBitmap();
+
+        final Map<String, IdBitmap> tags = new HashMap<>();
+
+        // ordinals are never reused within a generation, a tag carried by no product keeps its ordinal
+        final ObjectIntHashMap<String> ordinals = new ObjectIntHashMap<>();
+
+        final List<String> ordinalNames = new ArrayList<>();
+
+        final LongObjectHashMap<int[]> tagsByProduct = new LongObjectHashMap<>();
+
+        // derived from tagsByProduct by the first reader after a change, readers racing to derive it get equal rows
+        private volatile TagRows rows;
+
+        TagRows rows() {
+            TagRows current = rows;
+            if (current == null) {
+                current = TagRows.of(tagsByProduct);
+                rows = current;
+            }
+            return current;
+        }
+
+        void indexed(String name, IdBitmap tagged) {
+            rows = null;
+            tags.put(name, tagged);
+            int ordinal = ordinal(name);
+            for (long productId : tagged.toArray()) {
+                int[] existing = tagsByProduct.get(productId);
+                int[] appended = existing == null ? new int[1] : Arrays.copyOf(existing, existing.length + 1);
+                appended[appended.length - 1] = ordinal;
+                tagsByProduct.put(productId, appended);
+            }
+        }
+
+        void deleted(long productId) {
+            products.remove(productId);
+            tagged(productId, Set.of());
+        }
+
+        void tagged(long productId, Set<String> names) {
+            rows = null;
+            tags.forEach((name, tagged) -> {
+                if (!names.contains(name)) {
+                    tagged.remove(productId);
+                }
+            });
+            tags.values().removeIf(IdBitmap::isEmpty);
+            for (String name : names) {
+                tags.computeIfAbsent(name, key -> new IdBitmap()).add(productId);
+            }
+            if (names.isEmpty()) {
+                tagsByProduct.remove(productId);
+            } else {
+                tagsByProduct.put(productId, names.stream().mapToInt(this::ordinal).toArray());
+            }
+        }
+
+        private int ordinal(String name) {
+            int ordinal = ordinals.getOrDefault(name, -1);
+            if (ordinal < 0) {
+                ordinal = ordinalNames.size();
+                ordinals.put(name, ordinal);
+                ordinalNames.add(name);
+            }
+            return ordinal;
+        }
+
+        IdBitmap filter(TagFilter filter) {
+            IdBitmap result = null;
+            for (String name : filter.all()) {
+                IdBitmap tagged = tags.get(name);
+                if (tagged == null) {
+                    return new IdBitmap();
+                }
+                result = result == null ? tagged : IdBitmap.and(result, tagged);
+            }
+            if (!filter.any().isEmpty()) {
+                IdBitmap anyTagged = union(filter.any());
+                result = result == null ? anyTagged : IdBitmap.and(result, anyTagged);
+            }
+            if (result == null) {
+                result = products;
+            }
+            if (!filter.none().isEmpty()) {
+                result = IdBitmap.andNot(result, union(filter.none()));
+            }
+            return result;
+        }
+
+        private IdBitmap union(Set<String> names) {
+            IdBitmap union = new IdBitmap();
+            for (String name : names) {
+                IdBitmap tagged = tags.get(name);
+                if (tagged != null) {
+                    union = IdBitmap.or(union, tagged);
+                }
+            }
+            return union;
+        }
+    }
+
+    /**
+     * The tag ordinals of every tagged product in compressed rows sorted by product id: the ordinals of
+     * {@code productIds[i]} are {@code ordinals[offsets[i]]} up to {@code ordinals[offsets[i + 1]]} excluded.
+     */
+    record TagRows(long[] productIds, int[] offsets, int[] ordinals) {
+        static TagRows of(LongObjectHashMap<int[]> tagsByProduct) {
+            long[] productIds = tagsByProduct.keys().toArray();
+            Arrays.sort(productIds);
+            int[] offsets = new int[productIds.length + 1];
+            for (int i = 0; i < productIds.length; i++) {
+                offsets[i + 1] = offsets[i] + tagsByProduct.get(productIds[i]).length;
+            }
+            int[] ordinals = new int[offsets[productIds.length]];
+            for (int i = 0; i < productIds.length; i++) {
+                int[] row = tagsByProduct.get(productIds[i]);
+                System.arraycopy(row, 0, ordinals, offsets[i], row.length);
+            }
+            return new TagRows(productIds, offsets, ordinals);
+        }
+    }
+}
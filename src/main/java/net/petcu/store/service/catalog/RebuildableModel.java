@@ -0,0 +1,243 @@
+package net.petcu.store.service.catalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * An in-memory read model that is loaded from the database, kept up to date with committed changes, and rebuilt from
+ * the database while it keeps serving.
+ * <p>
+ * Changes are {@link UnaryOperator}s applied under a write lock; a model mutated in place returns it, a copy-on-write
+ * model returns the new generation. While a rebuild loads the new model, reads are served from the previous one and
+ * the changes applied meanwhile are recorded, then replayed on top of the loaded model before it is swapped in.
+ * Rebuilds run one at a time, on the calling thread or requested to run in the background.
+ *
+ * @param <T> the type of the model.
+ */
+final class RebuildableModel<T> {
+
+    private final Supplier<T> loader;
+
+    private final UnaryOperator<T> loaded;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object rebuildLock = new Object();
+
+    // set while a rebuild is requested in the background and has not started yet
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    // written under the write lock
+    private volatile T model;
+
+    // guarded by lock, non-null while a rebuild is running
+    private List<UnaryOperator<T>> changesDuringRebuild;
+
+    private volatile boolean ready;
+
+    // written under rebuildLock, incremented when a rebuild ends, whether it succeeded or failed
+    private volatile long rebuilds;
+
+    // guarded by rebuildLock, the failure of the last rebuild if it failed
+    private RuntimeException lastFailure;
+
+    // written under the write lock, incremented whenever the model may have changed
+    private volatile long generation;
+
+    /**
+     * @param initial the model served until the first rebuild.
+     * @param loader loads the whole model from the database.
+     */
+    RebuildableModel(T initial, Supplier<T> loader) {
+        this(initial, loader, UnaryOperator.identity());
+    }
+
+    /**
+     * @param initial the model served until the first rebuild.
+     * @param loader loads the whole model from the database.
+     * @param loaded applied to a rebuilt model once the changes are replayed, right before it is swapped in, to drop
+     * what only the replay needed.
+     */
+    RebuildableModel(T initial, Supplier<T> loader, UnaryOperator<T> loaded) {
+        this.model = initial;
+        this.loader = loader;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Whether the model has been built once.
+     */
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The generation of the model, incremented after every applied change and rebuild: reads of the same generation
+     * see the same model.
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * The current model without locking, for copy-on-write models whose generations are never mutated.
+     */
+    T current() {
+        return model;
+    }
+
+    /**
+     * Read the current model under the read lock.
+     */
+    <R> R read(Function<? super T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(model);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read the current model under the read lock, building it first if it has never been built.
+     */
+    <R> R readReady(Function<? super T, R> reader) {
+        ensureReady();
+        return read(reader);
+    }
+
+    /**
+     * Build the model on the calling thread if it has never been built. Callers arriving while a rebuild runs wait for
+     * it instead of starting their own, and get its failure if it fails.
+     *
+     * @throws RuntimeException if the model could not be built.
+     */
+    void ensureReady() {
+        if (ready) {
+            return;
+        }
+        long seen = rebuilds;
+        synchronized (rebuildLock) {
+            if (ready) {
+                return;
+            }
+            if (rebuilds != seen && lastFailure != null) {
+                throw lastFailure;
+            }
+            rebuildLocked();
+        }
+    }
+
+    /**
+     * Apply a committed change to the current model, and to the model being rebuilt, if any.
+     */
+    void apply(UnaryOperator<T> change) {
+        lock.writeLock().lock();
+        try {
+            model = change.apply(model);
+            generation++;
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a committed change computed from a value read from the database, such as the active price of a product read
+     * again. The value is read outside the write lock; if another change was applied while it was read, the read may be
+     * older than what that change applied, so it is read again under the write lock and the latest read is applied last.
+     *
+     * @param reader reads the value, outside the lock unless it has to be read again.
+     * @param change applies the value to the model.
+     */
+    <V> void apply(Supplier<V> reader, BiFunction<T, V, T> change) {
+        long seen = generation;
+        V value = reader.get();
+        apply(current -> change.apply(current, generation == seen ? value : reader.get()));
+    }
+
+    /**
+     * Run {@code task}, which rebuilds the model, on the executor. Requests made before it starts are served by it;
+     * requests made once it has started, which may have read the table before their change, request another one.
+     *
+     * @param executor runs the task.
+     * @param task calls {@link #rebuild()} and handles its outcome.
+     */
+    void requestRebuild(Executor executor, Runnable task) {
+        if (!rebuildRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                rebuildRequested.set(false);
+                task.run();
+            });
+        } catch (RejectedExecutionException e) {
+            rebuildRequested.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Load the whole model on the calling thread and swap it in, once the changes applied meanwhile are replayed on
+     * top of it.
+     *
+     * @throws RuntimeException if loading fails; the current model is kept.
+     */
+    void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildLocked();
+        }
+    }
+
+    // called holding rebuildLock
+    private void rebuildLocked() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        T rebuilt;
+        try {
+            rebuilt = loader.get();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastFailure = e;
+            rebuilds++;
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (UnaryOperator<T> change : changesDuringRebuild) {
+                rebuilt = change.apply(rebuilt);
+            }
+            changesDuringRebuild = null;
+            model = loaded.apply(rebuilt);
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastFailure = null;
+        rebuilds++;
+        ready = true;
+    }
+}
@@ -0,0 +1,311 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Compressed (radix) trie over normalized names, where every node caches the {@code k} most popular ids of its subtree.
+ * A prefix lookup walks at most one edge per character of the prefix and returns the cached ids of the node it ends in.
+ * <p>
+ * The cached ranking of a node is derived from the rankings of its children and the ids ending at the node, so a change
+ * only recomputes the nodes on its path. Not thread-safe.
+ */
+final class SuggestionTrie {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final int k;
+
+    private final Node root = new Node("");
+
+    // id -> normalized key
+    private final LongObjectHashMap<String> keys = new LongObjectHashMap<>();
+
+    // id -> display name
+    private final LongObjectHashMap<String> names = new LongObjectHashMap<>();
+
+    private LongIntHashMap popularity = new LongIntHashMap();
+
+    SuggestionTrie(int k) {
+        this.k = k;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : WHITESPACE.matcher(text.toLowerCase(Locale.ROOT).stripLeading()).replaceAll(" ");
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    String name(long id) {
+        return names.get(id);
+    }
+
+    /**
+     * Index (or re-index) the name of the given id. A blank name removes the id.
+     */
+    void put(long id, String name) {
+        remove(id);
+        String key = normalize(name).stripTrailing();
+        if (key.isEmpty()) {
+            return;
+        }
+        keys.put(id, key);
+        names.put(id, name);
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int offset = 0;
+        while (offset < key.length()) {
+            int slot = node.childSlot(key.charAt(offset));
+            if (slot < 0) {
+                Node leaf = new Node(key.substring(offset));
+                node.addChild(-slot - 1, leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefixLength(child.label, key, offset);
+            if (common < child.label.length()) {
+                // split the edge: node -> middle -> child
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] { child };
+                middle.top = child.top;
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            offset += common;
+        }
+        node.terminals = append(node.terminals, id);
+        rerank(path);
+    }
+
+    /**
+     * Remove the given id.
+     *
+     * @return whether the id was indexed.
+     */
+    boolean remove(long id) {
+        String key = keys.remove(id);
+        if (key == null) {
+            return false;
+        }
+        names.remove(id);
+        List<Node> path = find(key);
+        Node node = path.getLast();
+        node.terminals = without(node.terminals, id);
+        // prune the nodes left empty and merge those left with a single child
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.terminals.length > 0 || current.children.length > 1) {
+                break;
+            }
+            int slot = parent.childSlot(current.label.charAt(0));
+            if (current.children.length == 0) {
+                parent.removeChild(slot);
+                path.remove(i);
+            } else {
+                Node child = current.children[0];
+                child.label = current.label + child.label;
+                parent.children[slot] = child;
+                path.set(i, child);
+                break;
+            }
+        }
+        rerank(path);
+        return true;
+    }
+
+    /**
+     * Get the most popular ids whose normalized name starts with the prefix.
+     *
+     * @param prefix the prefix, normalized like the names.
+     * @param limit the maximum number of ids, at most {@code k}.
+     * @return the ids, most popular first and by ascending id among equally popular ones.
+     */
+    long[] suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int slot = node.childSlot(key.charAt(offset));
+            if (slot < 0) {
+                return NO_IDS;
+            }
+            Node child = node.children[slot];
+            int common = commonPrefixLength(child.label, key, offset);
+            if (offset + common == key.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return NO_IDS;
+            }
+            node = child;
+            offset += common;
+        }
+        return node.top.length <= limit ? node.top.clone() : Arrays.copyOf(node.top, limit);
+    }
+
+    /**
+     * Replace the popularity of every id and recompute the rankings of all nodes.
+     *
+     * @param popularity the popularity of each id, missing ids count as 0.
+     */
+    void rank(LongIntHashMap popularity) {
+        this.popularity = popularity;
+        rerankSubtree(root);
+    }
+
+    private void rerankSubtree(Node node) {
+        for (Node child : node.children) {
+            rerankSubtree(child);
+        }
+        node.top = best(node);
+    }
+
+    private void rerank(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).top = best(path.get(i));
+        }
+    }
+
+    /**
+     * The best {@code k} ids of a node: the best of its own ids and of its children's cached rankings.
+     */
+    private long[] best(Node node) {
+        long[] best = new long[k];
+        int size = 0;
+        for (long id : node.terminals) {
+            size = offer(best, size, id);
+        }
+        for (Node child : node.children) {
+            for (long id : child.top) {
+                size = offer(best, size, id);
+            }
+        }
+        return size == k ? best : Arrays.copyOf(best, size);
+    }
+
+    private int offer(long[] best, int size, long id) {
+        if (size == best.length && !isBetter(id, best[size - 1])) {
+            return size;
+        }
+        int i = size == best.length ? size - 1 : size;
+        while (i > 0 && isBetter(id, best[i - 1])) {
+            best[i] = best[i - 1];
+            i--;
+        }
+        best[i] = id;
+        return Math.min(size + 1, best.length);
+    }
+
+    private boolean isBetter(long id, long other) {
+        int popularityOfId = popularity.getOrDefault(id, 0);
+        int popularityOfOther = popularity.getOrDefault(other, 0);
+        return popularityOfId != popularityOfOther ? popularityOfId > popularityOfOther : id < other;
+    }
+
+    private List<Node> find(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int offset = 0;
+        while (offset < key.length()) {
+            node = node.children[node.childSlot(key.charAt(offset))];
+            path.add(node);
+            offset += node.label.length();
+        }
+        return path;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long[] append(long[] ids, long id) {
+        long[] appended = Arrays.copyOf(ids, ids.length + 1);
+        appended[ids.length] = id;
+        return appended;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                long[] remaining = new long[ids.length - 1];
+                System.arraycopy(ids, 0, remaining, 0, i);
+                System.arraycopy(ids, i + 1, remaining, i, ids.length - i - 1);
+                return remaining;
+            }
+        }
+        return ids;
+    }
+
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+
+        // sorted by the first character of their label
+        private Node[] children = NO_CHILDREN;
+
+        private long[] terminals = NO_IDS;
+
+        private long[] top = NO_IDS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int childSlot(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        private void addChild(int slot, Node child) {
+            Node[] added = new Node[children.length + 1];
+            System.arraycopy(children, 0, added, 0, slot);
+            added[slot] = child;
+            System.arraycopy(children, slot, added, slot + 1, children.length - slot);
+            children = added;
+        }
+
+        private void removeChild(int slot) {
+            Node[] removed = new Node[children.length - 1];
+            System.arraycopy(children, 0, removed, 0, slot);
+            System.arraycopy(children, slot + 1, removed, slot, children.length - slot - 1);
+            children = removed;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package net.petcu.store.service.catalog;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Tag filter over products: a product matches when it carries every tag of {@code all}, at least one tag of {@code any}
+ * (if not empty) and none of {@code none}. Tag names are normalized like {@link #normalize(String)}.
+ *
+ * @param all the tags a product must all carry.
+ * @param any the tags a product must carry at least one of, ignored when empty.
+ * @param none the tags a product must not carry.
+ */
+public record TagFilter(Set<String> all, Set<String> any, Set<String> none) {
+    public TagFilter {
+        all = normalize(all);
+        any = normalize(any);
+        none = normalize(none);
+    }
+
+    public static TagFilter of(Collection<String> all, Collection<String> any, Collection<String> none) {
+        return new TagFilter(normalize(all), normalize(any), normalize(none));
+    }
+
+    /**
+     * Normalize a tag name: surrounding whitespace removed, lower case.
+     */
+    public static String normalize(String name) {
+        return name == null ? "" : name.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isEmpty() {
+        return all.isEmpty() && any.isEmpty() && none.isEmpty();
+    }
+
+    private static Set<String> normalize(Collection<String> names) {
+        if (names == null) {
+            return Set.of();
+        }
+        return names.stream().map(TagFilter::normalize).filter(name -> !name.isEmpty()).collect(Collectors.toUnmodifiableSet());
+    }
+}
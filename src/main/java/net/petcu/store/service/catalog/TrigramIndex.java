@@ -0,0 +1,208 @@
+package net.petcu.store.service.catalog;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import com.carrotsearch.hppc.cursors.LongObjectCursor;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Trigram inverted index answering case-insensitive substring queries over short texts keyed by a {@code long} id.
+ * <p>
+ * Every indexed text is lower-cased and split into overlapping three character windows. Each window is packed into a
+ * {@code long} and maps to a sorted posting list of ids. A query is answered by intersecting the posting lists of its own
+ * trigrams and verifying the (few) surviving candidates against the stored text, so no false positives are returned.
+ * <p>
+ * This class is not thread-safe, callers are expected to guard it with a read/write lock.
+ */
+final class TrigramIndex {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final LongObjectHashMap<String> texts = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<PostingList> postings = new LongObjectHashMap<>();
+
+    static String normalize(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Index (or re-index) the text of the given id. A {@code null} text removes the id.
+     */
+    void put(long id, String text) {
+        String normalized = normalize(text);
+        String previous = texts.get(id);
+        if (previous != null && previous.equals(normalized)) {
+            return;
+        }
+        remove(id);
+        if (normalized == null) {
+            return;
+        }
+        texts.put(id, normalized);
+        for (long trigram : trigrams(normalized)) {
+            PostingList list = postings.get(trigram);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(trigram, list);
+            }
+            list.add(id);
+        }
+    }
+
+    /**
+     * Remove the given id from the index.
+     *
+     * @return {@code true} if the id was indexed.
+     */
+    boolean remove(long id) {
+        String previous = texts.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        for (long trigram : trigrams(previous)) {
+            PostingList list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the normalized text indexed for the given id, or {@code null}.
+     */
+    String get(long id) {
+        return texts.get(id);
+    }
+
+    int size() {
+        return texts.size();
+    }
+
+    int trigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Find the ids whose text contains the query, ignoring case.
+     *
+     * @return the matching ids in ascending order.
+     */
+    long[] search(String query) {
+        String needle = normalize(query == null ? "" : query);
+        if (needle.length() < 3) {
+            return scan(needle);
+        }
+
+        long[] queryTrigrams = trigrams(needle);
+        PostingList[] lists = new PostingList[queryTrigrams.length];
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            lists[i] = postings.get(queryTrigrams[i]);
+            if (lists[i] == null) {
+                return NO_IDS;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        LongArrayList matches = new LongArrayList(lists[0].size);
+        candidates: for (int c = 0; c < lists[0].size; c++) {
+            long id = lists[0].ids[c];
+            for (int i = 1; i < lists.length; i++) {
+                if (!lists[i].contains(id)) {
+                    continue candidates;
+                }
+            }
+            if (texts.get(id).contains(needle)) {
+                matches.add(id);
+            }
+        }
+        return matches.toArray();
+    }
+
+    private long[] scan(String needle) {
+        LongArrayList matches = new LongArrayList();
+        for (LongObjectCursor<String> cursor : texts) {
+            if (cursor.value.contains(needle)) {
+                matches.add(cursor.key);
+            }
+        }
+        long[] ids = matches.toArray();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Distinct packed trigrams of a normalized text, in ascending order.
+     */
+    static long[] trigrams(String text) {
+        int count = text.length() - 2;
+        if (count <= 0) {
+            return NO_IDS;
+        }
+        long[] trigrams = new long[count];
+        for (int i = 0; i < count; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return distinct == count ? trigrams : Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Sorted, growable array of ids. Ids are mostly appended in ascending order as they come from a sequence.
+     */
+    static final class PostingList {
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || id > ids[size - 1]) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertion = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+            ids[insertion] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory read models over the product catalog.
+ */
+package net.petcu.store.service.catalog;
@@ -0,0 +1,9 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A product together with the value of its active price, as exported to downstream catalog feeds and returned
+ * by product lookups. {@code price} is {@code null} when the product has no active price.
+ */
+public record CatalogEntryDTO(Long id, String name, String description, Double price) implements Serializable {}
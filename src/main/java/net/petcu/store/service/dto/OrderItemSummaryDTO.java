@@ -0,0 +1,10 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import net.petcu.store.domain.Money;
+
+/**
+ * A line of an order as shown in the cart: the product id and name, the unit price the item was added at and the
+ * quantity, without the product description.
+ */
+public record OrderItemSummaryDTO(Long id, Long productId, String name, Money price, Long quantity) implements Serializable {}
@@ -0,0 +1,9 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The number of products whose active price is at least {@code from} and below {@code to}. A {@code null} bound is
+ * unbounded.
+ */
+public record PriceBucketDTO(Double from, Double to, long products) implements Serializable {}
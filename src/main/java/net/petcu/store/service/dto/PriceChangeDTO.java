@@ -0,0 +1,6 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import net.petcu.store.domain.Money;
+
+public record PriceChangeDTO(Long productId, Money price) implements Serializable {}
@@ -0,0 +1,14 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Summary of a bulk price change.
+ *
+ * @param read the number of records read.
+ * @param changed the number of products whose active price was replaced.
+ * @param skipped the records for a product that does not exist or that is repeated in a chunk.
+ * @param chunks the number of committed chunks.
+ * @param durationMillis the time spent changing prices.
+ */
+public record PriceChangeReportDTO(long read, long changed, long skipped, int chunks, long durationMillis) implements Serializable {}
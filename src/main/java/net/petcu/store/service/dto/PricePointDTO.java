@@ -0,0 +1,17 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import net.petcu.store.domain.Money;
+
+/**
+ * A price of a product over time.
+ *
+ * @param pricedProductId the id of the {@link net.petcu.store.domain.PricedProduct}.
+ * @param priceId the id of the {@link net.petcu.store.domain.Price}.
+ * @param value the value of the price.
+ * @param effectiveDate when the price became active.
+ * @param active whether the price is still active.
+ */
+public record PricePointDTO(Long pricedProductId, Long priceId, Money value, Instant effectiveDate, Boolean active)
+    implements Serializable {}
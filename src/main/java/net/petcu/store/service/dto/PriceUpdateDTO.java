@@ -0,0 +1,13 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import net.petcu.store.domain.Money;
+
+/**
+ * A committed change of the active price of a product, sent to the subscribers of the price stream.
+ *
+ * @param productId the id of the repriced product.
+ * @param priceId the id of the new price, or {@code null} if the product no longer has an active price.
+ * @param value the value of the new price, or {@code null} if the product no longer has an active price.
+ */
+public record PriceUpdateDTO(Long productId, Long priceId, Money value) implements Serializable {}
@@ -0,0 +1,11 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Facet counts over a set of products. A product is available when it has an active price, and only available products
+ * are counted in the price buckets. Tags are ordered by decreasing count, then by name.
+ */
+public record ProductFacetsDTO(long available, long unavailable, List<PriceBucketDTO> prices, List<TagCountDTO> tags)
+    implements Serializable {}
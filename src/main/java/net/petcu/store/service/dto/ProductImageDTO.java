@@ -0,0 +1,9 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Where to download the image of a product and its thumbnail. The thumbnail is generated in the background and may
+ * answer {@code 404 (Not Found)} for a short while after an upload.
+ */
+public record ProductImageDTO(String url, String thumbnailUrl) implements Serializable {}
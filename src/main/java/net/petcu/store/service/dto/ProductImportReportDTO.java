@@ -0,0 +1,16 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * Summary of a bulk {@link net.petcu.store.domain.Product} import.
+ *
+ * @param read the number of records read.
+ * @param inserted the number of products created.
+ * @param updated the number of existing products updated.
+ * @param skipped the records with an id that did not update a product, because it does not exist or is repeated in a chunk.
+ * @param chunks the number of committed chunks.
+ * @param durationMillis the time spent importing.
+ */
+public record ProductImportReportDTO(long read, long inserted, long updated, long skipped, int chunks, long durationMillis)
+    implements Serializable {}
@@ -0,0 +1,9 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of product search results, with the total number of matches and the facet counts over all of them.
+ */
+public record ProductSearchResultDTO(List<ProductDTO> products, long total, ProductFacetsDTO facets) implements Serializable {}
@@ -0,0 +1,8 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * An autocomplete suggestion for a {@link net.petcu.store.domain.Product} name.
+ */
+public record ProductSuggestionDTO(Long id, String name) implements Serializable {}
@@ -0,0 +1,9 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The columns of a product shown in listings: its id, its name and the value of its active price, without the
+ * description. {@code price} is {@code null} when the product has no active price.
+ */
+public record ProductSummaryDTO(Long id, String name, Double price) implements Serializable {}
@@ -0,0 +1,7 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import net.petcu.store.domain.Money;
+
+public record ScheduledPriceDTO(Long id, Long productId, Money value, Instant effectiveDate) implements Serializable {}
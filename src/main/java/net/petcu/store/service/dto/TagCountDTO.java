@@ -0,0 +1,8 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A {@link net.petcu.store.domain.Tag} with the number of products carrying it.
+ */
+public record TagCountDTO(String name, long products) implements Serializable {}
@@ -0,0 +1,12 @@
+package net.petcu.store.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A best selling {@link net.petcu.store.domain.Product} over a time window, as estimated by a streaming sketch.
+ *
+ * @param productId the id of the product.
+ * @param units the estimated units sold, never below the true number.
+ * @param error how much {@code units} may overestimate the true number.
+ */
+public record TopSellerDTO(Long productId, long units, long error) implements Serializable {}
@@ -0,0 +1,10 @@
+package net.petcu.store.service.event;
+
+/**
+ * Published when an {@link net.petcu.store.domain.Order} is paid.
+ *
+ * @param orderId the id of the order.
+ * @param productIds the distinct ids of the products in the order.
+ * @param quantities the number of units of each product, at the same index as its id.
+ */
+public record OrderPaidEvent(Long orderId, long[] productIds, long[] quantities) {}
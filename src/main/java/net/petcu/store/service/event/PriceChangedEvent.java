@@ -0,0 +1,13 @@
+package net.petcu.store.service.event;
+
+import net.petcu.store.domain.Money;
+
+/**
+ * Published when a new active {@link net.petcu.store.domain.PricedProduct} replaces the previous price of a product.
+ *
+ * @param productId the id of the repriced product.
+ * @param pricedProductId the id of the new active priced product.
+ * @param priceId the id of the new price.
+ * @param value the value of the new price.
+ */
+public record PriceChangedEvent(Long productId, Long pricedProductId, Long priceId, Money value) {}
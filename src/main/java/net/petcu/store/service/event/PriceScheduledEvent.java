@@ -0,0 +1,11 @@
+package net.petcu.store.service.event;
+
+import java.time.Instant;
+
+/**
+ * Published when a price is scheduled to become the active price of a product at a later date.
+ *
+ * @param scheduledPriceId the id of the {@link net.petcu.store.domain.ScheduledPrice}.
+ * @param effectiveDate when the price becomes active.
+ */
+public record PriceScheduledEvent(Long scheduledPriceId, Instant effectiveDate) {}
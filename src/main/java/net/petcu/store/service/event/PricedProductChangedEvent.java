@@ -0,0 +1,12 @@
+package net.petcu.store.service.event;
+
+/**
+ * Published when a {@link net.petcu.store.domain.PricedProduct} is created, updated or deleted through the
+ * {@link net.petcu.store.service.PricedProductService}, or activated by a few scheduled prices. Listeners should only
+ * act after the transaction commits, and read the active price of the product again: the change may have activated,
+ * deactivated or replaced it. A priced product moved to another product publishes one event for each.
+ *
+ * @param pricedProductId the id of the priced product.
+ * @param productId the id of the product whose active price may have changed, or {@code null} if it has none.
+ */
+public record PricedProductChangedEvent(Long pricedProductId, Long productId) {}
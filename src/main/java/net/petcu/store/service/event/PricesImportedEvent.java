@@ -0,0 +1,9 @@
+package net.petcu.store.service.event;
+
+/**
+ * Published once a bulk price change, or many scheduled prices becoming active, has committed. Prices written in
+ * bulk do not get individual {@link PriceChangedEvent}s, so derived views should be rebuilt from the database.
+ *
+ * @param changed the number of products whose active price was replaced.
+ */
+public record PricesImportedEvent(long changed) {}
@@ -0,0 +1,25 @@
+package net.petcu.store.service.event;
+
+import net.petcu.store.service.dto.ProductDTO;
+
+/**
+ * Published by the {@link net.petcu.store.domain.Product} write paths whenever a product is saved or deleted.
+ * <p>
+ * Listeners that maintain derived state should use {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param productId the id of the changed product.
+ * @param product the saved product, or {@code null} if the product was deleted.
+ */
+public record ProductChangedEvent(Long productId, ProductDTO product) {
+    public static ProductChangedEvent saved(ProductDTO product) {
+        return new ProductChangedEvent(product.id(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
@@ -0,0 +1,11 @@
+package net.petcu.store.service.event;
+
+import java.util.Set;
+
+/**
+ * Published when the tags of a {@link net.petcu.store.domain.Product} are replaced.
+ *
+ * @param productId the id of the product.
+ * @param tags the normalized names of all the tags of the product after the change.
+ */
+public record ProductTagsChangedEvent(Long productId, Set<String> tags) {}
@@ -0,0 +1,10 @@
+package net.petcu.store.service.event;
+
+/**
+ * Published once a bulk import has committed all of its chunks. Products written by the import do not get individual
+ * {@link ProductChangedEvent}s, so derived views should be rebuilt from the database.
+ *
+ * @param inserted the number of products created.
+ * @param updated the number of existing products updated.
+ */
+public record ProductsImportedEvent(long inserted, long updated) {}
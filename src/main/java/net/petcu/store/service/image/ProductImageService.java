@@ -0,0 +1,62 @@
+package net.petcu.store.service.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import net.petcu.store.domain.Product;
+import net.petcu.store.exception.ProductNotFoundException;
+import net.petcu.store.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Attaches images from the {@link ProductImageStore} to products. Only the name of the image is kept in the database.
+ */
+@Service
+@Transactional
+public class ProductImageService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImageService.class);
+
+    private final ProductRepository productRepository;
+
+    private final ProductImageStore productImageStore;
+
+    public ProductImageService(ProductRepository productRepository, ProductImageStore productImageStore) {
+        this.productRepository = productRepository;
+        this.productImageStore = productImageStore;
+    }
+
+    /**
+     * Store an image and make it the image of a product, replacing the previous one. Images are shared by content, so
+     * the previous file is left in the store.
+     *
+     * @param productId the id of the product.
+     * @param content the image bytes.
+     * @return the name of the stored image.
+     * @throws ProductNotFoundException if the product does not exist.
+     * @throws net.petcu.store.exception.InvalidImageException if the content is not a supported image.
+     */
+    public String updateImage(Long productId, InputStream content) throws IOException {
+        LOG.debug("Request to update the image of Product : {}", productId);
+        Product product = productRepository
+            .findById(productId)
+            .orElseThrow(() -> new ProductNotFoundException("Product not found: ", productId));
+        String image = productImageStore.store(content);
+        product.setImage(image);
+        productRepository.save(product);
+        return image;
+    }
+
+    /**
+     * @param productId the id of the product.
+     * @return the name of the image of the product, or empty if the product does not exist or has no image.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findImage(Long productId) {
+        LOG.debug("Request to get the image of Product : {}", productId);
+        return productRepository.findImageById(productId);
+    }
+}
@@ -0,0 +1,279 @@
+package net.petcu.store.service.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.exception.InvalidImageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Content-addressed store of product images on the local disk.
+ * <p>
+ * An image is named after the SHA-256 of its bytes and kept under {@code <directory>/<2 hex>/<2 hex>/<sha256>.<ext>},
+ * so a file never changes once written and the same image uploaded twice is stored once. Its thumbnail, named
+ * {@code <sha256>-thumb.<ext>}, is generated on the bounded {@code thumbnailExecutor}; when that executor is saturated
+ * the thumbnail is skipped and generated the first time it is requested instead.
+ */
+@Service
+public class ProductImageStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImageStore.class);
+
+    public static final String THUMBNAILS_METER_NAME = "catalog.images.thumbnails";
+
+    private static final Pattern NAME = Pattern.compile("([0-9a-f]{64})(-thumb)?\\.(png|jpg|gif)");
+
+    private static final Map<String, String> EXTENSIONS = Map.of("png", "png", "jpeg", "jpg", "gif", "gif");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of("png", "image/png", "jpg", "image/jpeg", "gif", "image/gif");
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    private final long maxPixels;
+
+    private final int thumbnailSize;
+
+    private final TaskExecutor thumbnailExecutor;
+
+    private final Counter generated;
+
+    private final Counter rejected;
+
+    private final Counter failed;
+
+    public ProductImageStore(
+        ApplicationProperties applicationProperties,
+        @Qualifier("thumbnailExecutor") TaskExecutor thumbnailExecutor,
+        MeterRegistry registry
+    ) {
+        ApplicationProperties.Images images = applicationProperties.getImages();
+        this.directory = Path.of(images.getDirectory()).toAbsolutePath().normalize();
+        this.maxSize = images.getMaxSize().toBytes();
+        this.maxPixels = images.getMaxPixels();
+        this.thumbnailSize = images.getThumbnailSize();
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.generated = thumbnailCounter(registry, "generated");
+        this.rejected = thumbnailCounter(registry, "rejected");
+        this.failed = thumbnailCounter(registry, "failed");
+    }
+
+    private static Counter thumbnailCounter(MeterRegistry registry, String result) {
+        return Counter.builder(THUMBNAILS_METER_NAME)
+            .description("Product image thumbnails by outcome.")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /**
+     * Stream an image to the store and schedule the generation of its thumbnail.
+     *
+     * @param content the image bytes, read until the end and not closed.
+     * @return the name of the stored image.
+     * @throws InvalidImageException if the content is not a PNG, JPEG or GIF image, or is too large.
+     */
+    public String store(InputStream content) throws IOException {
+        Files.createDirectories(directory);
+        Path upload = Files.createTempFile(directory, "upload-", ".tmp");
+        try {
+            String hash = copy(content, upload);
+            String extension = validate(upload);
+            String name = hash + "." + extension;
+            Path target = path(hash, name);
+            if (Files.isRegularFile(target)) {
+                LOG.debug("Image {} is already stored", name);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            scheduleThumbnail(name);
+            return name;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Find a stored image or thumbnail. A missing thumbnail of a stored image is scheduled for generation.
+     *
+     * @param name the name of the image or thumbnail.
+     * @return the file, or empty if the name is not one of this store or the file does not exist (yet).
+     */
+    public Optional<Path> resolve(String name) {
+        Matcher matcher = NAME.matcher(name);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        Path file = path(matcher.group(1), name);
+        if (Files.isRegularFile(file)) {
+            return Optional.of(file);
+        }
+        if (matcher.group(2) != null) {
+            findImage(matcher.group(1)).ifPresent(this::scheduleThumbnail);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the name of the thumbnail of an image: JPEG for JPEG images and PNG otherwise, to keep transparency.
+     */
+    public static String thumbnailName(String name) {
+        Matcher matcher = NAME.matcher(name);
+        if (!matcher.matches() || matcher.group(2) != null) {
+            throw new IllegalArgumentException("Not an image name: " + name);
+        }
+        return matcher.group(1) + "-thumb." + ("jpg".equals(matcher.group(3)) ? "jpg" : "png");
+    }
+
+    /**
+     * @return the media type of an image or thumbnail, from its name.
+     */
+    public static String contentType(String name) {
+        return CONTENT_TYPES.get(name.substring(name.lastIndexOf('.') + 1));
+    }
+
+    private Path path(String hash, String name) {
+        return directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(name);
+    }
+
+    private Optional<String> findImage(String hash) {
+        return EXTENSIONS.values()
+            .stream()
+            .map(extension -> hash + "." + extension)
+            .filter(image -> Files.isRegularFile(path(hash, image)))
+            .findFirst();
+    }
+
+    private String copy(InputStream content, Path upload) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(upload), digest)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long size = 0;
+            for (int read = content.read(buffer); read >= 0; read = content.read(buffer)) {
+                size += read;
+                if (size > maxSize) {
+                    throw new InvalidImageException("larger than " + maxSize + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+            if (size == 0) {
+                throw new InvalidImageException("empty");
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Check the format and dimensions from the image header, without decoding the pixels.
+     *
+     * @return the file extension of the image.
+     */
+    private String validate(Path upload) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(upload.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new InvalidImageException("not a PNG, JPEG or GIF image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String extension = EXTENSIONS.get(reader.getFormatName().toLowerCase(Locale.ROOT));
+                if (extension == null) {
+                    throw new InvalidImageException("not a PNG, JPEG or GIF image");
+                }
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new InvalidImageException("more than " + maxPixels + " pixels");
+                }
+                return extension;
+            } catch (IOException e) {
+                throw new InvalidImageException("unreadable image header");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void scheduleThumbnail(String name) {
+        try {
+            thumbnailExecutor.execute(() -> generateThumbnail(name));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            LOG.warn("Thumbnail executor is saturated, the thumbnail of {} will be generated when requested", name);
+        }
+    }
+
+    void generateThumbnail(String name) {
+        String hash = name.substring(0, name.indexOf('.'));
+        String thumbnailName = thumbnailName(name);
+        Path thumbnail = path(hash, thumbnailName);
+        if (Files.isRegularFile(thumbnail)) {
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(path(hash, name).toFile());
+            if (image == null) {
+                throw new IOException("No reader for " + name);
+            }
+            double scale = Math.min(1.0, (double) thumbnailSize / Math.max(image.getWidth(), image.getHeight()));
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            boolean jpeg = thumbnailName.endsWith(".jpg");
+            BufferedImage scaled = new BufferedImage(width, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            // written aside then moved, so that a thumbnail is never served half written
+            Path temporary = Files.createTempFile(thumbnail.getParent(), "thumb-", ".tmp");
+            try {
+                ImageIO.write(scaled, jpeg ? "jpeg" : "png", temporary.toFile());
+                Files.move(temporary, thumbnail, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            generated.increment();
+        } catch (IOException | RuntimeException e) {
+            // corrupt pixel data only shows when decoding, the image stays served without a thumbnail
+            failed.increment();
+            LOG.warn("Failed to generate the thumbnail of {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package net.petcu.store.service.impl;
 
+import java.time.Instant;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.Price;
 import net.petcu.store.domain.PricedProduct;
 import net.petcu.store.domain.Product;
+import net.petcu.store.domain.ScheduledPrice;
 import net.petcu.store.exception.ProductNotFoundException;
+import net.petcu.store.repository.PriceRepository;
 import net.petcu.store.repository.PricedProductRepository;
 import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.ScheduledPriceRepository;
 import net.petcu.store.service.AdminService;
+import net.petcu.store.service.catalog.ProductPriceLock;
+import net.petcu.store.service.dto.ScheduledPriceDTO;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PriceScheduledEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,9 +32,13 @@ public class AdminServiceImpl implements AdminService {
     private final Logger log = LoggerFactory.getLogger(AdminServiceImpl.class);
     private final ProductRepository productRepository;
     private final PricedProductRepository pricedProductRepository;
+    private final PriceRepository priceRepository;
+    private final ScheduledPriceRepository scheduledPriceRepository;
+    private final ProductPriceLock productPriceLock;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
-    public PricedProduct changePrice(Long productId, Double newPrice) {
+    public PricedProduct changePrice(Long productId, Money newPrice) {
         log.debug("Request to change price for productId={} to newPrice={}", productId, newPrice);
 
         // Find the product
@@ -33,6 +47,9 @@ public class AdminServiceImpl implements AdminService {
             .orElseThrow(() -> new ProductNotFoundException("Product not found: ", productId));
         log.debug("Found product productId={} name={}", productId, product.getName());
 
+        // Concurrent changes of the product wait here, until this one commits
+        productPriceLock.lock(productId);
+
         List<PricedProduct> activePrices = pricedProductRepository.findByProductIdAndActiveTrue(productId);
         log.debug("Found {} active prices for productId={}", activePrices.size(), productId);
 
@@ -40,20 +57,44 @@ public class AdminServiceImpl implements AdminService {
             price.setActive(false);
             log.debug("Deactivating price id={} for productId={}", price.getId(), productId);
         });
-        pricedProductRepository.saveAll(activePrices);
+        // Hibernate inserts before it updates, the unique active price index needs the old price deactivated first
+        pricedProductRepository.saveAllAndFlush(activePrices);
 
         // Create new price
         Price price = new Price();
         price.setValue(newPrice);
+        price = priceRepository.save(price);
 
         PricedProduct newPricedProduct = new PricedProduct();
         newPricedProduct.setProduct(product);
         newPricedProduct.setPrice(price);
         newPricedProduct.setActive(true);
+        // the time the price became active, read by the price history
+        newPricedProduct.setUpdatedDate(Instant.now());
 
         newPricedProduct = pricedProductRepository.save(newPricedProduct);
         log.debug("Created new price id={} for productId={} with value={}", newPricedProduct.getId(), productId, newPrice);
 
+        applicationEventPublisher.publishEvent(new PriceChangedEvent(productId, newPricedProduct.getId(), price.getId(), newPrice));
+
         return newPricedProduct;
     }
+
+    @Override
+    public ScheduledPriceDTO schedulePrice(Long productId, Money newPrice, Instant effectiveDate) {
+        log.debug("Request to schedule price for productId={} to newPrice={} at effectiveDate={}", productId, newPrice, effectiveDate);
+
+        Product product = productRepository
+            .findById(productId)
+            .orElseThrow(() -> new ProductNotFoundException("Product not found: ", productId));
+
+        ScheduledPrice scheduledPrice = scheduledPriceRepository.save(
+            new ScheduledPrice().product(product).value(newPrice).effectiveDate(effectiveDate)
+        );
+        log.debug("Scheduled price id={} for productId={}", scheduledPrice.getId(), productId);
+
+        applicationEventPublisher.publishEvent(new PriceScheduledEvent(scheduledPrice.getId(), effectiveDate));
+
+        return new ScheduledPriceDTO(scheduledPrice.getId(), productId, newPrice, effectiveDate);
+    }
 }
@@ -1,20 +1,31 @@
 package net.petcu.store.service.impl;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import lombok.RequiredArgsConstructor;
 import net.petcu.store.domain.*;
-import net.petcu.store.domain.enumeration.DiscountType;
 import net.petcu.store.domain.enumeration.OrderStatus;
 import net.petcu.store.exception.*;
 import net.petcu.store.repository.*;
 import net.petcu.store.security.SecurityUtils;
 import net.petcu.store.service.CustomerService;
 import net.petcu.store.service.PaymentService;
+import net.petcu.store.service.catalog.ActivePriceCache;
+import net.petcu.store.service.catalog.ProductSearchCache;
+import net.petcu.store.service.catalog.ProductSearchIndex;
 import net.petcu.store.service.dto.OrderDTO;
+import net.petcu.store.service.dto.OrderItemSummaryDTO;
+import net.petcu.store.service.event.OrderPaidEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,13 +34,21 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final BigDecimal HUNDRED_PERCENT = BigDecimal.valueOf(100);
+
     private final Logger log = LoggerFactory.getLogger(CustomerServiceImpl.class);
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final PricedProductRepository pricedProductRepository;
+    private final PriceRepository priceRepository;
     private final DiscountRepository discountRepository;
     private final PaymentService paymentService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSearchCache productSearchCache;
+    private final ActivePriceCache activePriceCache;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     public OrderDTO createOrder() {
@@ -55,24 +74,38 @@ public class CustomerServiceImpl implements CustomerService {
         log.debug("Looking up order orderId={}", orderId);
         Order order = orderRepository.findOneWithEagerRelationships(orderId).orElseThrow(() -> new OrderNotFoundException(orderId));
 
-        log.debug("Looking up product productId={}", productId);
-        Product product = productRepository
-            .findById(productId)
-            .orElseThrow(() -> new ProductNotFoundException("Product not found: ", productId));
-
-        log.debug("Looking up latest active price for product productId={}", productId);
-        PricedProduct pricedProduct = pricedProductRepository
-            .findLatestActiveByProductId(productId)
-            .orElseThrow(() -> new ProductNotFoundException("No active price found for product: ", productId));
+        Product product;
+        Price price;
+        // totals are summed in minor units of the currency, without boxing
+        long unitPrice;
+        Optional<ActivePriceCache.ActivePrice> activePrice = activePriceCache.find(productId);
+        if (activePrice.isPresent()) {
+            log.debug("Found active price of product productId={} in the active price cache", productId);
+            product = productRepository.getReferenceById(productId);
+            price = priceRepository.getReferenceById(activePrice.get().priceId());
+            unitPrice = activePrice.get().value();
+        } else {
+            log.debug("Looking up product productId={}", productId);
+            product = productRepository
+                .findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found: ", productId));
+
+            log.debug("Looking up latest active price for product productId={}", productId);
+            PricedProduct pricedProduct = pricedProductRepository
+                .findLatestActiveByProductId(productId)
+                .orElseThrow(() -> new ProductNotFoundException("No active price found for product: ", productId));
+            price = pricedProduct.getPrice();
+            unitPrice = price.getValue().minorUnits();
+        }
 
         log.debug("Creating order item with productId={} quantity={}", productId, quantity);
-        OrderItem orderItem = new OrderItem().order(order).product(product).price(pricedProduct.getPrice()).quantity(quantity);
+        OrderItem orderItem = new OrderItem().order(order).product(product).price(price).quantity(quantity);
 
         order.addOrderItems(orderItem);
 
-        double itemTotal = pricedProduct.getPrice().getValue() * quantity;
-        log.debug("Updating order totals - adding itemTotal={} to current subtotal={}", itemTotal, order.getSubtotal());
-        order.setSubtotal(order.getSubtotal() + itemTotal);
+        long itemTotal = Math.multiplyExact(unitPrice, quantity);
+        log.debug("Updating order totals - adding itemTotal={} minor units to current subtotal={}", itemTotal, order.getSubtotal());
+        order.setSubtotal(Money.ofMinor(Math.addExact(order.getSubtotal().minorUnits(), itemTotal)));
         order.setFinalPrice(order.getSubtotal()); // Will be updated when discounts are applied
 
         order = orderRepository.save(order);
@@ -98,11 +131,15 @@ public class CustomerServiceImpl implements CustomerService {
             throw new DiscountCodeNotFoundException("Did not find discount code=" + discountCode);
         }
         var discount = foundDiscounts.get(0);
-        DiscountType discountType = discount.getDiscountType();
-        double discountAmount = discount.getAmount();
-        double finalPrice = calculateFinalPrice(order.getSubtotal(), discountType, discountAmount);
-
-        log.debug("Applying discount type={} value={} to order orderId={}", discountType, discountAmount, orderId);
+        Money finalPrice = calculateFinalPrice(order.getSubtotal(), discount);
+
+        log.debug(
+            "Applying discount type={} amount={} percentage={} to order orderId={}",
+            discount.getDiscountType(),
+            discount.getAmount(),
+            discount.getPercentage(),
+            orderId
+        );
         order.setFinalPrice(finalPrice);
         order = orderRepository.save(order);
         log.debug("Updated order orderId={} with finalPrice={}", orderId, finalPrice);
@@ -110,19 +147,26 @@ public class CustomerServiceImpl implements CustomerService {
         return new OrderDTO(order);
     }
 
-    private double calculateFinalPrice(double subtotal, DiscountType discountType, double discountValue) {
-        return switch (discountType) {
+    /**
+     * @return the final price: the subtotal less the amount of a FIXED discount, or less the percentage of a PERCENTAGE
+     * discount, rounded to the cent like every amount, see {@link Money#of(BigDecimal)}.
+     */
+    private static Money calculateFinalPrice(Money subtotal, Discount discount) {
+        return switch (discount.getDiscountType()) {
             case PERCENTAGE -> {
-                if (discountValue < 0 || discountValue > 100) {
+                BigDecimal percentage = discount.getPercentage();
+                if (percentage == null || percentage.signum() < 0 || percentage.compareTo(HUNDRED_PERCENT) > 0) {
                     throw new IllegalArgumentException("Percentage discount must be between 0 and 100");
                 }
-                yield subtotal * (1 - discountValue / 100);
+                Money off = Money.of(subtotal.toBigDecimal().multiply(percentage).divide(HUNDRED_PERCENT));
+                yield Money.ofMinor(subtotal.minorUnits() - off.minorUnits());
             }
             case FIXED -> {
-                if (discountValue >= subtotal) {
+                Money amount = discount.getAmount();
+                if (amount == null || amount.compareTo(subtotal) >= 0) {
                     throw new IllegalArgumentException("Fixed discount cannot be greater than or equal to subtotal");
                 }
-                yield subtotal - discountValue;
+                yield Money.ofMinor(subtotal.minorUnits() - amount.minorUnits());
             }
         };
     }
@@ -144,19 +188,55 @@ public class CustomerServiceImpl implements CustomerService {
 
         if (!paymentSuccess) {
             log.warn("Payment failed for order orderId={} due to insufficient funds", orderId);
-            throw new PaymentFailedException("Payment failed: insufficient funds", order.getFinalPrice());
+            throw new PaymentFailedException("Payment failed: insufficient funds", order.getFinalPrice().toBigDecimal());
         }
 
         order.setStatus(OrderStatus.PAID);
         order = orderRepository.save(order);
+        Map<Long, Long> quantities = order
+            .getOrderItems()
+            .stream()
+            .collect(
+                Collectors.groupingBy(item -> item.getProduct().getId(), LinkedHashMap::new, Collectors.summingLong(OrderItem::getQuantity))
+            );
+        applicationEventPublisher.publishEvent(
+            new OrderPaidEvent(
+                order.getId(),
+                quantities.keySet().stream().mapToLong(Long::longValue).toArray(),
+                quantities.values().stream().mapToLong(Long::longValue).toArray()
+            )
+        );
         log.debug("Order orderId={} finalized successfully", orderId);
 
         return new OrderDTO(order);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderItemSummaryDTO> findOrderItems(Long orderId) {
+        log.debug("Request to get the items of order {}", orderId);
+        if (!orderRepository.existsById(orderId)) {
+            throw new OrderNotFoundException(orderId);
+        }
+        return orderItemRepository
+            .findSummariesByOrderId(orderId)
+            .stream()
+            .map(item -> new OrderItemSummaryDTO(item.getId(), item.getProductId(), item.getName(), item.getPrice(), item.getQuantity()))
+            .toList();
+    }
+
     @Override
     public List<Product> findProductsByName(String name) {
         log.debug("Request to find products with name containing={}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+        if (!productSearchIndex.isReady()) {
+            log.debug("Product search index not ready, falling back to a database scan");
+            return productRepository.findByNameContainingIgnoreCase(name);
+        }
+        long[] productIds = productSearchCache.search(name);
+        log.debug("Product search index matched {} products", productIds.length);
+        if (productIds.length == 0) {
+            return List.of();
+        }
+        return productRepository.findAllById(LongStream.of(productIds).boxed().toList());
     }
 }
@@ -1,16 +1,61 @@
 package net.petcu.store.service.impl;
 
-import java.util.LinkedList;
+import com.carrotsearch.hppc.LongObjectHashMap;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.Product;
+import net.petcu.store.domain.Tag;
+import net.petcu.store.domain.enumeration.OrderStatus;
+import net.petcu.store.exception.ProductNotFoundException;
+import net.petcu.store.repository.OrderItemRepository;
+import net.petcu.store.repository.PricedProductRepository;
 import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.TagRepository;
 import net.petcu.store.service.ProductService;
+import net.petcu.store.service.catalog.CatalogItem;
+import net.petcu.store.service.catalog.CatalogSnapshot;
+import net.petcu.store.service.catalog.PriceRange;
+import net.petcu.store.service.catalog.ProductCoOccurrenceIndex;
+import net.petcu.store.service.catalog.ProductFacetCounter;
+import net.petcu.store.service.catalog.ProductPriceIndex;
+import net.petcu.store.service.catalog.ProductSearchCache;
+import net.petcu.store.service.catalog.ProductSearchIndex;
+import net.petcu.store.service.catalog.ProductSuggester;
+import net.petcu.store.service.catalog.ProductTagIndex;
+import net.petcu.store.service.catalog.TagFilter;
+import net.petcu.store.service.dto.CatalogEntryDTO;
+import net.petcu.store.service.dto.PricePointDTO;
 import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductSearchResultDTO;
+import net.petcu.store.service.dto.ProductSuggestionDTO;
+import net.petcu.store.service.dto.ProductSummaryDTO;
+import net.petcu.store.service.dto.TagCountDTO;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductTagsChangedEvent;
 import net.petcu.store.service.mapper.ProductMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,11 +70,69 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
 
+    private final PricedProductRepository pricedProductRepository;
+
     private final ProductMapper productMapper;
 
-    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper) {
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final ApplicationProperties.Catalog catalogProperties;
+
+    private final ApplicationProperties.Search searchProperties;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    private final ProductSuggester productSuggester;
+
+    private final TagRepository tagRepository;
+
+    private final ProductTagIndex productTagIndex;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductSearchCache productSearchCache;
+
+    private final ProductFacetCounter productFacetCounter;
+
+    private final OrderItemRepository orderItemRepository;
+
+    private final ProductCoOccurrenceIndex productCoOccurrenceIndex;
+
+    public ProductServiceImpl(
+        ProductRepository productRepository,
+        PricedProductRepository pricedProductRepository,
+        ProductMapper productMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties,
+        CatalogSnapshot catalogSnapshot,
+        ProductSuggester productSuggester,
+        TagRepository tagRepository,
+        ProductTagIndex productTagIndex,
+        ProductPriceIndex productPriceIndex,
+        ProductSearchIndex productSearchIndex,
+        ProductSearchCache productSearchCache,
+        ProductFacetCounter productFacetCounter,
+        OrderItemRepository orderItemRepository,
+        ProductCoOccurrenceIndex productCoOccurrenceIndex
+    ) {
         this.productRepository = productRepository;
+        this.pricedProductRepository = pricedProductRepository;
         this.productMapper = productMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.catalogProperties = applicationProperties.getCatalog();
+        this.searchProperties = applicationProperties.getSearch();
+        this.catalogSnapshot = catalogSnapshot;
+        this.productSuggester = productSuggester;
+        this.tagRepository = tagRepository;
+        this.productTagIndex = productTagIndex;
+        this.productPriceIndex = productPriceIndex;
+        this.productSearchIndex = productSearchIndex;
+        this.productSearchCache = productSearchCache;
+        this.productFacetCounter = productFacetCounter;
+        this.orderItemRepository = orderItemRepository;
+        this.productCoOccurrenceIndex = productCoOccurrenceIndex;
     }
 
     @Override
@@ -37,15 +140,19 @@ public class ProductServiceImpl implements ProductService {
         LOG.debug("Request to save Product : {}", productDTO);
         Product product = productMapper.toEntity(productDTO);
         product = productRepository.save(product);
-        return productMapper.toDto(product);
+        return published(productMapper.toDto(product));
     }
 
     @Override
     public ProductDTO update(ProductDTO productDTO) {
         LOG.debug("Request to update Product : {}", productDTO);
-        Product product = productMapper.toEntity(productDTO);
+        // the DTO carries no version, so update the managed entity instead of merging a detached one
+        Product product = productRepository
+            .findById(productDTO.id())
+            .orElseThrow(() -> new ProductNotFoundException("Product not found: ", productDTO.id()));
+        productMapper.update(product, productDTO);
         product = productRepository.save(product);
-        return productMapper.toDto(product);
+        return published(productMapper.toDto(product));
     }
 
     @Override
@@ -60,26 +167,300 @@ public class ProductServiceImpl implements ProductService {
                 return existingProduct;
             })
             .map(productRepository::save)
-            .map(productMapper::toDto);
+            .map(productMapper::toDto)
+            .map(this::published);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ProductDTO> findAll() {
-        LOG.debug("Request to get all Products");
-        return productRepository.findAll().stream().map(productMapper::toDto).collect(Collectors.toCollection(LinkedList::new));
+    public Slice<ProductDTO> findAllAfter(Long afterId, Integer size) {
+        LOG.debug("Request to get Products after id : {}", afterId);
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findAllAfter(afterId == null ? Long.MIN_VALUE : afterId, pageSize(size)).map(CatalogItem::toProductDTO);
+        }
+        Pageable pageable = PageRequest.of(0, pageSize(size), Sort.by(Sort.Direction.ASC, "id"));
+        return productRepository.findViewsByIdGreaterThan(afterId == null ? Long.MIN_VALUE : afterId, pageable).map(productMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductSummaryDTO> findSummariesAfter(Long afterId, Integer size) {
+        LOG.debug("Request to get Product summaries after id : {}", afterId);
+        long after = afterId == null ? Long.MIN_VALUE : afterId;
+        if (catalogSnapshot.isReady()) {
+            return catalogSnapshot.findAllAfter(after, pageSize(size)).map(CatalogItem::toProductSummaryDTO);
+        }
+        return productRepository.findSummariesByIdGreaterThan(after, PageRequest.ofSize(pageSize(size))).map(productMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductDTO> findAllByTags(TagFilter filter, Long afterId, Integer size) {
+        LOG.debug("Request to get Products after id : {} matching : {}", afterId, filter);
+        int pageSize = pageSize(size);
+        long[] ids = productTagIndex.filter(filter, afterId == null ? Long.MIN_VALUE : afterId, pageSize + 1);
+        boolean hasNext = ids.length > pageSize;
+        long[] page = ids.length > pageSize ? Arrays.copyOf(ids, pageSize) : ids;
+        LongObjectHashMap<ProductDTO> products = findAllByIds(page);
+        List<ProductDTO> content = new ArrayList<>(page.length);
+        for (long id : page) {
+            // a product deleted since the index was read is skipped
+            if (products.containsKey(id)) {
+                content.add(products.get(id));
+            }
+        }
+        return new SliceImpl<>(content, PageRequest.ofSize(pageSize), hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CatalogEntryDTO> findAllByPrice(
+        PriceRange range,
+        TagFilter filter,
+        boolean descending,
+        ProductPriceIndex.Entry after,
+        Integer size
+    ) {
+        LOG.debug("Request to get Products after : {} priced within : {} matching : {}", after, range, filter);
+        int pageSize = pageSize(size);
+        LongPredicate tagged = filter.isEmpty() ? id -> true : productTagIndex.matcher(filter);
+        List<ProductPriceIndex.Entry> entries = productPriceIndex.range(range, descending, after, pageSize + 1, tagged);
+        boolean hasNext = entries.size() > pageSize;
+        List<ProductPriceIndex.Entry> page = hasNext ? entries.subList(0, pageSize) : entries;
+        LongObjectHashMap<ProductDTO> products = findAllByIds(page.stream().mapToLong(ProductPriceIndex.Entry::productId).toArray());
+        List<CatalogEntryDTO> content = new ArrayList<>(page.size());
+        for (ProductPriceIndex.Entry entry : page) {
+            ProductDTO product = products.get(entry.productId());
+            if (product != null) {
+                Double price = Money.ofMinor(entry.price()).toDouble();
+                content.add(new CatalogEntryDTO(product.id(), product.name(), product.description(), price));
+            }
+        }
+        return new SliceImpl<>(content, PageRequest.ofSize(pageSize), hasNext);
+    }
+
+    /**
+     * Resolve product ids from an index, from the catalog snapshot first and in a single query for the others.
+     */
+    private LongObjectHashMap<ProductDTO> findAllByIds(long[] ids) {
+        LongObjectHashMap<ProductDTO> products = new LongObjectHashMap<>(ids.length);
+        List<Long> misses = new ArrayList<>();
+        for (long id : ids) {
+            catalogSnapshot.find(id).ifPresentOrElse(item -> products.put(id, item.toProductDTO()), () -> misses.add(id));
+        }
+        if (!misses.isEmpty()) {
+            productRepository.findViewsByIdIn(misses).forEach(view -> products.put(view.id(), productMapper.toDto(view)));
+        }
+        return products;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TagCountDTO> findAllTags() {
+        LOG.debug("Request to get all Tags");
+        return productTagIndex.counts().entrySet().stream().map(count -> new TagCountDTO(count.getKey(), count.getValue())).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> findTags(Long id) {
+        LOG.debug("Request to get the Tags of Product : {}", id);
+        if (!productRepository.existsById(id)) {
+            throw new ProductNotFoundException("Product not found: ", id);
+        }
+        return tagRepository.findNamesByProductId(id);
+    }
+
+    @Override
+    public List<String> updateTags(Long id, Collection<String> tags) {
+        LOG.debug("Request to update the Tags of Product : {}, {}", id, tags);
+        Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException("Product not found: ", id));
+        Set<String> names = new TreeSet<>(TagFilter.of(tags, null, null).all());
+        Map<String, Tag> existing = tagRepository.findByNameIn(names).stream().collect(Collectors.toMap(Tag::getName, Function.identity()));
+        product.getTags().clear();
+        for (String name : names) {
+            product.addTag(existing.computeIfAbsent(name, missing -> tagRepository.save(new Tag().name(missing))));
+        }
+        productRepository.save(product);
+        applicationEventPublisher.publishEvent(new ProductTagsChangedEvent(id, Set.copyOf(names)));
+        return List.copyOf(names);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductDTO> search(String query, Pageable pageable) {
+        LOG.debug("Request to search Products : {}", query);
+        PageRequest page = PageRequest.of(pageable.getPageNumber(), pageSize(pageable.getPageSize()));
+        Page<ProductRepository.ProductView> products = switch (searchProperties.getMode()) {
+            case FULL_TEXT -> productRepository.searchFullText(query, page);
+            case CONTAINS -> productRepository.findViewsByNameContainingIgnoreCase(query, page.withSort(Sort.by(Sort.Direction.ASC, "id")));
+        };
+        return products.map(productMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchResultDTO searchWithFacets(String query, Pageable pageable) {
+        LOG.debug("Request to search Products with facets : {}", query);
+        long[] ids;
+        if (productSearchIndex.isReady()) {
+            ids = productSearchCache.search(query);
+        } else {
+            LOG.debug("Product search index not ready, falling back to a database scan");
+            ids = productRepository
+                .findViewsByNameContainingIgnoreCase(query, Pageable.unpaged(Sort.by(Sort.Direction.ASC, "id")))
+                .stream()
+                .mapToLong(ProductRepository.ProductView::id)
+                .toArray();
+        }
+        int pageSize = pageSize(pageable.getPageSize());
+        int from = (int) Math.min((long) pageable.getPageNumber() * pageSize, ids.length);
+        long[] page = Arrays.copyOfRange(ids, from, Math.min(from + pageSize, ids.length));
+        LongObjectHashMap<ProductDTO> products = findAllByIds(page);
+        List<ProductDTO> content = LongStream.of(page).mapToObj(products::get).filter(Objects::nonNull).toList();
+        return new ProductSearchResultDTO(content, ids.length, productFacetCounter.count(ids));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSuggestionDTO> suggest(String prefix, Integer limit) {
+        LOG.debug("Request to suggest Products : {}", prefix);
+        int topK = productSuggester.getTopK();
+        int size = limit == null || limit < 1 ? topK : Math.min(limit, topK);
+        if (productSuggester.isReady()) {
+            return productSuggester.suggest(prefix, size);
+        }
+        return productRepository
+            .findByNameStartingWithIgnoreCaseOrderByName(prefix.stripLeading(), PageRequest.ofSize(size))
+            .stream()
+            .map(product -> new ProductSuggestionDTO(product.getId(), product.getName()))
+            .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSummaryDTO> findRelated(Long id, Integer limit) {
+        LOG.debug("Request to get the Products bought together with Product : {}", id);
+        int topK = productCoOccurrenceIndex.getTopK();
+        int size = limit == null || limit < 1 ? topK : Math.min(limit, topK);
+        long[] relatedIds;
+        if (productCoOccurrenceIndex.isReady()) {
+            relatedIds = productCoOccurrenceIndex.related(id, size);
+        } else {
+            relatedIds = orderItemRepository
+                .countOrdersWithProduct(id, OrderStatus.PAID, PageRequest.ofSize(size))
+                .stream()
+                .mapToLong(OrderItemRepository.ProductOrderCount::getProductId)
+                .toArray();
+        }
+        LongObjectHashMap<ProductSummaryDTO> summaries = new LongObjectHashMap<>(relatedIds.length);
+        List<Long> misses = new ArrayList<>();
+        for (long relatedId : relatedIds) {
+            catalogSnapshot
+                .find(relatedId)
+                .ifPresentOrElse(item -> summaries.put(relatedId, item.toProductSummaryDTO()), () -> misses.add(relatedId));
+        }
+        if (!misses.isEmpty()) {
+            for (ProductRepository.ProductSummary summary : productRepository.findSummariesByIdIn(misses)) {
+                summaries.put(summary.getId(), productMapper.toSummaryDto(summary));
+            }
+        }
+        // a product deleted since the neighbors were counted is skipped
+        return LongStream.of(relatedIds).mapToObj(summaries::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PricePointDTO> findPriceHistory(Long id, Instant from, Instant to, PricePointCursor after, Integer size) {
+        LOG.debug("Request to get the price history of Product : {} from {} to {} after {}", id, from, to, after);
+        Instant afterDate = after != null ? after.effectiveDate() : from != null ? from : Instant.EPOCH;
+        Long afterId = after != null ? after.pricedProductId() : Long.MIN_VALUE;
+        return pricedProductRepository
+            .findPriceHistory(id, afterDate, afterId, to != null ? to : Instant.now(), PageRequest.ofSize(pageSize(size)))
+            .map(ProductServiceImpl::toPricePointDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PricePointDTO> findPriceAt(Long id, Instant at) {
+        LOG.debug("Request to get the price of Product : {} at {}", id, at);
+        return pricedProductRepository
+            .findPricesActiveAt(id, at, PageRequest.ofSize(1))
+            .stream()
+            .findFirst()
+            .map(ProductServiceImpl::toPricePointDto);
+    }
+
+    private static PricePointDTO toPricePointDto(PricedProductRepository.PricePoint point) {
+        return new PricePointDTO(
+            point.getPricedProductId(),
+            point.getPriceId(),
+            point.getValue(),
+            point.getEffectiveDate(),
+            point.getActive()
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<VersionedProduct> findOneWithVersion(Long id) {
+        LOG.debug("Request to get Product with its version : {}", id);
+        return productRepository
+            .findVersionedViewById(id)
+            .map(view -> new VersionedProduct(productMapper.toDto(view.product()), view.version()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CatalogEntryDTO> findAllWithActivePrice(List<Long> ids) {
+        LOG.debug("Request to get Products with their active price : {}", ids);
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        LongObjectHashMap<CatalogEntryDTO> entries = new LongObjectHashMap<>(distinctIds.size());
+        List<Long> misses = new ArrayList<>();
+        for (Long id : distinctIds) {
+            catalogSnapshot.find(id).ifPresentOrElse(item -> entries.put(id, item.toCatalogEntryDTO()), () -> misses.add(id));
+        }
+        if (!misses.isEmpty()) {
+            LongObjectHashMap<Double> prices = new LongObjectHashMap<>(misses.size());
+            for (PricedProductRepository.ActivePrice price : pricedProductRepository.findActivePricesByProductIdIn(misses)) {
+                // ordered by priced product id, a product with several active prices keeps the last one
+                prices.put(price.getProductId(), price.getValue() == null ? null : price.getValue().toDouble());
+            }
+            // one projection query: loading entities would read the lazy description with one more query per product
+            for (ProductRepository.ProductView product : productRepository.findViewsByIdIn(misses)) {
+                Double price = prices.get(product.id());
+                entries.put(product.id(), new CatalogEntryDTO(product.id(), product.name(), product.description(), price));
+            }
+        }
+        return distinctIds.stream().map(entries::get).filter(Objects::nonNull).toList();
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<ProductDTO> findOne(Long id) {
         LOG.debug("Request to get Product : {}", id);
-        return productRepository.findById(id).map(productMapper::toDto);
+        return catalogSnapshot
+            .find(id)
+            .map(CatalogItem::toProductDTO)
+            .or(() -> productRepository.findViewById(id).map(productMapper::toDto));
     }
 
     @Override
     public void delete(Long id) {
         LOG.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null || requested < 1) {
+            return catalogProperties.getDefaultPageSize();
+        }
+        return Math.min(requested, catalogProperties.getMaxPageSize());
+    }
+
+    private ProductDTO published(ProductDTO productDTO) {
+        applicationEventPublisher.publishEvent(ProductChangedEvent.saved(productDTO));
+        return productDTO;
     }
 }
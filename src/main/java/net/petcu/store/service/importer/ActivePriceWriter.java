@@ -0,0 +1,123 @@
+package net.petcu.store.service.importer;
+
+import static net.petcu.store.service.importer.ProductImportService.ROWS_PER_STATEMENT;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Price;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.service.catalog.ProductPriceLock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Replaces the active {@link Price} of many products with set-based JDBC statements, bypassing the persistence context:
+ * one {@code update} deactivates the current {@link PricedProduct}s of all the products, then multi-row inserts write
+ * the new {@code price} and {@code priced_product} rows.
+ * <p>
+ * Runs in the caller's transaction. Callers evict the {@link PricedProduct} cache region once it commits and publish
+ * a {@link net.petcu.store.service.event.PricesImportedEvent}, or a
+ * {@link net.petcu.store.service.event.PricedProductChangedEvent} for each product when only a few changed.
+ */
+@Service
+public class ActivePriceWriter {
+
+    private static final String PRICE_ROW = "(cast(? as bigint), cast(? as bigint))";
+
+    private static final String PRICED_PRODUCT_ROW =
+        "(cast(? as bigint), true, cast(? as timestamp), cast(? as bigint), cast(? as bigint), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ProductPriceLock productPriceLock;
+
+    public ActivePriceWriter(JdbcTemplate jdbcTemplate, ProductPriceLock productPriceLock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productPriceLock = productPriceLock;
+    }
+
+    /**
+     * Replace the active price of every product of the map. Products that do not exist are removed from the map.
+     *
+     * @param prices the new price by product id.
+     * @return the id of the new active priced product by product id, for the products whose active price was replaced.
+     * @throws net.petcu.store.exception.PriceLockTimeoutException if another price change of a product holds its lock
+     * for too long.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Long> replace(Map<Long, Money> prices) {
+        if (prices.isEmpty()) {
+            return Map.of();
+        }
+        prices.keySet().retainAll(existingProducts(prices.keySet()));
+        if (prices.isEmpty()) {
+            return Map.of();
+        }
+        productPriceLock.lockAll(prices.keySet());
+        deactivate(prices.keySet());
+        // a Calendar argument is bound with setTimestamp(index, timestamp, calendar): the wall-clock time in UTC, as
+        // Hibernate writes the other timestamps (hibernate.jdbc.time_zone), whatever the default time zone of the JVM
+        return insert(prices, Calendar.getInstance(TimeZone.getTimeZone("UTC")));
+    }
+
+    private Set<Long> existingProducts(Collection<Long> productIds) {
+        return new HashSet<>(
+            jdbcTemplate.query(
+                "select id from product where id = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", productIds.toArray())),
+                (rs, rowNum) -> rs.getLong(1)
+            )
+        );
+    }
+
+    // updated_date keeps the time the price became active, for the price history
+    private void deactivate(Collection<Long> productIds) {
+        jdbcTemplate.update(
+            "update priced_product set active = false, version = version + 1 where product_id = any(?) and active = true",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", productIds.toArray()))
+        );
+    }
+
+    private Map<Long, Long> insert(Map<Long, Money> prices, Calendar now) {
+        List<Map.Entry<Long, Money>> entries = new ArrayList<>(prices.entrySet());
+        long[] ids = ProductImportService.allocateIds(jdbcTemplate, 2 * entries.size());
+        Map<Long, Long> pricedProductIds = new HashMap<>(entries.size() * 2);
+        for (int from = 0; from < entries.size(); from += ROWS_PER_STATEMENT) {
+            List<Map.Entry<Long, Money>> rows = entries.subList(from, Math.min(from + ROWS_PER_STATEMENT, entries.size()));
+            Object[] priceArgs = new Object[rows.size() * 2];
+            Object[] pricedProductArgs = new Object[rows.size() * 4];
+            for (int i = 0; i < rows.size(); i++) {
+                long priceId = ids[2 * (from + i)];
+                priceArgs[2 * i] = priceId;
+                priceArgs[2 * i + 1] = rows.get(i).getValue().minorUnits();
+                pricedProductArgs[4 * i] = ids[2 * (from + i) + 1];
+                pricedProductArgs[4 * i + 1] = now;
+                pricedProductArgs[4 * i + 2] = rows.get(i).getKey();
+                pricedProductArgs[4 * i + 3] = priceId;
+                pricedProductIds.put(rows.get(i).getKey(), ids[2 * (from + i) + 1]);
+            }
+            jdbcTemplate.update("insert into price (id, value) values " + valuesList(rows.size(), PRICE_ROW), priceArgs);
+            jdbcTemplate.update(
+                "insert into priced_product (id, active, updated_date, product_id, price_id, version) values " +
+                valuesList(rows.size(), PRICED_PRODUCT_ROW),
+                pricedProductArgs
+            );
+        }
+        return pricedProductIds;
+    }
+
+    private static String valuesList(int rows, String row) {
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+}
@@ -0,0 +1,176 @@
+package net.petcu.store.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Price;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.exception.MalformedImportException;
+import net.petcu.store.service.dto.PriceChangeDTO;
+import net.petcu.store.service.dto.PriceChangeReportDTO;
+import net.petcu.store.service.event.PricesImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service changing the active {@link Price} of many products at once.
+ * <p>
+ * The payload is parsed incrementally, like a {@link ProductImportService} payload, and every chunk of
+ * {@code application.catalog.import-chunk-size} records is written by the {@link ActivePriceWriter} in its own
+ * transaction. Records for unknown products are skipped, a malformed record stops the change but keeps the chunks
+ * before it.
+ */
+@Service
+public class BulkPriceChangeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkPriceChangeService.class);
+
+    public static final String CHANGED_METER_NAME = "catalog.prices.bulk.changed";
+
+    private final ActivePriceWriter activePriceWriter;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Counter changedCounter;
+
+    private final int chunkSize;
+
+    public BulkPriceChangeService(
+        ActivePriceWriter activePriceWriter,
+        PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.activePriceWriter = activePriceWriter;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.changedCounter = Counter.builder(CHANGED_METER_NAME)
+            .description("Active prices replaced by bulk price changes.")
+            .register(registry);
+        this.chunkSize = applicationProperties.getCatalog().getImportChunkSize();
+    }
+
+    /**
+     * Change the price of every product of the payload.
+     *
+     * @param in the payload, read until its end and closed.
+     * @param format the format of the payload.
+     * @return the summary of the change.
+     * @throws IOException if the payload cannot be read.
+     * @throws MalformedImportException if a record cannot be parsed or its price is not positive.
+     */
+    public PriceChangeReportDTO changePrices(InputStream in, ProductImportService.Format format) throws IOException {
+        LOG.debug("Request to change Prices from {}", format);
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        try (PriceChangeReader reader = open(in, format, progress)) {
+            List<PriceChangeDTO> chunk = new ArrayList<>(chunkSize);
+            PriceChangeDTO change;
+            while ((change = next(reader, progress)) != null) {
+                chunk.add(change);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(chunk, progress);
+            }
+        } finally {
+            if (progress.changed > 0) {
+                applicationEventPublisher.publishEvent(new PricesImportedEvent(progress.changed));
+            }
+        }
+        PriceChangeReportDTO report = progress.toReport(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.info("Changed Prices: {}", report);
+        return report;
+    }
+
+    private PriceChangeReader open(InputStream in, ProductImportService.Format format, Progress progress) throws IOException {
+        try {
+            return switch (format) {
+                case CSV -> new CsvPriceChangeReader(in);
+                case JSON -> new JsonPriceChangeReader(in, objectMapper);
+            };
+        } catch (IllegalArgumentException e) {
+            in.close();
+            throw new MalformedImportException(e.getMessage(), 0, progress.changed);
+        }
+    }
+
+    private static PriceChangeDTO next(PriceChangeReader reader, Progress progress) throws IOException {
+        PriceChangeDTO change;
+        try {
+            change = reader.next();
+        } catch (IllegalArgumentException e) {
+            throw new MalformedImportException(e.getMessage(), progress.read + 1, progress.changed);
+        }
+        if (change == null) {
+            return null;
+        }
+        if (change.productId() == null) {
+            throw new MalformedImportException("missing productId", progress.read + 1, progress.changed);
+        }
+        if (change.price() == null || !change.price().isPositive()) {
+            throw new MalformedImportException("price must be positive", progress.read + 1, progress.changed);
+        }
+        progress.read++;
+        return change;
+    }
+
+    private void write(List<PriceChangeDTO> chunk, Progress progress) {
+        // the last record wins when a product appears twice in a chunk
+        Map<Long, Money> prices = new LinkedHashMap<>();
+        for (PriceChangeDTO change : chunk) {
+            prices.put(change.productId(), change.price());
+        }
+        int changed = chunkTransaction.execute(status -> activePriceWriter.replace(prices)).size();
+        if (changed > 0) {
+            // one region-wide eviction per chunk instead of one eviction per deactivated priced product, new prices are
+            // not cached yet
+            entityManagerFactory.getCache().evict(PricedProduct.class);
+        }
+        progress.chunks++;
+        progress.changed += changed;
+        progress.skipped += chunk.size() - changed;
+        changedCounter.increment(changed);
+        LOG.debug("Committed price change chunk {}: {} changed, {} changed so far", progress.chunks, changed, progress.changed);
+    }
+
+    private static final class Progress {
+
+        private long read;
+        private long changed;
+        private long skipped;
+        private int chunks;
+
+        private PriceChangeReportDTO toReport(long durationMillis) {
+            return new PriceChangeReportDTO(read, changed, skipped, chunks, durationMillis);
+        }
+    }
+}
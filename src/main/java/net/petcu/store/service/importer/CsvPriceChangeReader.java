@@ -0,0 +1,71 @@
+package net.petcu.store.service.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import net.petcu.store.domain.Money;
+import net.petcu.store.service.dto.PriceChangeDTO;
+
+/**
+ * Reads RFC 4180 CSV records as {@link PriceChangeDTO}s. The first record is a header naming the {@code productId}
+ * and {@code price} columns, in any order; both are required.
+ */
+final class CsvPriceChangeReader implements PriceChangeReader {
+
+    private final CsvRecordReader reader;
+
+    private final int width;
+
+    private final int productIdColumn;
+
+    private final int priceColumn;
+
+    CsvPriceChangeReader(InputStream in) throws IOException {
+        this.reader = new CsvRecordReader(in);
+        List<String> columns = reader.readHeader();
+        for (String column : columns) {
+            if (!column.equals("productid") && !column.equals("price")) {
+                throw new IllegalArgumentException("unknown CSV column '" + column + "'");
+            }
+        }
+        this.width = columns.size();
+        this.productIdColumn = columns.indexOf("productid");
+        this.priceColumn = columns.indexOf("price");
+        if (productIdColumn < 0) {
+            throw new IllegalArgumentException("missing CSV column 'productId'");
+        }
+        if (priceColumn < 0) {
+            throw new IllegalArgumentException("missing CSV column 'price'");
+        }
+    }
+
+    @Override
+    public PriceChangeDTO next() throws IOException {
+        List<String> record = reader.next(width);
+        if (record == null) {
+            return null;
+        }
+        return new PriceChangeDTO(parseLong(record.get(productIdColumn)), parseMoney(record.get(priceColumn)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static Long parseLong(String field) {
+        try {
+            return field == null ? null : Long.valueOf(field.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid productId '" + field + "'", e);
+        }
+    }
+
+    private static Money parseMoney(String field) {
+        try {
+            return field == null ? null : Money.parse(field);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("invalid price '" + field + "'", e);
+        }
+    }
+}
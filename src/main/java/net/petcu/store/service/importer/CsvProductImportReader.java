@@ -0,0 +1,63 @@
+package net.petcu.store.service.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import net.petcu.store.service.dto.ProductDTO;
+
+/**
+ * Reads RFC 4180 CSV records as {@link ProductDTO}s. The first record is a header naming the {@code id}, {@code name}
+ * and {@code description} columns, in any order; only {@code name} is required. Empty fields are read as {@code null}.
+ */
+final class CsvProductImportReader implements ProductImportReader {
+
+    private final CsvRecordReader reader;
+
+    private final int width;
+
+    private final int idColumn;
+
+    private final int nameColumn;
+
+    private final int descriptionColumn;
+
+    CsvProductImportReader(InputStream in) throws IOException {
+        this.reader = new CsvRecordReader(in);
+        List<String> columns = reader.readHeader();
+        for (String column : columns) {
+            if (!column.equals("id") && !column.equals("name") && !column.equals("description")) {
+                throw new IllegalArgumentException("unknown CSV column '" + column + "'");
+            }
+        }
+        this.width = columns.size();
+        this.idColumn = columns.indexOf("id");
+        this.nameColumn = columns.indexOf("name");
+        this.descriptionColumn = columns.indexOf("description");
+        if (nameColumn < 0) {
+            throw new IllegalArgumentException("missing CSV column 'name'");
+        }
+    }
+
+    @Override
+    public ProductDTO next() throws IOException {
+        List<String> record = reader.next(width);
+        if (record == null) {
+            return null;
+        }
+        String id = idColumn < 0 ? null : record.get(idColumn);
+        try {
+            return new ProductDTO(
+                id == null ? null : Long.valueOf(id.strip()),
+                record.get(nameColumn),
+                descriptionColumn < 0 ? null : record.get(descriptionColumn)
+            );
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid id '" + id + "'", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
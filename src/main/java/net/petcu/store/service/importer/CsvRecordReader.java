@@ -0,0 +1,104 @@
+package net.petcu.store.service.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads RFC 4180 CSV records from UTF-8 input, one record at a time. Empty fields are read as {@code null}.
+ */
+final class CsvRecordReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Reader reader;
+
+    CsvRecordReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the header record, with its column names stripped and in lower case.
+     *
+     * @throws IllegalArgumentException if the input is empty.
+     */
+    List<String> readHeader() throws IOException {
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("missing CSV header");
+        }
+        return header.stream().map(column -> column == null ? "" : column.strip().toLowerCase(Locale.ROOT)).toList();
+    }
+
+    /**
+     * Read the next record that is not a blank line.
+     *
+     * @param width the expected number of fields.
+     * @return the fields of the record, or {@code null} at the end of the input.
+     * @throws IllegalArgumentException if the record does not have {@code width} fields.
+     */
+    List<String> next(int width) throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+        } while (record != null && record.size() == 1 && record.getFirst() == null);
+        if (record != null && record.size() != width) {
+            throw new IllegalArgumentException("expected " + width + " CSV fields but found " + record.size());
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Read one record, whose quoted fields may span several lines.
+     *
+     * @return the fields of the record, empty ones as {@code null}, or {@code null} at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("unterminated quoted CSV field");
+                }
+                if (c == QUOTE) {
+                    c = reader.read();
+                    if (c != QUOTE) {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.isEmpty() ? null : field.toString());
+                return fields;
+            } else if (c == SEPARATOR) {
+                fields.add(field.isEmpty() ? null : field.toString());
+                field.setLength(0);
+            } else if (c == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
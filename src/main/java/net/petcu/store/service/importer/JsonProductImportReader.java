@@ -0,0 +1,60 @@
+package net.petcu.store.service.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import net.petcu.store.service.dto.ProductDTO;
+
+/**
+ * Reads a JSON array of {@link ProductDTO}s element by element, without materializing the array.
+ */
+final class JsonProductImportReader implements ProductImportReader {
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonParser parser;
+
+    JsonProductImportReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.createParser(in);
+        if (nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("expected a JSON array of products");
+        }
+    }
+
+    @Override
+    public ProductDTO next() throws IOException {
+        JsonToken token = nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("expected a product object at " + parser.currentLocation());
+        }
+        try {
+            return objectMapper.readValue(parser, ProductDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private JsonToken nextToken() throws IOException {
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new IllegalArgumentException("unexpected end of the JSON array");
+            }
+            return token;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+    }
+}
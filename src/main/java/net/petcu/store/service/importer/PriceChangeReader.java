@@ -0,0 +1,19 @@
+package net.petcu.store.service.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import net.petcu.store.service.dto.PriceChangeDTO;
+
+/**
+ * Incremental reader of a price change payload, one price at a time.
+ * Malformed input is reported with an {@link IllegalArgumentException}.
+ */
+interface PriceChangeReader extends Closeable {
+    /**
+     * Read the next price change.
+     *
+     * @return the price change, or {@code null} at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    PriceChangeDTO next() throws IOException;
+}
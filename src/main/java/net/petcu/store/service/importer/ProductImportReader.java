@@ -0,0 +1,19 @@
+package net.petcu.store.service.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import net.petcu.store.service.dto.ProductDTO;
+
+/**
+ * Incremental reader of an import payload, one product at a time.
+ * Malformed input is reported with an {@link IllegalArgumentException}.
+ */
+interface ProductImportReader extends Closeable {
+    /**
+     * Read the next product.
+     *
+     * @return the product, or {@code null} at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    ProductDTO next() throws IOException;
+}
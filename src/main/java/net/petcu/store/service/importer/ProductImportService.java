@@ -0,0 +1,245 @@
+package net.petcu.store.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Product;
+import net.petcu.store.exception.MalformedImportException;
+import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductImportReportDTO;
+import net.petcu.store.service.event.ProductsImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service importing large {@link Product} catalogs.
+ * <p>
+ * The payload is parsed incrementally and written with multi-row JDBC statements, bypassing the persistence context.
+ * Every chunk of {@code application.catalog.import-chunk-size} records is committed in its own transaction, so a
+ * malformed record stops the import but keeps the chunks before it. Records with an id update that product, records
+ * without one create a new product.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImportService.class);
+
+    /**
+     * Must match the allocation size of the {@code sequenceGenerator} used by {@link Product}: every value drawn from the
+     * sequence reserves the ids from {@code value - ID_ALLOCATION_SIZE + 1} to {@code value}, as Hibernate's pooled
+     * optimizer does.
+     */
+    static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Rows per statement, keeping the number of bind parameters well under the PostgreSQL limit.
+     */
+    static final int ROWS_PER_STATEMENT = 1000;
+
+    /**
+     * Supported payload formats.
+     */
+    public enum Format {
+        CSV,
+        JSON,
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final int chunkSize;
+
+    public ProductImportService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.chunkSize = applicationProperties.getCatalog().getImportChunkSize();
+    }
+
+    /**
+     * Import every product of the payload.
+     *
+     * @param in the payload, read until its end and closed.
+     * @param format the format of the payload.
+     * @return the summary of the import.
+     * @throws IOException if the payload cannot be read.
+     * @throws MalformedImportException if a record cannot be parsed.
+     */
+    public ProductImportReportDTO importProducts(InputStream in, Format format) throws IOException {
+        LOG.debug("Request to import Products from {}", format);
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        try (ProductImportReader reader = open(in, format, progress)) {
+            List<ProductDTO> chunk = new ArrayList<>(chunkSize);
+            ProductDTO product;
+            while ((product = next(reader, progress)) != null) {
+                chunk.add(product);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                write(chunk, progress);
+            }
+        } finally {
+            if (progress.inserted + progress.updated > 0) {
+                applicationEventPublisher.publishEvent(new ProductsImportedEvent(progress.inserted, progress.updated));
+            }
+        }
+        ProductImportReportDTO report = progress.toReport(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOG.info("Imported Products: {}", report);
+        return report;
+    }
+
+    private ProductImportReader open(InputStream in, Format format, Progress progress) throws IOException {
+        try {
+            return switch (format) {
+                case CSV -> new CsvProductImportReader(in);
+                case JSON -> new JsonProductImportReader(in, objectMapper);
+            };
+        } catch (IllegalArgumentException e) {
+            in.close();
+            throw new MalformedImportException(e.getMessage(), 0, progress.imported());
+        }
+    }
+
+    private static ProductDTO next(ProductImportReader reader, Progress progress) throws IOException {
+        try {
+            ProductDTO product = reader.next();
+            if (product != null) {
+                progress.read++;
+            }
+            return product;
+        } catch (IllegalArgumentException e) {
+            throw new MalformedImportException(e.getMessage(), progress.read + 1, progress.imported());
+        }
+    }
+
+    private void write(List<ProductDTO> chunk, Progress progress) {
+        Map<Long, ProductDTO> updates = new LinkedHashMap<>();
+        List<ProductDTO> inserts = new ArrayList<>();
+        for (ProductDTO product : chunk) {
+            if (product.id() == null) {
+                inserts.add(product);
+            } else {
+                // the last record wins when an id appears twice in a chunk
+                updates.put(product.id(), product);
+            }
+        }
+        int updated = chunkTransaction.execute(status -> {
+            insert(inserts);
+            return update(new ArrayList<>(updates.values()));
+        });
+        if (updated > 0) {
+            // one region-wide eviction per chunk instead of one eviction per updated entity
+            entityManagerFactory.getCache().evict(Product.class);
+        }
+        progress.chunks++;
+        progress.inserted += inserts.size();
+        progress.updated += updated;
+        progress.skipped += chunk.size() - inserts.size() - updated;
+        LOG.debug("Committed import chunk {}: {} inserted, {} updated", progress.chunks, inserts.size(), updated);
+    }
+
+    private void insert(List<ProductDTO> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        long[] ids = allocateIds(jdbcTemplate, products.size());
+        for (int from = 0; from < products.size(); from += ROWS_PER_STATEMENT) {
+            List<ProductDTO> rows = products.subList(from, Math.min(from + ROWS_PER_STATEMENT, products.size()));
+            Object[] args = new Object[rows.size() * 3];
+            for (int i = 0; i < rows.size(); i++) {
+                args[3 * i] = ids[from + i];
+                args[3 * i + 1] = rows.get(i).name();
+                args[3 * i + 2] = rows.get(i).description();
+            }
+            jdbcTemplate.update("insert into product (id, name, description) values " + valuesList(rows.size()), args);
+        }
+    }
+
+    private int update(List<ProductDTO> products) {
+        int updated = 0;
+        for (int from = 0; from < products.size(); from += ROWS_PER_STATEMENT) {
+            List<ProductDTO> rows = products.subList(from, Math.min(from + ROWS_PER_STATEMENT, products.size()));
+            Object[] args = new Object[rows.size() * 3];
+            for (int i = 0; i < rows.size(); i++) {
+                args[3 * i] = rows.get(i).id();
+                args[3 * i + 1] = rows.get(i).name();
+                args[3 * i + 2] = rows.get(i).description();
+            }
+            updated += jdbcTemplate.update(
+                "update product set name = imported.name, description = imported.description, version = product.version + 1" +
+                " from (values " +
+                valuesList(rows.size()) +
+                ") as imported (id, name, description) where product.id = imported.id",
+                args
+            );
+        }
+        return updated;
+    }
+
+    /**
+     * Draw {@code count} ids from {@code sequence_generator}, one sequence value per {@link #ID_ALLOCATION_SIZE} ids.
+     */
+    static long[] allocateIds(JdbcTemplate jdbcTemplate, int count) {
+        int blocks = (count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+        List<Long> highs = jdbcTemplate.queryForList("select nextval('sequence_generator') from generate_series(1, ?)", Long.class, blocks);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = highs.get(i / ID_ALLOCATION_SIZE) - ID_ALLOCATION_SIZE + 1 + i % ID_ALLOCATION_SIZE;
+        }
+        return ids;
+    }
+
+    private static String valuesList(int rows) {
+        return String.join(", ", Collections.nCopies(rows, "(cast(? as bigint), cast(? as varchar), cast(? as varchar))"));
+    }
+
+    private static final class Progress {
+
+        private long read;
+        private long inserted;
+        private long updated;
+        private long skipped;
+        private int chunks;
+
+        private long imported() {
+            return inserted + updated;
+        }
+
+        private ProductImportReportDTO toReport(long durationMillis) {
+            return new ProductImportReportDTO(read, inserted, updated, skipped, chunks, durationMillis);
+        }
+    }
+}
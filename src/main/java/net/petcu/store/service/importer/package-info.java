@@ -0,0 +1,4 @@
+/**
+ * Bulk import of the product catalog.
+ */
+package net.petcu.store.service.importer;
@@ -1,11 +1,51 @@
 package net.petcu.store.service.mapper;
 
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.Product;
+import net.petcu.store.repository.ProductRepository;
 import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductSummaryDTO;
 import org.mapstruct.*;
 
 /**
  * Mapper for the entity {@link Product} and its DTO {@link ProductDTO}.
  */
 @Mapper(componentModel = "spring")
-public interface ProductMapper extends EntityMapper<ProductDTO, Product> {}
+public interface ProductMapper extends EntityMapper<ProductDTO, Product> {
+    @Override
+    @Mapping(target = "image", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "removeTag", ignore = true)
+    Product toEntity(ProductDTO dto);
+
+    ProductDTO toDto(ProductRepository.ProductView view);
+
+    ProductSummaryDTO toSummaryDto(ProductRepository.ProductSummary summary);
+
+    /**
+     * Listings keep the {@code double} prices of the catalog indexes.
+     */
+    default Double toDouble(Money money) {
+        return money == null ? null : money.toDouble();
+    }
+
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "image", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "removeTag", ignore = true)
+    void partialUpdate(@MappingTarget Product entity, ProductDTO dto);
+
+    /**
+     * Overwrite every field of a managed entity, keeping its id and version.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "image", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    @Mapping(target = "removeTag", ignore = true)
+    void update(@MappingTarget Product entity, ProductDTO dto);
+}
@@ -0,0 +1,317 @@
+package net.petcu.store.service.pricing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.exception.PriceStreamFullException;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.dto.PriceUpdateDTO;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Stream of committed price changes to Server-Sent Events subscribers.
+ * <p>
+ * A {@code price} event is sent for every committed {@link PriceChangedEvent}, and for every committed
+ * {@link PricedProductChangedEvent} with the active price of the product read again, so that activating, deactivating
+ * or deleting a priced product, or a scheduled price becoming active, also reaches the clients. A
+ * {@code prices-imported} event, carrying the number of repriced products, is sent once a bulk price change or many
+ * scheduled prices have committed, since those do not publish individual changes. Each event has an id
+ * {@code <epoch>-<sequence>}, the epoch being the start of this instance, and the latest
+ * {@code application.price-stream.replay-size} events are kept so that a client reconnecting with its
+ * {@code Last-Event-ID} only gets the events it missed. A client whose id cannot be resumed, from a previous instance
+ * or older than the kept events, gets a {@code reset} event instead and should reload the prices.
+ * <p>
+ * Events are queued per subscriber, up to {@code application.price-stream.buffer-size}, and written by the
+ * {@code priceStreamExecutor}, so the committing transaction never waits for a client. Writes block while a client is
+ * slow to read, and each subscriber is written by at most one task at a time: the executor has a thread for each of
+ * the {@code application.price-stream.max-subscribers}, and a subscriber keeps its slot until its last write returns,
+ * so a slow client only holds up its own events. Clients beyond the maximum are refused. A subscriber whose queue is
+ * full is disconnected, and resumes from its last event when it reconnects. Idle subscribers get a comment every
+ * {@code application.price-stream.heartbeat}.
+ */
+@Service
+public class PriceChangeStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceChangeStream.class);
+
+    public static final String SUBSCRIBERS_METER_NAME = "catalog.prices.stream.subscribers";
+
+    public static final String OVERFLOWS_METER_NAME = "catalog.prices.stream.overflows";
+
+    static final String PRICE_EVENT = "price";
+
+    static final String PRICES_IMPORTED_EVENT = "prices-imported";
+
+    static final String RESET_EVENT = "reset";
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(-1, "", null);
+
+    private final TaskExecutor executor;
+
+    private final PricedProductRepository pricedProductRepository;
+
+    private final int bufferSize;
+
+    private final int maxSubscribers;
+
+    // a permit per subscriber admitted and not yet done writing, bounding the threads the writes hold
+    private final Semaphore writers;
+
+    private final String epoch = Long.toString(System.currentTimeMillis());
+
+    private final Counter overflows;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    // guarded by this, the latest events by sequence modulo its length
+    private final StreamEvent[] replay;
+
+    // guarded by this, the sequence of the latest event
+    private long sequence;
+
+    public PriceChangeStream(
+        @Qualifier("priceStreamExecutor") TaskExecutor executor,
+        PricedProductRepository pricedProductRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.executor = executor;
+        this.pricedProductRepository = pricedProductRepository;
+        this.bufferSize = applicationProperties.getPriceStream().getBufferSize();
+        this.maxSubscribers = applicationProperties.getPriceStream().getMaxSubscribers();
+        this.writers = new Semaphore(maxSubscribers);
+        this.replay = new StreamEvent[applicationProperties.getPriceStream().getReplaySize()];
+        Gauge.builder(SUBSCRIBERS_METER_NAME, subscribers, List::size)
+            .description("Number of clients subscribed to the price stream.")
+            .register(registry);
+        this.overflows = Counter.builder(OVERFLOWS_METER_NAME)
+            .description("Price stream subscribers disconnected because they fell behind.")
+            .register(registry);
+    }
+
+    /**
+     * Subscribe to the price changes committed from now on.
+     *
+     * @param lastEventId the id of the last event the client received, or {@code null} for a new client.
+     * @return the emitter of the events, which never times out: gone clients are noticed by the heartbeats.
+     * @throws PriceStreamFullException if {@code application.price-stream.max-subscribers} are already subscribed.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        if (!writers.tryAcquire()) {
+            throw new PriceStreamFullException(maxSubscribers);
+        }
+        Subscriber subscriber;
+        synchronized (this) {
+            List<StreamEvent> missed = lastEventId == null ? List.of() : missedSince(lastEventId);
+            subscriber = new Subscriber(emitter, bufferSize + missed.size());
+            subscriber.queue.addAll(missed);
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(e -> subscriber.remove());
+        LOG.debug("Price stream subscribed with lastEventId={}, {} events to replay", lastEventId, subscriber.queue.size());
+        subscriber.schedule();
+        return emitter;
+    }
+
+    // guarded by this
+    private List<StreamEvent> missedSince(String lastEventId) {
+        long last = -1;
+        int separator = lastEventId.indexOf('-');
+        if (separator > 0 && lastEventId.substring(0, separator).equals(epoch)) {
+            try {
+                last = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                LOG.debug("Price stream cannot resume from malformed lastEventId={}", lastEventId);
+            }
+        }
+        if (last < 0 || last > sequence || sequence - last > replay.length) {
+            return List.of(new StreamEvent(sequence, RESET_EVENT, "reload"));
+        }
+        List<StreamEvent> missed = new ArrayList<>((int) (sequence - last));
+        for (long next = last + 1; next <= sequence; next++) {
+            missed.add(replay[(int) (next % replay.length)]);
+        }
+        return missed;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener
+    public void onPriceChanged(PriceChangedEvent event) {
+        publish(PRICE_EVENT, new PriceUpdateDTO(event.productId(), event.priceId(), event.value()));
+    }
+
+    @TransactionalEventListener
+    public void onPricedProductChanged(PricedProductChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        List<PricedProductRepository.ActivePrice> prices = pricedProductRepository.findActivePricesByProductIdIn(
+            List.of(event.productId())
+        );
+        // ordered by priced product id, a product with several active prices keeps the last one, as the catalog does
+        PricedProductRepository.ActivePrice active = prices.isEmpty() ? null : prices.getLast();
+        publish(
+            PRICE_EVENT,
+            active == null
+                ? new PriceUpdateDTO(event.productId(), null, null)
+                : new PriceUpdateDTO(event.productId(), active.getPriceId(), active.getValue())
+        );
+    }
+
+    @EventListener
+    public void onPricesImported(PricesImportedEvent event) {
+        publish(PRICES_IMPORTED_EVENT, event.changed());
+    }
+
+    private void publish(String name, Object data) {
+        List<Subscriber> notified = new ArrayList<>(subscribers.size());
+        synchronized (this) {
+            StreamEvent event = new StreamEvent(++sequence, name, data);
+            replay[(int) (sequence % replay.length)] = event;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    LOG.debug("Price stream subscriber fell more than {} events behind, disconnecting it", bufferSize);
+                    overflows.increment();
+                    subscribers.remove(subscriber);
+                    subscriber.overflowed = true;
+                }
+                notified.add(subscriber);
+            }
+        }
+        notified.forEach(Subscriber::schedule);
+    }
+
+    @Scheduled(
+        initialDelayString = "${application.price-stream.heartbeat:PT15S}",
+        fixedDelayString = "${application.price-stream.heartbeat:PT15S}"
+    )
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.isEmpty() && subscriber.queue.offer(HEARTBEAT)) {
+                subscriber.schedule();
+            }
+        }
+    }
+
+    private String id(StreamEvent event) {
+        return epoch + "-" + event.sequence();
+    }
+
+    private record StreamEvent(long sequence, String name, Object data) {}
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Queue<StreamEvent> queue;
+
+        // set while a task writing the queue is submitted or running, so that events are written one at a time
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // set by the publisher when the queue is full, read by the writing task
+        private volatile boolean overflowed;
+
+        // set once the subscriber is gone, its permit is released as soon as no task is writing to it
+        private volatile boolean removed;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void schedule() {
+            if (!removed && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void remove() {
+            subscribers.remove(this);
+            removed = true;
+            // the writing task, if any, releases the permit once it stops
+            if (!draining.get()) {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                writers.release();
+            }
+        }
+
+        private void stopDraining() {
+            draining.set(false);
+            if (removed) {
+                release();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                if (overflowed || removed) {
+                    queue.clear();
+                    if (overflowed) {
+                        emitter.complete();
+                    }
+                    remove();
+                    stopDraining();
+                    return;
+                }
+                StreamEvent event = queue.poll();
+                if (event == null) {
+                    stopDraining();
+                    // an event queued after the poll but before the flag was cleared did not submit a task
+                    if (removed || (queue.isEmpty() && !overflowed) || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    emitter.send(
+                        event == HEARTBEAT
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().id(id(event)).name(event.name()).data(event.data())
+                    );
+                } catch (IOException | IllegalStateException e) {
+                    LOG.debug("Price stream subscriber is gone: {}", e.getMessage());
+                    queue.clear();
+                    remove();
+                    stopDraining();
+                    return;
+                }
+            }
+        }
+    }
+}
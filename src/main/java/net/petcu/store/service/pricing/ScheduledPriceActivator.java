@@ -0,0 +1,235 @@
+package net.petcu.store.service.pricing;
+
+import com.carrotsearch.hppc.LongArrayList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.exception.PriceLockTimeoutException;
+import net.petcu.store.repository.ScheduledPriceRepository;
+import net.petcu.store.service.event.PriceScheduledEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import net.petcu.store.service.importer.ActivePriceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Activates {@link net.petcu.store.domain.ScheduledPrice}s at their effective date.
+ * <p>
+ * Pending prices wait in a {@link TimerWheel} ticking every second, instead of one scheduled task per price. The wheel
+ * is recovered from the {@code scheduled_price} table when the application is ready and fed by committed
+ * {@link PriceScheduledEvent}s. Every price due at a tick is activated by the {@link ActivePriceWriter} in batches of
+ * {@code application.catalog.import-chunk-size}, one transaction each, so thousands of prices switching at midnight
+ * cost a few set-based statements. Prices are claimed before they are activated, so an instance only activates the
+ * prices no other instance has. A batch that fails, or a recovery that fails, is retried a minute later.
+ * <p>
+ * Up to {@code application.catalog.scheduled-price-event-limit} prices due at a tick publish a
+ * {@link PricedProductChangedEvent} for each product, so the in-memory price views only update those products. More
+ * publish a single {@link PricesImportedEvent}, and the views are rebuilt from the database.
+ */
+@Service
+public class ScheduledPriceActivator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScheduledPriceActivator.class);
+
+    public static final String PENDING_METER_NAME = "catalog.prices.scheduled.pending";
+
+    public static final String ACTIVATED_METER_NAME = "catalog.prices.scheduled.activated";
+
+    static final long TICK_MILLIS = 1000;
+
+    static final long RETRY_DELAY_MILLIS = 60_000;
+
+    private final ScheduledPriceRepository scheduledPriceRepository;
+
+    private final ActivePriceWriter activePriceWriter;
+
+    private final TransactionTemplate batchTransaction;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Counter activatedCounter;
+
+    private final int batchSize;
+
+    private final int recoveryBatchSize;
+
+    private final int eventLimit;
+
+    // guarded by itself
+    private final TimerWheel wheel = new TimerWheel(TICK_MILLIS, System.currentTimeMillis());
+
+    // set while the recovery failed, it is retried by the tick from recoveryRetryAt
+    private volatile boolean recoveryPending;
+
+    private volatile long recoveryRetryAt;
+
+    public ScheduledPriceActivator(
+        ScheduledPriceRepository scheduledPriceRepository,
+        ActivePriceWriter activePriceWriter,
+        PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory,
+        ApplicationEventPublisher applicationEventPublisher,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.scheduledPriceRepository = scheduledPriceRepository;
+        this.activePriceWriter = activePriceWriter;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.batchSize = applicationProperties.getCatalog().getImportChunkSize();
+        this.recoveryBatchSize = applicationProperties.getSearch().getIndexBatchSize();
+        this.eventLimit = applicationProperties.getCatalog().getScheduledPriceEventLimit();
+        Gauge.builder(PENDING_METER_NAME, this, ScheduledPriceActivator::pending)
+            .description("Number of scheduled prices waiting for their effective date.")
+            .register(registry);
+        this.activatedCounter = Counter.builder(ACTIVATED_METER_NAME)
+            .description("Scheduled prices that became the active price of their product.")
+            .register(registry);
+    }
+
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        tryRecover();
+    }
+
+    private void tryRecover() {
+        try {
+            recover();
+            recoveryPending = false;
+        } catch (DataAccessException e) {
+            LOG.warn("Could not recover the scheduled prices, retrying in {} ms", RETRY_DELAY_MILLIS, e);
+            recoveryRetryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+            recoveryPending = true;
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPriceScheduled(PriceScheduledEvent event) {
+        schedule(event.scheduledPriceId(), event.effectiveDate());
+    }
+
+    /**
+     * Schedule every price not applied yet. A price already in the wheel, scheduled while recovering or by a previous
+     * recovery that failed halfway, is only applied once since activating claims it.
+     */
+    void recover() {
+        int recovered = 0;
+        Long afterId = Long.MIN_VALUE;
+        List<ScheduledPriceRepository.Pending> batch;
+        do {
+            batch = scheduledPriceRepository.findPendingByIdGreaterThan(afterId, PageRequest.ofSize(recoveryBatchSize));
+            for (ScheduledPriceRepository.Pending pending : batch) {
+                schedule(pending.getId(), pending.getEffectiveDate());
+                afterId = pending.getId();
+            }
+            recovered += batch.size();
+        } while (batch.size() == recoveryBatchSize);
+        LOG.info("Recovered {} scheduled prices", recovered);
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void tick() {
+        if (recoveryPending && System.currentTimeMillis() >= recoveryRetryAt) {
+            tryRecover();
+        }
+        LongArrayList due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        if (!due.isEmpty()) {
+            activateDue(due);
+        }
+    }
+
+    /**
+     * Activate the due prices in batches, then publish the changes of their products.
+     */
+    void activateDue(LongArrayList due) {
+        boolean bulk = due.size() > eventLimit;
+        long activated = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = new ArrayList<>(Math.min(batchSize, due.size() - from));
+            for (int i = from; i < Math.min(from + batchSize, due.size()); i++) {
+                batch.add(due.get(i));
+            }
+            try {
+                activated += activate(batch, !bulk);
+            } catch (DataAccessException | PriceLockTimeoutException e) {
+                LOG.warn("Could not activate {} scheduled prices, retrying in {} ms", batch.size(), RETRY_DELAY_MILLIS, e);
+                Instant retry = Instant.now().plusMillis(RETRY_DELAY_MILLIS);
+                batch.forEach(id -> schedule(id, retry));
+            }
+        }
+        if (bulk && activated > 0) {
+            applicationEventPublisher.publishEvent(new PricesImportedEvent(activated));
+        }
+    }
+
+    /**
+     * Activate the prices of the batch that no other instance or retry has applied: they are claimed first, and only
+     * the claimed ones are written.
+     *
+     * @param ids the ids of the scheduled prices.
+     * @param publishChanges whether to publish a {@link PricedProductChangedEvent} for each product once the batch
+     * commits, rather than leave it to the caller to publish a {@link PricesImportedEvent}.
+     * @return the number of products whose active price was replaced.
+     */
+    int activate(List<Long> ids, boolean publishChanges) {
+        int activated = batchTransaction.execute(status -> {
+            // ordered by effective date, the latest price of a product wins
+            Map<Long, Money> prices = new LinkedHashMap<>();
+            for (ScheduledPriceRepository.Claimed claimed : scheduledPriceRepository.claimDue(ids, Instant.now())) {
+                prices.put(claimed.getProductId(), Money.ofMinor(claimed.getValueMinor()));
+            }
+            Map<Long, Long> pricedProductIds = activePriceWriter.replace(prices);
+            if (publishChanges) {
+                // published in the transaction, the listeners act once it commits
+                pricedProductIds.forEach((productId, pricedProductId) ->
+                    applicationEventPublisher.publishEvent(new PricedProductChangedEvent(pricedProductId, productId))
+                );
+            }
+            return pricedProductIds.size();
+        });
+        if (activated > 0) {
+            entityManagerFactory.getCache().evict(PricedProduct.class);
+        }
+        activatedCounter.increment(activated);
+        LOG.debug("Activated {} scheduled prices", activated);
+        return activated;
+    }
+
+    private void schedule(long id, Instant effectiveDate) {
+        synchronized (wheel) {
+            wheel.schedule(id, effectiveDate.toEpochMilli());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package net.petcu.store.service.pricing;
+
+import com.carrotsearch.hppc.LongArrayList;
+
+/**
+ * Hierarchical timer wheel of ids due at a deadline, in {@code tickMillis} ticks.
+ * <p>
+ * Each of the {@value #LEVELS} levels has {@value #SLOTS} slots; a slot of level {@code n} spans {@code 64^n} ticks. A
+ * timer is placed in the lowest level whose span covers its distance to the current tick, so scheduling is constant
+ * time whatever the number of timers. When the lower level wraps around, the next slot of the level above is cascaded
+ * down. Timers beyond the horizon of the highest level wait in its farthest slot and are placed again when it
+ * cascades. Timers already due fire on the next tick. Not thread-safe.
+ */
+class TimerWheel {
+
+    static final int SLOT_BITS = 6;
+
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    static final int LEVELS = 4;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+
+    // per level and slot, the ids and deadline ticks of the timers, allocated on first use
+    private final LongArrayList[][] ids = new LongArrayList[LEVELS][SLOTS];
+
+    private final LongArrayList[][] deadlines = new LongArrayList[LEVELS][SLOTS];
+
+    // the next tick to expire
+    private long currentTick;
+
+    private int size;
+
+    TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    void schedule(long id, long deadlineMillis) {
+        // a deadline inside a tick fires at the end of that tick, never early
+        place(id, Math.max(ceilDiv(deadlineMillis, tickMillis), currentTick));
+        size++;
+    }
+
+    /**
+     * Expire every tick up to {@code nowMillis}.
+     *
+     * @return the ids whose deadline has passed, in deadline order.
+     */
+    LongArrayList advance(long nowMillis) {
+        LongArrayList expired = new LongArrayList();
+        long nowTick = nowMillis / tickMillis;
+        while (currentTick <= nowTick) {
+            for (int level = 1; level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+                cascade(level, slot(currentTick, level));
+            }
+            int slot = slot(currentTick, 0);
+            if (ids[0][slot] != null && !ids[0][slot].isEmpty()) {
+                expired.addAll(ids[0][slot]);
+                size -= ids[0][slot].size();
+                ids[0][slot].clear();
+                deadlines[0][slot].clear();
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        LongArrayList cascadedIds = ids[level][slot];
+        if (cascadedIds == null || cascadedIds.isEmpty()) {
+            return;
+        }
+        LongArrayList cascadedDeadlines = deadlines[level][slot];
+        ids[level][slot] = new LongArrayList();
+        deadlines[level][slot] = new LongArrayList();
+        for (int i = 0; i < cascadedIds.size(); i++) {
+            place(cascadedIds.get(i), cascadedDeadlines.get(i));
+        }
+    }
+
+    private void place(long id, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        // past the horizon, wait in the farthest slot of the highest level
+        long placedTick = Math.min(deadlineTick, currentTick + (1L << (SLOT_BITS * LEVELS)) - 1);
+        int slot = slot(placedTick, level);
+        if (ids[level][slot] == null) {
+            ids[level][slot] = new LongArrayList();
+            deadlines[level][slot] = new LongArrayList();
+        }
+        ids[level][slot].add(id);
+        deadlines[level][slot].add(deadlineTick);
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Scheduled activation of product prices, and the stream of committed price changes.
+ */
+package net.petcu.store.service.pricing;
@@ -0,0 +1,103 @@
+package net.petcu.store.service.sales;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import net.petcu.store.service.dto.TopSellerDTO;
+
+/**
+ * Units sold per product over a sliding time window, approximated by a ring of {@link SpaceSaving} summaries, one per
+ * time bucket. A bucket is cleared when the ring comes back to it, so the window covers the current bucket and the
+ * previous {@code buckets - 1} ones. Memory is fixed by the number of buckets and their capacity. Thread-safe.
+ */
+class SlidingTopSellers {
+
+    private final long bucketMillis;
+
+    private final SpaceSaving[] buckets;
+
+    // the bucket number, counted from the epoch, last written to each slot of the ring
+    private final long[] epochs;
+
+    SlidingTopSellers(Duration bucket, int buckets, int capacity) {
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = new SpaceSaving[buckets];
+        this.epochs = new long[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new SpaceSaving(capacity);
+        }
+        Arrays.fill(epochs, Long.MIN_VALUE);
+    }
+
+    synchronized void add(long nowMillis, long productId, long units) {
+        long epoch = nowMillis / bucketMillis;
+        int index = (int) Math.floorMod(epoch, (long) buckets.length);
+        if (epochs[index] != epoch) {
+            buckets[index].clear();
+            epochs[index] = epoch;
+        }
+        buckets[index].offer(productId, units);
+    }
+
+    /**
+     * @return the exact number of units sold over the window.
+     */
+    synchronized long units(long nowMillis) {
+        long units = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (inWindow(i, nowMillis)) {
+                units += buckets[i].total();
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Merge the buckets of the window. A product is credited the count of the buckets counting it, and the largest
+     * weight it could have had in the full buckets not counting it.
+     *
+     * @return the {@code limit} products with the most units sold over the window, most first.
+     */
+    synchronized List<TopSellerDTO> top(long nowMillis, int limit) {
+        LongHashSet candidates = new LongHashSet();
+        for (int i = 0; i < buckets.length; i++) {
+            if (inWindow(i, nowMillis)) {
+                for (int slot = 0; slot < buckets[i].size(); slot++) {
+                    candidates.add(buckets[i].key(slot));
+                }
+            }
+        }
+        List<TopSellerDTO> sellers = new ArrayList<>(candidates.size());
+        for (LongCursor candidate : candidates) {
+            long units = 0;
+            long guaranteed = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                if (!inWindow(i, nowMillis)) {
+                    continue;
+                }
+                int slot = buckets[i].slot(candidate.value);
+                if (slot >= 0) {
+                    units += buckets[i].count(slot);
+                    guaranteed += buckets[i].count(slot) - buckets[i].error(slot);
+                } else {
+                    units += buckets[i].uncountedBound();
+                }
+            }
+            sellers.add(new TopSellerDTO(candidate.value, units, units - guaranteed));
+        }
+        return sellers
+            .stream()
+            .sorted(Comparator.comparingLong(TopSellerDTO::units).reversed().thenComparing(TopSellerDTO::productId))
+            .limit(limit)
+            .toList();
+    }
+
+    private boolean inWindow(int index, long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        return epochs[index] <= epoch && epochs[index] > epoch - buckets.length;
+    }
+}
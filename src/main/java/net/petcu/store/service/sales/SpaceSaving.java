@@ -0,0 +1,151 @@
+package net.petcu.store.service.sales;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+
+/**
+ * Space-Saving summary of a weighted stream of product ids, keeping at most {@code capacity} counters.
+ * <p>
+ * A product not counted yet takes over the counter with the smallest count, found at the root of a min-heap, and
+ * inherits that count as its error. A counted product's count overestimates its true weight by at most its error, and
+ * any product whose true weight is above {@code total / capacity} is counted. Memory does not depend on the number of
+ * distinct products. Not thread-safe.
+ */
+class SpaceSaving {
+
+    private final int capacity;
+
+    private final long[] keys;
+
+    private final long[] counts;
+
+    private final long[] errors;
+
+    // slots ordered as a binary min-heap of their counts
+    private final int[] heap;
+
+    // index in the heap of each slot
+    private final int[] positions;
+
+    private final LongIntHashMap slots;
+
+    private int size;
+
+    private long total;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.slots = new LongIntHashMap(capacity);
+    }
+
+    void offer(long key, long weight) {
+        total += weight;
+        int slot = slots.getOrDefault(key, -1);
+        if (slot >= 0) {
+            counts[slot] += weight;
+            siftDown(positions[slot]);
+        } else if (size < capacity) {
+            slot = size;
+            keys[slot] = key;
+            counts[slot] = weight;
+            errors[slot] = 0;
+            heap[size] = slot;
+            positions[slot] = size;
+            size++;
+            slots.put(key, slot);
+            siftUp(positions[slot]);
+        } else {
+            slot = heap[0];
+            slots.remove(keys[slot]);
+            keys[slot] = key;
+            errors[slot] = counts[slot];
+            counts[slot] += weight;
+            slots.put(key, slot);
+            siftDown(0);
+        }
+    }
+
+    void clear() {
+        slots.clear();
+        size = 0;
+        total = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long key(int slot) {
+        return keys[slot];
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    long error(int slot) {
+        return errors[slot];
+    }
+
+    /**
+     * @return the slot counting the product, or {@code -1}.
+     */
+    int slot(long key) {
+        return slots.getOrDefault(key, -1);
+    }
+
+    /**
+     * @return the sum of all the weights offered.
+     */
+    long total() {
+        return total;
+    }
+
+    /**
+     * @return the largest weight a product without a counter may have had.
+     */
+    long uncountedBound() {
+        return size < capacity ? 0 : counts[heap[0]];
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(slot, index);
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[slot] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(slot, index);
+    }
+
+    private void place(int slot, int index) {
+        heap[index] = slot;
+        positions[slot] = index;
+    }
+}
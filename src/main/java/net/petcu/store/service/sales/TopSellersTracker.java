@@ -0,0 +1,91 @@
+package net.petcu.store.service.sales;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.service.dto.TopSellerDTO;
+import net.petcu.store.service.event.OrderPaidEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Best selling products of the last hour and of the last day, counted in memory from the committed
+ * {@link OrderPaidEvent}s instead of grouping the order items of the database.
+ * <p>
+ * Each window is a ring of {@link SpaceSaving} summaries of {@code application.sales.top-sellers-capacity} products:
+ * twelve buckets of five minutes for the hour, twenty-four buckets of one hour for the day. Counts start empty when the
+ * application starts.
+ */
+@Service
+public class TopSellersTracker {
+
+    public static final String UNITS_METER_NAME = "sales.units";
+
+    public static final String TOP_SELLER_UNITS_METER_NAME = "sales.top.seller.units";
+
+    public enum Window {
+        HOUR(Duration.ofMinutes(5), 12),
+        DAY(Duration.ofHours(1), 24);
+
+        private final Duration bucket;
+
+        private final int buckets;
+
+        Window(Duration bucket, int buckets) {
+            this.bucket = bucket;
+            this.buckets = buckets;
+        }
+    }
+
+    private final int topSellers;
+
+    private final Map<Window, SlidingTopSellers> windows = new EnumMap<>(Window.class);
+
+    public TopSellersTracker(ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Sales sales = applicationProperties.getSales();
+        this.topSellers = sales.getTopSellers();
+        for (Window window : Window.values()) {
+            windows.put(window, new SlidingTopSellers(window.bucket, window.buckets, sales.getTopSellersCapacity()));
+            String tag = window.name().toLowerCase(Locale.ROOT);
+            Gauge.builder(UNITS_METER_NAME, this, tracker -> tracker.units(window))
+                .description("Units sold over the window.")
+                .tag("window", tag)
+                .register(registry);
+            Gauge.builder(TOP_SELLER_UNITS_METER_NAME, this, tracker -> tracker.topSellerUnits(window))
+                .description("Estimated units sold over the window of the best selling product.")
+                .tag("window", tag)
+                .register(registry);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onOrderPaid(OrderPaidEvent event) {
+        long now = System.currentTimeMillis();
+        for (SlidingTopSellers window : windows.values()) {
+            for (int i = 0; i < event.productIds().length; i++) {
+                window.add(now, event.productIds()[i], event.quantities()[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the {@code application.sales.top-sellers} best selling products over the window, most units first.
+     */
+    public List<TopSellerDTO> topSellers(Window window) {
+        return windows.get(window).top(System.currentTimeMillis(), topSellers);
+    }
+
+    public long units(Window window) {
+        return windows.get(window).units(System.currentTimeMillis());
+    }
+
+    private long topSellerUnits(Window window) {
+        List<TopSellerDTO> top = windows.get(window).top(System.currentTimeMillis(), 1);
+        return top.isEmpty() ? 0 : top.getFirst().units();
+    }
+}
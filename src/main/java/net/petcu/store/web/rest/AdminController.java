@@ -1,9 +1,21 @@
 package net.petcu.store.web.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.PricedProduct;
 import net.petcu.store.service.AdminService;
+import net.petcu.store.service.dto.PriceChangeReportDTO;
+import net.petcu.store.service.dto.ProductImportReportDTO;
+import net.petcu.store.service.dto.ScheduledPriceDTO;
+import net.petcu.store.service.importer.BulkPriceChangeService;
+import net.petcu.store.service.importer.ProductImportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -13,22 +25,86 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final Logger log = LoggerFactory.getLogger(AdminController.class);
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final AdminService adminService;
+    private final ProductImportService productImportService;
+    private final BulkPriceChangeService bulkPriceChangeService;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(
+        AdminService adminService,
+        ProductImportService productImportService,
+        BulkPriceChangeService bulkPriceChangeService
+    ) {
         this.adminService = adminService;
+        this.productImportService = productImportService;
+        this.bulkPriceChangeService = bulkPriceChangeService;
     }
 
     @PutMapping("/products/{productId}/price")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
-    public ResponseEntity<PricedProduct> changePrice(@PathVariable Long productId, @RequestParam Double newPrice) {
+    public ResponseEntity<PricedProduct> changePrice(@PathVariable Long productId, @RequestParam BigDecimal newPrice) {
         log.debug("REST request to change price for productId={} to newPrice={}", productId, newPrice);
 
-        if (newPrice <= 0) {
+        Money price = price(newPrice);
+        if (price == null || !price.isPositive()) {
+            log.warn("Invalid price value {} provided for productId={}", newPrice, productId);
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(adminService.changePrice(productId, price));
+    }
+
+    @PostMapping("/products/{productId}/scheduled-prices")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ScheduledPriceDTO> schedulePrice(
+        @PathVariable Long productId,
+        @RequestParam BigDecimal newPrice,
+        @RequestParam Instant effectiveDate
+    ) {
+        log.debug("REST request to schedule price for productId={} to newPrice={} at effectiveDate={}", productId, newPrice, effectiveDate);
+
+        Money price = price(newPrice);
+        if (price == null || !price.isPositive()) {
             log.warn("Invalid price value {} provided for productId={}", newPrice, productId);
             return ResponseEntity.badRequest().build();
         }
 
-        return ResponseEntity.ok(adminService.changePrice(productId, newPrice));
+        return ResponseEntity.ok(adminService.schedulePrice(productId, price, effectiveDate));
+    }
+
+    @PostMapping(value = "/products/import", consumes = { TEXT_CSV_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ProductImportReportDTO> importProducts(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to import products from contentType={}", contentType);
+        return ResponseEntity.ok(productImportService.importProducts(body, format(contentType)));
+    }
+
+    @PutMapping(value = "/prices", consumes = { TEXT_CSV_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN')")
+    public ResponseEntity<PriceChangeReportDTO> changePrices(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        InputStream body
+    ) throws IOException {
+        log.debug("REST request to change prices from contentType={}", contentType);
+        return ResponseEntity.ok(bulkPriceChangeService.changePrices(body, format(contentType)));
+    }
+
+    private static ProductImportService.Format format(MediaType contentType) {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+            ? ProductImportService.Format.JSON
+            : ProductImportService.Format.CSV;
+    }
+
+    // null if the price has more decimals than the currency, a price given by a client is never rounded
+    private static Money price(BigDecimal newPrice) {
+        try {
+            return Money.ofExact(newPrice);
+        } catch (ArithmeticException e) {
+            return null;
+        }
     }
 }
@@ -1,9 +1,11 @@
 package net.petcu.store.web.rest;
 
+import java.util.List;
 import java.util.UUID;
 import net.petcu.store.exception.*;
 import net.petcu.store.service.CustomerService;
 import net.petcu.store.service.dto.OrderDTO;
+import net.petcu.store.service.dto.OrderItemSummaryDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -40,6 +42,13 @@ public class CustomerController {
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping("/orders/{orderId}/items")
+    @PreAuthorize("hasAnyAuthority('ROLE_USER')")
+    public ResponseEntity<List<OrderItemSummaryDTO>> getOrderItems(@PathVariable Long orderId) {
+        log.debug("REST request to get the items of orderId={}", orderId);
+        return ResponseEntity.ok(customerService.findOrderItems(orderId));
+    }
+
     @PostMapping("/orders/{orderId}/discount")
     @PreAuthorize("hasAnyAuthority('ROLE_USER')")
     public ResponseEntity<OrderDTO> applyDiscountCode(@PathVariable Long orderId, @RequestParam UUID discountCode) {
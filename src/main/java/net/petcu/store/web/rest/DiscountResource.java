@@ -134,6 +134,9 @@ public class DiscountResource {
                 if (discount.getAmount() != null) {
                     existingDiscount.setAmount(discount.getAmount());
                 }
+                if (discount.getPercentage() != null) {
+                    existingDiscount.setPercentage(discount.getPercentage());
+                }
 
                 return existingDiscount;
             })
@@ -7,12 +7,12 @@ import java.util.Objects;
 import java.util.Optional;
 import net.petcu.store.domain.Price;
 import net.petcu.store.repository.PriceRepository;
+import net.petcu.store.service.PriceService;
 import net.petcu.store.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -22,7 +22,6 @@ import tech.jhipster.web.util.ResponseUtil;
  */
 @RestController
 @RequestMapping("/api/prices")
-@Transactional
 public class PriceResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(PriceResource.class);
@@ -32,9 +31,12 @@ public class PriceResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    private final PriceService priceService;
+
     private final PriceRepository priceRepository;
 
-    public PriceResource(PriceRepository priceRepository) {
+    public PriceResource(PriceService priceService, PriceRepository priceRepository) {
+        this.priceService = priceService;
         this.priceRepository = priceRepository;
     }
 
@@ -51,7 +53,7 @@ public class PriceResource {
         if (price.getId() != null) {
             throw new BadRequestAlertException("A new price cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        price = priceRepository.save(price);
+        price = priceService.save(price);
         return ResponseEntity.created(new URI("/api/prices/" + price.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, price.getId().toString()))
             .body(price);
@@ -82,7 +84,7 @@ public class PriceResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        price = priceRepository.save(price);
+        price = priceService.update(price);
         return ResponseEntity.ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, price.getId().toString()))
             .body(price);
@@ -114,16 +116,7 @@ public class PriceResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<Price> result = priceRepository
-            .findById(price.getId())
-            .map(existingPrice -> {
-                if (price.getValue() != null) {
-                    existingPrice.setValue(price.getValue());
-                }
-
-                return existingPrice;
-            })
-            .map(priceRepository::save);
+        Optional<Price> result = priceService.partialUpdate(price);
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -139,7 +132,7 @@ public class PriceResource {
     @GetMapping("")
     public List<Price> getAllPrices() {
         LOG.debug("REST request to get all Prices");
-        return priceRepository.findAll();
+        return priceService.findAll();
     }
 
     /**
@@ -151,7 +144,7 @@ public class PriceResource {
     @GetMapping("/{id}")
     public ResponseEntity<Price> getPrice(@PathVariable("id") Long id) {
         LOG.debug("REST request to get Price : {}", id);
-        Optional<Price> price = priceRepository.findById(id);
+        Optional<Price> price = priceService.findOne(id);
         return ResponseUtil.wrapOrNotFound(price);
     }
 
@@ -164,7 +157,7 @@ public class PriceResource {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePrice(@PathVariable("id") Long id) {
         LOG.debug("REST request to delete Price : {}", id);
-        priceRepository.deleteById(id);
+        priceService.delete(id);
         return ResponseEntity.noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
@@ -0,0 +1,42 @@
+package net.petcu.store.web.rest;
+
+import net.petcu.store.service.pricing.PriceChangeStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller streaming committed price changes, from the {@link PriceChangeStream}.
+ */
+@RestController
+@RequestMapping("/api/prices")
+public class PriceStreamResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceStreamResource.class);
+
+    private final PriceChangeStream priceChangeStream;
+
+    public PriceStreamResource(PriceChangeStream priceChangeStream) {
+        this.priceChangeStream = priceChangeStream;
+    }
+
+    /**
+     * {@code GET  /prices/stream} : stream the price changes as Server-Sent Events: {@code price} for a product
+     * repriced, {@code prices-imported} once prices were changed in bulk, and {@code reset} when the changes since
+     * {@code Last-Event-ID} are no longer known and the prices should be reloaded.
+     *
+     * @param lastEventId the id of the last event received before reconnecting, if any.
+     * @return the stream of events, or with status {@code 503 (Service Unavailable)} if the stream already has its
+     * maximum of subscribers.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPrices(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        LOG.debug("REST request to stream price changes from lastEventId={}", lastEventId);
+        return priceChangeStream.subscribe(lastEventId);
+    }
+}
@@ -8,12 +8,14 @@ import java.util.Optional;
 import net.petcu.store.domain.PricedProduct;
 import net.petcu.store.repository.PricedProductRepository;
 import net.petcu.store.service.PricedProductService;
+import net.petcu.store.service.catalog.CatalogVersion;
 import net.petcu.store.web.rest.errors.BadRequestAlertException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -35,9 +37,16 @@ public class PricedProductResource {
 
     private final PricedProductRepository pricedProductRepository;
 
-    public PricedProductResource(PricedProductService pricedProductService, PricedProductRepository pricedProductRepository) {
+    private final CatalogVersion catalogVersion;
+
+    public PricedProductResource(
+        PricedProductService pricedProductService,
+        PricedProductRepository pricedProductRepository,
+        CatalogVersion catalogVersion
+    ) {
         this.pricedProductService = pricedProductService;
         this.pricedProductRepository = pricedProductRepository;
+        this.catalogVersion = catalogVersion;
     }
 
     /**
@@ -131,26 +140,48 @@ public class PricedProductResource {
     /**
      * {@code GET  /priced-products} : get all the pricedProducts.
      *
+     * <p>
+     * The ETag is the catalog version; {@code If-None-Match} is checked before the pricedProducts are loaded.
+     *
      * @param eagerload flag to eager load entities from relationships (This is applicable for many-to-many).
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pricedProducts in body.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pricedProducts in body,
+     * or with status {@code 304 (Not Modified)} if the catalog did not change.
      */
     @GetMapping("")
-    public List<PricedProduct> getAllPricedProducts(
-        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload
+    public ResponseEntity<List<PricedProduct>> getAllPricedProducts(
+        @RequestParam(name = "eagerload", required = false, defaultValue = "true") boolean eagerload,
+        WebRequest request
     ) {
         LOG.debug("REST request to get all PricedProducts");
-        return pricedProductService.findAll();
+        // sets the ETag header, and the 304 status when it matches If-None-Match
+        if (request.checkNotModified(catalogVersion.current())) {
+            return null;
+        }
+        return ResponseEntity.ok(pricedProductService.findAll());
     }
 
     /**
      * {@code GET  /priced-products/:id} : get the "id" pricedProduct.
      *
+     * <p>
+     * The ETag combines the versions of the pricedProduct, of its product and of its price, whose value can be edited in
+     * place; it is checked against {@code If-None-Match} before the pricedProduct is loaded.
+     *
      * @param id the id of the pricedProduct to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the pricedProduct, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the pricedProduct,
+     * or with status {@code 304 (Not Modified)} if it did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PricedProduct> getPricedProduct(@PathVariable("id") Long id) {
+    public ResponseEntity<PricedProduct> getPricedProduct(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get PricedProduct : {}", id);
+        Optional<String> eTag = pricedProductService
+            .findVersions(id)
+            .map(versions -> versions.getVersion() + "-" + versions.getProductVersion() + "-" + versions.getPriceVersion());
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         Optional<PricedProduct> pricedProduct = pricedProductService.findOne(id);
         return ResponseUtil.wrapOrNotFound(pricedProduct);
     }
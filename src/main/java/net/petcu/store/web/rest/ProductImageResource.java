@@ -0,0 +1,136 @@
+package net.petcu.store.web.rest;
+
+import io.undertow.io.BufferWritableOutputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import net.petcu.store.service.dto.ProductImageDTO;
+import net.petcu.store.service.image.ProductImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serves the product images and thumbnails of the {@link ProductImageStore}.
+ * <p>
+ * The files are content-addressed, so they are cached forever with {@code immutable} and their name is their ETag.
+ * Single byte ranges are supported. On Undertow, the whole file, or a range running to its end, is sent by handing the
+ * file channel to the connection, which can use {@code sendfile} on plain connections and skip copying the bytes
+ * through the heap. Bounded ranges, and other containers, copy the bytes with {@link FileChannel#transferTo} into a
+ * channel over the servlet output stream, through a user-space buffer.
+ * <p>
+ * These paths live under {@code /content/}, which the security configuration leaves public. This controller is
+ * matched before the {@code /content/**} handler of the production static resources, and applies to every profile.
+ */
+@RestController
+@RequestMapping(ProductImageResource.IMAGES_PATH)
+public class ProductImageResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductImageResource.class);
+
+    static final String IMAGES_PATH = "/content/images";
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private final ProductImageStore productImageStore;
+
+    public ProductImageResource(ProductImageStore productImageStore) {
+        this.productImageStore = productImageStore;
+    }
+
+    static ProductImageDTO toDto(String image) {
+        return new ProductImageDTO(IMAGES_PATH + "/" + image, IMAGES_PATH + "/" + ProductImageStore.thumbnailName(image));
+    }
+
+    /**
+     * {@code GET  /content/images/:name} : get a product image or thumbnail.
+     *
+     * @param name the name of the image or thumbnail.
+     * @return status {@code 200 (OK)} with the file in body, {@code 206 (Partial Content)} with the requested range,
+     * {@code 304 (Not Modified)} if the ETag matches, {@code 404 (Not Found)} if there is no such file (yet),
+     * or {@code 416 (Range Not Satisfiable)} if the range is not valid.
+     */
+    @GetMapping("/{name}")
+    public void getImage(@PathVariable("name") String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LOG.debug("REST request to get product image : {}", name);
+        Optional<Path> file = productImageStore.resolve(name);
+        if (file.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = "\"" + name + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.get(), StandardOpenOption.READ)) {
+            long length = channel.size();
+            long start = 0;
+            long end = length - 1;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            // a range is only honoured for the same file, which here means the same name
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                List<HttpRange> ranges;
+                try {
+                    ranges = HttpRange.parseRanges(range);
+                    if (ranges.size() == 1) {
+                        start = ranges.getFirst().getRangeStart(length);
+                        end = ranges.getFirst().getRangeEnd(length);
+                    }
+                } catch (IllegalArgumentException e) {
+                    ranges = null;
+                }
+                // HttpRange does not reject a range starting at or after the end of the file, it ends before it starts
+                if (ranges == null || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                // several ranges are answered with the whole file rather than a multipart body
+                if (ranges.size() == 1) {
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            }
+            response.setContentType(ProductImageStore.contentType(name));
+            response.setContentLengthLong(end - start + 1);
+            if (!HttpMethod.HEAD.matches(request.getMethod())) {
+                transfer(channel, start, end + 1, response.getOutputStream());
+            }
+        }
+    }
+
+    private static void transfer(FileChannel channel, long start, long end, ServletOutputStream out) throws IOException {
+        if (out instanceof BufferWritableOutputStream connection && end == channel.size()) {
+            // Undertow sends from the position of the channel to its end
+            channel.position(start);
+            connection.transferFrom(channel);
+            return;
+        }
+        WritableByteChannel target = Channels.newChannel(out);
+        for (long position = start; position < end; ) {
+            position += channel.transferTo(position, end - position, target);
+        }
+    }
+}
@@ -1,20 +1,53 @@
 package net.petcu.store.web.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
 import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.ProductExportService;
 import net.petcu.store.service.ProductService;
+import net.petcu.store.service.catalog.CatalogVersion;
+import net.petcu.store.service.catalog.PriceRange;
+import net.petcu.store.service.catalog.ProductPriceIndex;
+import net.petcu.store.service.catalog.TagFilter;
+import net.petcu.store.service.image.ProductImageService;
+import net.petcu.store.service.dto.CatalogEntryDTO;
+import net.petcu.store.service.dto.PricePointDTO;
 import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductImageDTO;
+import net.petcu.store.service.dto.ProductSearchResultDTO;
+import net.petcu.store.service.dto.ProductSuggestionDTO;
+import net.petcu.store.service.dto.ProductSummaryDTO;
+import net.petcu.store.service.dto.TagCountDTO;
 import net.petcu.store.web.rest.errors.BadRequestAlertException;
+import net.petcu.store.web.rest.util.KeysetPaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -28,6 +61,12 @@ public class ProductResource {
 
     private static final String ENTITY_NAME = "product";
 
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+
+    private static final int MAX_TAG_LENGTH = 64;
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("price", "id");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -35,9 +74,28 @@ public class ProductResource {
 
     private final ProductRepository productRepository;
 
-    public ProductResource(ProductService productService, ProductRepository productRepository) {
+    private final ProductExportService productExportService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final ProductImageService productImageService;
+
+    private final int maxLookupIds;
+
+    public ProductResource(
+        ProductService productService,
+        ProductRepository productRepository,
+        ProductExportService productExportService,
+        CatalogVersion catalogVersion,
+        ProductImageService productImageService,
+        ApplicationProperties applicationProperties
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
+        this.productExportService = productExportService;
+        this.catalogVersion = catalogVersion;
+        this.productImageService = productImageService;
+        this.maxLookupIds = applicationProperties.getCatalog().getMaxLookupIds();
     }
 
     /**
@@ -129,27 +187,391 @@ public class ProductResource {
     }
 
     /**
-     * {@code GET  /products} : get all the products.
+     * {@code GET  /products} : get a page of products, ordered by id.
+     * <p>
+     * Pages are read with keyset pagination: when more products are available, the opaque cursor of the next page is
+     * returned in the {@code X-Next-Cursor} header and in a {@code rel="next"} link. No {@code count(*)} query is issued.
+     * <p>
+     * Products can be filtered by tags: they must carry all of {@code tags}, at least one of {@code anyTags} and none of
+     * {@code excludeTags}.
+     * <p>
+     * With {@code minPrice}, {@code maxPrice} or {@code sort=price} (or {@code sort=price,desc}), only products with an
+     * active price within the inclusive range are returned, ordered by price then id, and the cursor carries both.
+     * Sorts by {@code id}, which clients send by default, are accepted: products are always ordered by ascending id
+     * last.
+     * <p>
+     * The ETag is the catalog version: while no product, price or tag changes, {@code If-None-Match} is answered with
+     * {@code 304 (Not Modified)} without reading the page.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     * @param cursor the cursor returned with the previous page, or none for the first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @param tags the tags the products must all carry.
+     * @param anyTags the tags the products must carry at least one of.
+     * @param excludeTags the tags the products must not carry.
+     * @param minPrice the lowest active price, inclusive, with at most the decimals of the currency.
+     * @param maxPrice the highest active price, inclusive, with at most the decimals of the currency.
+     * @param sort {@code price} or {@code price,desc} to order by active price, {@code id} or none to order by id.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 304 (Not Modified)} if the catalog did not change,
+     * or with status {@code 400 (Bad Request)} if the cursor, the price range or the sort is not valid.
      */
     @GetMapping("")
-    public List<ProductDTO> getAllProducts() {
-        LOG.debug("REST request to get all Products");
-        return productService.findAll();
+    public ResponseEntity<List<ProductDTO>> getAllProducts(
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        @RequestParam(name = "tags", required = false) List<String> tags,
+        @RequestParam(name = "anyTags", required = false) List<String> anyTags,
+        @RequestParam(name = "excludeTags", required = false) List<String> excludeTags,
+        @RequestParam(name = "minPrice", required = false) String minPrice,
+        @RequestParam(name = "maxPrice", required = false) String maxPrice,
+        @RequestParam(name = "sort", required = false) List<String> sort,
+        WebRequest request
+    ) {
+        LOG.debug("REST request to get a page of Products after cursor : {}", cursor);
+        Sort.Direction priceDirection = priceSortDirection(sort);
+        // sets the ETag header, and the 304 status when it matches If-None-Match
+        if (request.checkNotModified(catalogVersion.current())) {
+            return null;
+        }
+        TagFilter filter = TagFilter.of(tags, anyTags, excludeTags);
+        if (priceDirection != null || minPrice != null || maxPrice != null) {
+            return getProductsByPrice(cursor, size, filter, priceRange(minPrice, maxPrice), priceDirection == Sort.Direction.DESC);
+        }
+        Slice<ProductDTO> slice = filter.isEmpty()
+            ? productService.findAllAfter(decodeCursor(cursor), size)
+            : productService.findAllByTags(filter, decodeCursor(cursor), size);
+        String nextCursor = slice.hasNext() ? KeysetPaginationUtil.encodeCursor(slice.getContent().getLast().id()) : null;
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), nextCursor);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /products/summaries} : get a page of product summaries, ordered by id: their name and the value of
+     * their active price, without the description.
+     * <p>
+     * Pagination and the ETag work as for {@link #getAllProducts}.
+     *
+     * @param cursor the cursor returned with the previous page, or none for the first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of summaries in body,
+     * or with status {@code 304 (Not Modified)} if the catalog did not change,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<List<ProductSummaryDTO>> getAllProductSummaries(
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size,
+        WebRequest request
+    ) {
+        LOG.debug("REST request to get a page of Product summaries after cursor : {}", cursor);
+        if (request.checkNotModified(catalogVersion.current())) {
+            return null;
+        }
+        Slice<ProductSummaryDTO> slice = productService.findSummariesAfter(decodeCursor(cursor), size);
+        String nextCursor = slice.hasNext() ? KeysetPaginationUtil.encodeCursor(slice.getContent().getLast().id()) : null;
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), nextCursor);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /products?ids=} : get the products with the given ids, with the value of their active price.
+     * <p>
+     * Products are returned in the order of the ids; unknown ids are skipped.
+     *
+     * @param ids the ids of the products, at most {@code application.catalog.max-lookup-ids}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping(value = "", params = "ids")
+    public ResponseEntity<List<CatalogEntryDTO>> getProductsByIds(@RequestParam("ids") List<Long> ids) {
+        LOG.debug("REST request to get Products : {}", ids);
+        return ResponseEntity.ok(lookup(ids));
+    }
+
+    /**
+     * {@code POST  /products/lookup} : get the products with the given ids, for id lists too long for a query string.
+     *
+     * @param ids the ids of the products, at most {@code application.catalog.max-lookup-ids}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     * @see #getProductsByIds(List)
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<List<CatalogEntryDTO>> lookupProducts(@RequestBody List<Long> ids) {
+        LOG.debug("REST request to look up Products : {}", ids);
+        return ResponseEntity.ok(lookup(ids));
+    }
+
+    /**
+     * {@code GET  /products/tags} : get every tag with the number of products carrying it.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of tags in body, ordered by name.
+     */
+    @GetMapping("/tags")
+    public ResponseEntity<List<TagCountDTO>> getAllTags() {
+        LOG.debug("REST request to get all Tags");
+        return ResponseEntity.ok(productService.findAllTags());
+    }
+
+    /**
+     * {@code GET  /products/:id/tags} : get the tags of the "id" product.
+     *
+     * @param id the id of the product.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the tag names in body,
+     * or with status {@code 404 (Not Found)} if the product does not exist.
+     */
+    @GetMapping("/{id}/tags")
+    public ResponseEntity<List<String>> getProductTags(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the Tags of Product : {}", id);
+        return ResponseEntity.ok(productService.findTags(id));
+    }
+
+    /**
+     * {@code PUT  /products/:id/tags} : replace the tags of the "id" product.
+     *
+     * @param id the id of the product.
+     * @param tags the tag names, compared ignoring case and surrounding whitespace.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the normalized tag names in body,
+     * or with status {@code 400 (Bad Request)} if a tag name is too long,
+     * or with status {@code 404 (Not Found)} if the product does not exist.
+     */
+    @PutMapping("/{id}/tags")
+    public ResponseEntity<List<String>> updateProductTags(@PathVariable("id") Long id, @RequestBody List<String> tags) {
+        LOG.debug("REST request to update the Tags of Product : {}, {}", id, tags);
+        if (tags.stream().anyMatch(tag -> tag != null && TagFilter.normalize(tag).length() > MAX_TAG_LENGTH)) {
+            throw new BadRequestAlertException("Tag names are limited to " + MAX_TAG_LENGTH + " characters", ENTITY_NAME, "taginvalid");
+        }
+        List<String> updated = productService.updateTags(id, tags);
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .body(updated);
+    }
+
+    /**
+     * {@code GET  /products/search?q=} : search products.
+     * <p>
+     * Depending on {@code application.search.mode}, products are either ranked by full-text and trigram relevance on
+     * name and description, or matched on a substring of their name and ordered by id.
+     *
+     * @param query the search terms.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching products in body,
+     * or with status {@code 400 (Bad Request)} if the query is blank.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+        @RequestParam("q") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Products : {}", query);
+        if (query.isBlank()) {
+            throw new BadRequestAlertException("Empty search query", ENTITY_NAME, "querynull");
+        }
+        Page<ProductDTO> page = productService.search(query.strip(), pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products/search/faceted?q=} : search products whose name contains the query, ordered by id, together
+     * with the price bucket, availability and tag counts of every match.
+     *
+     * @param query the substring to look for, case insensitive.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of products with the facets in body,
+     * or with status {@code 400 (Bad Request)} if the query is blank.
+     */
+    @GetMapping("/search/faceted")
+    public ResponseEntity<ProductSearchResultDTO> searchProductsWithFacets(
+        @RequestParam("q") String query,
+        @org.springdoc.core.annotations.ParameterObject Pageable pageable
+    ) {
+        LOG.debug("REST request to search Products with facets : {}", query);
+        if (query.isBlank()) {
+            throw new BadRequestAlertException("Empty search query", ENTITY_NAME, "querynull");
+        }
+        ProductSearchResultDTO result = productService.searchWithFacets(query.strip(), pageable);
+        Page<ProductDTO> page = new PageImpl<>(result.products(), pageable, result.total());
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(result);
+    }
+
+    /**
+     * {@code GET  /products/suggest?prefix=} : suggest products whose name starts with the prefix, most ordered first.
+     *
+     * @param prefix the beginning of the name, case insensitive.
+     * @param limit the maximum number of suggestions, capped to {@code application.search.suggest-top-k}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of suggestions in body,
+     * or with status {@code 400 (Bad Request)} if the prefix is blank.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggestProducts(
+        @RequestParam("prefix") String prefix,
+        @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        LOG.debug("REST request to suggest Products : {}", prefix);
+        if (prefix.isBlank()) {
+            throw new BadRequestAlertException("Empty suggestion prefix", ENTITY_NAME, "prefixnull");
+        }
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
+    /**
+     * {@code GET  /products/:id/related} : get the products most often bought together with the "id" product.
+     *
+     * @param id the id of the product.
+     * @param limit the maximum number of products, capped to {@code application.catalog.related-top-k}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of product summaries in body,
+     * most often bought together first.
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductSummaryDTO>> getRelatedProducts(
+        @PathVariable("id") Long id,
+        @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        LOG.debug("REST request to get the Products bought together with Product : {}", id);
+        return ResponseEntity.ok(productService.findRelated(id, limit));
+    }
+
+    /**
+     * {@code GET  /products/:id/price-history} : get a page of the prices of the "id" product that became active over
+     * a period, in the order they did.
+     * <p>
+     * Pagination works as for {@link #getAllProducts}.
+     *
+     * @param id the id of the product.
+     * @param from the beginning of the period, inclusive, or none for the first price.
+     * @param to the end of the period, exclusive, or none for now.
+     * @param cursor the cursor returned with the previous page, or none for the first page.
+     * @param size the page size, capped to {@code application.catalog.max-page-size}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of prices in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid.
+     */
+    @GetMapping("/{id}/price-history")
+    public ResponseEntity<List<PricePointDTO>> getPriceHistory(
+        @PathVariable("id") Long id,
+        @RequestParam(name = "from", required = false) Instant from,
+        @RequestParam(name = "to", required = false) Instant to,
+        @RequestParam(name = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(name = "size", required = false) Integer size
+    ) {
+        LOG.debug("REST request to get the price history of Product : {} from {} to {}", id, from, to);
+        Slice<PricePointDTO> slice = productService.findPriceHistory(id, from, to, decodePricePointCursor(cursor), size);
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            PricePointDTO last = slice.getContent().getLast();
+            nextCursor = KeysetPaginationUtil.encodeCursor(
+                last.effectiveDate().getEpochSecond(),
+                last.effectiveDate().getNano(),
+                last.pricedProductId()
+            );
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), nextCursor);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /products/:id/price?at=} : get the price that was active for the "id" product at a given time.
+     *
+     * @param id the id of the product.
+     * @param at the time, or none for now.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the price in body,
+     * or with status {@code 404 (Not Found)} if the product had no price at that time.
+     */
+    @GetMapping("/{id}/price")
+    public ResponseEntity<PricePointDTO> getPriceAt(@PathVariable("id") Long id, @RequestParam(name = "at", required = false) Instant at) {
+        LOG.debug("REST request to get the price of Product : {} at {}", id, at);
+        return ResponseUtil.wrapOrNotFound(productService.findPriceAt(id, at != null ? at : Instant.now()));
+    }
+
+    /**
+     * {@code GET  /products/export} : stream the whole catalog, with the active price of each product, as newline-delimited JSON.
+     * <p>
+     * The response is gzip-encoded when the client accepts it.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} request header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed catalog in body.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        LOG.debug("REST request to export all Products");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+                productExportService.exportCatalog(gzipOut);
+                gzipOut.finish();
+            } else {
+                productExportService.exportCatalog(out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * {@code PUT  /products/:id/image} : replace the image of the "id" product.
+     * <p>
+     * The body is the raw PNG, JPEG or GIF image; it is streamed to the content-addressed image store and its thumbnail
+     * is generated in the background.
+     *
+     * @param id the id of the product.
+     * @param body the image bytes.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the image URLs in body,
+     * or with status {@code 400 (Bad Request)} if the body is not a supported image or is too large,
+     * or with status {@code 404 (Not Found)} if the product does not exist.
+     * @throws IOException if the image cannot be stored.
+     */
+    @PutMapping(value = "/{id}/image", consumes = { MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_GIF_VALUE })
+    public ResponseEntity<ProductImageDTO> updateProductImage(@PathVariable("id") Long id, InputStream body) throws IOException {
+        LOG.debug("REST request to update the image of Product : {}", id);
+        String image = productImageService.updateImage(id, body);
+        return ResponseEntity.ok()
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, id.toString()))
+            .body(ProductImageResource.toDto(image));
+    }
+
+    /**
+     * {@code GET  /products/:id/image} : get where to download the image of the "id" product and its thumbnail.
+     *
+     * @param id the id of the product.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the image URLs in body,
+     * or with status {@code 404 (Not Found)} if the product does not exist or has no image.
+     */
+    @GetMapping("/{id}/image")
+    public ResponseEntity<ProductImageDTO> getProductImage(@PathVariable("id") Long id) {
+        LOG.debug("REST request to get the image of Product : {}", id);
+        return ResponseUtil.wrapOrNotFound(productImageService.findImage(id).map(ProductImageResource::toDto));
     }
 
     /**
      * {@code GET  /products/:id} : get the "id" product.
+     * <p>
+     * The ETag is the version of the product, read from the database together with the product so that it always
+     * describes the returned body; the catalog snapshot may not have caught up with the latest committed version yet.
      *
      * @param id the id of the productDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the productDTO, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the productDTO,
+     * or with status {@code 304 (Not Modified)} if the product did not change, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable("id") Long id) {
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable("id") Long id, WebRequest request) {
         LOG.debug("REST request to get Product : {}", id);
-        Optional<ProductDTO> productDTO = productService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(productDTO);
+        Optional<ProductService.VersionedProduct> versioned = productService.findOneWithVersion(id);
+        if (versioned.isPresent() && request.checkNotModified(versioned.get().version().toString())) {
+            return null;
+        }
+        return ResponseUtil.wrapOrNotFound(versioned.map(ProductService.VersionedProduct::product));
     }
 
     /**
@@ -166,4 +588,114 @@ public class ProductResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private ResponseEntity<List<ProductDTO>> getProductsByPrice(
+        String cursor,
+        Integer size,
+        TagFilter filter,
+        PriceRange range,
+        boolean descending
+    ) {
+        Slice<CatalogEntryDTO> slice = productService.findAllByPrice(range, filter, descending, decodePriceCursor(cursor), size);
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            CatalogEntryDTO last = slice.getContent().getLast();
+            nextCursor = KeysetPaginationUtil.encodeCursor(last.price(), last.id());
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), nextCursor);
+        List<ProductDTO> body = slice
+            .getContent()
+            .stream()
+            .map(entry -> new ProductDTO(entry.id(), entry.name(), entry.description()))
+            .toList();
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    /**
+     * The direction of the price sort, or {@code null} when the products are not sorted by price. A single
+     * {@code sort} parameter is split on its commas while several are kept whole, so each value is split again into
+     * properties, each optionally followed by its direction.
+     */
+    private Sort.Direction priceSortDirection(List<String> sort) {
+        if (sort == null) {
+            return null;
+        }
+        Sort.Direction priceDirection = null;
+        String property = null;
+        for (String value : sort) {
+            for (String token : value.split(",")) {
+                token = token.trim();
+                if (token.isEmpty()) {
+                    continue;
+                }
+                Optional<Sort.Direction> direction = Sort.Direction.fromOptionalString(token);
+                if (direction.isPresent() && property != null) {
+                    if (property.equals("price")) {
+                        priceDirection = direction.get();
+                    }
+                    property = null;
+                    continue;
+                }
+                if (!SORT_PROPERTIES.contains(token)) {
+                    throw new BadRequestAlertException("Products can only be sorted by price or id", ENTITY_NAME, "sortinvalid");
+                }
+                property = token;
+                if (property.equals("price") && priceDirection == null) {
+                    priceDirection = Sort.Direction.ASC;
+                }
+            }
+        }
+        return priceDirection;
+    }
+
+    private PriceRange priceRange(String minPrice, String maxPrice) {
+        try {
+            return PriceRange.of(minPrice == null ? null : Money.parse(minPrice), maxPrice == null ? null : Money.parse(maxPrice));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new BadRequestAlertException("Invalid price range", ENTITY_NAME, "priceinvalid");
+        }
+    }
+
+    private List<CatalogEntryDTO> lookup(List<Long> ids) {
+        if (ids.size() > maxLookupIds) {
+            throw new BadRequestAlertException("Too many ids, at most " + maxLookupIds + " are allowed", ENTITY_NAME, "idstoomany");
+        }
+        return productService.findAllWithActivePrice(ids);
+    }
+
+    private Long decodeCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(KeysetPaginationUtil.decodeCursor(cursor, 1)[0]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    private ProductPriceIndex.Entry decodePriceCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String[] components = KeysetPaginationUtil.decodeCursor(cursor, 2);
+            return new ProductPriceIndex.Entry(Long.parseLong(components[1]), Money.parse(components[0]).minorUnits());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
+
+    private ProductService.PricePointCursor decodePricePointCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String[] components = KeysetPaginationUtil.decodeCursor(cursor, 3);
+            Instant effectiveDate = Instant.ofEpochSecond(Long.parseLong(components[0]), Long.parseLong(components[1]));
+            return new ProductService.PricePointCursor(effectiveDate, Long.valueOf(components[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+    }
 }
@@ -0,0 +1,58 @@
+package net.petcu.store.web.rest;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.petcu.store.service.dto.TopSellerDTO;
+import net.petcu.store.service.sales.TopSellersTracker;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint listing the best selling products of the last hour and day, from the {@link TopSellersTracker}.
+ * Like the other {@code /management/**} endpoints, it is restricted to administrators.
+ */
+@Component
+@Endpoint(id = "topsellers")
+public class TopSellersEndpoint {
+
+    private final TopSellersTracker topSellersTracker;
+
+    public TopSellersEndpoint(TopSellersTracker topSellersTracker) {
+        this.topSellersTracker = topSellersTracker;
+    }
+
+    /**
+     * {@code GET  /management/topsellers} : get the best selling products of every window.
+     *
+     * @return the best selling products, most units first, by window.
+     */
+    @ReadOperation
+    public Map<String, List<TopSellerDTO>> topSellers() {
+        Map<String, List<TopSellerDTO>> windows = new LinkedHashMap<>();
+        for (TopSellersTracker.Window window : TopSellersTracker.Window.values()) {
+            windows.put(window.name().toLowerCase(Locale.ROOT), topSellersTracker.topSellers(window));
+        }
+        return windows;
+    }
+
+    /**
+     * {@code GET  /management/topsellers/:window} : get the best selling products of the "hour" or "day" window.
+     *
+     * @param window the name of the window.
+     * @return the best selling products, most units first, or {@code null} for a {@code 404 (Not Found)} if there is no
+     * such window.
+     */
+    @ReadOperation
+    public List<TopSellerDTO> topSellers(@Selector String window) {
+        for (TopSellersTracker.Window candidate : TopSellersTracker.Window.values()) {
+            if (candidate.name().equalsIgnoreCase(window)) {
+                return topSellersTracker.topSellers(candidate);
+            }
+        }
+        return null;
+    }
+}
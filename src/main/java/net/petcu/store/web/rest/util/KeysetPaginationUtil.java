@@ -0,0 +1,74 @@
+package net.petcu.store.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor based) pagination.
+ * <p>
+ * Cursors are opaque to clients: they encode the sort key of the last row of the previous page, and are handed back
+ * through the {@value #NEXT_CURSOR_HEADER} header and a {@code rel="next"} link.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    private static final String SEPARATOR = ":";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Encode the sort key components of a row into an opaque cursor.
+     *
+     * @param components the components of the sort key.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Object... components) {
+        StringBuilder key = new StringBuilder();
+        for (Object component : components) {
+            if (!key.isEmpty()) {
+                key.append(SEPARATOR);
+            }
+            key.append(component);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode an opaque cursor into the sort key components it was built from.
+     *
+     * @param cursor the cursor.
+     * @param expectedComponents the number of components the cursor must contain.
+     * @return the components.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static String[] decodeCursor(String cursor, int expectedComponents) {
+        String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] components = key.split(SEPARATOR, -1);
+        if (components.length != expectedComponents) {
+            throw new IllegalArgumentException("Expected " + expectedComponents + " cursor components but got " + components.length);
+        }
+        return components;
+    }
+
+    /**
+     * Generate the {@value #NEXT_CURSOR_HEADER} and {@link HttpHeaders#LINK} headers for a keyset page.
+     *
+     * @param uriBuilder the builder of the current request URI.
+     * @param nextCursor the cursor of the next page, or {@code null} if this is the last page.
+     * @return the headers.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, String nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.add(NEXT_CURSOR_HEADER, nextCursor);
+            String next = uriBuilder.replaceQueryParam(CURSOR_PARAMETER, nextCursor).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Utility classes for the REST controllers.
+ */
+package net.petcu.store.web.rest.util;
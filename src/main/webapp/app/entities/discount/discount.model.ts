@@ -6,6 +6,7 @@ export interface IDiscount {
   discountType?: keyof typeof DiscountType | null;
   used?: boolean | null;
   amount?: number | null;
+  percentage?: number | null;
 }
 
 export type NewDiscount = Omit<IDiscount, 'id'> & { id: null };
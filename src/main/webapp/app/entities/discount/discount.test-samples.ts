@@ -15,6 +15,7 @@ export const sampleWithFullData: IDiscount = {
   discountType: 'PERCENTAGE',
   used: false,
   amount: 27024.24,
+  percentage: 12.5,
 };
 
 export const sampleWithNewData: NewDiscount = {
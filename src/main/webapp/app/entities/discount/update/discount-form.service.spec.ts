@@ -24,6 +24,7 @@ describe('Discount Form Service', () => {
             discountType: expect.any(Object),
             used: expect.any(Object),
             amount: expect.any(Object),
+            percentage: expect.any(Object),
           }),
         );
       });
@@ -38,6 +39,7 @@ describe('Discount Form Service', () => {
             discountType: expect.any(Object),
             used: expect.any(Object),
             amount: expect.any(Object),
+            percentage: expect.any(Object),
           }),
         );
       });
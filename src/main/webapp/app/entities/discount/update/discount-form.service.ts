@@ -22,6 +22,7 @@ type DiscountFormGroupContent = {
   discountType: FormControl<IDiscount['discountType']>;
   used: FormControl<IDiscount['used']>;
   amount: FormControl<IDiscount['amount']>;
+  percentage: FormControl<IDiscount['percentage']>;
 };
 
 export type DiscountFormGroup = FormGroup<DiscountFormGroupContent>;
@@ -45,6 +46,7 @@ export class DiscountFormService {
       discountType: new FormControl(discountRawValue.discountType),
       used: new FormControl(discountRawValue.used),
       amount: new FormControl(discountRawValue.amount),
+      percentage: new FormControl(discountRawValue.percentage),
     });
   }
 
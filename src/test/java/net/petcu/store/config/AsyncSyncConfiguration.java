@@ -4,6 +4,7 @@ import java.util.concurrent.Executor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 @Configuration
 public class AsyncSyncConfiguration {
@@ -12,4 +13,14 @@ public class AsyncSyncConfiguration {
     public Executor taskExecutor() {
         return new SyncTaskExecutor();
     }
+
+    @Bean(name = "thumbnailExecutor")
+    public TaskExecutor thumbnailExecutor() {
+        return new SyncTaskExecutor();
+    }
+
+    @Bean(name = "priceStreamExecutor")
+    public TaskExecutor priceStreamExecutor() {
+        return new SyncTaskExecutor();
+    }
 }
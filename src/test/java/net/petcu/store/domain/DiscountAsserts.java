@@ -1,5 +1,6 @@
 package net.petcu.store.domain;
 
+import static net.petcu.store.domain.AssertUtils.bigDecimalCompareTo;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class DiscountAsserts {
@@ -50,7 +51,13 @@ public class DiscountAsserts {
             .satisfies(a -> assertThat(a.getDiscountCode()).as("check discountCode").isEqualTo(expected.getDiscountCode()))
             .satisfies(a -> assertThat(a.getDiscountType()).as("check discountType").isEqualTo(expected.getDiscountType()))
             .satisfies(a -> assertThat(a.getUsed()).as("check used").isEqualTo(expected.getUsed()))
-            .satisfies(a -> assertThat(a.getAmount()).as("check amount").isEqualTo(expected.getAmount()));
+            .satisfies(a -> assertThat(a.getAmount()).as("check amount").isEqualTo(expected.getAmount()))
+            .satisfies(a ->
+                assertThat(a.getPercentage())
+                    .as("check percentage")
+                    .usingComparator(bigDecimalCompareTo)
+                    .isEqualTo(expected.getPercentage())
+            );
     }
 
     /**
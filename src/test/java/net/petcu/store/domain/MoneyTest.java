@@ -0,0 +1,73 @@
+package net.petcu.store.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.Currency;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void GivenDecimalAmounts_WhenOf_ShouldRoundHalfEvenToWholeCents() {
+        // Arrange
+        long tenCents = Money.of(0.1).minorUnits();
+
+        // Act
+        long summed = tenCents + tenCents + tenCents;
+
+        // Assert
+        assertThat(Money.ofMinor(summed)).isEqualTo(Money.of(0.3));
+        assertThat(Money.of(new BigDecimal("0.125")).minorUnits()).isEqualTo(12);
+        assertThat(Money.of(new BigDecimal("0.135")).minorUnits()).isEqualTo(14);
+        assertThat(Money.parse(" 19.99 ").minorUnits()).isEqualTo(1999);
+        assertThat(Money.of(12.5).toBigDecimal()).isEqualTo(new BigDecimal("12.50"));
+        assertThatThrownBy(() -> Money.parse("cheap")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void GivenMoney_WhenJsonRoundTrip_ShouldWriteDecimalNumbersAndReadNumbersOrStrings() throws Exception {
+        // Act
+        String json = objectMapper.writeValueAsString(Money.of(12.5));
+
+        // Assert
+        assertThat(json).isEqualTo("12.50");
+        assertThat(objectMapper.readValue("12.5", Money.class)).isEqualTo(Money.ofMinor(1250));
+        assertThat(objectMapper.readValue("\"12.50\"", Money.class)).isEqualTo(Money.ofMinor(1250));
+        assertThat(objectMapper.readValue("3", Money.class)).isEqualTo(Money.ofMinor(300));
+        assertThatThrownBy(() -> objectMapper.readValue("\"cheap\"", Money.class)).isInstanceOf(JsonMappingException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("true", Money.class)).isInstanceOf(JsonMappingException.class);
+    }
+
+    @Test
+    void GivenAmountsWithMoreDecimalsThanTheCurrency_WhenParsedOrRead_ShouldRejectThem() {
+        // Act & Assert
+        assertThat(Money.ofExact(new BigDecimal("19.90"))).isEqualTo(Money.ofMinor(1990));
+        assertThat(Money.ofExact(new BigDecimal("19.9000"))).isEqualTo(Money.ofMinor(1990));
+        assertThatThrownBy(() -> Money.ofExact(new BigDecimal("19.995"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.parse("0.125")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("12.505", Money.class)).isInstanceOf(JsonMappingException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("\"12.505\"", Money.class)).isInstanceOf(JsonMappingException.class);
+    }
+
+    @Test
+    void GivenMoney_WhenConvertedForTheDatabase_ShouldStoreMinorUnits() {
+        // Arrange
+        MoneyConverter converter = new MoneyConverter();
+
+        // Act
+        Long stored = converter.convertToDatabaseColumn(Money.of(8.99));
+
+        // Assert
+        assertThat(stored).isEqualTo(899L);
+        assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(Money.of(8.99));
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThatThrownBy(() -> converter.convertToDatabaseColumn(new Money(100, Currency.getInstance("USD"))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,7 +3,9 @@ package net.petcu.store.service;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Arrays;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
@@ -14,7 +16,12 @@ import net.petcu.store.domain.enumeration.OrderStatus;
 import net.petcu.store.exception.*;
 import net.petcu.store.repository.*;
 import net.petcu.store.security.SecurityUtils;
+import net.petcu.store.service.catalog.ActivePriceCache;
+import net.petcu.store.service.catalog.ProductSearchCache;
+import net.petcu.store.service.catalog.ProductSearchIndex;
 import net.petcu.store.service.dto.OrderDTO;
+import net.petcu.store.service.dto.OrderItemSummaryDTO;
+import net.petcu.store.service.event.OrderPaidEvent;
 import net.petcu.store.service.impl.CustomerServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -23,6 +30,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @ExtendWith(MockitoExtension.class)
 class CustomerServiceTest {
@@ -30,6 +38,9 @@ class CustomerServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderItemRepository orderItemRepository;
+
     @Mock
     private UserRepository userRepository;
 
@@ -39,19 +50,34 @@ class CustomerServiceTest {
     @Mock
     private PricedProductRepository pricedProductRepository;
 
+    @Mock
+    private PriceRepository priceRepository;
+
     @Mock
     private DiscountRepository discountRepository;
 
     @Mock
     private PaymentService paymentService;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductSearchCache productSearchCache;
+
+    @Mock
+    private ActivePriceCache activePriceCache;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     private CustomerService customerService;
 
     private static final String DEFAULT_LOGIN = "johndoe";
     private static final Long DEFAULT_ORDER_ID = 1L;
     private static final Long DEFAULT_PRODUCT_ID = 2L;
     private static final Long DEFAULT_QUANTITY = 2L;
-    private static final Double DEFAULT_PRICE = 10.0;
+    private static final Money DEFAULT_PRICE = Money.of(10.0);
     private static final String DEFAULT_PRODUCT_NAME = "Test Product";
     private User user;
 
@@ -63,11 +89,17 @@ class CustomerServiceTest {
     void setUp() {
         customerService = new CustomerServiceImpl(
             orderRepository,
+            orderItemRepository,
             userRepository,
             productRepository,
             pricedProductRepository,
+            priceRepository,
             discountRepository,
-            paymentService
+            paymentService,
+            productSearchIndex,
+            productSearchCache,
+            activePriceCache,
+            applicationEventPublisher
         );
         this.user = createUser(DEFAULT_LOGIN, 1L);
     }
@@ -127,6 +159,33 @@ class CustomerServiceTest {
         }
     }
 
+    @Test
+    void GivenCachedActivePrice_WhenAddItemToOrder_ShouldPriceItemWithoutQueryingProductOrPrice() {
+        // Arrange
+        Order order = createOrder(DEFAULT_ORDER_ID, user);
+        Product product = createProduct(DEFAULT_PRODUCT_ID, DEFAULT_PRODUCT_NAME);
+        Price price = new Price().id(4L);
+        when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
+        when(activePriceCache.find(DEFAULT_PRODUCT_ID)).thenReturn(
+            Optional.of(new ActivePriceCache.ActivePrice(4L, DEFAULT_PRICE.minorUnits()))
+        );
+        when(productRepository.getReferenceById(DEFAULT_PRODUCT_ID)).thenReturn(product);
+        when(priceRepository.getReferenceById(4L)).thenReturn(price);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderDTO result = customerService.addItemToOrder(DEFAULT_ORDER_ID, DEFAULT_PRODUCT_ID, DEFAULT_QUANTITY);
+
+        // Assert
+        assertThat(result.subtotal()).isEqualTo(Money.ofMinor(DEFAULT_PRICE.minorUnits() * DEFAULT_QUANTITY));
+        assertThat(order.getOrderItems()).singleElement().satisfies(item -> {
+            assertThat(item.getProduct()).isSameAs(product);
+            assertThat(item.getPrice()).isSameAs(price);
+        });
+        verify(productRepository, never()).findById(any());
+        verify(pricedProductRepository, never()).findLatestActiveByProductId(any());
+    }
+
     @Test
     void GivenNonExistentOrder_WhenAddItemToOrder_ShouldThrowException() {
         // Arrange
@@ -143,6 +202,9 @@ class CustomerServiceTest {
     void GivenValidOrder_WhenFinalizeOrder_ShouldProcessPaymentAndUpdateStatus() {
         // Arrange
         Order order = createOrder(DEFAULT_ORDER_ID, user);
+        Product product = createProduct(DEFAULT_PRODUCT_ID, DEFAULT_PRODUCT_NAME);
+        order.addOrderItems(new OrderItem().id(1L).product(product).quantity(DEFAULT_QUANTITY));
+        order.addOrderItems(new OrderItem().id(2L).product(product).quantity(1L));
         when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
         when(paymentService.processPayment(order)).thenReturn(true);
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
@@ -161,6 +223,14 @@ class CustomerServiceTest {
         verify(orderRepository).findOneWithEagerRelationships(DEFAULT_ORDER_ID);
         verify(paymentService).processPayment(order);
         verify(orderRepository).save(order);
+        verify(applicationEventPublisher).publishEvent(
+            argThat((Object event) ->
+                event instanceof OrderPaidEvent paid &&
+                paid.orderId().equals(DEFAULT_ORDER_ID) &&
+                Arrays.equals(paid.productIds(), new long[] { DEFAULT_PRODUCT_ID }) &&
+                Arrays.equals(paid.quantities(), new long[] { DEFAULT_QUANTITY + 1 })
+            )
+        );
     }
 
     @Test
@@ -212,6 +282,38 @@ class CustomerServiceTest {
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void GivenOrderWithItems_WhenFindOrderItems_ShouldReturnItemSummaries() {
+        // Arrange
+        OrderItemRepository.OrderItemSummary item = mock(OrderItemRepository.OrderItemSummary.class);
+        when(item.getId()).thenReturn(3L);
+        when(item.getProductId()).thenReturn(DEFAULT_PRODUCT_ID);
+        when(item.getName()).thenReturn(DEFAULT_PRODUCT_NAME);
+        when(item.getPrice()).thenReturn(DEFAULT_PRICE);
+        when(item.getQuantity()).thenReturn(DEFAULT_QUANTITY);
+        when(orderRepository.existsById(DEFAULT_ORDER_ID)).thenReturn(true);
+        when(orderItemRepository.findSummariesByOrderId(DEFAULT_ORDER_ID)).thenReturn(List.of(item));
+
+        // Act
+        List<OrderItemSummaryDTO> result = customerService.findOrderItems(DEFAULT_ORDER_ID);
+
+        // Assert
+        assertThat(result).containsExactly(
+            new OrderItemSummaryDTO(3L, DEFAULT_PRODUCT_ID, DEFAULT_PRODUCT_NAME, DEFAULT_PRICE, DEFAULT_QUANTITY)
+        );
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void GivenNonExistentOrder_WhenFindOrderItems_ShouldThrowOrderNotFoundException() {
+        // Arrange
+        when(orderRepository.existsById(DEFAULT_ORDER_ID)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> customerService.findOrderItems(DEFAULT_ORDER_ID)).isInstanceOf(OrderNotFoundException.class);
+        verify(orderItemRepository, never()).findSummariesByOrderId(any());
+    }
+
     @Test
     void GivenExistingProducts_WhenFindProductsByName_ShouldReturnMatchingProducts() {
         // Arrange
@@ -246,19 +348,37 @@ class CustomerServiceTest {
         verify(productRepository).findByNameContainingIgnoreCase(searchTerm);
     }
 
+    @Test
+    void GivenReadySearchIndex_WhenFindProductsByName_ShouldLoadIndexedProductsById() {
+        // Arrange
+        String searchTerm = "Test";
+        Product product1 = createProduct(1L, "Test Product");
+        Product product2 = createProduct(2L, "Test Item");
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchCache.search(searchTerm)).thenReturn(new long[] { 1L, 2L });
+        when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(product1, product2));
+
+        // Act
+        List<Product> result = customerService.findProductsByName(searchTerm);
+
+        // Assert
+        assertThat(result).containsExactly(product1, product2);
+        verify(productRepository, never()).findByNameContainingIgnoreCase(any());
+    }
+
     @Test
     void GivenValidOrder_WhenApplyPercentageDiscount_ShouldUpdateFinalPrice() {
         // Arrange
         Order order = createOrder(DEFAULT_ORDER_ID, user);
-        order.setSubtotal(100.0);
-        order.setFinalPrice(100.0);
+        order.setSubtotal(Money.of(100.0));
+        order.setFinalPrice(Money.of(100.0));
         Discount discount = createDiscount(PERCENTAGE_DISCOUNT_CODE, DiscountType.PERCENTAGE, 20.0);
 
         when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
         when(discountRepository.findByDiscountCode(PERCENTAGE_DISCOUNT_CODE)).thenReturn(List.of(discount));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order savedOrder = invocation.getArgument(0);
-            assertThat(savedOrder.getFinalPrice()).isEqualTo(80.0); // 100 - 20%
+            assertThat(savedOrder.getFinalPrice()).isEqualTo(Money.of(80.0)); // 100 - 20%
             return savedOrder;
         });
 
@@ -268,25 +388,44 @@ class CustomerServiceTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.id()).isEqualTo(DEFAULT_ORDER_ID);
-        assertThat(result.finalPrice()).isEqualTo(80.0);
+        assertThat(result.finalPrice()).isEqualTo(Money.of(80.0));
         verify(orderRepository).findOneWithEagerRelationships(DEFAULT_ORDER_ID);
         verify(discountRepository).findByDiscountCode(PERCENTAGE_DISCOUNT_CODE);
         verify(orderRepository).save(order);
     }
 
+    @Test
+    void GivenFractionalPercentageDiscount_WhenApplyDiscount_ShouldRoundTheAmountOffHalfEven() {
+        // Arrange
+        Order order = createOrder(DEFAULT_ORDER_ID, user);
+        order.setSubtotal(Money.of(0.25));
+        order.setFinalPrice(Money.of(0.25));
+        Discount discount = createDiscount(PERCENTAGE_DISCOUNT_CODE, DiscountType.PERCENTAGE, 10.0);
+
+        when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
+        when(discountRepository.findByDiscountCode(PERCENTAGE_DISCOUNT_CODE)).thenReturn(List.of(discount));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        OrderDTO result = customerService.applyDiscountCode(DEFAULT_ORDER_ID, PERCENTAGE_DISCOUNT_CODE);
+
+        // Assert
+        assertThat(result.finalPrice()).isEqualTo(Money.of(0.23)); // 0.025 off, rounded to 0.02
+    }
+
     @Test
     void GivenValidOrder_WhenApplyFixedDiscount_ShouldUpdateFinalPrice() {
         // Arrange
         Order order = createOrder(DEFAULT_ORDER_ID, user);
-        order.setSubtotal(100.0);
-        order.setFinalPrice(100.0);
+        order.setSubtotal(Money.of(100.0));
+        order.setFinalPrice(Money.of(100.0));
         Discount discount = createDiscount(FIXED_DISCOUNT_CODE, DiscountType.FIXED, 30.0);
 
         when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
         when(discountRepository.findByDiscountCode(FIXED_DISCOUNT_CODE)).thenReturn(List.of(discount));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order savedOrder = invocation.getArgument(0);
-            assertThat(savedOrder.getFinalPrice()).isEqualTo(70.0); // 100 - 30
+            assertThat(savedOrder.getFinalPrice()).isEqualTo(Money.of(70.0)); // 100 - 30
             return savedOrder;
         });
 
@@ -296,7 +435,7 @@ class CustomerServiceTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.id()).isEqualTo(DEFAULT_ORDER_ID);
-        assertThat(result.finalPrice()).isEqualTo(70.0);
+        assertThat(result.finalPrice()).isEqualTo(Money.of(70.0));
         verify(orderRepository).findOneWithEagerRelationships(DEFAULT_ORDER_ID);
         verify(discountRepository).findByDiscountCode(FIXED_DISCOUNT_CODE);
         verify(orderRepository).save(order);
@@ -306,8 +445,8 @@ class CustomerServiceTest {
     void GivenInvalidPercentageDiscount_WhenApplyDiscount_ShouldThrowException() {
         // Arrange
         Order order = createOrder(DEFAULT_ORDER_ID, user);
-        order.setSubtotal(100.0);
-        order.setFinalPrice(100.0);
+        order.setSubtotal(Money.of(100.0));
+        order.setFinalPrice(Money.of(100.0));
         Discount discount = createDiscount(PERCENTAGE_DISCOUNT_CODE, DiscountType.PERCENTAGE, 150.0);
 
         when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
@@ -327,8 +466,8 @@ class CustomerServiceTest {
     void GivenInvalidFixedDiscount_WhenApplyDiscount_ShouldThrowException() {
         // Arrange
         Order order = createOrder(DEFAULT_ORDER_ID, user);
-        order.setSubtotal(100.0);
-        order.setFinalPrice(100.0);
+        order.setSubtotal(Money.of(100.0));
+        order.setFinalPrice(Money.of(100.0));
         Discount discount = createDiscount(FIXED_DISCOUNT_CODE, DiscountType.FIXED, 100.0);
 
         when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
@@ -348,8 +487,8 @@ class CustomerServiceTest {
     void GivenNonExistentDiscountCode_WhenApplyDiscount_ShouldThrowException() {
         // Arrange
         Order order = createOrder(DEFAULT_ORDER_ID, user);
-        order.setSubtotal(100.0);
-        order.setFinalPrice(100.0);
+        order.setSubtotal(Money.of(100.0));
+        order.setFinalPrice(Money.of(100.0));
         UUID nonExistentCode = UUID.fromString("550e8400-e29b-41d4-a716-446655440003");
 
         when(orderRepository.findOneWithEagerRelationships(DEFAULT_ORDER_ID)).thenReturn(Optional.of(order));
@@ -389,7 +528,8 @@ class CustomerServiceTest {
     private void assertOrderResult(OrderDTO result, Order order, Product product, PricedProduct pricedProduct) {
         assertThat(result).isNotNull();
         assertThat(result.id()).isEqualTo(DEFAULT_ORDER_ID);
-        assertOrderTotalsAreCorrect(order, DEFAULT_PRICE * DEFAULT_QUANTITY, DEFAULT_PRICE * DEFAULT_QUANTITY);
+        Money expectedTotal = Money.ofMinor(DEFAULT_PRICE.minorUnits() * DEFAULT_QUANTITY);
+        assertOrderTotalsAreCorrect(order, expectedTotal, expectedTotal);
     }
 
     private void verifyRepositoryInteractions(Order order, Product product) {
@@ -407,7 +547,7 @@ class CustomerServiceTest {
     }
 
     private Order createOrder(Long id, User user) {
-        return new Order().id(id).date(Instant.now()).status(OrderStatus.NEW).user(user).subtotal(0.0d).finalPrice(0.0d);
+        return new Order().id(id).date(Instant.now()).status(OrderStatus.NEW).user(user).subtotal(Money.ZERO).finalPrice(Money.ZERO);
     }
 
     private Product createProduct(Long id, String name) {
@@ -417,7 +557,7 @@ class CustomerServiceTest {
         return product;
     }
 
-    private PricedProduct createPricedProduct(Long id, Product product, Double priceValue) {
+    private PricedProduct createPricedProduct(Long id, Product product, Money priceValue) {
         PricedProduct pricedProduct = new PricedProduct();
         pricedProduct.setId(id);
         var price = new Price();
@@ -452,7 +592,7 @@ class CustomerServiceTest {
         assertThat(item.getProduct()).isEqualTo(product);
     }
 
-    private void assertOrderTotalsAreCorrect(Order order, Double expectedSubtotal, Double expectedFinalPrice) {
+    private void assertOrderTotalsAreCorrect(Order order, Money expectedSubtotal, Money expectedFinalPrice) {
         assertThat(order.getSubtotal()).isEqualTo(expectedSubtotal);
         assertThat(order.getFinalPrice()).isEqualTo(expectedFinalPrice);
     }
@@ -461,7 +601,11 @@ class CustomerServiceTest {
         Discount discount = new Discount();
         discount.setDiscountCode(code);
         discount.setDiscountType(type);
-        discount.setAmount(value);
+        if (type == DiscountType.PERCENTAGE) {
+            discount.setPercentage(BigDecimal.valueOf(value));
+        } else {
+            discount.setAmount(Money.of(value));
+        }
         return discount;
     }
 }
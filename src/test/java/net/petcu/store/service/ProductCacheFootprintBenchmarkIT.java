@@ -0,0 +1,111 @@
+package net.petcu.store.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Product;
+import net.petcu.store.repository.ProductRepository;
+import org.hibernate.engine.spi.PersistentAttributeInterceptable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Measures the second-level cache entries of products with a large description, as the size of their serialized form,
+ * a proxy for the heap they retain.
+ * <p>
+ * With the {@code hibernate-enhance} Maven profile the description is a lazy attribute left out of the entries; built
+ * with {@code -Dhibernate-enhance.skip}, every entry carries it. Running the test both ways compares the two:
+ * {@code ./mvnw verify -Pbenchmark -Dit.test=ProductCacheFootprintBenchmarkIT [-Dhibernate-enhance.skip]}.
+ * <p>
+ * Not transactional: Hibernate does not cache the entities inserted by the current transaction.
+ */
+@IntegrationTest
+@Tag("benchmark")
+// the test profiles turn the second-level cache off
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class ProductCacheFootprintBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductCacheFootprintBenchmarkIT.class);
+
+    // within the max-entries of the cache
+    private static final int PRODUCTS = 100;
+    // the width of the description column
+    private static final int DESCRIPTION_LENGTH = 255;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager em;
+
+    private List<Long> ids = List.of();
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void cachedProductsOnlyCarryTheirDescriptionWithoutEnhancement() throws IOException {
+        String description = "footprint ".repeat(DESCRIPTION_LENGTH).substring(0, DESCRIPTION_LENGTH);
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product().name("Footprint product " + i).description(description));
+        }
+        productRepository.saveAll(products);
+        ids = products.stream().map(Product::getId).toList();
+        em.getEntityManagerFactory().getCache().evict(Product.class);
+
+        // loading the products puts them in the second-level cache
+        assertThat(productRepository.findAllById(ids)).hasSize(PRODUCTS);
+
+        Cache<Object, Object> cache = cacheManager.getCache(Product.class.getName());
+        long entries = 0;
+        long bytes = 0;
+        long withDescription = 0;
+        for (Cache.Entry<Object, Object> entry : cache) {
+            byte[] serialized = serialize(entry.getValue());
+            entries++;
+            bytes += serialized.length;
+            if (new String(serialized, StandardCharsets.ISO_8859_1).contains(description)) {
+                withDescription++;
+            }
+        }
+        boolean enhanced = PersistentAttributeInterceptable.class.isAssignableFrom(Product.class);
+        LOG.info(
+            "{} cached products with a {} characters description, {}: {} bytes per entry",
+            entries,
+            DESCRIPTION_LENGTH,
+            enhanced ? "enhanced" : "not enhanced",
+            bytes / Math.max(entries, 1)
+        );
+
+        assertThat(entries).isEqualTo(PRODUCTS);
+        assertThat(withDescription).isEqualTo(enhanced ? 0 : PRODUCTS);
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+}
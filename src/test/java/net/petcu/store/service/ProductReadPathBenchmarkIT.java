@@ -0,0 +1,106 @@
+package net.petcu.store.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Product;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.mapper.ProductMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares the allocation and latency of reading a page of products as managed entities mapped to DTOs, and as
+ * {@link ProductRepository.ProductView} projections.
+ * <p>
+ * Allocation and timings depend on the JVM and the machine, so they are reported rather than asserted. Run it with the
+ * {@code benchmark} Maven profile.
+ */
+@IntegrationTest
+@Tag("benchmark")
+@Transactional
+class ProductReadPathBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductReadPathBenchmarkIT.class);
+
+    private static final int PRODUCTS = 200;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void compareEntityMappingAndProjectionReads() {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product().name("Benchmark product " + i).description("Benchmark description " + i));
+        }
+        productRepository.saveAllAndFlush(products);
+        long afterId = products.getFirst().getId() - 1;
+        PageRequest page = PageRequest.of(0, PRODUCTS, Sort.by(Sort.Direction.ASC, "id"));
+        em.clear();
+
+        Supplier<List<ProductDTO>> entities = () -> {
+            List<ProductDTO> dtos = productRepository.findByIdGreaterThan(afterId, page).map(productMapper::toDto).getContent();
+            // a request starts with an empty persistence context
+            em.clear();
+            return dtos;
+        };
+        Supplier<List<ProductDTO>> views = () -> {
+            List<ProductDTO> dtos = productRepository.findViewsByIdGreaterThan(afterId, page).map(productMapper::toDto).getContent();
+            em.clear();
+            return dtos;
+        };
+
+        assertThat(views.get()).isEqualTo(entities.get());
+        Measurement entityMeasurement = measure(entities);
+        Measurement viewMeasurement = measure(views);
+        LOG.info("Reading {} products as entities: {}", PRODUCTS, entityMeasurement);
+        LOG.info("Reading {} products as projections: {}", PRODUCTS, viewMeasurement);
+        LOG.info(
+            "Projections allocate {}% of the bytes of entity mapping",
+            entityMeasurement.bytesPerRead() == 0 ? 0 : viewMeasurement.bytesPerRead() * 100 / entityMeasurement.bytesPerRead()
+        );
+    }
+
+    private static Measurement measure(Supplier<List<ProductDTO>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            read.get();
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            read.get();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        return new Measurement(allocated / MEASURED_ITERATIONS, nanos / MEASURED_ITERATIONS);
+    }
+
+    private record Measurement(long bytesPerRead, long nanosPerRead) {
+        @Override
+        public String toString() {
+            return String.format("%d KiB and %d µs per page", bytesPerRead / 1024, nanosPerRead / 1000);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+class ActivePriceCacheTest {
+
+    @Test
+    void GivenWarmedCache_WhenPricesChange_ShouldServeCommittedPricesAndCountMisses() {
+        // Arrange
+        PricedProductRepository repository = mock(PricedProductRepository.class);
+        when(repository.findActivePricesByIdGreaterThan(anyLong(), any())).thenReturn(
+            List.of(activePrice(10L, 1L, 100L, 9.5), activePrice(11L, 2L, 101L, 20.0), activePrice(12L, 2L, 102L, 25.0))
+        );
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ActivePriceCache cache = new ActivePriceCache(repository, Runnable::run, new ApplicationProperties(), registry);
+        cache.reload();
+
+        // Act
+        cache.onPriceChanged(new PriceChangedEvent(1L, 13L, 103L, Money.of(8.0)));
+        cache.onPriceChanged(new PriceChangedEvent(3L, 14L, 104L, Money.of(1.0)));
+        cache.onProductChanged(ProductChangedEvent.deleted(3L));
+
+        // Assert
+        assertThat(cache.find(1L)).contains(new ActivePriceCache.ActivePrice(103L, 800));
+        assertThat(cache.find(2L)).contains(new ActivePriceCache.ActivePrice(102L, 2500));
+        assertThat(cache.find(3L)).isEmpty();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(registry.get(ActivePriceCache.REQUESTS_METER_NAME).tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(registry.get(ActivePriceCache.REQUESTS_METER_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void GivenPricedProductEdits_WhenCommitted_ShouldReadTheActivePriceOfTheirProductAgain() {
+        // Arrange
+        PricedProductRepository repository = mock(PricedProductRepository.class);
+        when(repository.findActivePricesByIdGreaterThan(anyLong(), any())).thenReturn(
+            List.of(activePrice(10L, 1L, 100L, 9.5), activePrice(11L, 2L, 101L, 20.0))
+        );
+        ActivePriceCache cache = new ActivePriceCache(repository, Runnable::run, new ApplicationProperties(), new SimpleMeterRegistry());
+        cache.reload();
+        when(repository.findActivePricesByProductIdIn(List.of(1L))).thenReturn(List.of(activePrice(12L, 1L, 102L, 7.0)));
+        when(repository.findActivePricesByProductIdIn(List.of(2L))).thenReturn(List.of());
+
+        // Act
+        cache.onPricedProductChanged(new PricedProductChangedEvent(12L, 1L));
+        cache.onPricedProductChanged(new PricedProductChangedEvent(11L, 2L));
+
+        // Assert
+        assertThat(cache.find(1L)).contains(new ActivePriceCache.ActivePrice(102L, 700));
+        assertThat(cache.find(2L)).isEmpty();
+    }
+
+    @Test
+    void GivenPricesImported_WhenReloaded_ShouldServeTheImportedPrices() {
+        // Arrange
+        PricedProductRepository repository = mock(PricedProductRepository.class);
+        when(repository.findActivePricesByIdGreaterThan(anyLong(), any())).thenReturn(List.of(activePrice(10L, 1L, 100L, 9.5)));
+        ActivePriceCache cache = new ActivePriceCache(repository, Runnable::run, new ApplicationProperties(), new SimpleMeterRegistry());
+        cache.reload();
+        when(repository.findActivePricesByIdGreaterThan(anyLong(), any())).thenReturn(List.of(activePrice(10L, 1L, 103L, 4.0)));
+
+        // Act
+        cache.onPricesImported(new PricesImportedEvent(1));
+
+        // Assert
+        assertThat(cache.find(1L)).contains(new ActivePriceCache.ActivePrice(103L, 400));
+    }
+
+    @Test
+    void GivenRandomPutsAndRemoves_WhenFind_ShouldMatchAHashMap() {
+        // Arrange
+        ActivePriceTable table = new ActivePriceTable(0);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(3);
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            long productId = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                table.remove(productId);
+                expected.remove(productId);
+            } else {
+                long value = random.nextInt(10_000);
+                table.put(productId, productId * 10, value);
+                expected.put(productId, value);
+            }
+        }
+
+        // Assert
+        assertThat(table.size()).isEqualTo(expected.size());
+        for (long productId = 1; productId <= 2_000; productId++) {
+            int slot = table.find(productId);
+            if (expected.containsKey(productId)) {
+                assertThat(slot).isNotNegative();
+                assertThat(table.value(slot)).isEqualTo(expected.get(productId));
+                assertThat(table.priceId(slot)).isEqualTo(productId * 10);
+            } else {
+                assertThat(slot).isNegative();
+            }
+        }
+    }
+
+    private static PricedProductRepository.ActivePrice activePrice(Long pricedProductId, Long productId, Long priceId, double value) {
+        return new PricedProductRepository.ActivePrice() {
+            @Override
+            public Long getPricedProductId() {
+                return pricedProductId;
+            }
+
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getPriceId() {
+                return priceId;
+            }
+
+            @Override
+            public Money getValue() {
+                return Money.of(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CatalogSnapshotTest {
+
+    private PricedProductRepository pricedProductRepository;
+
+    private CatalogSnapshot catalogSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        pricedProductRepository = mock(PricedProductRepository.class);
+        catalogSnapshot = new CatalogSnapshot(
+            mock(ProductRepository.class),
+            pricedProductRepository,
+            mock(PlatformTransactionManager.class),
+            new CatalogVersion(),
+            Runnable::run,
+            new ApplicationProperties(),
+            new SimpleMeterRegistry()
+        );
+        catalogSnapshot.onProductChanged(ProductChangedEvent.saved(new ProductDTO(10L, "Mug", "A mug")));
+        catalogSnapshot.onProductChanged(ProductChangedEvent.saved(new ProductDTO(20L, "Vinyl", "A record")));
+    }
+
+    @Test
+    void GivenPriceChange_WhenFind_ShouldReturnProductWithNewActivePrice() {
+        assertThat(catalogSnapshot.find(10L)).hasValueSatisfying(item -> assertThat(item.hasPrice()).isFalse());
+
+        catalogSnapshot.onPriceChanged(new PriceChangedEvent(10L, 100L, 200L, Money.of(9.5)));
+
+        assertThat(catalogSnapshot.find(10L)).contains(new CatalogItem(10L, "Mug", "A mug", 200L, 9.5));
+    }
+
+    @Test
+    void GivenPricedProductEdits_WhenFind_ShouldReturnTheActivePriceReadAgain() {
+        PricedProductRepository.ActivePrice active = mock(PricedProductRepository.ActivePrice.class);
+        when(active.getPriceId()).thenReturn(300L);
+        when(active.getValue()).thenReturn(Money.of(12.0));
+        when(pricedProductRepository.findActivePricesByProductIdIn(List.of(10L))).thenReturn(List.of(active));
+        when(pricedProductRepository.findActivePricesByProductIdIn(List.of(20L))).thenReturn(List.of());
+        catalogSnapshot.onPriceChanged(new PriceChangedEvent(20L, 100L, 200L, Money.of(9.5)));
+
+        catalogSnapshot.onPricedProductChanged(new PricedProductChangedEvent(101L, 10L));
+        catalogSnapshot.onPricedProductChanged(new PricedProductChangedEvent(100L, 20L));
+
+        assertThat(catalogSnapshot.find(10L)).contains(new CatalogItem(10L, "Mug", "A mug", 300L, 12.0));
+        assertThat(catalogSnapshot.find(20L)).hasValueSatisfying(item -> assertThat(item.hasPrice()).isFalse());
+    }
+
+    @Test
+    void GivenProductUpdate_WhenFind_ShouldKeepActivePrice() {
+        catalogSnapshot.onPriceChanged(new PriceChangedEvent(10L, 100L, 200L, Money.of(9.5)));
+
+        catalogSnapshot.onProductChanged(ProductChangedEvent.saved(new ProductDTO(10L, "Big Mug", "A bigger mug")));
+
+        assertThat(catalogSnapshot.find(10L)).contains(new CatalogItem(10L, "Big Mug", "A bigger mug", 200L, 9.5));
+    }
+
+    @Test
+    void GivenProductsInsertedOutOfOrder_WhenFindAllAfter_ShouldPageByProductId() {
+        catalogSnapshot.onProductChanged(ProductChangedEvent.saved(new ProductDTO(15L, "Poster", null)));
+
+        Slice<CatalogItem> first = catalogSnapshot.findAllAfter(Long.MIN_VALUE, 2);
+        Slice<CatalogItem> second = catalogSnapshot.findAllAfter(15L, 2);
+
+        assertThat(first.getContent()).extracting(CatalogItem::productId).containsExactly(10L, 15L);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(CatalogItem::productId).containsExactly(20L);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void GivenDeletedProduct_WhenFind_ShouldMissAndSkipItInPages() {
+        catalogSnapshot.onProductChanged(ProductChangedEvent.deleted(10L));
+
+        assertThat(catalogSnapshot.find(10L)).isEmpty();
+        assertThat(catalogSnapshot.size()).isEqualTo(1);
+        assertThat(catalogSnapshot.findAllAfter(Long.MIN_VALUE, 10).getContent()).extracting(CatalogItem::productId).containsExactly(20L);
+    }
+
+    @Test
+    void GivenView_WhenChanged_ShouldLeavePublishedViewUntouched() {
+        CatalogSnapshot.View view = CatalogSnapshot.View.of(List.of(new CatalogItem(1L, "Mug", null, CatalogItem.NO_PRICE, 0)));
+
+        CatalogSnapshot.View updated = view.with(new CatalogItem(1L, "Cup", null, CatalogItem.NO_PRICE, 0)).with(
+            new CatalogItem(2L, "Plate", null, CatalogItem.NO_PRICE, 0)
+        );
+        CatalogSnapshot.View removed = updated.without(1L);
+
+        assertThat(view.get(1L).name()).isEqualTo("Mug");
+        assertThat(view.get(2L)).isNull();
+        assertThat(updated.get(1L).name()).isEqualTo("Cup");
+        assertThat(updated.size).isEqualTo(2);
+        assertThat(removed.get(1L)).isNull();
+        assertThat(removed.get(2L).name()).isEqualTo("Plate");
+        assertThat(removed.size).isEqualTo(1);
+    }
+
+    @Test
+    void GivenViewSpanningChunks_WhenChanged_ShouldCopyOnlyTheTouchedChunk() {
+        CatalogSnapshot.View view = CatalogSnapshot.View.EMPTY;
+        for (long productId = 2; productId <= 2 * (CatalogSnapshot.View.CHUNK_SIZE + 1); productId += 2) {
+            view = view.with(new CatalogItem(productId, "Item " + productId, null, CatalogItem.NO_PRICE, 0));
+        }
+
+        CatalogSnapshot.View updated = view.with(new CatalogItem(2L, "First", null, CatalogItem.NO_PRICE, 0));
+        CatalogSnapshot.View inserted = updated.with(new CatalogItem(3L, "Inserted", null, CatalogItem.NO_PRICE, 0));
+
+        assertThat(view.length).isEqualTo(CatalogSnapshot.View.CHUNK_SIZE + 1);
+        assertThat(view.items.length).isEqualTo(2);
+        long lastId = 2L * (CatalogSnapshot.View.CHUNK_SIZE + 1);
+        assertThat(view.get(lastId).name()).isEqualTo("Item " + lastId);
+        assertThat(updated.items[0]).isNotSameAs(view.items[0]);
+        assertThat(updated.items[1]).isSameAs(view.items[1]);
+        assertThat(view.get(2L).name()).isEqualTo("Item 2");
+        assertThat(updated.get(2L).name()).isEqualTo("First");
+        assertThat(inserted.size).isEqualTo(CatalogSnapshot.View.CHUNK_SIZE + 2);
+        assertThat(inserted.item(inserted.slotAfter(2L)).name()).isEqualTo("Inserted");
+        assertThat(inserted.get(4L).name()).isEqualTo("Item 4");
+        assertThat(inserted.slotAfter(Long.MAX_VALUE)).isEqualTo(inserted.length);
+    }
+}
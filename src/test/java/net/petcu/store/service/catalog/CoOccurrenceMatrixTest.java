@@ -0,0 +1,76 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.LongObjectHashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CoOccurrenceMatrixTest {
+
+    @Test
+    void GivenPaidOrders_WhenAddOrder_ShouldRankProductsBoughtTogetherByOrders() {
+        // Arrange
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2);
+        matrix.addOrder(new long[] { 1L, 2L, 3L });
+        matrix.addOrder(new long[] { 1L, 3L });
+        matrix.addOrder(new long[] { 5L });
+
+        // Act
+        matrix.addOrder(new long[] { 1L, 4L });
+        matrix.addOrder(new long[] { 4L, 1L });
+
+        // Assert
+        assertThat(matrix.neighbors(1L, 10)).containsExactly(3L, 4L);
+        assertThat(matrix.neighbors(1L, 1)).containsExactly(3L);
+        assertThat(matrix.neighbors(2L, 10)).containsExactly(1L, 3L);
+        assertThat(matrix.neighbors(5L, 10)).isEmpty();
+        assertThat(matrix.count(1L, 4L)).isEqualTo(2);
+        assertThat(matrix.count(4L, 1L)).isEqualTo(2);
+        assertThat(matrix.size()).isEqualTo(4);
+    }
+
+    @Test
+    void GivenDeletedProduct_WhenRemove_ShouldDropItFromTheNeighborsOfOtherProducts() {
+        // Arrange
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(1);
+        matrix.addOrder(new long[] { 1L, 2L });
+        matrix.addOrder(new long[] { 1L, 2L });
+        matrix.addOrder(new long[] { 1L, 3L });
+        matrix.addOrder(new long[] { 2L, 4L });
+
+        // Act
+        matrix.remove(2L);
+
+        // Assert
+        assertThat(matrix.neighbors(1L, 10)).containsExactly(3L);
+        assertThat(matrix.neighbors(2L, 10)).isEmpty();
+        assertThat(matrix.neighbors(4L, 10)).isEmpty();
+        assertThat(matrix.size()).isEqualTo(2);
+    }
+
+    @Test
+    void GivenRandomOrders_WhenBuild_ShouldMatchCountingThemOneByOne() {
+        // Arrange
+        Random random = new Random(42);
+        LongObjectHashMap<long[]> orders = new LongObjectHashMap<>();
+        CoOccurrenceMatrix incremental = new CoOccurrenceMatrix(5);
+        for (long orderId = 1; orderId <= 2000; orderId++) {
+            long[] productIds = random.longs(1 + random.nextInt(5), 1, 60).distinct().toArray();
+            orders.put(orderId, productIds);
+            incremental.addOrder(productIds);
+        }
+
+        // Act
+        CoOccurrenceMatrix built = CoOccurrenceMatrix.build(orders, 5);
+
+        // Assert
+        assertThat(built.size()).isEqualTo(incremental.size());
+        for (long productId = 1; productId < 60; productId++) {
+            assertThat(built.neighbors(productId, 5)).containsExactly(incremental.neighbors(productId, 5));
+            for (long otherId = 1; otherId < 60; otherId++) {
+                assertThat(built.count(productId, otherId)).isEqualTo(incremental.count(productId, otherId));
+            }
+        }
+    }
+}
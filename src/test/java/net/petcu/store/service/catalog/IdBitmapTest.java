@@ -0,0 +1,61 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class IdBitmapTest {
+
+    @Test
+    void GivenSparseAndDenseIds_WhenCombined_ShouldMatchSetOperations() {
+        // Arrange: a dense run turning its container into a bitmap, and sparse ids spread over many containers
+        Random random = new Random(42);
+        TreeSet<Long> left = new TreeSet<>();
+        TreeSet<Long> right = new TreeSet<>();
+        LongStream.range(1050, 1050 + 3 * IdBitmap.ARRAY_MAX).forEach(left::add);
+        for (int i = 0; i < 20_000; i++) {
+            right.add(1000 + (long) random.nextInt(1 << 20));
+        }
+        IdBitmap a = IdBitmap.of(left.stream().mapToLong(Long::longValue).toArray());
+        IdBitmap b = IdBitmap.of(right.stream().mapToLong(Long::longValue).toArray());
+
+        // Act
+        long[] and = IdBitmap.and(a, b).toArray();
+        long[] or = IdBitmap.or(a, b).toArray();
+        long[] andNot = IdBitmap.andNot(a, b).toArray();
+
+        // Assert
+        TreeSet<Long> expectedAnd = new TreeSet<>(left);
+        expectedAnd.retainAll(right);
+        TreeSet<Long> expectedOr = new TreeSet<>(left);
+        expectedOr.addAll(right);
+        TreeSet<Long> expectedAndNot = new TreeSet<>(left);
+        expectedAndNot.removeAll(right);
+        assertThat(and).containsExactly(expectedAnd.stream().mapToLong(Long::longValue).toArray());
+        assertThat(or).containsExactly(expectedOr.stream().mapToLong(Long::longValue).toArray());
+        assertThat(andNot).containsExactly(expectedAndNot.stream().mapToLong(Long::longValue).toArray());
+        assertThat(a.cardinality()).isEqualTo(left.size());
+        assertThat(b.cardinality()).isEqualTo(right.size());
+    }
+
+    @Test
+    void GivenDenseContainer_WhenIdsRemoved_ShouldShrinkAndKeepOrder() {
+        // Arrange
+        IdBitmap bitmap = IdBitmap.of(LongStream.range(0, IdBitmap.ARRAY_MAX + 10).toArray());
+
+        // Act
+        LongStream.range(20, IdBitmap.ARRAY_MAX + 10).forEach(bitmap::remove);
+        boolean removedAgain = bitmap.remove(25);
+        bitmap.add(1L << 40);
+
+        // Assert
+        assertThat(removedAgain).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(21);
+        assertThat(bitmap.contains(19)).isTrue();
+        assertThat(bitmap.contains(20)).isFalse();
+        assertThat(bitmap.after(17, 3)).containsExactly(18, 19, 1L << 40);
+    }
+}
@@ -0,0 +1,202 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Tag;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.TagRepository;
+import net.petcu.store.service.dto.PriceBucketDTO;
+import net.petcu.store.service.dto.ProductFacetsDTO;
+import net.petcu.store.service.dto.TagCountDTO;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Compares the single-pass facet counts of {@link ProductFacetCounter} with counting each facet separately, one bitmap
+ * intersection per tag and one price range scan per bucket, over a catalog of one million products held in memory.
+ * <p>
+ * Both counts are checked to agree; the timings are only reported. The single pass wins on the selections a search
+ * narrows down to, and is about even with, or slightly behind, the bitmap intersections when every product matches. Building the indexes takes a while, so it runs with
+ * the {@code benchmark} Maven profile rather than with every build.
+ */
+@org.junit.jupiter.api.Tag("benchmark")
+class ProductFacetCounterBenchmarkIT {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProductFacetCounterBenchmarkIT.class);
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int TAGS = 50;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private static ProductPriceIndex productPriceIndex;
+
+    private static ProductTagIndex productTagIndex;
+
+    private static ProductFacetCounter productFacetCounter;
+
+    private static double[] priceBounds;
+
+    @BeforeAll
+    static void buildIndexes() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        priceBounds = applicationProperties.getCatalog().getPriceFacetBounds().stream().mapToDouble(Double::doubleValue).toArray();
+
+        // nine products out of ten have an active price, spread between 0 and 500
+        PricedProductRepository pricedProductRepository = mock(PricedProductRepository.class);
+        when(pricedProductRepository.findActivePricesByIdGreaterThan(anyLong(), any())).thenAnswer(invocation ->
+            LongStream.rangeClosed(Math.max((long) invocation.getArgument(0), 0) + 1, PRODUCTS)
+                .filter(id -> id % 10 != 0)
+                .limit(invocation.<Pageable>getArgument(1).getPageSize())
+                .mapToObj(id -> new Price(id, (id * 7919 % 50_000) / 100.0))
+                .toList()
+        );
+        // product ids are 1 to PRODUCTS, tag n is carried by every product whose id is a multiple of n + 1
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findIdsByIdGreaterThan(anyLong(), any())).thenAnswer(invocation ->
+            LongStream.rangeClosed(Math.max((long) invocation.getArgument(0), 0) + 1, PRODUCTS)
+                .limit(invocation.<Pageable>getArgument(1).getPageSize())
+                .boxed()
+                .toList()
+        );
+        TagRepository tagRepository = mock(TagRepository.class);
+        List<Tag> tags = new ArrayList<>();
+        for (long n = 1; n <= TAGS; n++) {
+            tags.add(new Tag().id(n).name("tag-" + n));
+        }
+        when(tagRepository.findAll()).thenReturn(tags);
+        when(tagRepository.findProductIdsByTagId(anyLong())).thenAnswer(invocation -> {
+            long step = (long) invocation.getArgument(0) + 1;
+            return LongStream.iterate(step, id -> id <= PRODUCTS, id -> id + step).boxed().toList();
+        });
+
+        productPriceIndex = new ProductPriceIndex(pricedProductRepository, new CatalogVersion(), Runnable::run, applicationProperties, registry);
+        productTagIndex = new ProductTagIndex(
+            productRepository,
+            tagRepository,
+            new CatalogVersion(),
+            Runnable::run,
+            applicationProperties,
+            registry
+        );
+        productFacetCounter = new ProductFacetCounter(productPriceIndex, productTagIndex, applicationProperties, registry);
+        productPriceIndex.rebuild();
+        productTagIndex.rebuild();
+    }
+
+    @Test
+    void singlePassCountsEveryFacetOfAllProducts() {
+        benchmark("all products", LongStream.rangeClosed(1, PRODUCTS).toArray());
+    }
+
+    @Test
+    void singlePassCountsEveryFacetOfOneProductInTen() {
+        benchmark("one product in ten", LongStream.rangeClosed(1, PRODUCTS).filter(id -> id % 10 == 3).toArray());
+    }
+
+    @Test
+    void singlePassCountsEveryFacetOfOneProductInAHundred() {
+        benchmark("one product in a hundred", LongStream.rangeClosed(1, PRODUCTS).filter(id -> id % 100 == 37).toArray());
+    }
+
+    private static void benchmark(String candidates, long[] ids) {
+        ProductFacetsDTO singlePass = productFacetCounter.count(ids);
+        ProductFacetsDTO perFacet = countPerFacet(ids);
+        assertThat(singlePass).isEqualTo(perFacet);
+        assertThat(singlePass.available() + singlePass.unavailable()).isEqualTo(ids.length);
+
+        long singlePassNanos = measure(() -> productFacetCounter.count(ids));
+        long perFacetNanos = measure(() -> countPerFacet(ids));
+        LOG.info(
+            "Facets of {} ({} ids): single pass {} ms, per facet {} ms",
+            candidates,
+            ids.length,
+            singlePassNanos / 1_000_000,
+            perFacetNanos / 1_000_000
+        );
+    }
+
+    /**
+     * The in-memory equivalent of one {@code GROUP BY} query per facet.
+     */
+    private static ProductFacetsDTO countPerFacet(long[] ids) {
+        IdBitmap candidates = IdBitmap.of(ids);
+        List<PriceBucketDTO> buckets = new ArrayList<>();
+        long available = 0;
+        for (int i = 0; i <= priceBounds.length; i++) {
+            Double from = i == 0 ? null : priceBounds[i - 1];
+            Double to = i == priceBounds.length ? null : priceBounds[i];
+            // the upper bound is exclusive, the range inclusive
+            PriceRange range = new PriceRange(
+                from == null ? Long.MIN_VALUE : Money.of(from).minorUnits(),
+                to == null ? Long.MAX_VALUE : Money.of(to).minorUnits() - 1
+            );
+            long products = productPriceIndex.range(range, false, null, Integer.MAX_VALUE, candidates::contains).size();
+            buckets.add(new PriceBucketDTO(from, to, products));
+            available += products;
+        }
+        List<TagCountDTO> tags = new ArrayList<>();
+        productTagIndex.read(postings -> {
+            postings.tags.forEach((name, tagged) -> {
+                long products = IdBitmap.and(candidates, tagged).cardinality();
+                if (products > 0) {
+                    tags.add(new TagCountDTO(name, products));
+                }
+            });
+            return tags;
+        });
+        tags.sort(Comparator.comparingLong(TagCountDTO::products).reversed().thenComparing(TagCountDTO::name));
+        return new ProductFacetsDTO(available, ids.length - available, buckets, tags);
+    }
+
+    private static long measure(Supplier<ProductFacetsDTO> count) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            count.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            count.get();
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    // one priced product and one price per product, sharing its id
+    private record Price(long productId, double value) implements PricedProductRepository.ActivePrice {
+        @Override
+        public Long getPricedProductId() {
+            return productId;
+        }
+
+        @Override
+        public Long getProductId() {
+            return productId;
+        }
+
+        @Override
+        public Long getPriceId() {
+            return productId;
+        }
+
+        @Override
+        public Money getValue() {
+            return Money.of(value);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.TagRepository;
+import net.petcu.store.service.dto.PriceBucketDTO;
+import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.dto.ProductFacetsDTO;
+import net.petcu.store.service.dto.TagCountDTO;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductTagsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductFacetCounterTest {
+
+    private ProductPriceIndex productPriceIndex;
+
+    private ProductTagIndex productTagIndex;
+
+    private ProductFacetCounter productFacetCounter;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        productPriceIndex = new ProductPriceIndex(
+            mock(PricedProductRepository.class),
+            new CatalogVersion(),
+            Runnable::run,
+            applicationProperties,
+            registry
+        );
+        productTagIndex = new ProductTagIndex(
+            mock(ProductRepository.class),
+            mock(TagRepository.class),
+            new CatalogVersion(),
+            Runnable::run,
+            applicationProperties,
+            registry
+        );
+        productFacetCounter = new ProductFacetCounter(productPriceIndex, productTagIndex, applicationProperties, registry);
+        productPriceIndex.rebuild();
+        productTagIndex.rebuild();
+        for (long id = 1; id <= 4; id++) {
+            productTagIndex.onProductChanged(ProductChangedEvent.saved(new ProductDTO(id, "Product " + id, null)));
+        }
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(1L, null, null, Money.of(5.0)));
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(2L, null, null, Money.of(10.0)));
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(3L, null, null, Money.of(300.0)));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(1L, Set.of("kitchen", "sale")));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(2L, Set.of("kitchen")));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(4L, Set.of("garden")));
+    }
+
+    @Test
+    void GivenPricedAndTaggedProducts_WhenCount_ShouldCountEveryFacetOfTheGivenIds() {
+        // Act
+        ProductFacetsDTO facets = productFacetCounter.count(new long[] { 1L, 2L, 3L, 4L });
+
+        // Assert
+        assertThat(facets.available()).isEqualTo(3);
+        assertThat(facets.unavailable()).isEqualTo(1);
+        assertThat(facets.prices()).containsExactly(
+            new PriceBucketDTO(null, 10.0, 1),
+            new PriceBucketDTO(10.0, 25.0, 1),
+            new PriceBucketDTO(25.0, 50.0, 0),
+            new PriceBucketDTO(50.0, 100.0, 0),
+            new PriceBucketDTO(100.0, 250.0, 0),
+            new PriceBucketDTO(250.0, null, 1)
+        );
+        assertThat(facets.tags()).containsExactly(new TagCountDTO("kitchen", 2), new TagCountDTO("garden", 1), new TagCountDTO("sale", 1));
+    }
+
+    @Test
+    void GivenRetaggedProduct_WhenCountSubset_ShouldOnlyCountCurrentTagsOfSubset() {
+        // Arrange
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(1L, Set.of("garden")));
+
+        // Act
+        ProductFacetsDTO facets = productFacetCounter.count(new long[] { 1L, 4L });
+
+        // Assert
+        assertThat(facets.available()).isEqualTo(1);
+        assertThat(facets.unavailable()).isEqualTo(1);
+        assertThat(facets.tags()).containsExactly(new TagCountDTO("garden", 2));
+    }
+}
@@ -0,0 +1,107 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductPriceIndexTest {
+
+    private PricedProductRepository pricedProductRepository;
+
+    private ProductPriceIndex productPriceIndex;
+
+    @BeforeEach
+    void setUp() {
+        // built from empty tables, then fed with committed price changes
+        pricedProductRepository = mock(PricedProductRepository.class);
+        productPriceIndex = new ProductPriceIndex(
+            pricedProductRepository,
+            new CatalogVersion(),
+            Runnable::run,
+            new ApplicationProperties(),
+            new SimpleMeterRegistry()
+        );
+        productPriceIndex.rebuild();
+        reprice(1L, 30.0);
+        reprice(2L, 10.0);
+        reprice(3L, 20.0);
+        reprice(4L, 10.0);
+        reprice(5L, 50.0);
+    }
+
+    @Test
+    void GivenPrices_WhenRange_ShouldOrderByPriceThenIdInBothDirections() {
+        // Arrange
+        PriceRange upTo30 = PriceRange.of(null, Money.of(30.0));
+
+        // Act
+        List<Long> ascending = ids(productPriceIndex.range(upTo30, false, null, 10, id -> true));
+        List<Long> descending = ids(productPriceIndex.range(upTo30, true, null, 10, id -> true));
+        List<Long> filtered = ids(productPriceIndex.range(PriceRange.ALL, false, null, 10, id -> id % 2 == 1));
+
+        // Assert
+        assertThat(ascending).containsExactly(2L, 4L, 3L, 1L);
+        assertThat(descending).containsExactly(1L, 3L, 4L, 2L);
+        assertThat(filtered).containsExactly(3L, 1L, 5L);
+    }
+
+    @Test
+    void GivenPagesAndRepricing_WhenRange_ShouldResumeAfterCursor() {
+        // Arrange
+        PriceRange from10 = PriceRange.of(Money.of(10.0), null);
+        List<ProductPriceIndex.Entry> first = productPriceIndex.range(from10, false, null, 2, id -> true);
+
+        // Act
+        reprice(3L, 5.0);
+        productPriceIndex.onProductChanged(ProductChangedEvent.deleted(5L));
+        List<ProductPriceIndex.Entry> second = productPriceIndex.range(from10, false, first.getLast(), 10, id -> true);
+        List<ProductPriceIndex.Entry> before = productPriceIndex.range(PriceRange.ALL, true, first.getLast(), 10, id -> true);
+
+        // Assert
+        assertThat(ids(first)).containsExactly(2L, 4L);
+        assertThat(first.getLast().price()).isEqualTo(Money.of(10.0).minorUnits());
+        assertThat(ids(second)).containsExactly(1L);
+        assertThat(ids(before)).containsExactly(2L, 3L);
+        assertThat(productPriceIndex.size()).isEqualTo(4);
+    }
+
+    @Test
+    void GivenPricedProductsEdited_WhenRange_ShouldRereadOnlyTheirProducts() {
+        // Arrange
+        PricedProductRepository.ActivePrice activated = mock(PricedProductRepository.ActivePrice.class);
+        when(activated.getValue()).thenReturn(Money.of(15.0));
+        when(pricedProductRepository.findActivePricesByProductIdIn(List.of(6L))).thenReturn(List.of(activated));
+        when(pricedProductRepository.findActivePricesByProductIdIn(List.of(2L))).thenReturn(List.of());
+
+        // Act
+        productPriceIndex.onPricedProductChanged(new PricedProductChangedEvent(60L, 6L));
+        productPriceIndex.onPricedProductChanged(new PricedProductChangedEvent(20L, 2L));
+        List<Long> ascending = ids(productPriceIndex.range(PriceRange.ALL, false, null, 10, id -> true));
+
+        // Assert
+        assertThat(ascending).containsExactly(4L, 6L, 3L, 1L, 5L);
+        verify(pricedProductRepository, times(1)).findActivePricesByIdGreaterThan(any(), any());
+    }
+
+    private void reprice(long productId, double value) {
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(productId, null, null, Money.of(value)));
+    }
+
+    private static List<Long> ids(List<ProductPriceIndex.Entry> entries) {
+        return entries.stream().map(ProductPriceIndex.Entry::productId).toList();
+    }
+}
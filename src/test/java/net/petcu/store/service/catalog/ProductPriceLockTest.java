@@ -0,0 +1,118 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.exception.PriceLockTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ProductPriceLockTest {
+
+    private ProductPriceLock productPriceLock;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCatalog().setPriceLock(ApplicationProperties.Catalog.PriceLock.LOCAL);
+        applicationProperties.getCatalog().setPriceLockTimeout(Duration.ofMillis(200));
+        productPriceLock = new ProductPriceLock(mock(JdbcTemplate.class), applicationProperties);
+        begin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete();
+        }
+    }
+
+    @Test
+    void GivenLockedProduct_WhenOtherTransactionLocksOtherProduct_ShouldNotWait() throws Exception {
+        // Arrange
+        productPriceLock.lock(1L);
+
+        // Act
+        CompletableFuture<Void> other = inOtherTransaction(() -> productPriceLock.lockAll(List.of(3L, 2L)));
+
+        // Assert
+        assertThat(other).succeedsWithin(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void GivenLockedProduct_WhenOtherTransactionLocksIt_ShouldWaitUntilCompletion() throws Exception {
+        // Arrange
+        productPriceLock.lock(1L);
+        CompletableFuture<Void> other = inOtherTransaction(() -> productPriceLock.lock(1L));
+
+        // Act
+        Thread.sleep(50);
+        boolean doneBeforeCompletion = other.isDone();
+        complete();
+
+        // Assert
+        assertThat(doneBeforeCompletion).isFalse();
+        assertThat(other).succeedsWithin(1, TimeUnit.SECONDS);
+        assertThat(productPriceLock.localLockCount()).isZero();
+    }
+
+    @Test
+    void GivenLockedProduct_WhenLockedForLongerThanTimeout_ShouldThrowAndReleaseOtherLocks() {
+        // Arrange
+        productPriceLock.lock(2L);
+
+        // Act
+        CompletableFuture<Void> other = inOtherTransaction(() -> productPriceLock.lockAll(List.of(1L, 2L)));
+
+        // Assert
+        assertThat(other)
+            .failsWithin(1, TimeUnit.SECONDS)
+            .withThrowableOfType(Exception.class)
+            .withRootCauseInstanceOf(PriceLockTimeoutException.class);
+        complete();
+        assertThat(productPriceLock.localLockCount()).isZero();
+    }
+
+    @Test
+    void GivenNoTransaction_WhenLock_ShouldThrow() {
+        // Arrange
+        complete();
+
+        // Act & Assert
+        assertThatThrownBy(() -> productPriceLock.lock(1L)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static CompletableFuture<Void> inOtherTransaction(Runnable work) {
+        return CompletableFuture.runAsync(() -> {
+            begin();
+            try {
+                work.run();
+            } finally {
+                complete();
+            }
+        });
+    }
+
+    private static void begin() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    // what the transaction manager does once the transaction commits or rolls back
+    private static void complete() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
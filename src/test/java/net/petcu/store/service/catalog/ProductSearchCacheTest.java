@@ -0,0 +1,69 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductSearchCacheTest {
+
+    private CacheManager cacheManager;
+
+    private ProductSearchIndex productSearchIndex;
+
+    private ProductSearchCache productSearchCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = Caching.getCachingProvider("org.ehcache.jsr107.EhcacheCachingProvider").getCacheManager();
+        cacheManager.createCache(ProductSearchCache.SEARCH_RESULTS_CACHE, new MutableConfiguration<>().setStoreByValue(false));
+        productSearchIndex = mock(ProductSearchIndex.class);
+        productSearchCache = new ProductSearchCache(productSearchIndex, cacheManager, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.destroyCache(ProductSearchCache.SEARCH_RESULTS_CACHE);
+    }
+
+    @Test
+    void GivenEquivalentQueries_WhenSearch_ShouldSearchIndexOnceWithNormalizedQuery() {
+        // Arrange
+        when(productSearchIndex.search("café")).thenReturn(new long[] { 1L, 2L });
+
+        // Act, the second query is decomposed: E followed by a combining acute accent
+        long[] first = productSearchCache.search(" Café ");
+        long[] second = productSearchCache.search("CAFE\u0301");
+
+        // Assert
+        assertThat(first).containsExactly(1L, 2L);
+        assertThat(second).containsExactly(1L, 2L);
+        verify(productSearchIndex, times(1)).search("café");
+        assertThat(productSearchCache.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void GivenIndexChanged_WhenSearch_ShouldNotReadPreviousGeneration() {
+        // Arrange
+        when(productSearchIndex.generation()).thenReturn(1L, 2L);
+        when(productSearchIndex.search("chair")).thenReturn(new long[] { 1L }, new long[] { 1L, 3L });
+
+        // Act
+        long[] before = productSearchCache.search("chair");
+        long[] after = productSearchCache.search("chair");
+
+        // Assert
+        assertThat(before).containsExactly(1L);
+        assertThat(after).containsExactly(1L, 3L);
+        assertThat(productSearchCache.hitRatio()).isZero();
+    }
+}
@@ -0,0 +1,67 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.TagRepository;
+import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductTagsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductTagIndexTest {
+
+    private ProductTagIndex productTagIndex;
+
+    @BeforeEach
+    void setUp() {
+        // built from empty tables, then fed with committed changes
+        productTagIndex = new ProductTagIndex(
+            mock(ProductRepository.class),
+            mock(TagRepository.class),
+            new CatalogVersion(),
+            Runnable::run,
+            new ApplicationProperties(),
+            new SimpleMeterRegistry()
+        );
+        productTagIndex.rebuild();
+        for (long id = 1; id <= 5; id++) {
+            productTagIndex.onProductChanged(ProductChangedEvent.saved(new ProductDTO(id, "Product " + id, null)));
+        }
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(1L, Set.of("kitchen", "sale")));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(2L, Set.of("kitchen")));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(3L, Set.of("garden", "sale")));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(4L, Set.of("garden")));
+    }
+
+    @Test
+    void GivenTaggedProducts_WhenFilter_ShouldCombineAllAnyAndNone() {
+        TagFilter kitchen = TagFilter.of(List.of("Kitchen"), null, null);
+        TagFilter kitchenOnSale = TagFilter.of(List.of("kitchen", "sale"), null, null);
+        TagFilter kitchenOrGardenNotOnSale = TagFilter.of(null, List.of("kitchen", "garden"), List.of("sale"));
+        TagFilter notOnSale = TagFilter.of(null, null, List.of("sale"));
+        TagFilter unknown = TagFilter.of(List.of("unknown"), null, null);
+
+        assertThat(productTagIndex.filter(kitchen, Long.MIN_VALUE, 10)).containsExactly(1L, 2L);
+        assertThat(productTagIndex.filter(kitchenOnSale, Long.MIN_VALUE, 10)).containsExactly(1L);
+        assertThat(productTagIndex.filter(kitchenOrGardenNotOnSale, Long.MIN_VALUE, 10)).containsExactly(2L, 4L);
+        assertThat(productTagIndex.filter(notOnSale, 2L, 10)).containsExactly(4L, 5L);
+        assertThat(productTagIndex.filter(unknown, Long.MIN_VALUE, 10)).isEmpty();
+    }
+
+    @Test
+    void GivenRetaggedAndDeletedProducts_WhenCounts_ShouldReflectChanges() {
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(2L, Set.of("garden")));
+        productTagIndex.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        assertThat(productTagIndex.counts()).containsExactly(Map.entry("garden", 3L), Map.entry("sale", 1L));
+        assertThat(productTagIndex.filter(TagFilter.of(null, null, List.of("garden")), Long.MIN_VALUE, 10)).containsExactly(5L);
+    }
+}
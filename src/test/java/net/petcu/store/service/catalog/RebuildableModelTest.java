@@ -0,0 +1,188 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class RebuildableModelTest {
+
+    @Test
+    void GivenChangeCommittedDuringRebuild_WhenRebuilt_ShouldReplayItOnTheLoadedModel() {
+        // Arrange
+        AtomicReference<RebuildableModel<List<String>>> model = new AtomicReference<>();
+        Supplier<List<String>> loader = () -> {
+            // committed while the table is being read, after the row was read
+            model.get().apply(current -> appended(current, "during"));
+            return new ArrayList<>(List.of("loaded"));
+        };
+        model.set(new RebuildableModel<>(List.of("initial"), loader));
+        long generation = model.get().generation();
+
+        // Act
+        model.get().rebuild();
+
+        // Assert
+        assertThat(model.get().isReady()).isTrue();
+        assertThat(model.get().current()).containsExactly("loaded", "during");
+        assertThat(model.get().generation()).isEqualTo(generation + 2);
+    }
+
+    @Test
+    void GivenChangeAppliedWhileReading_WhenApplyingARead_ShouldReadAgainUnderTheLock() {
+        // Arrange
+        RebuildableModel<List<String>> model = new RebuildableModel<>(List.of(), ArrayList::new);
+        List<String> committed = new ArrayList<>(List.of("old"));
+        List<String> reads = new ArrayList<>();
+        Supplier<String> reader = () -> {
+            String value = committed.getLast();
+            reads.add(value);
+            if (reads.size() == 1) {
+                // a newer value is committed and applied by another listener after this read
+                committed.add("new");
+                model.apply(current -> appended(current, "new"));
+            }
+            return value;
+        };
+
+        // Act
+        model.apply(reader, (current, value) -> appended(current, value));
+        model.apply(() -> "quiet", (current, value) -> appended(current, value));
+
+        // Assert
+        assertThat(reads).containsExactly("old", "new");
+        assertThat(model.current()).containsExactly("new", "new", "quiet");
+    }
+
+    @Test
+    void GivenFailingLoader_WhenRebuilt_ShouldKeepTheCurrentModelAndStopRecordingChanges() {
+        // Arrange
+        List<String> loads = new ArrayList<>();
+        RebuildableModel<List<String>> model = new RebuildableModel<>(List.of("initial"), () -> {
+            loads.add("load");
+            throw new IllegalStateException("database unavailable");
+        });
+
+        // Act
+        assertThatThrownBy(model::rebuild).isInstanceOf(IllegalStateException.class);
+        model.apply(current -> appended(current, "after"));
+
+        // Assert
+        assertThat(model.isReady()).isFalse();
+        assertThat(model.current()).containsExactly("initial", "after");
+        assertThat(loads).hasSize(1);
+    }
+
+    @Test
+    void GivenBuildInFlight_WhenReadersEnsureReady_ShouldWaitForItInsteadOfLoadingAgain() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RebuildableModel<List<String>> model = new RebuildableModel<>(List.of(), () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("loaded");
+        });
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act
+            List<Future<List<String>>> reads = new ArrayList<>();
+            reads.add(readers.submit(() -> model.readReady(List::copyOf)));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 3; i++) {
+                reads.add(readers.submit(() -> model.readReady(List::copyOf)));
+            }
+            release.countDown();
+
+            // Assert
+            for (Future<List<String>> read : reads) {
+                assertThat(read.get(5, TimeUnit.SECONDS)).containsExactly("loaded");
+            }
+            assertThat(loads).hasValue(1);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void GivenBuildFailedWhileWaiting_WhenEnsureReady_ShouldRethrowItsFailureWithoutLoadingAgain() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RebuildableModel<List<String>> model = new RebuildableModel<>(List.of(), () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("database unavailable");
+        });
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            Future<?> first = readers.submit(model::ensureReady);
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> waiting = readers.submit(model::ensureReady);
+            // give the second caller time to block on the build in flight
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> waiting.get(5, TimeUnit.SECONDS)).hasRootCauseInstanceOf(IllegalStateException.class);
+            assertThat(loads).hasValue(1);
+            assertThat(model.isReady()).isFalse();
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void GivenRebuildRequested_WhenRequestedAgainBeforeAndAfterItStarts_ShouldRunOneRebuildPerStart() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        RebuildableModel<List<String>> model = new RebuildableModel<>(List.of(), () -> List.of("load " + loads.incrementAndGet()));
+        List<Runnable> submitted = new ArrayList<>();
+
+        // Act
+        model.requestRebuild(submitted::add, model::rebuild);
+        model.requestRebuild(submitted::add, model::rebuild);
+        int beforeStart = submitted.size();
+        submitted.getFirst().run();
+        model.requestRebuild(submitted::add, model::rebuild);
+
+        // Assert
+        assertThat(beforeStart).isEqualTo(1);
+        assertThat(submitted).hasSize(2);
+        assertThat(model.current()).containsExactly("load 1");
+        submitted.getLast().run();
+        assertThat(model.current()).containsExactly("load 2");
+    }
+
+    private static List<String> appended(List<String> list, String value) {
+        List<String> appended = new ArrayList<>(list);
+        appended.add(value);
+        return appended;
+    }
+}
@@ -0,0 +1,65 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SuggestionTrieTest {
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new SuggestionTrie(3);
+        trie.put(1L, "Blue Mug");
+        trie.put(2L, "Blue  Mugs");
+        trie.put(3L, "Blue Plate");
+        trie.put(4L, "Bluetooth Speaker");
+        trie.put(5L, "Black Mug");
+    }
+
+    @Test
+    void GivenPopularity_WhenSuggest_ShouldReturnMostOrderedFirstUpToK() {
+        // Arrange
+        LongIntHashMap popularity = new LongIntHashMap();
+        popularity.put(3L, 7);
+        popularity.put(4L, 2);
+        trie.rank(popularity);
+
+        // Act
+        long[] blue = trie.suggest("BLUE", 10);
+        long[] b = trie.suggest("b", 2);
+
+        // Assert
+        assertThat(blue).containsExactly(3L, 4L, 1L);
+        assertThat(b).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void GivenPrefixEndingInsideEdge_WhenSuggest_ShouldMatchNormalizedNames() {
+        // Act
+        long[] mugs = trie.suggest("  blue mug", 10);
+        long[] missing = trie.suggest("blue mugz", 10);
+
+        // Assert
+        assertThat(mugs).containsExactly(1L, 2L);
+        assertThat(missing).isEmpty();
+        assertThat(trie.name(2L)).isEqualTo("Blue  Mugs");
+    }
+
+    @Test
+    void GivenRenameAndRemove_WhenSuggest_ShouldReflectChanges() {
+        // Act
+        trie.put(1L, "Red Mug");
+        trie.remove(3L);
+        trie.remove(42L);
+
+        // Assert
+        assertThat(trie.suggest("blue ", 10)).containsExactly(2L);
+        assertThat(trie.suggest("red", 10)).containsExactly(1L);
+        assertThat(trie.suggest("", 10)).containsExactly(1L, 2L, 4L);
+        assertThat(trie.size()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,70 @@
+package net.petcu.store.service.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1L, "Hipster Coffee Mug");
+        index.put(2L, "Organic Coffee Beans");
+        index.put(3L, "Vinyl Record Player");
+        index.put(4L, null);
+    }
+
+    @Test
+    void GivenIndexedNames_WhenSearchSubstring_ShouldMatchIgnoringCase() {
+        assertThat(index.search("COFFEE")).containsExactly(1L, 2L);
+        assertThat(index.search("ffee m")).containsExactly(1L);
+        assertThat(index.search("tea")).isEmpty();
+    }
+
+    @Test
+    void GivenSharedTrigrams_WhenSearch_ShouldNotReturnFalsePositives() {
+        index.put(5L, "abcxbcd");
+
+        assertThat(index.search("abcd")).isEmpty();
+        assertThat(index.search("xbcd")).containsExactly(5L);
+    }
+
+    @Test
+    void GivenShortQuery_WhenSearch_ShouldScanAllNames() {
+        assertThat(index.search("ee")).containsExactly(1L, 2L);
+        assertThat(index.search("")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void GivenRenamedProduct_WhenSearch_ShouldOnlyMatchNewName() {
+        index.put(3L, "Cassette Deck");
+
+        assertThat(index.search("vinyl")).isEmpty();
+        assertThat(index.search("deck")).containsExactly(3L);
+        assertThat(index.get(3L)).isEqualTo("cassette deck");
+    }
+
+    @Test
+    void GivenRemovedProduct_WhenSearch_ShouldNotMatchAndDropUnusedTrigrams() {
+        int trigramsBefore = index.trigramCount();
+
+        assertThat(index.remove(3L)).isTrue();
+        assertThat(index.remove(3L)).isFalse();
+
+        assertThat(index.search("record")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.trigramCount()).isLessThan(trigramsBefore);
+    }
+
+    @Test
+    void GivenIdsInsertedOutOfOrder_WhenSearch_ShouldReturnSortedIds() {
+        index.put(10L, "coffee grinder");
+        index.put(7L, "coffee filter");
+
+        assertThat(index.search("coffee")).containsExactly(1L, 2L, 7L, 10L);
+    }
+}
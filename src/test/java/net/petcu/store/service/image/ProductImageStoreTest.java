@@ -0,0 +1,113 @@
+package net.petcu.store.service.image;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.exception.InvalidImageException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+class ProductImageStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getImages().setDirectory(directory.toString());
+    }
+
+    @Test
+    void GivenPngImage_WhenStoreTwice_ShouldStoreOneContentAddressedFileAndItsThumbnail() throws Exception {
+        // Arrange
+        ProductImageStore store = new ProductImageStore(applicationProperties, new SyncTaskExecutor(), new SimpleMeterRegistry());
+        byte[] image = png(600, 300);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(image));
+
+        // Act
+        String name = store.store(new ByteArrayInputStream(image));
+        String again = store.store(new ByteArrayInputStream(image));
+
+        // Assert
+        assertThat(name).isEqualTo(hash + ".png").isEqualTo(again);
+        assertThat(store.resolve(name)).hasValueSatisfying(file -> {
+            assertThat(file).startsWith(directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)));
+            assertThat(file).hasBinaryContent(image);
+        });
+        BufferedImage thumbnail = ImageIO.read(store.resolve(ProductImageStore.thumbnailName(name)).orElseThrow().toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(256);
+        assertThat(thumbnail.getHeight()).isEqualTo(128);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(2);
+        }
+    }
+
+    @Test
+    void GivenSaturatedExecutor_WhenStore_ShouldGenerateThumbnailWhenFirstRequested() throws Exception {
+        // Arrange
+        AtomicBoolean saturated = new AtomicBoolean(true);
+        TaskExecutor executor = task -> {
+            if (saturated.get()) {
+                throw new TaskRejectedException("saturated");
+            }
+            task.run();
+        };
+        ProductImageStore store = new ProductImageStore(applicationProperties, executor, new SimpleMeterRegistry());
+        String name = store.store(new ByteArrayInputStream(png(10, 10)));
+        String thumbnailName = ProductImageStore.thumbnailName(name);
+        saturated.set(false);
+
+        // Act
+        boolean missing = store.resolve(thumbnailName).isEmpty();
+
+        // Assert
+        assertThat(missing).isTrue();
+        assertThat(store.resolve(thumbnailName)).isPresent();
+    }
+
+    @Test
+    void GivenTextOrOversizedUpload_WhenStore_ShouldRejectItAndKeepNothing() throws Exception {
+        // Arrange
+        applicationProperties.getImages().setMaxPixels(100 * 100);
+        ProductImageStore store = new ProductImageStore(applicationProperties, new SyncTaskExecutor(), new SimpleMeterRegistry());
+
+        // Act & Assert
+        assertThatThrownBy(() -> store.store(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8)))).isInstanceOf(
+            InvalidImageException.class
+        );
+        assertThatThrownBy(() -> store.store(new ByteArrayInputStream(png(200, 100)))).isInstanceOf(InvalidImageException.class);
+        assertThat(store.resolve("../" + "0".repeat(64) + ".png")).isEmpty();
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xff0000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,118 @@
+package net.petcu.store.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.TimeZone;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Price;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.domain.Product;
+import net.petcu.store.exception.MalformedImportException;
+import net.petcu.store.repository.PriceRepository;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.dto.PriceChangeReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link BulkPriceChangeService}.
+ */
+@IntegrationTest
+class BulkPriceChangeServiceIT {
+
+    @Autowired
+    private BulkPriceChangeService bulkPriceChangeService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PricedProductRepository pricedProductRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanup() {
+        // the connections do not auto-commit
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "delete from priced_product where product_id in (select id from product where name like 'bulk priced%')"
+            );
+            productRepository.deleteAll(productRepository.findByNameContainingIgnoreCase("bulk priced"));
+        });
+    }
+
+    @Test
+    void GivenActivePrice_WhenChangePricesCsv_ShouldReplaceItOnce() throws IOException {
+        // Arrange
+        Product product = productRepository.saveAndFlush(new Product().name("bulk priced mug"));
+        Price price = priceRepository.saveAndFlush(new Price().value(Money.of(10.0)));
+        pricedProductRepository.saveAndFlush(new PricedProduct().product(product).price(price).active(true));
+        String csv = "price,productId\n12.5," + product.getId() + "\n15," + product.getId() + "\n3,-1\n";
+
+        // Act
+        PriceChangeReportDTO report = bulkPriceChangeService.changePrices(stream(csv), ProductImportService.Format.CSV);
+
+        // Assert
+        assertThat(report.read()).isEqualTo(3);
+        assertThat(report.changed()).isEqualTo(1);
+        assertThat(report.skipped()).isEqualTo(2);
+        assertThat(pricedProductRepository.findByProductIdAndActiveTrue(product.getId()))
+            .singleElement()
+            .satisfies(active -> assertThat(active.getPrice().getValue()).isEqualTo(Money.of(15.0)));
+    }
+
+    @Test
+    void GivenNonUtcDefaultTimeZone_WhenChangePricesCsv_ShouldStoreActivationTimeInUtc() throws IOException {
+        // Arrange
+        Product product = productRepository.saveAndFlush(new Product().name("bulk priced cup"));
+        String csv = "price,productId\n12.5," + product.getId() + "\n";
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        Instant before = Instant.now();
+
+        // Act
+        TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Auckland"));
+        try {
+            bulkPriceChangeService.changePrices(stream(csv), ProductImportService.Format.CSV);
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+
+        // Assert, Hibernate reads the column back as UTC
+        assertThat(pricedProductRepository.findByProductIdAndActiveTrue(product.getId()))
+            .singleElement()
+            .satisfies(active -> assertThat(active.getUpdatedDate()).isBetween(before.minusSeconds(1), Instant.now()));
+    }
+
+    @Test
+    void GivenNonPositivePrice_WhenChangePricesJson_ShouldRejectRecord() {
+        // Arrange
+        String json = "[{\"productId\":1,\"price\":0}]";
+
+        // Act & Assert
+        assertThatThrownBy(() -> bulkPriceChangeService.changePrices(stream(json), ProductImportService.Format.JSON))
+            .isInstanceOf(MalformedImportException.class)
+            .hasFieldOrPropertyWithValue("record", 1L);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
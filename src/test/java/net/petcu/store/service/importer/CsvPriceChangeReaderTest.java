@@ -0,0 +1,38 @@
+package net.petcu.store.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import net.petcu.store.domain.Money;
+import net.petcu.store.service.dto.PriceChangeDTO;
+import org.junit.jupiter.api.Test;
+
+class CsvPriceChangeReaderTest {
+
+    @Test
+    void GivenColumnsInAnyOrder_WhenNext_ShouldMapFieldsByHeader() throws IOException {
+        try (CsvPriceChangeReader reader = reader("Price,ProductId\r\n12.5,1051\r\n\r\n\" 7 \",1052\r\n")) {
+            assertThat(reader.next()).isEqualTo(new PriceChangeDTO(1051L, Money.parse("12.50")));
+            assertThat(reader.next()).isEqualTo(new PriceChangeDTO(1052L, Money.parse("7")));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void GivenMalformedInput_WhenRead_ShouldThrowIllegalArgumentException() throws IOException {
+        assertThatThrownBy(() -> reader("productId,name\n")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("name");
+        assertThatThrownBy(() -> reader("productId\n")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("price");
+        try (CsvPriceChangeReader reader = reader("productId,price\nabc,1\n1,cheap\n1,2,3\n")) {
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("abc");
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("cheap");
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("fields");
+        }
+    }
+
+    private static CsvPriceChangeReader reader(String csv) throws IOException {
+        return new CsvPriceChangeReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
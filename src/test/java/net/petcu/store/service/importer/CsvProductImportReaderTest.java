@@ -0,0 +1,46 @@
+package net.petcu.store.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import net.petcu.store.service.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+class CsvProductImportReaderTest {
+
+    @Test
+    void GivenColumnsInAnyOrder_WhenNext_ShouldMapFieldsByHeader() throws IOException {
+        try (CsvProductImportReader reader = reader("description,name,id\r\nA mug,Mug,1051\r\n,Vinyl,\r\n")) {
+            assertThat(reader.next()).isEqualTo(new ProductDTO(1051L, "Mug", "A mug"));
+            assertThat(reader.next()).isEqualTo(new ProductDTO(null, "Vinyl", null));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void GivenQuotedFields_WhenNext_ShouldKeepSeparatorsQuotesAndLineBreaks() throws IOException {
+        try (CsvProductImportReader reader = reader("name,description\n\"Mug, large\",\"The \"\"best\"\"\nmug\"\n\nPoster,Paper")) {
+            assertThat(reader.next()).isEqualTo(new ProductDTO(null, "Mug, large", "The \"best\"\nmug"));
+            assertThat(reader.next()).isEqualTo(new ProductDTO(null, "Poster", "Paper"));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void GivenMalformedInput_WhenRead_ShouldThrowIllegalArgumentException() throws IOException {
+        assertThatThrownBy(() -> reader("id,price\n")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("price");
+        assertThatThrownBy(() -> reader("id,description\n")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("name");
+        try (CsvProductImportReader reader = reader("id,name\nabc,Mug\n1,Mug,extra\n1,\"Mug")) {
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("abc");
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("fields");
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("unterminated");
+        }
+    }
+
+    private static CsvProductImportReader reader(String csv) throws IOException {
+        return new CsvProductImportReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,80 @@
+package net.petcu.store.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Product;
+import net.petcu.store.exception.MalformedImportException;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.dto.ProductImportReportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link ProductImportService}.
+ */
+@IntegrationTest
+class ProductImportServiceIT {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteAll(productRepository.findByNameContainingIgnoreCase("imported"));
+    }
+
+    @Test
+    void GivenNewAndExistingProducts_WhenImportJson_ShouldInsertAndUpdate() throws IOException {
+        // Arrange
+        Product existing = productRepository.saveAndFlush(new Product().name("imported mug").description("old"));
+        String json =
+            "[{\"name\":\"imported vinyl\",\"description\":\"new\"}," +
+            "{\"id\":" +
+            existing.getId() +
+            ",\"name\":\"imported mug\",\"description\":\"updated\"}," +
+            "{\"id\":-1,\"name\":\"imported ghost\"}]";
+
+        // Act
+        ProductImportReportDTO report = productImportService.importProducts(stream(json), ProductImportService.Format.JSON);
+
+        // Assert
+        assertThat(report.read()).isEqualTo(3);
+        assertThat(report.inserted()).isEqualTo(1);
+        assertThat(report.updated()).isEqualTo(1);
+        assertThat(report.skipped()).isEqualTo(1);
+        assertThat(productRepository.findById(existing.getId())).hasValueSatisfying(product ->
+            assertThat(product.getDescription()).isEqualTo("updated")
+        );
+        List<Product> inserted = productRepository.findByNameContainingIgnoreCase("imported vinyl");
+        assertThat(inserted).singleElement().satisfies(product -> assertThat(product.getDescription()).isEqualTo("new"));
+
+        // Ids handed out by Hibernate afterwards do not collide with the imported ones
+        Product created = productRepository.saveAndFlush(new Product().name("imported poster"));
+        assertThat(created.getId()).isNotEqualTo(inserted.getFirst().getId());
+    }
+
+    @Test
+    void GivenMalformedRecord_WhenImportCsv_ShouldKeepPreviousChunks() {
+        // Arrange
+        String csv = "id,name\n,imported mug\nabc,imported vinyl\n";
+
+        // Act & Assert
+        assertThatThrownBy(() -> productImportService.importProducts(stream(csv), ProductImportService.Format.CSV))
+            .isInstanceOf(MalformedImportException.class)
+            .hasFieldOrPropertyWithValue("record", 2L);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,278 @@
+package net.petcu.store.service.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import net.petcu.store.config.ApplicationProperties;
+import net.petcu.store.domain.Money;
+import net.petcu.store.exception.PriceStreamFullException;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class PriceChangeStreamTest {
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final PricedProductRepository pricedProductRepository = mock(PricedProductRepository.class);
+
+    private PriceChangeStream priceChangeStream;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties.getPriceStream().setBufferSize(2);
+        applicationProperties.getPriceStream().setReplaySize(3);
+        priceChangeStream = new PriceChangeStream(
+            new SyncTaskExecutor(),
+            pricedProductRepository,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+    }
+
+    @Test
+    void GivenSubscriber_WhenPriceChanged_ShouldSendPriceEventsWithIncreasingIds() {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+        priceChangeStream.subscribe(null, emitter);
+
+        // Act
+        priceChangeStream.onPriceChanged(new PriceChangedEvent(1L, 10L, 100L, Money.of(9.99)));
+        priceChangeStream.onPricesImported(new PricesImportedEvent(42));
+        priceChangeStream.heartbeat();
+
+        // Assert
+        assertThat(emitter.events).hasSize(3);
+        assertThat(emitter.events.get(0)).startsWith("id:").contains("-1\nevent:price\n").contains("productId=1", "9.99 EUR");
+        assertThat(emitter.events.get(1)).contains("-2\nevent:prices-imported\ndata:42");
+        assertThat(emitter.events.get(2)).isEqualTo(":heartbeat\n\n");
+    }
+
+    @Test
+    void GivenSubscriber_WhenPricedProductChanged_ShouldSendTheActivePriceOfTheProduct() {
+        // Arrange
+        RecordingEmitter emitter = new RecordingEmitter();
+        priceChangeStream.subscribe(null, emitter);
+        PricedProductRepository.ActivePrice activated = mock(PricedProductRepository.ActivePrice.class);
+        when(activated.getPriceId()).thenReturn(200L);
+        when(activated.getValue()).thenReturn(Money.of(15.0));
+        when(pricedProductRepository.findActivePricesByProductIdIn(List.of(2L))).thenReturn(List.of(activated));
+        when(pricedProductRepository.findActivePricesByProductIdIn(List.of(3L))).thenReturn(List.of());
+
+        // Act
+        priceChangeStream.onPricedProductChanged(new PricedProductChangedEvent(20L, 2L));
+        priceChangeStream.onPricedProductChanged(new PricedProductChangedEvent(30L, 3L));
+        priceChangeStream.onPricedProductChanged(new PricedProductChangedEvent(40L, null));
+
+        // Assert
+        assertThat(emitter.events).hasSize(2);
+        assertThat(emitter.events.get(0)).contains("event:price\n").contains("productId=2", "priceId=200", "15.00 EUR");
+        assertThat(emitter.events.get(1)).contains("event:price\n").contains("productId=3", "priceId=null", "value=null");
+    }
+
+    @Test
+    void GivenLastEventId_WhenResubscribing_ShouldReplayOnlyMissedEvents() {
+        // Arrange
+        RecordingEmitter first = new RecordingEmitter();
+        priceChangeStream.subscribe(null, first);
+        priceChangeStream.onPricesImported(new PricesImportedEvent(1));
+        String lastEventId = first.lastEventId();
+        first.complete();
+        priceChangeStream.onPricesImported(new PricesImportedEvent(2));
+        priceChangeStream.onPricesImported(new PricesImportedEvent(3));
+
+        // Act
+        RecordingEmitter resumed = new RecordingEmitter();
+        priceChangeStream.subscribe(lastEventId, resumed);
+
+        // Assert
+        assertThat(resumed.events).hasSize(2);
+        assertThat(resumed.events.get(0)).contains("data:2");
+        assertThat(resumed.events.get(1)).contains("data:3");
+        assertThat(priceChangeStream.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void GivenUnknownOrEvictedLastEventId_WhenResubscribing_ShouldSendReset() {
+        // Arrange
+        RecordingEmitter first = new RecordingEmitter();
+        priceChangeStream.subscribe(null, first);
+        priceChangeStream.onPricesImported(new PricesImportedEvent(1));
+        String evictedEventId = first.lastEventId();
+        for (int i = 0; i < 4; i++) {
+            priceChangeStream.onPricesImported(new PricesImportedEvent(i));
+        }
+
+        // Act
+        RecordingEmitter evicted = new RecordingEmitter();
+        priceChangeStream.subscribe(evictedEventId, evicted);
+        RecordingEmitter unknown = new RecordingEmitter();
+        priceChangeStream.subscribe("0-7", unknown);
+
+        // Assert
+        assertThat(evicted.events).hasSize(1);
+        assertThat(evicted.events.get(0)).contains("event:reset").contains(first.lastEventId());
+        assertThat(unknown.events).hasSize(1);
+        assertThat(unknown.events.get(0)).contains("event:reset");
+    }
+
+    @Test
+    void GivenSubscriberFallingBehind_WhenBufferIsFull_ShouldDisconnectIt() {
+        // Arrange
+        List<Runnable> writes = new ArrayList<>();
+        priceChangeStream = new PriceChangeStream(
+            writes::add,
+            pricedProductRepository,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        RecordingEmitter slow = new RecordingEmitter();
+        priceChangeStream.subscribe(null, slow);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            priceChangeStream.onPricesImported(new PricesImportedEvent(i));
+        }
+        writes.forEach(Runnable::run);
+
+        // Assert
+        assertThat(slow.completed).isTrue();
+        assertThat(slow.events).isEmpty();
+        assertThat(priceChangeStream.subscriberCount()).isZero();
+    }
+
+    @Test
+    void GivenSubscriberBlockedOnWrite_WhenPriceChanged_ShouldStillSendToTheOtherSubscribers() throws Exception {
+        // Arrange
+        applicationProperties.getPriceStream().setMaxSubscribers(2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        priceChangeStream = new PriceChangeStream(
+            executor,
+            pricedProductRepository,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        BlockingEmitter slow = new BlockingEmitter(new CountDownLatch(1));
+        BlockingEmitter fast = new BlockingEmitter(new CountDownLatch(0));
+
+        try {
+            priceChangeStream.subscribe(null, slow);
+            priceChangeStream.subscribe(null, fast);
+
+            // Act
+            priceChangeStream.onPricesImported(new PricesImportedEvent(1));
+            priceChangeStream.onPricesImported(new PricesImportedEvent(2));
+
+            // Assert
+            assertThat(slow.writing.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(fast.sent.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(slow.sent.getCount()).isEqualTo(2);
+            assertThatThrownBy(() -> priceChangeStream.subscribe(null, new RecordingEmitter())).isInstanceOf(
+                PriceStreamFullException.class
+            );
+        } finally {
+            slow.unblock.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void GivenMaxSubscribers_WhenOneIsGone_ShouldAcceptAnotherOne() {
+        // Arrange
+        applicationProperties.getPriceStream().setMaxSubscribers(1);
+        priceChangeStream = new PriceChangeStream(
+            new SyncTaskExecutor(),
+            pricedProductRepository,
+            applicationProperties,
+            new SimpleMeterRegistry()
+        );
+        RecordingEmitter first = new RecordingEmitter();
+        priceChangeStream.subscribe(null, first);
+        assertThatThrownBy(() -> priceChangeStream.subscribe(null, new RecordingEmitter())).isInstanceOf(PriceStreamFullException.class);
+
+        // Act
+        first.complete();
+        RecordingEmitter second = new RecordingEmitter();
+        priceChangeStream.subscribe(null, second);
+        priceChangeStream.onPricesImported(new PricesImportedEvent(1));
+
+        // Assert
+        assertThat(second.events).hasSize(1);
+        assertThat(priceChangeStream.subscriberCount()).isEqualTo(1);
+    }
+
+    // blocks every write until unblocked, like a client that stopped reading
+    private static final class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch writing = new CountDownLatch(1);
+
+        private final CountDownLatch sent = new CountDownLatch(2);
+
+        private final CountDownLatch unblock;
+
+        private BlockingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.countDown();
+        }
+    }
+
+    // records the events sent instead of writing them to a response, and completes like the MVC handler would
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+
+        private boolean completed;
+
+        private Runnable onCompletion = () -> {};
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            onCompletion = callback;
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            onCompletion.run();
+        }
+
+        private String lastEventId() {
+            String last = events.get(events.size() - 1);
+            return last.substring("id:".length(), last.indexOf('\n'));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package net.petcu.store.service.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.LongArrayList;
+import java.time.Instant;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.domain.Product;
+import net.petcu.store.domain.ScheduledPrice;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.repository.ScheduledPriceRepository;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.PricesImportedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link ScheduledPriceActivator}.
+ */
+@IntegrationTest
+@RecordApplicationEvents
+@TestPropertySource(properties = "application.catalog.scheduled-price-event-limit=1")
+class ScheduledPriceActivatorIT {
+
+    @Autowired
+    private ScheduledPriceActivator scheduledPriceActivator;
+
+    @Autowired
+    private ScheduledPriceRepository scheduledPriceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PricedProductRepository pricedProductRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @AfterEach
+    void cleanup() {
+        // the connections do not auto-commit
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "delete from scheduled_price where product_id in (select id from product where name like 'scheduled priced%')"
+            );
+            jdbcTemplate.update(
+                "delete from priced_product where product_id in (select id from product where name like 'scheduled priced%')"
+            );
+            productRepository.deleteAll(productRepository.findByNameContainingIgnoreCase("scheduled priced"));
+        });
+    }
+
+    @Test
+    void GivenDuePrice_WhenActivatedConcurrently_ShouldActivateItOnce() throws Exception {
+        // Arrange
+        Product product = productRepository.saveAndFlush(new Product().name("scheduled priced mug"));
+        ScheduledPrice scheduledPrice = scheduledPriceRepository.saveAndFlush(
+            new ScheduledPrice().product(product).value(Money.of(12.5)).effectiveDate(Instant.now())
+        );
+        List<Long> batch = List.of(scheduledPrice.getId());
+        ExecutorService instances = Executors.newFixedThreadPool(2);
+
+        // Act
+        int activated;
+        try {
+            CompletableFuture<Integer> first = CompletableFuture.supplyAsync(
+                () -> scheduledPriceActivator.activate(batch, false),
+                instances
+            );
+            CompletableFuture<Integer> second = CompletableFuture.supplyAsync(
+                () -> scheduledPriceActivator.activate(batch, false),
+                instances
+            );
+            activated = first.get() + second.get();
+        } finally {
+            instances.shutdown();
+        }
+        int retried = scheduledPriceActivator.activate(batch, false);
+
+        // Assert
+        assertThat(activated).isEqualTo(1);
+        assertThat(retried).isZero();
+        assertThat(scheduledPriceRepository.findById(scheduledPrice.getId()))
+            .hasValueSatisfying(applied -> assertThat(applied.getAppliedDate()).isNotNull());
+        assertThat(pricedProductRepository.findByProductIdAndActiveTrue(product.getId()))
+            .singleElement()
+            .satisfies(active -> assertThat(active.getPrice().getValue()).isEqualTo(Money.of(12.5)));
+    }
+
+    @Test
+    void GivenFewDuePrices_WhenActivated_ShouldPublishTheChangeOfTheProduct() {
+        // Arrange
+        Product product = productRepository.saveAndFlush(new Product().name("scheduled priced cup"));
+        ScheduledPrice scheduledPrice = scheduledPriceRepository.saveAndFlush(
+            new ScheduledPrice().product(product).value(Money.of(8.0)).effectiveDate(Instant.now())
+        );
+
+        // Act
+        scheduledPriceActivator.activateDue(LongArrayList.from(scheduledPrice.getId()));
+
+        // Assert
+        PricedProduct active = pricedProductRepository.findByProductIdAndActiveTrue(product.getId()).getFirst();
+        assertThat(applicationEvents.stream(PricedProductChangedEvent.class)).containsExactly(
+            new PricedProductChangedEvent(active.getId(), product.getId())
+        );
+        assertThat(applicationEvents.stream(PricesImportedEvent.class)).isEmpty();
+    }
+
+    @Test
+    void GivenMoreDuePricesThanTheEventLimit_WhenActivated_ShouldPublishOneImport() {
+        // Arrange
+        Product cup = productRepository.saveAndFlush(new Product().name("scheduled priced cup"));
+        Product plate = productRepository.saveAndFlush(new Product().name("scheduled priced plate"));
+        ScheduledPrice cupPrice = scheduledPriceRepository.saveAndFlush(
+            new ScheduledPrice().product(cup).value(Money.of(8.0)).effectiveDate(Instant.now())
+        );
+        ScheduledPrice platePrice = scheduledPriceRepository.saveAndFlush(
+            new ScheduledPrice().product(plate).value(Money.of(9.0)).effectiveDate(Instant.now())
+        );
+
+        // Act
+        scheduledPriceActivator.activateDue(LongArrayList.from(cupPrice.getId(), platePrice.getId()));
+
+        // Assert
+        assertThat(applicationEvents.stream(PricesImportedEvent.class)).containsExactly(new PricesImportedEvent(2));
+        assertThat(applicationEvents.stream(PricedProductChangedEvent.class)).isEmpty();
+    }
+
+    @Test
+    void GivenNonUtcDefaultTimeZone_WhenActivated_ShouldStoreActivationTimeInUtc() {
+        // Arrange
+        Product product = productRepository.saveAndFlush(new Product().name("scheduled priced bowl"));
+        ScheduledPrice scheduledPrice = scheduledPriceRepository.saveAndFlush(
+            new ScheduledPrice().product(product).value(Money.of(8.0)).effectiveDate(Instant.now())
+        );
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        Instant before = Instant.now();
+
+        // Act
+        TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Auckland"));
+        try {
+            scheduledPriceActivator.activate(List.of(scheduledPrice.getId()), false);
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+
+        // Assert, Hibernate reads the column back as UTC
+        assertThat(pricedProductRepository.findByProductIdAndActiveTrue(product.getId()))
+            .singleElement()
+            .satisfies(active -> assertThat(active.getUpdatedDate()).isBetween(before.minusSeconds(1), Instant.now()));
+    }
+}
@@ -0,0 +1,81 @@
+package net.petcu.store.service.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toMillis();
+
+    @Test
+    void GivenTimersOnSeveralLevels_WhenAdvance_ShouldExpireEachAtItsDeadline() {
+        // Arrange
+        TimerWheel wheel = new TimerWheel(SECOND, 0);
+        wheel.schedule(1L, 30 * SECOND);
+        wheel.schedule(2L, 2 * 3600 * SECOND);
+        wheel.schedule(3L, 10 * SECOND);
+        wheel.schedule(4L, 500 * SECOND);
+
+        // Act & Assert
+        assertThat(wheel.advance(9 * SECOND).toArray()).isEmpty();
+        assertThat(wheel.advance(10 * SECOND).toArray()).containsExactly(3L);
+        assertThat(wheel.advance(499 * SECOND).toArray()).containsExactly(1L);
+        assertThat(wheel.advance(500 * SECOND).toArray()).containsExactly(4L);
+        assertThat(wheel.advance(2 * 3600 * SECOND - 1).toArray()).isEmpty();
+        assertThat(wheel.advance(2 * 3600 * SECOND).toArray()).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void GivenPastAndPartialTickDeadlines_WhenAdvance_ShouldNeverExpireEarly() {
+        // Arrange
+        TimerWheel wheel = new TimerWheel(SECOND, 100 * SECOND);
+        wheel.schedule(1L, 0);
+        wheel.schedule(2L, 100 * SECOND + 1);
+
+        // Act & Assert
+        assertThat(wheel.advance(100 * SECOND).toArray()).containsExactly(1L);
+        assertThat(wheel.advance(101 * SECOND).toArray()).containsExactly(2L);
+    }
+
+    @Test
+    void GivenRandomDeadlinesBeyondTheHorizon_WhenAdvance_ShouldExpireAllOnTime() {
+        // Arrange
+        TimerWheel wheel = new TimerWheel(SECOND, 12_345 * SECOND);
+        long horizon = 1L << (TimerWheel.SLOT_BITS * TimerWheel.LEVELS);
+        Random random = new Random(42);
+        long[] deadlines = new long[2_000];
+        for (int id = 0; id < deadlines.length; id++) {
+            deadlines[id] = (12_345 + random.nextLong(2 * horizon)) * SECOND;
+            wheel.schedule(id, deadlines[id]);
+        }
+
+        // Act
+        // the id, the time of the advance that expired it and the time of the advance before
+        List<long[]> expirations = new ArrayList<>();
+        long previousNow = 12_344 * SECOND;
+        for (long now = 12_345; now < 12_345 + 2 * horizon + 50_000; now += 1 + random.nextInt(50_000)) {
+            for (long id : wheel.advance(now * SECOND).toArray()) {
+                expirations.add(new long[] { id, now * SECOND, previousNow });
+            }
+            previousNow = now * SECOND;
+        }
+
+        // Assert
+        assertThat(expirations).hasSize(deadlines.length);
+        assertThat(wheel.size()).isZero();
+        long previous = -1;
+        for (long[] expiration : expirations) {
+            // expired by the first advance past the deadline, and in deadline order
+            assertThat(expiration[1]).isGreaterThanOrEqualTo(deadlines[(int) expiration[0]]);
+            assertThat(expiration[2]).isLessThan(deadlines[(int) expiration[0]]);
+            assertThat(deadlines[(int) expiration[0]] / SECOND).isGreaterThanOrEqualTo(previous);
+            previous = deadlines[(int) expiration[0]] / SECOND;
+        }
+    }
+}
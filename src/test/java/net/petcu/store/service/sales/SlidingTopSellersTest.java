@@ -0,0 +1,70 @@
+package net.petcu.store.service.sales;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import net.petcu.store.service.dto.TopSellerDTO;
+import org.junit.jupiter.api.Test;
+
+class SlidingTopSellersTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Test
+    void GivenSalesInSeveralBuckets_WhenTop_ShouldMergeThemMostUnitsFirst() {
+        // Arrange
+        SlidingTopSellers window = new SlidingTopSellers(Duration.ofMinutes(5), 12, 10);
+        window.add(0, 1L, 3);
+        window.add(MINUTE, 2L, 2);
+        window.add(20 * MINUTE, 2L, 2);
+        window.add(40 * MINUTE, 3L, 1);
+
+        // Act
+        List<TopSellerDTO> top = window.top(45 * MINUTE, 2);
+
+        // Assert
+        assertThat(top).containsExactly(new TopSellerDTO(2L, 4, 0), new TopSellerDTO(1L, 3, 0));
+        assertThat(window.units(45 * MINUTE)).isEqualTo(8);
+    }
+
+    @Test
+    void GivenSalesOlderThanTheWindow_WhenTop_ShouldForgetThem() {
+        // Arrange
+        SlidingTopSellers window = new SlidingTopSellers(Duration.ofMinutes(5), 12, 10);
+        window.add(0, 1L, 10);
+        window.add(30 * MINUTE, 2L, 1);
+        // the ring comes back to the slot of the first bucket
+        window.add(60 * MINUTE, 3L, 1);
+
+        // Act
+        List<TopSellerDTO> top = window.top(61 * MINUTE, 10);
+
+        // Assert
+        assertThat(top).extracting(TopSellerDTO::productId).containsExactly(2L, 3L);
+        assertThat(window.units(61 * MINUTE)).isEqualTo(2);
+        assertThat(window.top(120 * MINUTE, 10)).isEmpty();
+    }
+
+    @Test
+    void GivenProductMissingFromFullBucket_WhenTop_ShouldWidenItsErrorByThatBucket() {
+        // Arrange
+        SlidingTopSellers window = new SlidingTopSellers(Duration.ofMinutes(5), 12, 2);
+        window.add(0, 1L, 5);
+        window.add(0, 2L, 3);
+        window.add(5 * MINUTE, 1L, 4);
+        window.add(5 * MINUTE, 3L, 1);
+        window.add(5 * MINUTE, 4L, 2);
+
+        // Act
+        List<TopSellerDTO> top = window.top(6 * MINUTE, 10);
+
+        // Assert
+        assertThat(top.getFirst()).isEqualTo(new TopSellerDTO(1L, 9, 0));
+        // product 2 sold nothing in the second bucket, where the smallest counter holds 3 units
+        assertThat(top).contains(new TopSellerDTO(2L, 6, 3));
+        for (TopSellerDTO seller : top) {
+            assertThat(seller.units() - seller.error()).isLessThanOrEqualTo(seller.productId() == 1L ? 9 : 3);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.petcu.store.service.sales;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.LongLongHashMap;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SpaceSavingTest {
+
+    @Test
+    void GivenMoreProductsThanCounters_WhenOffer_ShouldBoundEveryCountByItsError() {
+        // Arrange
+        SpaceSaving sketch = new SpaceSaving(50);
+        LongLongHashMap exact = new LongLongHashMap();
+        Random random = new Random(7);
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            // a few products sell far more than the long tail
+            long productId = random.nextInt(10) < 6 ? random.nextInt(5) : 5 + random.nextInt(10_000);
+            long units = 1 + random.nextInt(3);
+            sketch.offer(productId, units);
+            exact.addTo(productId, units);
+        }
+
+        // Assert
+        assertThat(sketch.size()).isEqualTo(50);
+        long total = 0;
+        for (long units : exact.values().toArray()) {
+            total += units;
+        }
+        assertThat(sketch.total()).isEqualTo(total);
+        for (int slot = 0; slot < sketch.size(); slot++) {
+            long trueUnits = exact.get(sketch.key(slot));
+            assertThat(sketch.count(slot)).isGreaterThanOrEqualTo(trueUnits);
+            assertThat(sketch.count(slot) - sketch.error(slot)).isLessThanOrEqualTo(trueUnits);
+        }
+        for (long productId = 0; productId < 5; productId++) {
+            assertThat(sketch.slot(productId)).isNotNegative();
+        }
+        assertThat(sketch.uncountedBound()).isLessThanOrEqualTo(total / 50);
+    }
+
+    @Test
+    void GivenFewProducts_WhenOffer_ShouldCountThemExactly() {
+        // Arrange
+        SpaceSaving sketch = new SpaceSaving(4);
+
+        // Act
+        sketch.offer(1L, 2);
+        sketch.offer(2L, 5);
+        sketch.offer(1L, 1);
+        sketch.clear();
+        sketch.offer(3L, 1);
+        sketch.offer(1L, 4);
+
+        // Assert
+        assertThat(sketch.size()).isEqualTo(2);
+        assertThat(sketch.slot(2L)).isNegative();
+        assertThat(sketch.count(sketch.slot(1L))).isEqualTo(4);
+        assertThat(sketch.error(sketch.slot(1L))).isZero();
+        assertThat(sketch.uncountedBound()).isZero();
+        assertThat(sketch.total()).isEqualTo(5);
+    }
+}
@@ -2,11 +2,20 @@ package net.petcu.store.web.rest;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.PricedProduct;
+import java.io.InputStream;
+import java.time.Instant;
 import net.petcu.store.service.AdminService;
+import net.petcu.store.service.dto.PriceChangeReportDTO;
+import net.petcu.store.service.dto.ProductImportReportDTO;
+import net.petcu.store.service.dto.ScheduledPriceDTO;
+import net.petcu.store.service.importer.BulkPriceChangeService;
+import net.petcu.store.service.importer.ProductImportService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -27,8 +36,14 @@ class AdminControllerTest {
     @MockBean
     private AdminService adminService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private BulkPriceChangeService bulkPriceChangeService;
+
     private static final Long DEFAULT_PRODUCT_ID = 1L;
-    private static final Double DEFAULT_NEW_PRICE = 15.0;
+    private static final Money DEFAULT_NEW_PRICE = Money.of(15.0);
 
     @Test
     @WithMockUser(authorities = "ROLE_ADMIN")
@@ -41,7 +56,7 @@ class AdminControllerTest {
         restMockMvc
             .perform(
                 put("/api/admin/products/{productId}/price", DEFAULT_PRODUCT_ID)
-                    .param("newPrice", DEFAULT_NEW_PRICE.toString())
+                    .param("newPrice", DEFAULT_NEW_PRICE.toBigDecimal().toPlainString())
                     .contentType(MediaType.APPLICATION_JSON)
                     .with(csrf())
             )
@@ -59,7 +74,7 @@ class AdminControllerTest {
         restMockMvc
             .perform(
                 put("/api/admin/products/{productId}/price", DEFAULT_PRODUCT_ID)
-                    .param("newPrice", DEFAULT_NEW_PRICE.toString())
+                    .param("newPrice", DEFAULT_NEW_PRICE.toBigDecimal().toPlainString())
                     .contentType(MediaType.APPLICATION_JSON)
                     .with(csrf())
             )
@@ -100,6 +115,22 @@ class AdminControllerTest {
         verify(adminService, never()).changePrice(any(), any());
     }
 
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void GivenPriceWithMoreDecimalsThanTheCurrency_WhenChangePrice_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        restMockMvc
+            .perform(
+                put("/api/admin/products/{productId}/price", DEFAULT_PRODUCT_ID)
+                    .param("newPrice", "19.995")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .with(csrf())
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(adminService, never()).changePrice(any(), any());
+    }
+
     @Test
     @WithMockUser(authorities = "ROLE_ADMIN")
     void GivenNullPrice_WhenChangePrice_ShouldReturnBadRequest() throws Exception {
@@ -123,7 +154,7 @@ class AdminControllerTest {
         restMockMvc
             .perform(
                 put("/api/admin/products/{productId}/price", DEFAULT_PRODUCT_ID)
-                    .param("newPrice", DEFAULT_NEW_PRICE.toString())
+                    .param("newPrice", DEFAULT_NEW_PRICE.toBigDecimal().toPlainString())
                     .contentType(MediaType.APPLICATION_JSON)
             )
             .andExpect(status().isForbidden());
@@ -138,7 +169,7 @@ class AdminControllerTest {
         restMockMvc
             .perform(
                 put("/api/admin/products/{productId}/price", DEFAULT_PRODUCT_ID)
-                    .param("newPrice", DEFAULT_NEW_PRICE.toString())
+                    .param("newPrice", DEFAULT_NEW_PRICE.toBigDecimal().toPlainString())
                     .contentType(MediaType.APPLICATION_JSON)
                     .with(csrf())
             )
@@ -146,4 +177,112 @@ class AdminControllerTest {
 
         verify(adminService, never()).changePrice(any(), any());
     }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void GivenCsvPayload_WhenImportProducts_ShouldReturnImportReport() throws Exception {
+        // Arrange
+        when(productImportService.importProducts(any(InputStream.class), eq(ProductImportService.Format.CSV))).thenReturn(
+            new ProductImportReportDTO(2, 1, 1, 0, 1, 5)
+        );
+
+        // Act & Assert
+        restMockMvc
+            .perform(
+                post("/api/admin/products/import")
+                    .content("id,name\n,Mug\n1051,Vinyl\n")
+                    .contentType(MediaType.valueOf("text/csv"))
+                    .with(csrf())
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted").value(1))
+            .andExpect(jsonPath("$.updated").value(1));
+
+        verify(productImportService).importProducts(any(InputStream.class), eq(ProductImportService.Format.CSV));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void GivenNonAdminUser_WhenImportProducts_ShouldReturnForbidden() throws Exception {
+        // Act & Assert
+        restMockMvc
+            .perform(post("/api/admin/products/import").content("[]").contentType(MediaType.APPLICATION_JSON).with(csrf()))
+            .andExpect(status().isForbidden());
+
+        verify(productImportService, never()).importProducts(any(), any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void GivenJsonPayload_WhenChangePrices_ShouldReturnChangeReport() throws Exception {
+        // Arrange
+        when(bulkPriceChangeService.changePrices(any(InputStream.class), eq(ProductImportService.Format.JSON))).thenReturn(
+            new PriceChangeReportDTO(2, 1, 1, 1, 5)
+        );
+
+        // Act & Assert
+        restMockMvc
+            .perform(
+                put("/api/admin/prices")
+                    .content("[{\"productId\":1051,\"price\":12.5},{\"productId\":-1,\"price\":3}]")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .with(csrf())
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changed").value(1))
+            .andExpect(jsonPath("$.skipped").value(1));
+
+        verify(bulkPriceChangeService).changePrices(any(InputStream.class), eq(ProductImportService.Format.JSON));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void GivenNonAdminUser_WhenChangePrices_ShouldReturnForbidden() throws Exception {
+        // Act & Assert
+        restMockMvc
+            .perform(put("/api/admin/prices").content("[]").contentType(MediaType.APPLICATION_JSON).with(csrf()))
+            .andExpect(status().isForbidden());
+
+        verify(bulkPriceChangeService, never()).changePrices(any(), any());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void GivenFutureEffectiveDate_WhenSchedulePrice_ShouldReturnScheduledPrice() throws Exception {
+        // Arrange
+        Instant midnight = Instant.parse("2030-01-01T00:00:00Z");
+        when(adminService.schedulePrice(DEFAULT_PRODUCT_ID, DEFAULT_NEW_PRICE, midnight)).thenReturn(
+            new ScheduledPriceDTO(1051L, DEFAULT_PRODUCT_ID, DEFAULT_NEW_PRICE, midnight)
+        );
+
+        // Act & Assert
+        restMockMvc
+            .perform(
+                post("/api/admin/products/{productId}/scheduled-prices", DEFAULT_PRODUCT_ID)
+                    .param("newPrice", DEFAULT_NEW_PRICE.toBigDecimal().toPlainString())
+                    .param("effectiveDate", midnight.toString())
+                    .with(csrf())
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(1051L))
+            .andExpect(jsonPath("$.value").value(DEFAULT_NEW_PRICE.toDouble()));
+
+        verify(adminService).schedulePrice(DEFAULT_PRODUCT_ID, DEFAULT_NEW_PRICE, midnight);
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void GivenInvalidPrice_WhenSchedulePrice_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        restMockMvc
+            .perform(
+                post("/api/admin/products/{productId}/scheduled-prices", DEFAULT_PRODUCT_ID)
+                    .param("newPrice", "0.0")
+                    .param("effectiveDate", "2030-01-01T00:00:00Z")
+                    .with(csrf())
+            )
+            .andExpect(status().isBadRequest());
+
+        verify(adminService, never()).schedulePrice(any(), any(), any());
+    }
 }
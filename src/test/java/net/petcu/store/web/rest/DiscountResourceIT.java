@@ -2,6 +2,7 @@ package net.petcu.store.web.rest;
 
 import static net.petcu.store.domain.DiscountAsserts.*;
 import static net.petcu.store.web.rest.TestUtil.createUpdateProxyForBean;
+import static net.petcu.store.web.rest.TestUtil.sameNumber;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -9,11 +10,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 import net.petcu.store.IntegrationTest;
 import net.petcu.store.domain.Discount;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.enumeration.DiscountType;
 import net.petcu.store.repository.DiscountRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -43,8 +46,11 @@ class DiscountResourceIT {
     private static final Boolean DEFAULT_USED = false;
     private static final Boolean UPDATED_USED = true;
 
-    private static final Double DEFAULT_AMOUNT = 1D;
-    private static final Double UPDATED_AMOUNT = 2D;
+    private static final Money DEFAULT_AMOUNT = Money.of(1D);
+    private static final Money UPDATED_AMOUNT = Money.of(2D);
+
+    private static final BigDecimal DEFAULT_PERCENTAGE = new BigDecimal(1);
+    private static final BigDecimal UPDATED_PERCENTAGE = new BigDecimal(2);
 
     private static final String ENTITY_API_URL = "/api/discounts";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
@@ -79,7 +85,8 @@ class DiscountResourceIT {
             .discountCode(DEFAULT_DISCOUNT_CODE)
             .discountType(DEFAULT_DISCOUNT_TYPE)
             .used(DEFAULT_USED)
-            .amount(DEFAULT_AMOUNT);
+            .amount(DEFAULT_AMOUNT)
+            .percentage(DEFAULT_PERCENTAGE);
     }
 
     /**
@@ -93,7 +100,8 @@ class DiscountResourceIT {
             .discountCode(UPDATED_DISCOUNT_CODE)
             .discountType(UPDATED_DISCOUNT_TYPE)
             .used(UPDATED_USED)
-            .amount(UPDATED_AMOUNT);
+            .amount(UPDATED_AMOUNT)
+            .percentage(UPDATED_PERCENTAGE);
     }
 
     @BeforeEach
@@ -163,7 +171,8 @@ class DiscountResourceIT {
             .andExpect(jsonPath("$.[*].discountCode").value(hasItem(DEFAULT_DISCOUNT_CODE.toString())))
             .andExpect(jsonPath("$.[*].discountType").value(hasItem(DEFAULT_DISCOUNT_TYPE.toString())))
             .andExpect(jsonPath("$.[*].used").value(hasItem(DEFAULT_USED)))
-            .andExpect(jsonPath("$.[*].amount").value(hasItem(DEFAULT_AMOUNT)));
+            .andExpect(jsonPath("$.[*].amount").value(hasItem(DEFAULT_AMOUNT.toDouble())))
+            .andExpect(jsonPath("$.[*].percentage").value(hasItem(sameNumber(DEFAULT_PERCENTAGE))));
     }
 
     @Test
@@ -181,7 +190,8 @@ class DiscountResourceIT {
             .andExpect(jsonPath("$.discountCode").value(DEFAULT_DISCOUNT_CODE.toString()))
             .andExpect(jsonPath("$.discountType").value(DEFAULT_DISCOUNT_TYPE.toString()))
             .andExpect(jsonPath("$.used").value(DEFAULT_USED))
-            .andExpect(jsonPath("$.amount").value(DEFAULT_AMOUNT));
+            .andExpect(jsonPath("$.amount").value(DEFAULT_AMOUNT.toDouble()))
+            .andExpect(jsonPath("$.percentage").value(sameNumber(DEFAULT_PERCENTAGE)));
     }
 
     @Test
@@ -203,7 +213,12 @@ class DiscountResourceIT {
         Discount updatedDiscount = discountRepository.findById(discount.getId()).orElseThrow();
         // Disconnect from session so that the updates on updatedDiscount are not directly saved in db
         em.detach(updatedDiscount);
-        updatedDiscount.discountCode(UPDATED_DISCOUNT_CODE).discountType(UPDATED_DISCOUNT_TYPE).used(UPDATED_USED).amount(UPDATED_AMOUNT);
+        updatedDiscount
+            .discountCode(UPDATED_DISCOUNT_CODE)
+            .discountType(UPDATED_DISCOUNT_TYPE)
+            .used(UPDATED_USED)
+            .amount(UPDATED_AMOUNT)
+            .percentage(UPDATED_PERCENTAGE);
 
         restDiscountMockMvc
             .perform(
@@ -313,7 +328,8 @@ class DiscountResourceIT {
             .discountCode(UPDATED_DISCOUNT_CODE)
             .discountType(UPDATED_DISCOUNT_TYPE)
             .used(UPDATED_USED)
-            .amount(UPDATED_AMOUNT);
+            .amount(UPDATED_AMOUNT)
+            .percentage(UPDATED_PERCENTAGE);
 
         restDiscountMockMvc
             .perform(
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.Order;
 import net.petcu.store.domain.enumeration.OrderStatus;
 import net.petcu.store.repository.OrderRepository;
@@ -48,11 +49,11 @@ class OrderResourceIT {
     private static final Instant DEFAULT_DATE = Instant.ofEpochMilli(0L);
     private static final Instant UPDATED_DATE = Instant.now().truncatedTo(ChronoUnit.MILLIS);
 
-    private static final Double DEFAULT_SUBTOTAL = 1D;
-    private static final Double UPDATED_SUBTOTAL = 2D;
+    private static final Money DEFAULT_SUBTOTAL = Money.of(1D);
+    private static final Money UPDATED_SUBTOTAL = Money.of(2D);
 
-    private static final Double DEFAULT_FINAL_PRICE = 1D;
-    private static final Double UPDATED_FINAL_PRICE = 2D;
+    private static final Money DEFAULT_FINAL_PRICE = Money.of(1D);
+    private static final Money UPDATED_FINAL_PRICE = Money.of(2D);
 
     private static final OrderStatus DEFAULT_STATUS = OrderStatus.NEW;
     private static final OrderStatus UPDATED_STATUS = OrderStatus.PAID;
@@ -173,8 +174,8 @@ class OrderResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(order.getId().intValue())))
             .andExpect(jsonPath("$.[*].date").value(hasItem(DEFAULT_DATE.toString())))
-            .andExpect(jsonPath("$.[*].subtotal").value(hasItem(DEFAULT_SUBTOTAL)))
-            .andExpect(jsonPath("$.[*].finalPrice").value(hasItem(DEFAULT_FINAL_PRICE)))
+            .andExpect(jsonPath("$.[*].subtotal").value(hasItem(DEFAULT_SUBTOTAL.toDouble())))
+            .andExpect(jsonPath("$.[*].finalPrice").value(hasItem(DEFAULT_FINAL_PRICE.toDouble())))
             .andExpect(jsonPath("$.[*].status").value(hasItem(DEFAULT_STATUS.toString())));
     }
 
@@ -208,8 +209,8 @@ class OrderResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(order.getId().intValue()))
             .andExpect(jsonPath("$.date").value(DEFAULT_DATE.toString()))
-            .andExpect(jsonPath("$.subtotal").value(DEFAULT_SUBTOTAL))
-            .andExpect(jsonPath("$.finalPrice").value(DEFAULT_FINAL_PRICE))
+            .andExpect(jsonPath("$.subtotal").value(DEFAULT_SUBTOTAL.toDouble()))
+            .andExpect(jsonPath("$.finalPrice").value(DEFAULT_FINAL_PRICE.toDouble()))
             .andExpect(jsonPath("$.status").value(DEFAULT_STATUS.toString()));
     }
 
@@ -9,11 +9,17 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.time.Instant;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
 import net.petcu.store.domain.Price;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.domain.Product;
 import net.petcu.store.repository.PriceRepository;
+import net.petcu.store.repository.PricedProductRepository;
+import net.petcu.store.repository.ProductRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,8 +38,8 @@ import org.springframework.transaction.annotation.Transactional;
 @WithMockUser
 class PriceResourceIT {
 
-    private static final Double DEFAULT_VALUE = 1D;
-    private static final Double UPDATED_VALUE = 2D;
+    private static final Money DEFAULT_VALUE = Money.of(1D);
+    private static final Money UPDATED_VALUE = Money.of(2D);
 
     private static final String ENTITY_API_URL = "/api/prices";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
@@ -47,6 +53,12 @@ class PriceResourceIT {
     @Autowired
     private PriceRepository priceRepository;
 
+    @Autowired
+    private PricedProductRepository pricedProductRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -85,7 +97,7 @@ class PriceResourceIT {
     @AfterEach
     public void cleanup() {
         if (insertedPrice != null) {
-            priceRepository.delete(insertedPrice);
+            priceRepository.deleteById(insertedPrice.getId());
             insertedPrice = null;
         }
     }
@@ -141,7 +153,7 @@ class PriceResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(price.getId().intValue())))
-            .andExpect(jsonPath("$.[*].value").value(hasItem(DEFAULT_VALUE)));
+            .andExpect(jsonPath("$.[*].value").value(hasItem(DEFAULT_VALUE.toDouble())));
     }
 
     @Test
@@ -156,7 +168,7 @@ class PriceResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(price.getId().intValue()))
-            .andExpect(jsonPath("$.value").value(DEFAULT_VALUE));
+            .andExpect(jsonPath("$.value").value(DEFAULT_VALUE.toDouble()));
     }
 
     @Test
@@ -193,6 +205,42 @@ class PriceResourceIT {
         assertPersistedPriceToMatchAllProperties(updatedPrice);
     }
 
+    @Test
+    @Transactional
+    void putActivePriceThenAddItemToOrder() throws Exception {
+        // Initialize the database
+        Product product = productRepository.saveAndFlush(ProductResourceIT.createEntity());
+        insertedPrice = priceRepository.saveAndFlush(price);
+        pricedProductRepository.saveAndFlush(new PricedProduct().product(product).price(price).active(true).updatedDate(Instant.now()));
+
+        // Reprice the product by editing its active price
+        Price updatedPrice = new Price().value(UPDATED_VALUE);
+        updatedPrice.setId(price.getId());
+        restPriceMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedPrice.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(om.writeValueAsBytes(updatedPrice))
+            )
+            .andExpect(status().isOk());
+
+        // The next order line is priced at the new value
+        String order = restPriceMockMvc
+            .perform(post("/api/customer/orders"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        restPriceMockMvc
+            .perform(
+                post("/api/customer/orders/{orderId}/items", om.readTree(order).get("id").asLong())
+                    .param("productId", product.getId().toString())
+                    .param("quantity", "2")
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.subtotal").value(Money.ofMinor(UPDATED_VALUE.minorUnits() * 2).toDouble()));
+    }
+
     @Test
     @Transactional
     void putNonExistingPrice() throws Exception {
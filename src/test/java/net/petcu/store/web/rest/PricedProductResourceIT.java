@@ -4,6 +4,7 @@ import static net.petcu.store.domain.PricedProductAsserts.*;
 import static net.petcu.store.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -16,7 +17,11 @@ import java.util.ArrayList;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Price;
 import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.domain.Product;
+import net.petcu.store.repository.PriceRepository;
 import net.petcu.store.repository.PricedProductRepository;
 import net.petcu.store.service.PricedProductService;
 import org.junit.jupiter.api.AfterEach;
@@ -29,6 +34,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -61,6 +67,9 @@ class PricedProductResourceIT {
     @Autowired
     private PricedProductRepository pricedProductRepository;
 
+    @Autowired
+    private PriceRepository priceRepository;
+
     @Mock
     private PricedProductRepository pricedProductRepositoryMock;
 
@@ -105,7 +114,7 @@ class PricedProductResourceIT {
     @AfterEach
     public void cleanup() {
         if (insertedPricedProduct != null) {
-            pricedProductRepository.delete(insertedPricedProduct);
+            pricedProductRepository.deleteById(insertedPricedProduct.getId());
             insertedPricedProduct = null;
         }
     }
@@ -132,6 +141,35 @@ class PricedProductResourceIT {
         insertedPricedProduct = returnedPricedProduct;
     }
 
+    @Test
+    @Transactional
+    void createActivePricedProductDeactivatesThePreviousOne() throws Exception {
+        // Initialize the database
+        Product product = ProductResourceIT.createEntity();
+        em.persist(product);
+        PricedProduct previous = pricedProductRepository.saveAndFlush(createEntity().product(product).active(true));
+        pricedProduct.product(product).active(true);
+
+        // Create the active PricedProduct
+        var returnedPricedProduct = om.readValue(
+            restPricedProductMockMvc
+                .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(pricedProduct)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            PricedProduct.class
+        );
+
+        // Validate that only the new one is active
+        em.flush();
+        em.clear();
+        assertThat(pricedProductRepository.findByProductIdAndActiveTrue(product.getId()))
+            .singleElement()
+            .satisfies(active -> assertThat(active.getId()).isEqualTo(returnedPricedProduct.getId()));
+        assertThat(pricedProductRepository.findById(previous.getId())).hasValueSatisfying(p -> assertThat(p.getActive()).isFalse());
+    }
+
     @Test
     @Transactional
     void createPricedProductWithExistingId() throws Exception {
@@ -198,6 +236,33 @@ class PricedProductResourceIT {
             .andExpect(jsonPath("$.updatedDate").value(DEFAULT_UPDATED_DATE.toString()));
     }
 
+    @Test
+    @Transactional
+    void getPricedProductWithIfNoneMatchAfterItsPriceIsEdited() throws Exception {
+        // Initialize the database
+        Price price = priceRepository.saveAndFlush(new Price().value(Money.of(12.5)));
+        insertedPricedProduct = pricedProductRepository.saveAndFlush(pricedProduct.price(price));
+        String eTag = restPricedProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, pricedProduct.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restPricedProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, pricedProduct.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Edit the value of the price in place
+        priceRepository.saveAndFlush(price.value(Money.of(14.5)));
+
+        // The ETag changed, and the new value is returned
+        restPricedProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, pricedProduct.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+            .andExpect(jsonPath("$.price.value").value(14.5));
+    }
+
     @Test
     @Transactional
     void getNonExistingPricedProduct() throws Exception {
@@ -314,6 +379,37 @@ class PricedProductResourceIT {
         );
     }
 
+    @Test
+    @Transactional
+    void activatePricedProductWithPatchDeactivatesThePreviousOne() throws Exception {
+        // Initialize the database
+        Product product = ProductResourceIT.createEntity();
+        em.persist(product);
+        PricedProduct previous = pricedProductRepository.saveAndFlush(createEntity().product(product).active(true));
+        insertedPricedProduct = pricedProductRepository.saveAndFlush(pricedProduct.product(product).active(false));
+
+        // Activate the pricedProduct
+        PricedProduct partialUpdatedPricedProduct = new PricedProduct();
+        partialUpdatedPricedProduct.setId(pricedProduct.getId());
+        partialUpdatedPricedProduct.active(true);
+
+        restPricedProductMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedPricedProduct.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(om.writeValueAsBytes(partialUpdatedPricedProduct))
+            )
+            .andExpect(status().isOk());
+
+        // Validate that only the activated one is active
+        em.flush();
+        em.clear();
+        assertThat(pricedProductRepository.findByProductIdAndActiveTrue(product.getId()))
+            .singleElement()
+            .satisfies(active -> assertThat(active.getId()).isEqualTo(pricedProduct.getId()));
+        assertThat(pricedProductRepository.findById(previous.getId())).hasValueSatisfying(p -> assertThat(p.getActive()).isFalse());
+    }
+
     @Test
     @Transactional
     void fullUpdatePricedProductWithPatch() throws Exception {
@@ -0,0 +1,123 @@
+package net.petcu.store.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.service.image.ProductImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link ProductImageResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class ProductImageResourceIT {
+
+    @Autowired
+    private ProductImageStore productImageStore;
+
+    @Autowired
+    private MockMvc restProductImageMockMvc;
+
+    private byte[] bytes;
+
+    private String url;
+
+    private String etag;
+
+    @BeforeEach
+    public void initTest() throws Exception {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        bytes = png.toByteArray();
+        String name = productImageStore.store(new ByteArrayInputStream(bytes));
+        url = ProductImageResource.IMAGES_PATH + "/" + name;
+        etag = "\"" + name + "\"";
+    }
+
+    @Test
+    void getImageRange() throws Exception {
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=1-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().contentType(MediaType.IMAGE_PNG))
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + bytes.length))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+            .andExpect(content().bytes(Arrays.copyOfRange(bytes, 1, 4)));
+
+        // A suffix range runs to the end of the file
+        int start = bytes.length - 4;
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=-4"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (bytes.length - 1) + "/" + bytes.length))
+            .andExpect(content().bytes(Arrays.copyOfRange(bytes, start, bytes.length)));
+    }
+
+    @Test
+    void getImageWithSeveralRangesReturnsTheWholeFile() throws Exception {
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+            .andExpect(content().bytes(bytes));
+    }
+
+    @Test
+    void getImageWithUnsatisfiableRange() throws Exception {
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=" + bytes.length + "-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + bytes.length));
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=3-1"))
+            .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void getImageRangeWithIfRange() throws Exception {
+        // The same file: the range is honoured
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=1-3").header(HttpHeaders.IF_RANGE, etag))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().bytes(Arrays.copyOfRange(bytes, 1, 4)));
+
+        // Another file: the whole file is returned
+        restProductImageMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=1-3").header(HttpHeaders.IF_RANGE, "\"another\""))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+            .andExpect(content().bytes(bytes));
+    }
+
+    @Test
+    void headImage() throws Exception {
+        restProductImageMockMvc
+            .perform(head(url))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, etag))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, bytes.length))
+            .andExpect(content().bytes(new byte[0]));
+
+        restProductImageMockMvc
+            .perform(head(url).header(HttpHeaders.RANGE, "bytes=1-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + bytes.length))
+            .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+            .andExpect(content().bytes(new byte[0]));
+    }
+}
@@ -3,27 +3,58 @@ package net.petcu.store.web.rest;
 import static net.petcu.store.domain.ProductAsserts.*;
 import static net.petcu.store.web.rest.TestUtil.createUpdateProxyForBean;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.imageio.ImageIO;
 import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Price;
+import net.petcu.store.domain.PricedProduct;
 import net.petcu.store.domain.Product;
 import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.catalog.ProductCoOccurrenceIndex;
+import net.petcu.store.service.catalog.ProductPriceIndex;
+import net.petcu.store.service.catalog.ProductSearchIndex;
+import net.petcu.store.service.catalog.ProductSuggester;
+import net.petcu.store.service.catalog.ProductTagIndex;
 import net.petcu.store.service.dto.ProductDTO;
+import net.petcu.store.service.event.OrderPaidEvent;
+import net.petcu.store.service.event.PriceChangedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.event.ProductTagsChangedEvent;
 import net.petcu.store.service.mapper.ProductMapper;
+import net.petcu.store.web.rest.util.KeysetPaginationUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -55,6 +86,21 @@ class ProductResourceIT {
     @Autowired
     private ProductMapper productMapper;
 
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private ProductCoOccurrenceIndex productCoOccurrenceIndex;
+
+    @Autowired
+    private ProductTagIndex productTagIndex;
+
+    @Autowired
+    private ProductPriceIndex productPriceIndex;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
     @Autowired
     private EntityManager em;
 
@@ -93,7 +139,7 @@ class ProductResourceIT {
     @AfterEach
     public void cleanup() {
         if (insertedProduct != null) {
-            productRepository.delete(insertedProduct);
+            productRepository.deleteById(insertedProduct.getId());
             insertedProduct = null;
         }
     }
@@ -148,7 +194,7 @@ class ProductResourceIT {
 
         // Get all the productList
         restProductMockMvc
-            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .perform(get(ENTITY_API_URL).param("cursor", KeysetPaginationUtil.encodeCursor(product.getId() - 1)))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())))
@@ -156,6 +202,466 @@ class ProductResourceIT {
             .andExpect(jsonPath("$.[*].description").value(hasItem(DEFAULT_DESCRIPTION)));
     }
 
+    @Test
+    @Transactional
+    void getAllProductsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product secondProduct = productRepository.saveAndFlush(createUpdatedEntity());
+
+        // Get the first page, which points to the second one
+        String nextCursor = restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("cursor", KeysetPaginationUtil.encodeCursor(product.getId() - 1)).param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(KeysetPaginationUtil.NEXT_CURSOR_HEADER))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()))
+            .andReturn()
+            .getResponse()
+            .getHeader(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+
+        // Follow the cursor
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("cursor", nextCursor).param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(secondProduct.getId().intValue()))
+            .andExpect(jsonPath("$.[0].name").value(UPDATED_NAME));
+
+        productRepository.delete(secondProduct);
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsSortedById() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product secondProduct = productRepository.saveAndFlush(createUpdatedEntity());
+        String cursor = KeysetPaginationUtil.encodeCursor(product.getId() - 1);
+
+        // The default sort of the client is served by the keyset listing
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("cursor", cursor).param("sort", "id,asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(secondProduct.getId().intValue()));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("cursor", cursor).param("sort", "id"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()));
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("sort", "id,desc")).andExpect(status().isOk());
+
+        // Several sort parameters, the price one first
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("sort", "price,desc", "id,asc")).andExpect(status().isOk());
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("sort", "id,asc", "name,desc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithInvalidCursor() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("cursor", "not a cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void searchProductsRankedByRelevance() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(new Product().name("Roasting pan").description("Not for coffee"));
+        Product nameMatch = productRepository.saveAndFlush(new Product().name("Coffee grinder").description("Burr grinder"));
+
+        // The name match ranks above the description match
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/search").param("q", "coffee"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.[0].id").value(nameMatch.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(insertedProduct.getId().intValue()));
+
+        // A misspelled name still matches through trigram similarity
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/search").param("q", "cofee grinder"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nameMatch.getId().intValue()));
+
+        productRepository.delete(nameMatch);
+    }
+
+    @Test
+    @Transactional
+    void searchProductsWithBlankQuery() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "/search").param("q", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void suggestProductsByNamePrefix() throws Exception {
+        // Initialize the database, and the suggester as the test transaction never commits
+        List<Product> products = List.of(
+            productRepository.saveAndFlush(new Product().name("Suggested Lamp")),
+            productRepository.saveAndFlush(new Product().name("Suggested Desk")),
+            productRepository.saveAndFlush(new Product().name("Unrelated"))
+        );
+        products.forEach(saved -> productSuggester.onProductChanged(ProductChangedEvent.saved(productMapper.toDto(saved))));
+
+        try {
+            // Suggest by a case-insensitive name prefix
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL + "/suggest").param("prefix", "suggested ").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].name").value(containsInAnyOrder("Suggested Lamp", "Suggested Desk")));
+        } finally {
+            products.forEach(saved -> productSuggester.onProductChanged(ProductChangedEvent.deleted(saved.getId())));
+        }
+    }
+
+    @Test
+    @Transactional
+    void getProductsBoughtTogether() throws Exception {
+        // Initialize the database, and the index with paid orders as the test transaction never commits
+        Product lamp = productRepository.saveAndFlush(new Product().name("Related Lamp"));
+        Product bulb = productRepository.saveAndFlush(new Product().name("Related Bulb"));
+        Product shade = productRepository.saveAndFlush(new Product().name("Related Shade"));
+        productCoOccurrenceIndex.onOrderPaid(
+            new OrderPaidEvent(Long.MAX_VALUE - 1, new long[] { lamp.getId(), bulb.getId() }, new long[] { 1, 4 })
+        );
+        productCoOccurrenceIndex.onOrderPaid(
+            new OrderPaidEvent(Long.MAX_VALUE, new long[] { shade.getId(), lamp.getId(), bulb.getId() }, new long[] { 1, 1, 1 })
+        );
+
+        try {
+            // Get the products bought with the lamp, most often first
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL_ID + "/related", lamp.getId()).param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].id").value(bulb.getId().intValue()))
+                .andExpect(jsonPath("$.[0].name").value("Related Bulb"))
+                .andExpect(jsonPath("$.[1].id").value(shade.getId().intValue()));
+        } finally {
+            List.of(lamp, bulb, shade).forEach(saved ->
+                productCoOccurrenceIndex.onProductChanged(ProductChangedEvent.deleted(saved.getId()))
+            );
+        }
+    }
+
+    @Test
+    @Transactional
+    void getPriceHistoryAndPriceAtTime() throws Exception {
+        // Initialize the database with three successive prices
+        insertedProduct = productRepository.saveAndFlush(product);
+        Instant january = Instant.parse("2026-01-01T00:00:00Z");
+        Instant february = Instant.parse("2026-02-01T00:00:00Z");
+        Instant march = Instant.parse("2026-03-01T00:00:00Z");
+        Price januaryPrice = new Price().value(Money.of(10.0));
+        Price februaryPrice = new Price().value(Money.of(8.0));
+        Price marchPrice = new Price().value(Money.of(12.0));
+        em.persist(januaryPrice);
+        em.persist(februaryPrice);
+        em.persist(marchPrice);
+        em.persist(new PricedProduct().product(insertedProduct).price(januaryPrice).active(false).updatedDate(january));
+        em.persist(new PricedProduct().product(insertedProduct).price(februaryPrice).active(false).updatedDate(february));
+        em.persist(new PricedProduct().product(insertedProduct).price(marchPrice).active(true).updatedDate(march));
+        em.flush();
+
+        // Get the first page of the prices since mid-January, which points to the second one
+        String nextCursor = restProductMockMvc
+            .perform(
+                get(ENTITY_API_URL_ID + "/price-history", insertedProduct.getId()).param("from", "2026-01-15T00:00:00Z").param("size", "1")
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().exists(KeysetPaginationUtil.NEXT_CURSOR_HEADER))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].value").value(8.0))
+            .andReturn()
+            .getResponse()
+            .getHeader(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+
+        // Follow the cursor
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/price-history", insertedProduct.getId()).param("cursor", nextCursor).param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].value").value(12.0))
+            .andExpect(jsonPath("$.[0].active").value(true));
+
+        // The price active in mid-February, and none before the first one
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/price", insertedProduct.getId()).param("at", "2026-02-15T00:00:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.value").value(8.0))
+            .andExpect(jsonPath("$.effectiveDate").value(february.toString()));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/price", insertedProduct.getId()).param("at", "2025-12-31T00:00:00Z"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getProductsByIdsWithActivePrice() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product unpricedProduct = productRepository.saveAndFlush(createUpdatedEntity());
+        Price price = new Price().value(Money.of(12.5));
+        Price inactivePrice = new Price().value(Money.of(99.0));
+        em.persist(price);
+        em.persist(inactivePrice);
+        em.persist(new PricedProduct().product(insertedProduct).price(price).active(true));
+        em.persist(new PricedProduct().product(unpricedProduct).price(inactivePrice).active(false));
+        em.flush();
+        String ids = unpricedProduct.getId() + "," + Long.MAX_VALUE + "," + product.getId() + "," + product.getId();
+
+        // Get both products in the order of the ids, skipping the unknown one and the repeated one
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("ids", ids))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(unpricedProduct.getId().intValue()))
+            .andExpect(jsonPath("$.[0].price").doesNotExist())
+            .andExpect(jsonPath("$.[1].id").value(product.getId().intValue()))
+            .andExpect(jsonPath("$.[1].name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.[1].price").value(12.5));
+
+        // The same lookup through the request body
+        restProductMockMvc
+            .perform(post(ENTITY_API_URL + "/lookup").contentType(MediaType.APPLICATION_JSON).content("[" + product.getId() + "]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].price").value(12.5));
+    }
+
+    @Test
+    @Transactional
+    void getProductSummariesWithActivePrice() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product unpricedProduct = productRepository.saveAndFlush(createUpdatedEntity());
+        Price price = new Price().value(Money.of(12.5));
+        em.persist(price);
+        em.persist(new PricedProduct().product(insertedProduct).price(price).active(true));
+        em.flush();
+
+        // Get both summaries, without their description
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/summaries").param("cursor", KeysetPaginationUtil.encodeCursor(product.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()))
+            .andExpect(jsonPath("$.[0].name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.[0].price").value(12.5))
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[1].id").value(unpricedProduct.getId().intValue()))
+            .andExpect(jsonPath("$.[1].price").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void uploadProductImageAndServeItWithRanges() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        byte[] bytes = png.toByteArray();
+
+        // Upload the image, its thumbnail is generated synchronously in tests
+        String url = om.readTree(
+            restProductMockMvc
+                .perform(put(ENTITY_API_URL_ID + "/image", product.getId()).contentType(MediaType.IMAGE_PNG).content(bytes))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(containsString("/content/images/")))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+        )
+            .get("url")
+            .asText();
+        restProductMockMvc.perform(get(ENTITY_API_URL_ID + "/image", product.getId())).andExpect(jsonPath("$.url").value(url));
+
+        // Serve the whole image, then a range of it, then nothing when it is cached
+        String etag = restProductMockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.IMAGE_PNG))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+            .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+            .andExpect(content().bytes(bytes))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restProductMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=1-3"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + bytes.length))
+            .andExpect(content().bytes(Arrays.copyOfRange(bytes, 1, 4)));
+        restProductMockMvc
+            .perform(get(url).header(HttpHeaders.RANGE, "bytes=" + bytes.length + "-"))
+            .andExpect(status().isRequestedRangeNotSatisfiable());
+        restProductMockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        restProductMockMvc.perform(get(url.replace(".png", "-thumb.png"))).andExpect(status().isOk());
+
+        // Anything but an image is rejected
+        restProductMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/image", product.getId()).contentType(MediaType.IMAGE_PNG).content("not an image"))
+            .andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get("/content/images/unknown.png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void lookupProductsWithTooManyIds() throws Exception {
+        String ids = LongStream.rangeClosed(1, 501).mapToObj(Long::toString).collect(Collectors.joining(",", "[", "]"));
+
+        restProductMockMvc
+            .perform(post(ENTITY_API_URL + "/lookup").contentType(MediaType.APPLICATION_JSON).content(ids))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void updateProductTagsAndFilterByTags() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Replace the tags, names are normalized
+        String tags = "[\" Kitchen\", \"sale\"]";
+        restProductMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/tags", product.getId()).contentType(MediaType.APPLICATION_JSON).content(tags))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(contains("kitchen", "sale")));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/tags", product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").value(contains("kitchen", "sale")));
+
+        // Feed the tag index, as the test transaction never commits
+        productTagIndex.onProductChanged(ProductChangedEvent.saved(productMapper.toDto(product)));
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(product.getId(), Set.of("kitchen", "sale")));
+        String cursor = KeysetPaginationUtil.encodeCursor(product.getId() - 1);
+
+        try {
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL).param("cursor", cursor).param("tags", "kitchen,SALE").param("excludeTags", "garden"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()));
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL).param("cursor", cursor).param("anyTags", "garden").param("excludeTags", "sale"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(product.getId().intValue()))));
+        } finally {
+            productTagIndex.onProductChanged(ProductChangedEvent.deleted(product.getId()));
+        }
+    }
+
+    @Test
+    @Transactional
+    void getProductsByPriceRangeSortedByPrice() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+        Product cheaper = productRepository.saveAndFlush(createEntity());
+
+        // Feed the price index, as the test transaction never commits
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(product.getId(), null, null, Money.of(1_000_002.5)));
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(cheaper.getId(), null, null, Money.of(1_000_001.5)));
+        Supplier<MockHttpServletRequestBuilder> byPriceDescending = () ->
+            get(ENTITY_API_URL).param("minPrice", "1000001").param("maxPrice", "1000003").param("sort", "price,desc").param("size", "1");
+
+        try {
+            MvcResult first = restProductMockMvc
+                .perform(byPriceDescending.get())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(product.getId().intValue())))
+                .andExpect(header().exists(KeysetPaginationUtil.NEXT_CURSOR_HEADER))
+                .andReturn();
+            String cursor = first.getResponse().getHeader(KeysetPaginationUtil.NEXT_CURSOR_HEADER);
+            restProductMockMvc
+                .perform(byPriceDescending.get().param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(cheaper.getId().intValue())))
+                .andExpect(header().doesNotExist(KeysetPaginationUtil.NEXT_CURSOR_HEADER));
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL).param("minPrice", "1000002").param("sort", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())))
+                .andExpect(jsonPath("$.[*].id").value(not(hasItem(cheaper.getId().intValue()))));
+        } finally {
+            productPriceIndex.onProductChanged(ProductChangedEvent.deleted(product.getId()));
+            productPriceIndex.onProductChanged(ProductChangedEvent.deleted(cheaper.getId()));
+        }
+    }
+
+    @Test
+    @Transactional
+    void getProductsWithInvalidPriceRangeOrSort() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("minPrice", "10").param("maxPrice", "5")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("minPrice", "10.005")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("maxPrice", "cheap")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL).param("sort", "name")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void updateTagsOfNonExistingProduct() throws Exception {
+        restProductMockMvc
+            .perform(put(ENTITY_API_URL_ID + "/tags", Long.MAX_VALUE).contentType(MediaType.APPLICATION_JSON).content("[\"kitchen\"]"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void searchProductsWithFacets() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Feed the indexes, as the test transaction never commits
+        ProductChangedEvent saved = ProductChangedEvent.saved(productMapper.toDto(product));
+        productSearchIndex.onProductChanged(saved);
+        productTagIndex.onProductChanged(saved);
+        productTagIndex.onProductTagsChanged(new ProductTagsChangedEvent(product.getId(), Set.of("kitchen")));
+        productPriceIndex.onPriceChanged(new PriceChangedEvent(product.getId(), null, null, Money.of(30.0)));
+
+        try {
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL + "/search/faceted").param("q", DEFAULT_NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LINK))
+                .andExpect(jsonPath("$.products.[*].id").value(hasItem(product.getId().intValue())))
+                .andExpect(jsonPath("$.total").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.facets.available").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.facets.prices.[?(@.from == 25.0)].products").value(hasItem(greaterThanOrEqualTo(1))))
+                .andExpect(jsonPath("$.facets.tags.[?(@.name == 'kitchen')].products").value(hasItem(greaterThanOrEqualTo(1))));
+        } finally {
+            ProductChangedEvent deleted = ProductChangedEvent.deleted(product.getId());
+            productSearchIndex.onProductChanged(deleted);
+            productTagIndex.onProductChanged(deleted);
+            productPriceIndex.onProductChanged(deleted);
+        }
+    }
+
+    @Test
+    @Transactional
+    void searchProductsWithFacetsAndBlankQuery() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "/search/faceted").param("q", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void suggestProductsWithBlankPrefix() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "/suggest").param("prefix", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportProducts() throws Exception {
+        // Initialize the database, committed as the export runs in its own transaction
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        // Stream the catalog
+        MvcResult asyncResult = restProductMockMvc.perform(get(ENTITY_API_URL + "/export")).andExpect(request().asyncStarted()).andReturn();
+        restProductMockMvc
+            .perform(asyncDispatch(asyncResult))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(content().string(containsString("{\"id\":" + product.getId() + ",\"name\":\"" + DEFAULT_NAME + "\"")));
+    }
+
     @Test
     @Transactional
     void getProduct() throws Exception {
@@ -179,6 +685,53 @@ class ProductResourceIT {
         restProductMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getProductWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        insertedProduct = productRepository.saveAndFlush(product);
+
+        String eTag = restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Unchanged product
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().string(""));
+
+        // An update bumps the version
+        ProductDTO productDTO = new ProductDTO(product.getId(), UPDATED_NAME, UPDATED_DESCRIPTION);
+        restProductMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, product.getId()).contentType(MediaType.APPLICATION_JSON).content(om.writeValueAsBytes(productDTO))
+            )
+            .andExpect(status().isOk());
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithIfNoneMatch() throws Exception {
+        String eTag = restProductMockMvc
+            .perform(get(ENTITY_API_URL))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restProductMockMvc.perform(get(ENTITY_API_URL).header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+    }
+
     @Test
     @Transactional
     void putExistingProduct() throws Exception {
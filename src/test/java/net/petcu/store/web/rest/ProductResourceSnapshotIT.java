@@ -0,0 +1,155 @@
+package net.petcu.store.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Optional;
+import net.petcu.store.IntegrationTest;
+import net.petcu.store.domain.Money;
+import net.petcu.store.domain.Price;
+import net.petcu.store.domain.PricedProduct;
+import net.petcu.store.domain.Product;
+import net.petcu.store.repository.ProductRepository;
+import net.petcu.store.service.PricedProductService;
+import net.petcu.store.service.catalog.CatalogItem;
+import net.petcu.store.service.catalog.CatalogSnapshot;
+import net.petcu.store.service.event.PricedProductChangedEvent;
+import net.petcu.store.service.event.ProductChangedEvent;
+import net.petcu.store.service.mapper.ProductMapper;
+import net.petcu.store.web.rest.util.KeysetPaginationUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link ProductResource} REST controller reading through the {@link CatalogSnapshot}.
+ * <p>
+ * Tests roll back, so the committed events the snapshot listens to are recorded and handed to it explicitly.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@RecordApplicationEvents
+@TestPropertySource(properties = "application.catalog.snapshot-enabled=true")
+class ProductResourceSnapshotIT {
+
+    private static final String ENTITY_API_URL = "/api/products";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private PricedProductService pricedProductService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restProductMockMvc;
+
+    private Product insertedProduct;
+
+    @AfterEach
+    public void cleanup() {
+        if (insertedProduct != null) {
+            catalogSnapshot.onProductChanged(ProductChangedEvent.deleted(insertedProduct.getId()));
+            insertedProduct = null;
+        }
+    }
+
+    @Test
+    @Transactional
+    void getProductsWithActivePriceFollowPricedProductEdits() throws Exception {
+        // Initialize the database and the snapshot
+        assertThat(catalogSnapshot.isReady()).isTrue();
+        insertedProduct = productRepository.saveAndFlush(ProductResourceIT.createEntity());
+        catalogSnapshot.onProductChanged(ProductChangedEvent.saved(productMapper.toDto(insertedProduct)));
+        Price price = new Price().value(Money.of(12.5));
+        em.persist(price);
+
+        // Activate a price through the priced products
+        PricedProduct pricedProduct = pricedProductService.save(
+            new PricedProduct().product(insertedProduct).price(price).active(true).updatedDate(Instant.now())
+        );
+        em.flush();
+        committed();
+
+        // Both the lookup and the listing are served by the snapshot with the active price
+        assertThat(catalogSnapshot.find(insertedProduct.getId())).isPresent();
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("ids", insertedProduct.getId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(insertedProduct.getId().intValue()))
+            .andExpect(jsonPath("$.[0].price").value(12.5));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/summaries").param("cursor", KeysetPaginationUtil.encodeCursor(insertedProduct.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(insertedProduct.getId().intValue()))
+            .andExpect(jsonPath("$.[0].price").value(12.5));
+
+        // Deactivate it
+        PricedProduct deactivation = new PricedProduct().active(false);
+        deactivation.setId(pricedProduct.getId());
+        pricedProductService.partialUpdate(deactivation);
+        em.flush();
+        committed();
+
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL).param("ids", insertedProduct.getId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(insertedProduct.getId().intValue()))
+            .andExpect(jsonPath("$.[0].price").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getProductReturnsTheBodyOfItsETagWhileTheSnapshotLags() throws Exception {
+        // Initialize the database and the snapshot
+        insertedProduct = productRepository.saveAndFlush(ProductResourceIT.createEntity());
+        catalogSnapshot.onProductChanged(ProductChangedEvent.saved(productMapper.toDto(insertedProduct)));
+        String eTag = restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, insertedProduct.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Update the product without the snapshot having applied it yet, as between the commit and its listeners
+        insertedProduct.name("BBBBBBBBBB");
+        productRepository.saveAndFlush(insertedProduct);
+        assertThat(catalogSnapshot.find(insertedProduct.getId()).map(CatalogItem::name)).isEqualTo(Optional.of("AAAAAAAAAA"));
+
+        // The new version comes with the new body, never with the old one
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, insertedProduct.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + insertedProduct.getVersion() + "\""))
+            .andExpect(jsonPath("$.name").value("BBBBBBBBBB"));
+    }
+
+    private void committed() {
+        applicationEvents.stream(PricedProductChangedEvent.class).forEach(catalogSnapshot::onPricedProductChanged);
+        applicationEvents.clear();
+    }
+}